@@ -50,6 +50,9 @@ dependencies {
     implementation("org.springframework.boot:spring-boot-starter-validation")
     implementation("org.springframework.boot:spring-boot-starter-aop")
 
+    // Binary encoding (application/cbor)
+    implementation("com.fasterxml.jackson.dataformat:jackson-dataformat-cbor")
+
     // OpenAPI / Swagger
     implementation("org.springdoc:springdoc-openapi-starter-webmvc-ui:$springdocVersion")
 
@@ -59,6 +62,7 @@ dependencies {
 
     // Cache
     implementation("com.github.ben-manes.caffeine:caffeine:$caffeineVersion")
+    implementation("org.springframework.boot:spring-boot-starter-data-redis")
 
     // Lombok
     compileOnly("org.projectlombok:lombok:$lombokVersion")
@@ -0,0 +1,64 @@
+package com.xay.videos_recommender.api;
+
+import com.xay.videos_recommender.model.dto.request.BatchFeedRequest;
+import com.xay.videos_recommender.model.dto.response.BatchFeedResult;
+import com.xay.videos_recommender.model.dto.response.ErrorResponse;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.Parameter;
+import io.swagger.v3.oas.annotations.media.Content;
+import io.swagger.v3.oas.annotations.media.Schema;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+@Tag(name = "Batch Feed API", description = "Multi-user feed rendering for server-side callers")
+@RequestMapping("/v1")
+public interface BatchFeedApi {
+
+    @Operation(
+            summary = "Get feeds for many users",
+            description = "Returns the first feed page for up to 500 users of one tenant as newline-delimited JSON, " +
+                    "one result per user, streamed as each user is ready. Tenant configuration, content candidates " +
+                    "and video details are resolved once for the whole batch."
+    )
+    @ApiResponse(
+            responseCode = "200",
+            description = "One JSON object per line, in completion order",
+            content = @Content(mediaType = MediaType.APPLICATION_NDJSON_VALUE, schema = @Schema(implementation = BatchFeedResult.class))
+    )
+    @ApiResponse(
+            responseCode = "400",
+            description = "Invalid request payload",
+            content = @Content(mediaType = MediaType.APPLICATION_JSON_VALUE, schema = @Schema(implementation = ErrorResponse.class))
+    )
+    @ApiResponse(
+            responseCode = "404",
+            description = "Tenant not found",
+            content = @Content(mediaType = MediaType.APPLICATION_JSON_VALUE, schema = @Schema(implementation = ErrorResponse.class))
+    )
+    @ApiResponse(
+            responseCode = "500",
+            description = "Internal server error",
+            content = @Content(mediaType = MediaType.APPLICATION_JSON_VALUE, schema = @Schema(implementation = ErrorResponse.class))
+    )
+    @PostMapping(value = "/feed/batch", consumes = MediaType.APPLICATION_JSON_VALUE, produces = MediaType.APPLICATION_NDJSON_VALUE)
+    @ResponseStatus(HttpStatus.OK)
+    ResponseEntity<StreamingResponseBody> getFeeds(
+            @Parameter(description = "Tenant identifier", required = true, example = "1")
+            @RequestHeader("X-Tenant-ID") Long tenantId,
+
+            @Parameter(description = "Request correlation ID for tracing", example = "req-12345")
+            @RequestHeader(value = "X-Request-ID", required = false) String requestId,
+
+            @io.swagger.v3.oas.annotations.parameters.RequestBody(
+                    description = "Users to render feeds for",
+                    required = true,
+                    content = @Content(schema = @Schema(implementation = BatchFeedRequest.class))
+            )
+            @RequestBody BatchFeedRequest batchFeedRequest
+    );
+}
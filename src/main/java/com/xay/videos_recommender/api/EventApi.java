@@ -21,12 +21,17 @@ public interface EventApi {
     @Operation(
             summary = "Post user events",
             description = "Submit user interaction events (video_watch, video_like, video_share) for processing. " +
-                    "Events are queued for async aggregation into user profiles."
+                    "Events are queued for async aggregation into user profiles. " +
+                    "Retries are idempotent: a repeated X-Request-ID, or an event already received " +
+                    "(same user, video, type and timestamp), is acknowledged but not queued again."
     )
     @ApiResponse(
             responseCode = "202",
             description = "Events accepted for processing",
-            content = @Content(mediaType = MediaType.APPLICATION_JSON_VALUE, schema = @Schema(implementation = EventResponse.class))
+            content = {
+                    @Content(mediaType = MediaType.APPLICATION_JSON_VALUE, schema = @Schema(implementation = EventResponse.class)),
+                    @Content(mediaType = MediaType.APPLICATION_CBOR_VALUE, schema = @Schema(implementation = EventResponse.class))
+            }
     )
     @ApiResponse(
             responseCode = "400",
@@ -38,12 +43,27 @@ public interface EventApi {
             description = "Tenant not found",
             content = @Content(mediaType = MediaType.APPLICATION_JSON_VALUE, schema = @Schema(implementation = ErrorResponse.class))
     )
+    @ApiResponse(
+            responseCode = "409",
+            description = "An earlier attempt with this X-Request-ID or these events is still being queued; " +
+                    "no events were accepted. Retry after the Retry-After seconds",
+            content = @Content(mediaType = MediaType.APPLICATION_JSON_VALUE, schema = @Schema(implementation = ErrorResponse.class))
+    )
+    @ApiResponse(
+            responseCode = "503",
+            description = "Event buffer full; no events were accepted. Retry after the Retry-After seconds",
+            content = @Content(mediaType = MediaType.APPLICATION_JSON_VALUE, schema = @Schema(implementation = ErrorResponse.class))
+    )
     @ApiResponse(
             responseCode = "500",
             description = "Internal server error",
             content = @Content(mediaType = MediaType.APPLICATION_JSON_VALUE, schema = @Schema(implementation = ErrorResponse.class))
     )
-    @PostMapping(value = "/events", consumes = MediaType.APPLICATION_JSON_VALUE, produces = MediaType.APPLICATION_JSON_VALUE)
+    @PostMapping(
+            value = "/events",
+            consumes = {MediaType.APPLICATION_JSON_VALUE, MediaType.APPLICATION_CBOR_VALUE},
+            produces = {MediaType.APPLICATION_JSON_VALUE, MediaType.APPLICATION_CBOR_VALUE}
+    )
     @ResponseStatus(HttpStatus.ACCEPTED)
     ResponseEntity<EventResponse> postEvents(
             @Parameter(description = "Tenant identifier", required = true, example = "1")
@@ -58,7 +78,10 @@ public interface EventApi {
             @io.swagger.v3.oas.annotations.parameters.RequestBody(
                     description = "Batch of user events",
                     required = true,
-                    content = @Content(schema = @Schema(implementation = EventRequest.class))
+                    content = {
+                            @Content(mediaType = MediaType.APPLICATION_JSON_VALUE, schema = @Schema(implementation = EventRequest.class)),
+                            @Content(mediaType = MediaType.APPLICATION_CBOR_VALUE, schema = @Schema(implementation = EventRequest.class))
+                    }
             )
             @RequestBody EventRequest eventRequest
     );
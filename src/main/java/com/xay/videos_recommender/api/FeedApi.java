@@ -2,6 +2,7 @@ package com.xay.videos_recommender.api;
 
 import com.xay.videos_recommender.model.dto.response.ErrorResponse;
 import com.xay.videos_recommender.model.dto.response.FeedResponse;
+import com.xay.videos_recommender.model.dto.response.FeedSyncResponse;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.Parameter;
 import io.swagger.v3.oas.annotations.media.Content;
@@ -10,12 +11,20 @@ import io.swagger.v3.oas.annotations.responses.ApiResponse;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
-import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
+/**
+ * Feed endpoints, shared by the blocking and non-blocking controllers.
+ *
+ * @param <F> feed response type: {@code ResponseEntity<FeedResponse>}, or a future of it when non-blocking
+ * @param <S> sync response type: {@code ResponseEntity<FeedSyncResponse>}, or a future of it when non-blocking
+ */
 @Tag(name = "Feed API", description = "Personalized video feed endpoints")
 @RequestMapping("/v1")
-public interface FeedApi {
+public interface FeedApi<F, S> {
+
+    /** Page size when a feed request has no limit; also assumed by the pre-dispatch revalidation filter. */
+    String DEFAULT_LIMIT = "5";
 
     @Operation(
             summary = "Get personalized feed",
@@ -25,7 +34,10 @@ public interface FeedApi {
     @ApiResponse(
             responseCode = "200",
             description = "Feed retrieved successfully",
-            content = @Content(mediaType = MediaType.APPLICATION_JSON_VALUE, schema = @Schema(implementation = FeedResponse.class))
+            content = {
+                    @Content(mediaType = MediaType.APPLICATION_JSON_VALUE, schema = @Schema(implementation = FeedResponse.class)),
+                    @Content(mediaType = MediaType.APPLICATION_CBOR_VALUE, schema = @Schema(implementation = FeedResponse.class))
+            }
     )
     @ApiResponse(
             responseCode = "304",
@@ -47,9 +59,9 @@ public interface FeedApi {
             description = "Internal server error",
             content = @Content(mediaType = MediaType.APPLICATION_JSON_VALUE, schema = @Schema(implementation = ErrorResponse.class))
     )
-    @GetMapping(value = "/feed", produces = MediaType.APPLICATION_JSON_VALUE)
+    @GetMapping(value = "/feed", produces = {MediaType.APPLICATION_JSON_VALUE, MediaType.APPLICATION_CBOR_VALUE})
     @ResponseStatus(HttpStatus.OK)
-    ResponseEntity<FeedResponse> getFeed(
+    F getFeed(
             @Parameter(description = "Tenant identifier", required = true, example = "1")
             @RequestHeader("X-Tenant-ID") Long tenantId,
 
@@ -59,13 +71,61 @@ public interface FeedApi {
             @Parameter(description = "Request correlation ID for tracing", example = "req-12345")
             @RequestHeader(value = "X-Request-ID", required = false) String requestId,
 
-            @Parameter(description = "ETag from previous response for conditional request", example = "\"1x1\"")
+            @Parameter(description = "ETag from previous response for conditional request", example = "\"5c1e09a2x0\"")
             @RequestHeader(value = "If-None-Match", required = false) String ifNoneMatch,
 
             @Parameter(description = "Maximum number of items to return", example = "5")
-            @RequestParam(defaultValue = "5") int limit,
+            @RequestParam(defaultValue = DEFAULT_LIMIT) int limit,
 
             @Parameter(description = "Pagination cursor from previous response", example = "NQ")
             @RequestParam(required = false) String cursor
     );
+
+    @Operation(
+            summary = "Sync feed changes",
+            description = "Returns only the changes to the top of the user's feed since the given feed version: " +
+                    "removed ids, moved ids, and inserted items with their positions. Returns a full first page " +
+                    "when no version is given or the base version is no longer retained."
+    )
+    @ApiResponse(
+            responseCode = "200",
+            description = "Delta or full feed",
+            content = {
+                    @Content(mediaType = MediaType.APPLICATION_JSON_VALUE, schema = @Schema(implementation = FeedSyncResponse.class)),
+                    @Content(mediaType = MediaType.APPLICATION_CBOR_VALUE, schema = @Schema(implementation = FeedSyncResponse.class))
+            }
+    )
+    @ApiResponse(
+            responseCode = "304",
+            description = "Not Modified - Feed version is unchanged",
+            content = @Content
+    )
+    @ApiResponse(
+            responseCode = "400",
+            description = "Invalid request parameters",
+            content = @Content(mediaType = MediaType.APPLICATION_JSON_VALUE, schema = @Schema(implementation = ErrorResponse.class))
+    )
+    @ApiResponse(
+            responseCode = "404",
+            description = "Tenant not found",
+            content = @Content(mediaType = MediaType.APPLICATION_JSON_VALUE, schema = @Schema(implementation = ErrorResponse.class))
+    )
+    @GetMapping(value = "/feed/changes", produces = {MediaType.APPLICATION_JSON_VALUE, MediaType.APPLICATION_CBOR_VALUE})
+    @ResponseStatus(HttpStatus.OK)
+    S getFeedChanges(
+            @Parameter(description = "Tenant identifier", required = true, example = "1")
+            @RequestHeader("X-Tenant-ID") Long tenantId,
+
+            @Parameter(description = "Hashed user identifier", required = true, example = "a4f2e8c1b9d3e7f6")
+            @RequestHeader("X-User-ID") String userId,
+
+            @Parameter(description = "Request correlation ID for tracing", example = "req-12345")
+            @RequestHeader(value = "X-Request-ID", required = false) String requestId,
+
+            @Parameter(description = "Feed version the client currently holds", example = "1545734562")
+            @RequestParam(required = false) Integer since,
+
+            @Parameter(description = "Size of the top-of-feed window to sync", example = "5")
+            @RequestParam(defaultValue = DEFAULT_LIMIT) int limit
+    );
 }
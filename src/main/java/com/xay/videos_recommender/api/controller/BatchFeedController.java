@@ -0,0 +1,59 @@
+package com.xay.videos_recommender.api.controller;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.xay.videos_recommender.api.BatchFeedApi;
+import com.xay.videos_recommender.model.dto.request.BatchFeedRequest;
+import com.xay.videos_recommender.service.FeedService;
+import com.xay.videos_recommender.service.TenantService;
+import com.xay.videos_recommender.util.LogExecutionTime;
+import jakarta.validation.Valid;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.List;
+
+@RestController
+@RequiredArgsConstructor
+public class BatchFeedController implements BatchFeedApi {
+
+    private static final int DEFAULT_LIMIT = 5;
+
+    private final FeedService feedService;
+    private final TenantService tenantService;
+    private final ObjectMapper objectMapper;
+
+    @Override
+    @LogExecutionTime
+    public ResponseEntity<StreamingResponseBody> getFeeds(
+            Long tenantId,
+            String requestId,
+            @Valid @RequestBody BatchFeedRequest batchFeedRequest
+    ) {
+        // Resolve the tenant before streaming starts so an unknown tenant still maps to 404
+        tenantService.getTenant(tenantId);
+
+        List<String> userIds = batchFeedRequest.userIds().stream().distinct().toList();
+        int limit = batchFeedRequest.limit() != null ? batchFeedRequest.limit() : DEFAULT_LIMIT;
+
+        StreamingResponseBody body = out -> feedService.generateFeeds(tenantId, userIds, limit, result -> {
+            try {
+                out.write(objectMapper.writeValueAsBytes(result));
+                out.write('\n');
+                out.flush();
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        });
+
+        return ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_NDJSON)
+                .header("X-Request-ID", requestId != null ? requestId : "")
+                .body(body);
+    }
+}
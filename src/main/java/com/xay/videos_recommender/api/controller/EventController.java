@@ -3,6 +3,7 @@ package com.xay.videos_recommender.api.controller;
 import com.xay.videos_recommender.api.EventApi;
 import com.xay.videos_recommender.model.dto.request.EventRequest;
 import com.xay.videos_recommender.model.dto.response.EventResponse;
+import com.xay.videos_recommender.service.EventDeduplicator;
 import com.xay.videos_recommender.service.EventQueueService;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
@@ -18,6 +19,7 @@ import java.util.UUID;
 public class EventController implements EventApi {
 
     private final EventQueueService eventQueueService;
+    private final EventDeduplicator eventDeduplicator;
 
     @Override
     public ResponseEntity<EventResponse> postEvents(
@@ -26,7 +28,9 @@ public class EventController implements EventApi {
             String requestId,
             @Valid @RequestBody EventRequest eventRequest
     ) {
-        eventQueueService.enqueue(tenantId, userId, eventRequest.events());
+        // Retries get the original response; their events are already queued
+        eventDeduplicator.enqueueOnce(tenantId, userId, requestId, eventRequest.events(),
+                unseen -> eventQueueService.enqueue(tenantId, userId, unseen));
 
         String responseRequestId = requestId != null ? requestId : UUID.randomUUID().toString();
 
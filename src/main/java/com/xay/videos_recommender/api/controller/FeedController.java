@@ -2,20 +2,18 @@ package com.xay.videos_recommender.api.controller;
 
 import com.xay.videos_recommender.api.FeedApi;
 import com.xay.videos_recommender.model.dto.response.FeedResponse;
+import com.xay.videos_recommender.model.dto.response.FeedSyncResponse;
 import com.xay.videos_recommender.service.FeedService;
 import com.xay.videos_recommender.util.LogExecutionTime;
 import lombok.RequiredArgsConstructor;
-import org.springframework.http.CacheControl;
-import org.springframework.http.HttpStatus;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.RestController;
 
-import java.util.Optional;
-import java.util.concurrent.TimeUnit;
-
 @RestController
 @RequiredArgsConstructor
-public class FeedController implements FeedApi {
+@ConditionalOnProperty(name = "app.feed.execution-mode", havingValue = "blocking", matchIfMissing = true)
+public class FeedController implements FeedApi<ResponseEntity<FeedResponse>, ResponseEntity<FeedSyncResponse>> {
 
     private final FeedService feedService;
 
@@ -29,18 +27,18 @@ public class FeedController implements FeedApi {
             int limit,
             String cursor
     ) {
-        Optional<FeedResponse> response = feedService.generateFeed(tenantId, userId, limit, cursor, ifNoneMatch);
-        
-        if (response.isEmpty()) {
-            return ResponseEntity.status(HttpStatus.NOT_MODIFIED).build();
-        }
+        return FeedResponses.feed(feedService.generateFeed(tenantId, userId, limit, cursor, ifNoneMatch), requestId);
+    }
 
-        FeedResponse feed = response.get();
-        return ResponseEntity.ok()
-                .cacheControl(CacheControl.maxAge(30, TimeUnit.SECONDS).cachePrivate())
-                .eTag(feed.eTag())
-                .header("X-Feed-Type", feed.meta().feedType())
-                .header("X-Request-ID", requestId != null ? requestId : "")
-                .body(feed);
+    @Override
+    @LogExecutionTime
+    public ResponseEntity<FeedSyncResponse> getFeedChanges(
+            Long tenantId,
+            String userId,
+            String requestId,
+            Integer since,
+            int limit
+    ) {
+        return FeedResponses.changes(feedService.syncFeed(tenantId, userId, since, limit), requestId);
     }
 }
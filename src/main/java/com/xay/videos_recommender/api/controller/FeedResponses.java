@@ -0,0 +1,40 @@
+package com.xay.videos_recommender.api.controller;
+
+import com.xay.videos_recommender.model.dto.response.FeedResponse;
+import com.xay.videos_recommender.model.dto.response.FeedSyncResponse;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Feed response headers shared by {@link FeedController} and {@link NonBlockingFeedController}; an empty result
+ * is 304 Not Modified.
+ */
+final class FeedResponses {
+
+    private FeedResponses() {}
+
+    static ResponseEntity<FeedResponse> feed(Optional<FeedResponse> response, String requestId) {
+        return response
+                .map(feed -> ok(feed.meta().feedType(), requestId)
+                        .eTag(feed.eTag())
+                        .body(feed))
+                .orElseGet(() -> ResponseEntity.status(HttpStatus.NOT_MODIFIED).build());
+    }
+
+    static ResponseEntity<FeedSyncResponse> changes(Optional<FeedSyncResponse> response, String requestId) {
+        return response
+                .map(sync -> ok(sync.meta().feedType(), requestId).body(sync))
+                .orElseGet(() -> ResponseEntity.status(HttpStatus.NOT_MODIFIED).build());
+    }
+
+    private static ResponseEntity.BodyBuilder ok(String feedType, String requestId) {
+        return ResponseEntity.ok()
+                .cacheControl(CacheControl.maxAge(30, TimeUnit.SECONDS).cachePrivate())
+                .header("X-Feed-Type", feedType)
+                .header("X-Request-ID", requestId != null ? requestId : "");
+    }
+}
@@ -0,0 +1,53 @@
+package com.xay.videos_recommender.api.controller;
+
+import com.xay.videos_recommender.api.FeedApi;
+import com.xay.videos_recommender.model.dto.response.FeedResponse;
+import com.xay.videos_recommender.model.dto.response.FeedSyncResponse;
+import com.xay.videos_recommender.service.NonBlockingFeedService;
+import com.xay.videos_recommender.util.LogExecutionTime;
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Feed endpoints on servlet async: the request thread is released while a cache miss is built.
+ * Responses match {@link FeedController}.
+ */
+@RestController
+@RequiredArgsConstructor
+@ConditionalOnProperty(name = "app.feed.execution-mode", havingValue = "non-blocking")
+public class NonBlockingFeedController implements FeedApi<CompletableFuture<ResponseEntity<FeedResponse>>,
+        CompletableFuture<ResponseEntity<FeedSyncResponse>>> {
+
+    private final NonBlockingFeedService nonBlockingFeedService;
+
+    @Override
+    @LogExecutionTime
+    public CompletableFuture<ResponseEntity<FeedResponse>> getFeed(
+            Long tenantId,
+            String userId,
+            String requestId,
+            String ifNoneMatch,
+            int limit,
+            String cursor
+    ) {
+        return nonBlockingFeedService.generateFeed(tenantId, userId, limit, cursor, ifNoneMatch)
+                .thenApply(response -> FeedResponses.feed(response, requestId));
+    }
+
+    @Override
+    @LogExecutionTime
+    public CompletableFuture<ResponseEntity<FeedSyncResponse>> getFeedChanges(
+            Long tenantId,
+            String userId,
+            String requestId,
+            Integer since,
+            int limit
+    ) {
+        return nonBlockingFeedService.syncFeed(tenantId, userId, since, limit)
+                .thenApply(response -> FeedResponses.changes(response, requestId));
+    }
+}
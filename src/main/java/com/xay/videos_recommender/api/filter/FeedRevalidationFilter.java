@@ -0,0 +1,79 @@
+package com.xay.videos_recommender.api.filter;
+
+import com.xay.videos_recommender.api.FeedApi;
+import com.xay.videos_recommender.cache.FeedVersionRegistry;
+import com.xay.videos_recommender.util.CursorUtil;
+import io.micrometer.core.instrument.Counter;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.http.HttpHeaders;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+
+/**
+ * Answers conditional {@code GET /v1/feed} requests with 304 before MVC dispatch when the
+ * {@link FeedVersionRegistry} shows the client's page is current. Anything it cannot decide
+ * (missing or malformed headers, unknown users, pinned cursors) passes through unchanged.
+ */
+public class FeedRevalidationFilter extends OncePerRequestFilter {
+
+    private static final int DEFAULT_LIMIT = Integer.parseInt(FeedApi.DEFAULT_LIMIT);
+
+    private final FeedVersionRegistry feedVersionRegistry;
+    private final Counter fastPathCounter;
+
+    public FeedRevalidationFilter(FeedVersionRegistry feedVersionRegistry, Counter fastPathCounter) {
+        this.feedVersionRegistry = feedVersionRegistry;
+        this.fastPathCounter = fastPathCounter;
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return !"GET".equals(request.getMethod()) || request.getHeader(HttpHeaders.IF_NONE_MATCH) == null;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        if (isNotModified(request)) {
+            fastPathCounter.increment();
+            response.setStatus(HttpServletResponse.SC_NOT_MODIFIED);
+            return;
+        }
+        filterChain.doFilter(request, response);
+    }
+
+    private boolean isNotModified(HttpServletRequest request) {
+        String tenantHeader = request.getHeader("X-Tenant-ID");
+        String userId = request.getHeader("X-User-ID");
+        if (tenantHeader == null || userId == null || userId.isEmpty()) {
+            return false;
+        }
+
+        long tenantId;
+        int limit;
+        try {
+            tenantId = Long.parseLong(tenantHeader);
+            String limitParam = request.getParameter("limit");
+            limit = limitParam != null ? Integer.parseInt(limitParam) : DEFAULT_LIMIT;
+        } catch (NumberFormatException e) {
+            return false;
+        }
+        if (limit < 1) {
+            return false;
+        }
+
+        long cursorState = CursorUtil.decodeRaw(request.getParameter("cursor"));
+        return feedVersionRegistry.matches(
+                tenantId,
+                userId,
+                CursorUtil.feedVersion(cursorState),
+                CursorUtil.offset(cursorState),
+                limit,
+                request.getHeader(HttpHeaders.IF_NONE_MATCH)
+        );
+    }
+}
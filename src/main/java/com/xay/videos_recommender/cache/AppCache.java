@@ -1,15 +1,18 @@
 package com.xay.videos_recommender.cache;
 
 import com.xay.videos_recommender.model.domain.ContentCandidate;
+import com.xay.videos_recommender.model.domain.UserSignals;
 import com.xay.videos_recommender.model.entity.Tenant;
-import com.xay.videos_recommender.model.entity.UserProfile;
 
+import java.util.Collection;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
 
 /**
- * Application cache interface for tenant, user profile, and content candidates.
- * In production, this would be backed by Redis.
+ * Application cache interface for tenant, user signals, and content candidates.
+ * Backed by per-node Caffeine caches, or by Redis with a per-node near cache (app.cache.backend=redis).
  */
 public interface AppCache {
 
@@ -18,13 +21,35 @@ public interface AppCache {
     void putTenant(Long tenantId, Tenant tenant);
     void evictTenant(Long tenantId);
 
-    // User profile cache operations
-    Optional<UserProfile> getUserProfile(Long tenantId, String userId);
-    void putUserProfile(Long tenantId, String userId, UserProfile profile);
-    void evictUserProfile(Long tenantId, String userId);
+    // Non-blocking lookup for the non-blocking feed path; in-process implementations complete immediately
+    default CompletableFuture<Optional<Tenant>> getTenantAsync(Long tenantId) {
+        return CompletableFuture.completedFuture(getTenant(tenantId));
+    }
+
+    // User signals cache operations; signals are parsed from the user's profile once, before caching
+    Optional<UserSignals> getUserSignals(Long tenantId, String userId);
+    Map<String, UserSignals> getUserSignals(Long tenantId, Collection<String> userIds);
+    void putUserSignals(Long tenantId, String userId, UserSignals signals);
+
+    // Multi-set; remote implementations write all users' signals in one round trip
+    default void putUserSignals(Long tenantId, Map<String, UserSignals> signals) {
+        signals.forEach((userId, userSignals) -> putUserSignals(tenantId, userId, userSignals));
+    }
+
+    void evictUserSignals(Long tenantId, String userId);
+
+    // Confirmed absences (users without a profile), kept briefly; implementations may not cache them.
+    // Putting or evicting the user's signals clears its absence
+    default boolean isUserProfileAbsent(Long tenantId, String userId) {
+        return false;
+    }
+
+    default void putUserProfileAbsent(Long tenantId, String userId) {
+    }
 
     // Content candidates cache operations
     Optional<List<ContentCandidate>> getContentCandidates(Long tenantId);
-    void putContentCandidates(Long tenantId, List<ContentCandidate> candidates);
+    // version is the tenant's content candidates version read before the candidates were loaded
+    void putContentCandidates(Long tenantId, List<ContentCandidate> candidates, int version);
     void evictContentCandidates(Long tenantId);
 }
@@ -0,0 +1,14 @@
+package com.xay.videos_recommender.cache;
+
+import java.util.Map;
+
+/**
+ * Estimated heap held by one cache, in total and per tenant.
+ */
+public record CacheFootprint(
+        String cache,
+        long budgetBytes,
+        long estimatedBytes,
+        long entries,
+        Map<Long, Long> bytesByTenant
+) {}
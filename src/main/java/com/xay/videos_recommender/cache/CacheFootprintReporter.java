@@ -0,0 +1,12 @@
+package com.xay.videos_recommender.cache;
+
+import java.util.List;
+
+/**
+ * Implemented by caches whose entries are weighed against the {@link CacheMemoryBudget}.
+ * Reports walk every entry, so they are meant for the actuator endpoint, not for hot paths.
+ */
+public interface CacheFootprintReporter {
+
+    List<CacheFootprint> footprints();
+}
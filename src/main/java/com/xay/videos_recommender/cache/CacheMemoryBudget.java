@@ -0,0 +1,100 @@
+package com.xay.videos_recommender.cache;
+
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+/**
+ * One heap budget for the in-process caches, split into fixed shares per cache.
+ * Each cache bounds the {@link RetainedSize} estimate of its entries by its share, so total cache
+ * heap is predictable regardless of how large individual tenants' entries are.
+ *
+ * Per-user caches further divide their share among tenants: the reserved part is guaranteed to each
+ * tenant partition and the rest is lent to whichever tenants are evicting the most.
+ */
+@Slf4j
+@Component
+public class CacheMemoryBudget {
+
+    @Value("${app.cache.memory-budget.total-bytes}")
+    private long totalBytes;
+
+    @Value("${app.cache.memory-budget.tenant-share}")
+    private double tenantShare;
+
+    @Value("${app.cache.memory-budget.user-profile-share}")
+    private double userProfileShare;
+
+    @Value("${app.cache.memory-budget.content-candidates-share}")
+    private double contentCandidatesShare;
+
+    @Value("${app.cache.memory-budget.feed-share}")
+    private double feedShare;
+
+    @Value("${app.cache.memory-budget.feed-snapshots-share}")
+    private double feedSnapshotsShare;
+
+    @Value("${app.cache.tenant-quota.reserved-share}")
+    private double tenantReservedShare;
+
+    @Value("${app.cache.tenant-quota.max-partitions}")
+    private int maxTenantPartitions;
+
+    @Value("${app.cache.tenant-quota.max-overflow-share}")
+    private double maxTenantOverflowShare;
+
+    @PostConstruct
+    public void init() {
+        double shares = tenantShare + userProfileShare + contentCandidatesShare + feedShare + feedSnapshotsShare;
+        if (shares > 1.0 + 1e-9) {
+            throw new IllegalStateException("Cache memory budget shares add up to " + shares + ", more than 1.0");
+        }
+        log.info("Cache memory budget: totalBytes={}, tenant={}, userProfile={}, contentCandidates={}, " +
+                        "feed={}, feedSnapshots={}",
+                totalBytes, tenantBytes(), userProfileBytes(), contentCandidatesBytes(), feedBytes(), feedSnapshotsBytes());
+    }
+
+    public long totalBytes() {
+        return totalBytes;
+    }
+
+    public long tenantBytes() {
+        return share(tenantShare);
+    }
+
+    public long userProfileBytes() {
+        return share(userProfileShare);
+    }
+
+    public long contentCandidatesBytes() {
+        return share(contentCandidatesShare);
+    }
+
+    public long feedBytes() {
+        return share(feedShare);
+    }
+
+    public long feedSnapshotsBytes() {
+        return share(feedSnapshotsShare);
+    }
+
+    /** Share of a per-user cache's budget split evenly into guaranteed per-tenant minimums. */
+    public double tenantReservedShare() {
+        return tenantReservedShare;
+    }
+
+    /** Tenants with their own partition; the rest share one. Also bounds the tenant tag on cache meters. */
+    public int maxTenantPartitions() {
+        return maxTenantPartitions;
+    }
+
+    /** Most of the overflow pool a single tenant may borrow. */
+    public double maxTenantOverflowShare() {
+        return maxTenantOverflowShare;
+    }
+
+    private long share(double fraction) {
+        return (long) (totalBytes * fraction);
+    }
+}
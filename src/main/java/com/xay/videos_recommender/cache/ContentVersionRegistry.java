@@ -0,0 +1,28 @@
+package com.xay.videos_recommender.cache;
+
+/**
+ * Per-tenant content candidates version, consistent across nodes.
+ * Reads are served from a node-local copy and never touch the network; increments go to the shared store.
+ */
+public interface ContentVersionRegistry {
+
+    /** Tenants without a recorded rebuild are at version 1. */
+    int INITIAL_VERSION = 1;
+
+    int currentVersion(Long tenantId);
+
+    /**
+     * Advances the tenant's version in the shared store and returns the new value.
+     */
+    int increment(Long tenantId);
+
+    /**
+     * Registers a listener for version changes made by other nodes, so node-local caches can drop stale entries.
+     */
+    void addRemoteChangeListener(RemoteChangeListener listener);
+
+    @FunctionalInterface
+    interface RemoteChangeListener {
+        void onRemoteChange(long tenantId, int version);
+    }
+}
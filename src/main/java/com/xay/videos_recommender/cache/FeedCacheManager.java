@@ -1,20 +1,54 @@
 package com.xay.videos_recommender.cache;
 
 import com.xay.videos_recommender.model.domain.CachedFeed;
+import com.xay.videos_recommender.model.domain.FeedSnapshot;
 
+import java.util.List;
 import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
 
 /**
  * Cache manager interface for user feeds.
- * In production, this would be backed by Redis.
+ * Backed by per-node Caffeine caches, or by Redis with a per-node near cache (app.cache.backend=redis).
  */
 public interface FeedCacheManager {
 
     Optional<CachedFeed> getFeed(Long tenantId, String userId);
 
+    /**
+     * Non-blocking lookup for the non-blocking feed path. In-process implementations complete immediately.
+     */
+    default CompletableFuture<Optional<CachedFeed>> getFeedAsync(Long tenantId, String userId) {
+        return CompletableFuture.completedFuture(getFeed(tenantId, userId));
+    }
+
     void putFeed(Long tenantId, String userId, CachedFeed feed);
 
     void invalidateFeed(Long tenantId, String userId);
 
+    /**
+     * Invalidates every cached feed of a tenant by advancing its generation; entries are not deleted.
+     */
     void invalidateAllForTenant(Long tenantId);
+
+    /**
+     * Generation a feed built from now on is stamped with. Read it before loading the tenant's
+     * config and candidates, so a feed is never stamped newer than the data it was built from.
+     */
+    long currentGeneration(Long tenantId);
+
+    /**
+     * Returns the last few ranked-id snapshots of a user's feed, most recent first.
+     * Snapshots outlive feed invalidation so in-flight pagination stays consistent.
+     */
+    List<FeedSnapshot> getSnapshots(Long tenantId, String userId);
+
+    default Optional<FeedSnapshot> getSnapshot(Long tenantId, String userId, int version) {
+        for (FeedSnapshot snapshot : getSnapshots(tenantId, userId)) {
+            if (snapshot.version() == version) {
+                return Optional.of(snapshot);
+            }
+        }
+        return Optional.empty();
+    }
 }
@@ -0,0 +1,51 @@
+package com.xay.videos_recommender.cache;
+
+import com.xay.videos_recommender.model.domain.CachedFeed;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Per-tenant feed generation. It advances whenever a tenant's config version or content candidates
+ * change, and every cached feed is stamped with the generation it was built under.
+ *
+ * Invalidating all of a tenant's feeds is one increment: feeds from older generations are treated
+ * as misses, or, with stale-generation=serve, still served while the feed service rebuilds them.
+ */
+@Component
+public class FeedGenerations {
+
+    private final ConcurrentHashMap<Long, AtomicLong> generations = new ConcurrentHashMap<>();
+
+    @Value("${app.cache.feed.stale-generation:miss}")
+    private String staleGeneration;
+
+    public long current(long tenantId) {
+        AtomicLong generation = generations.get(tenantId);
+        return generation != null ? generation.get() : 0L;
+    }
+
+    public long advance(long tenantId) {
+        return generations.computeIfAbsent(tenantId, id -> new AtomicLong()).incrementAndGet();
+    }
+
+    /**
+     * Moves the generation forward to at least the given value; used to follow a shared counter.
+     */
+    public void advanceTo(long tenantId, long generation) {
+        generations.computeIfAbsent(tenantId, id -> new AtomicLong()).accumulateAndGet(generation, Math::max);
+    }
+
+    public boolean isCurrent(long tenantId, long generation) {
+        return generation >= current(tenantId);
+    }
+
+    /**
+     * True when a cached feed may be served: it is from the current generation, or stale feeds are allowed.
+     */
+    public boolean isServable(long tenantId, CachedFeed feed) {
+        return isCurrent(tenantId, feed.generation()) || "serve".equals(staleGeneration);
+    }
+}
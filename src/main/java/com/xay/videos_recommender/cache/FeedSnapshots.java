@@ -0,0 +1,53 @@
+package com.xay.videos_recommender.cache;
+
+import com.xay.videos_recommender.model.domain.CachedFeed;
+import com.xay.videos_recommender.model.domain.FeedSnapshot;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Snapshot history maintenance shared by the {@link FeedCacheManager} implementations.
+ */
+public final class FeedSnapshots {
+
+    private FeedSnapshots() {}
+
+    /**
+     * Prepends the feed's snapshot to the key's history in the map and returns the new history, or null for a
+     * feed without ranked ids, which has no snapshot.
+     */
+    public static List<FeedSnapshot> append(ConcurrentMap<TenantUserKey, List<FeedSnapshot>> histories,
+                                            TenantUserKey key, CachedFeed feed, int maxHistory) {
+        if (feed.videoIds() == null) {
+            return null;
+        }
+        return histories.compute(key, (k, history) -> append(history, feed.snapshot(), maxHistory));
+    }
+
+    /**
+     * Prepends a snapshot to the history, keeping at most maxHistory entries.
+     * Older snapshots and identical id arrays are shared, never copied.
+     */
+    public static List<FeedSnapshot> append(List<FeedSnapshot> history, FeedSnapshot snapshot, int maxHistory) {
+        if (history == null || history.isEmpty()) {
+            return List.of(snapshot);
+        }
+        FeedSnapshot latest = history.get(0);
+        if (latest.version() == snapshot.version()) {
+            return history;
+        }
+        if (Arrays.equals(latest.videoIds(), snapshot.videoIds())) {
+            snapshot = new FeedSnapshot(snapshot.version(), latest.videoIds());
+        }
+
+        int retained = Math.min(history.size(), Math.max(maxHistory, 1) - 1);
+        List<FeedSnapshot> updated = new ArrayList<>(retained + 1);
+        updated.add(snapshot);
+        updated.addAll(history.subList(0, retained));
+        return Collections.unmodifiableList(updated);
+    }
+}
@@ -0,0 +1,247 @@
+package com.xay.videos_recommender.cache;
+
+import com.xay.videos_recommender.model.domain.CachedFeed;
+import com.xay.videos_recommender.util.CursorUtil;
+import com.xay.videos_recommender.util.ETagUtil;
+import com.xay.videos_recommender.util.FeedHashUtil;
+import com.xay.videos_recommender.util.UserKeyUtil;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.concurrent.locks.StampedLock;
+import java.util.function.Predicate;
+
+/**
+ * Revalidation index mirroring the feed cache: (tenant, user) → current feed version and ranked ids.
+ * Held in primitive-keyed open-addressing tables so conditional feed requests can be answered
+ * before MVC dispatch, without building string keys or touching the feed cache.
+ *
+ * Maintained by the {@link FeedCacheManager} implementation. An entry carries the expiry and
+ * generation of the cache entry it mirrors and is removed with it, so it can never validate a feed
+ * the cache no longer holds or would no longer serve.
+ */
+@Component
+public class FeedVersionRegistry {
+
+    private static final int SEGMENT_COUNT = 64;
+    private static final int INITIAL_SEGMENT_CAPACITY = 64;
+
+    private final Segment[] segments = new Segment[SEGMENT_COUNT];
+    private final FeedGenerations feedGenerations;
+
+    public FeedVersionRegistry(FeedGenerations feedGenerations) {
+        this.feedGenerations = feedGenerations;
+        for (int i = 0; i < SEGMENT_COUNT; i++) {
+            segments[i] = new Segment();
+        }
+    }
+
+    public void record(long tenantId, String userId, int version, long generation, long[] videoIds, long expiresAtNanos) {
+        long key = key(tenantId, userId);
+        segmentFor(key).put(key, new Entry(tenantId, userId, version, generation, videoIds, expiresAtNanos));
+    }
+
+    /**
+     * Records a feed the cache is about to hold for ttl, then runs the put that caches it. Recorded first so a
+     * removal racing with the put also clears the entry. Feeds without ranked ids are not recorded.
+     */
+    public void recordThenPut(TenantUserKey key, CachedFeed feed, Duration ttl, Runnable put) {
+        if (feed.videoIds() != null) {
+            record(key.tenantId(), key.userId(), feed.version(), feed.generation(), feed.videoIds(),
+                    System.nanoTime() + ttl.toNanos());
+        }
+        put.run();
+    }
+
+    /**
+     * Removes the entry if it still mirrors the given feed version.
+     */
+    public void remove(long tenantId, String userId, int version) {
+        long key = key(tenantId, userId);
+        segmentFor(key).remove(key, entry -> entry.tenantId() == tenantId
+                && entry.version() == version
+                && entry.userId().equals(userId));
+    }
+
+    /**
+     * True when the ETag matches the page the feed cache would serve for this request.
+     * False whenever that cannot be decided here, such as a cursor pinned to an older snapshot
+     * or a feed from an older tenant generation.
+     */
+    public boolean matches(long tenantId, String userId, int cursorVersion, int offset, int limit, String ifNoneMatch) {
+        long key = key(tenantId, userId);
+        Entry entry = segmentFor(key).get(key);
+        if (entry == null || entry.tenantId() != tenantId || !entry.userId().equals(userId)) {
+            return false;
+        }
+        if (System.nanoTime() - entry.expiresAtNanos() >= 0 || !feedGenerations.isCurrent(tenantId, entry.generation())) {
+            return false;
+        }
+        if (cursorVersion != CursorUtil.UNBOUND_VERSION && cursorVersion != entry.version()) {
+            return false;
+        }
+        return ETagUtil.matches(ifNoneMatch, FeedHashUtil.pageHash(entry.videoIds(), offset, limit), offset);
+    }
+
+    public int size() {
+        int size = 0;
+        for (Segment segment : segments) {
+            size += segment.size();
+        }
+        return size;
+    }
+
+    private static long key(long tenantId, String userId) {
+        long key = UserKeyUtil.tenantUserKey(tenantId, UserKeyUtil.userBits(userId));
+        return key == Segment.EMPTY ? 1 : key;
+    }
+
+    private Segment segmentFor(long key) {
+        return segments[(int) (key >>> 58) & (SEGMENT_COUNT - 1)];
+    }
+
+    private record Entry(long tenantId, String userId, int version, long generation, long[] videoIds, long expiresAtNanos) {}
+
+    private record Table(long[] keys, Entry[] values) {
+
+        static Table withCapacity(int capacity) {
+            return new Table(new long[capacity], new Entry[capacity]);
+        }
+    }
+
+    /**
+     * Linear-probing table guarded by a StampedLock; lookups are optimistic and retry under a read lock.
+     */
+    private static final class Segment {
+
+        static final long EMPTY = 0L;
+
+        private final StampedLock lock = new StampedLock();
+        private Table table = Table.withCapacity(INITIAL_SEGMENT_CAPACITY);
+        private int size;
+
+        Entry get(long key) {
+            long stamp = lock.tryOptimisticRead();
+            Entry entry = find(table, key);
+            if (!lock.validate(stamp)) {
+                stamp = lock.readLock();
+                try {
+                    entry = find(table, key);
+                } finally {
+                    lock.unlockRead(stamp);
+                }
+            }
+            return entry;
+        }
+
+        void put(long key, Entry entry) {
+            long stamp = lock.writeLock();
+            try {
+                if ((size + 1) * 4 > table.keys().length * 3) {
+                    resize(table.keys().length * 2);
+                }
+                if (insert(table, key, entry)) {
+                    size++;
+                }
+            } finally {
+                lock.unlockWrite(stamp);
+            }
+        }
+
+        void remove(long key, Predicate<Entry> condition) {
+            long stamp = lock.writeLock();
+            try {
+                int index = indexOf(table, key);
+                if (index >= 0 && condition.test(table.values()[index])) {
+                    delete(index);
+                }
+            } finally {
+                lock.unlockWrite(stamp);
+            }
+        }
+
+        int size() {
+            long stamp = lock.readLock();
+            try {
+                return size;
+            } finally {
+                lock.unlockRead(stamp);
+            }
+        }
+
+        private static Entry find(Table table, long key) {
+            int index = indexOf(table, key);
+            return index >= 0 ? table.values()[index] : null;
+        }
+
+        private static int indexOf(Table table, long key) {
+            long[] keys = table.keys();
+            int mask = keys.length - 1;
+            int index = (int) key & mask;
+            for (int probes = 0; probes < keys.length; probes++) {
+                long current = keys[index];
+                if (current == EMPTY) {
+                    return -1;
+                }
+                if (current == key) {
+                    return index;
+                }
+                index = (index + 1) & mask;
+            }
+            return -1;
+        }
+
+        /**
+         * Inserts or replaces; returns true when a new slot was taken.
+         */
+        private static boolean insert(Table table, long key, Entry entry) {
+            long[] keys = table.keys();
+            int mask = keys.length - 1;
+            int index = (int) key & mask;
+            while (keys[index] != EMPTY && keys[index] != key) {
+                index = (index + 1) & mask;
+            }
+            boolean added = keys[index] == EMPTY;
+            keys[index] = key;
+            table.values()[index] = entry;
+            return added;
+        }
+
+        private void resize(int capacity) {
+            Table resized = Table.withCapacity(capacity);
+            long[] keys = table.keys();
+            for (int i = 0; i < keys.length; i++) {
+                if (keys[i] != EMPTY) {
+                    insert(resized, keys[i], table.values()[i]);
+                }
+            }
+            table = resized;
+        }
+
+        /**
+         * Backward-shift deletion keeps probe chains intact without tombstones.
+         */
+        private void delete(int index) {
+            long[] keys = table.keys();
+            Entry[] values = table.values();
+            int mask = keys.length - 1;
+            int hole = index;
+            int next = (hole + 1) & mask;
+            while (keys[next] != EMPTY) {
+                int home = (int) keys[next] & mask;
+                boolean movable = hole <= next
+                        ? home <= hole || home > next
+                        : home <= hole && home > next;
+                if (movable) {
+                    keys[hole] = keys[next];
+                    values[hole] = values[next];
+                    hole = next;
+                }
+                next = (next + 1) & mask;
+            }
+            keys[hole] = EMPTY;
+            values[hole] = null;
+            size--;
+        }
+    }
+}
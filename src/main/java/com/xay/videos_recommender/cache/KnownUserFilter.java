@@ -0,0 +1,210 @@
+package com.xay.videos_recommender.cache;
+
+import com.xay.videos_recommender.model.entity.Tenant;
+import com.xay.videos_recommender.repository.TenantRepository;
+import com.xay.videos_recommender.repository.UserProfileRepository;
+import com.xay.videos_recommender.util.BloomFilter;
+import com.xay.videos_recommender.util.UserKeyUtil;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.DataAccessException;
+import org.springframework.data.domain.Limit;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Per-tenant Bloom filter of the users that have a profile, so lookups for cold-start users can skip the
+ * database. Filters are built from user_profiles after startup and rebuilt every rebuild-interval-ms; profiles
+ * persisted in between are added by {@link KnownUserListener} on this node, and every catch-up-interval-ms by
+ * reading the profiles with ids above the highest one seen, for those persisted by other nodes.
+ *
+ * Until a tenant's filter is built every user may be known, so lookups fall through to the database.
+ * A profile from another node keeps cold-start signals here for up to catch-up-interval-ms, or until the next
+ * rebuild if its id was assigned before one the catch-up already read but committed after it.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class KnownUserFilter {
+
+    private final TenantRepository tenantRepository;
+    private final UserProfileRepository userProfileRepository;
+
+    @Value("${app.cache.user-profile.known-user-filter.enabled:true}")
+    private boolean enabled;
+
+    @Value("${app.cache.user-profile.known-user-filter.false-positive-rate:0.01}")
+    private double falsePositiveRate;
+
+    @Value("${app.cache.user-profile.known-user-filter.growth-factor:2.0}")
+    private double growthFactor;
+
+    @Value("${app.cache.user-profile.known-user-filter.min-expected-users:1024}")
+    private long minExpectedUsers;
+
+    @Value("${app.cache.user-profile.known-user-filter.page-size:10000}")
+    private int pageSize;
+
+    private final ConcurrentHashMap<Long, TenantFilter> filters = new ConcurrentHashMap<>();
+    // Serializes rebuilds and catch-ups; a lock rather than synchronized, as both block on the database
+    private final ReentrantLock scanLock = new ReentrantLock();
+
+    /**
+     * False only if the user certainly has no profile.
+     */
+    public boolean mightBeKnown(Long tenantId, String userId) {
+        TenantFilter filter = filters.get(tenantId);
+        return filter == null || filter.mightContain(UserKeyUtil.userBits(userId));
+    }
+
+    public void add(Long tenantId, String userId) {
+        TenantFilter filter = filters.get(tenantId);
+        if (filter != null) {
+            filter.add(UserKeyUtil.userBits(userId));
+        }
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void onApplicationReady() {
+        if (enabled) {
+            Thread.ofVirtual().name("known-user-filter").start(this::rebuild);
+        }
+    }
+
+    @Scheduled(initialDelayString = "${app.cache.user-profile.known-user-filter.rebuild-interval-ms:600000}",
+            fixedDelayString = "${app.cache.user-profile.known-user-filter.rebuild-interval-ms:600000}")
+    public void scheduledRebuild() {
+        if (enabled) {
+            rebuild();
+        }
+    }
+
+    @Scheduled(initialDelayString = "${app.cache.user-profile.known-user-filter.catch-up-interval-ms:30000}",
+            fixedDelayString = "${app.cache.user-profile.known-user-filter.catch-up-interval-ms:30000}")
+    public void scheduledCatchUp() {
+        if (enabled) {
+            catchUp();
+        }
+    }
+
+    void rebuild() {
+        long startNanos = System.nanoTime();
+        int tenants = 0;
+        scanLock.lock();
+        try {
+            for (Tenant tenant : tenantRepository.findAll()) {
+                rebuild(tenant.getId());
+                tenants++;
+            }
+            log.info("Known-user filters rebuilt for {} tenants in {} ms",
+                    tenants, (System.nanoTime() - startNanos) / 1_000_000);
+        } catch (DataAccessException e) {
+            // Tenants not rebuilt keep their previous filter, or none
+            log.warn("Known-user filter rebuild stopped after {} tenants: {}", tenants, e.getMessage());
+        } finally {
+            scanLock.unlock();
+        }
+    }
+
+    /**
+     * Adds the profiles persisted since each built filter last read the table, including other nodes' profiles.
+     */
+    void catchUp() {
+        int added = 0;
+        scanLock.lock();
+        try {
+            for (Map.Entry<Long, TenantFilter> entry : filters.entrySet()) {
+                if (entry.getValue().built()) {
+                    added += catchUp(entry.getKey(), entry.getValue());
+                }
+            }
+            log.debug("Known-user filters caught up with {} new profiles", added);
+        } catch (DataAccessException e) {
+            // The next catch-up starts again from the last id read
+            log.warn("Known-user filter catch-up stopped after {} profiles: {}", added, e.getMessage());
+        } finally {
+            scanLock.unlock();
+        }
+    }
+
+    private int catchUp(Long tenantId, TenantFilter filter) {
+        int added = 0;
+        List<UserProfileRepository.KnownUser> page;
+        do {
+            page = userProfileRepository.findByTenantIdAndIdGreaterThanOrderById(
+                    tenantId, filter.lastId, Limit.of(pageSize));
+            for (UserProfileRepository.KnownUser user : page) {
+                filter.add(UserKeyUtil.userBits(user.getHashedUserId()));
+                filter.lastId = user.getId();
+                added++;
+            }
+        } while (page.size() == pageSize);
+        return added;
+    }
+
+    private void rebuild(Long tenantId) {
+        long expected = Math.max(minExpectedUsers,
+                (long) (userProfileRepository.countByTenantId(tenantId) * growthFactor));
+        BloomFilter next = new BloomFilter(expected, falsePositiveRate);
+        TenantFilter filter = filters.computeIfAbsent(tenantId, id -> new TenantFilter());
+        // Profiles persisted during the scan go into the new filter as well
+        filter.startBuilding(next);
+
+        long afterId = 0L;
+        List<UserProfileRepository.KnownUser> page;
+        do {
+            page = userProfileRepository.findByTenantIdAndIdGreaterThanOrderById(tenantId, afterId, Limit.of(pageSize));
+            for (UserProfileRepository.KnownUser user : page) {
+                next.put(UserKeyUtil.userBits(user.getHashedUserId()));
+                afterId = user.getId();
+            }
+        } while (page.size() == pageSize);
+
+        filter.finishBuilding(next);
+        filter.lastId = afterId;
+    }
+
+    private static final class TenantFilter {
+
+        // Null until the first build completes
+        private volatile BloomFilter active;
+        private BloomFilter building;
+        // Highest profile id read from the table; guarded by scanLock
+        private long lastId;
+
+        private boolean built() {
+            return active != null;
+        }
+
+        private boolean mightContain(long key) {
+            BloomFilter filter = active;
+            return filter == null || filter.mightContain(key);
+        }
+
+        private synchronized void add(long key) {
+            if (active != null) {
+                active.put(key);
+            }
+            if (building != null) {
+                building.put(key);
+            }
+        }
+
+        private synchronized void startBuilding(BloomFilter next) {
+            building = next;
+        }
+
+        private synchronized void finishBuilding(BloomFilter next) {
+            active = next;
+            building = null;
+        }
+    }
+}
@@ -0,0 +1,28 @@
+package com.xay.videos_recommender.cache;
+
+import com.xay.videos_recommender.model.entity.UserProfile;
+import jakarta.persistence.PostPersist;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.stereotype.Component;
+
+/**
+ * JPA listener on {@link UserProfile}: a newly persisted profile is added to the known-user filter and any
+ * cached absence for the user is dropped, so the next lookup reads the profile.
+ *
+ * Collaborators are resolved on first use; Hibernate creates entity listeners while the
+ * EntityManagerFactory those collaborators depend on is still being built.
+ */
+@Component
+@RequiredArgsConstructor
+public class KnownUserListener {
+
+    private final ObjectProvider<KnownUserFilter> knownUserFilter;
+    private final ObjectProvider<AppCache> appCache;
+
+    @PostPersist
+    public void onPersist(UserProfile profile) {
+        knownUserFilter.getObject().add(profile.getTenantId(), profile.getHashedUserId());
+        appCache.getObject().evictUserSignals(profile.getTenantId(), profile.getHashedUserId());
+    }
+}
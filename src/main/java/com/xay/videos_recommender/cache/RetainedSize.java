@@ -0,0 +1,139 @@
+package com.xay.videos_recommender.cache;
+
+import com.xay.videos_recommender.model.domain.CachedFeed;
+import com.xay.videos_recommender.model.domain.ContentCandidate;
+import com.xay.videos_recommender.model.domain.FeedSnapshot;
+import com.xay.videos_recommender.model.domain.UserSignals;
+import com.xay.videos_recommender.model.dto.response.FeedItem;
+import com.xay.videos_recommender.model.entity.Tenant;
+
+import java.util.List;
+
+/**
+ * Estimated retained heap bytes of cached values, used as Caffeine weights.
+ * Assumes a 64-bit JVM with compressed oops and compact strings; shared objects such as
+ * interned literals and cached Booleans are counted as if owned, so estimates err on the high side.
+ */
+public final class RetainedSize {
+
+    private static final int HEADER = 12;
+    private static final int REFERENCE = 4;
+    private static final int ARRAY_HEADER = 16;
+    private static final int BOXED = 16;
+    private static final int INSTANT = 24;
+    private static final int BIG_DECIMAL = 40;
+
+    private RetainedSize() {}
+
+    public static int of(String value) {
+        // String object (header, hash, coder, value reference) plus its byte[]: one byte per char when every
+        // char fits Latin-1, otherwise two
+        return value == null ? 0 : 24 + align(ARRAY_HEADER + value.length() * (isLatin1(value) ? 1 : 2));
+    }
+
+    public static int of(Long key) {
+        return BOXED;
+    }
+
+    public static int of(TenantUserKey key) {
+        return align(HEADER + 8 + 8 + REFERENCE) + of(key.userId());
+    }
+
+    public static int of(Tenant tenant) {
+        return align(HEADER + 10 * REFERENCE)
+                + BOXED * 3
+                + of(tenant.getName())
+                + of(tenant.getRankingWeights())
+                + of(tenant.getMaturityFilter())
+                + of(tenant.getGeoRestrictions())
+                + INSTANT * 2;
+    }
+
+    public static int of(UserSignals signals) {
+        return align(HEADER + 6 * REFERENCE + 4 * 3 + 8)
+                + BOXED
+                + BIG_DECIMAL
+                + of(signals.hashedUserId())
+                + align(ARRAY_HEADER + signals.categoryAffinities().length * 4)
+                + longs(signals.watchedKeys())
+                + INSTANT;
+    }
+
+    public static int of(ContentCandidate candidate) {
+        int size = align(HEADER + 9 * REFERENCE)
+                + BOXED
+                + BIG_DECIMAL * 4
+                + of(candidate.externalId())
+                + of(candidate.category())
+                + of(candidate.maturityRating());
+        List<String> tags = candidate.tags();
+        if (tags != null) {
+            size += list(tags.size());
+            for (String tag : tags) {
+                size += of(tag);
+            }
+        }
+        return size;
+    }
+
+    public static int ofCandidates(List<ContentCandidate> candidates) {
+        int size = list(candidates.size());
+        for (ContentCandidate candidate : candidates) {
+            size += of(candidate);
+        }
+        return size;
+    }
+
+    public static int of(FeedItem item) {
+        return align(HEADER + 5 * REFERENCE + 4)
+                + of(item.id())
+                + of(item.externalId())
+                + of(item.title())
+                + of(item.thumbnailUrl())
+                + of(item.category());
+    }
+
+    public static int of(CachedFeed feed) {
+        int size = align(HEADER + 4 + 8 + 4 * REFERENCE)
+                + INSTANT
+                + of(feed.feedType())
+                + longs(feed.videoIds());
+        List<FeedItem> items = feed.items();
+        if (items != null) {
+            size += list(items.size());
+            for (FeedItem item : items) {
+                size += of(item);
+            }
+        }
+        return size;
+    }
+
+    public static int ofSnapshots(List<FeedSnapshot> history) {
+        int size = list(history.size());
+        for (FeedSnapshot snapshot : history) {
+            size += align(HEADER + 4 + REFERENCE) + longs(snapshot.videoIds());
+        }
+        return size;
+    }
+
+    private static boolean isLatin1(String value) {
+        for (int i = 0; i < value.length(); i++) {
+            if (value.charAt(i) > 0xFF) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static int list(int elements) {
+        return align(HEADER + 8) + align(ARRAY_HEADER + elements * REFERENCE);
+    }
+
+    private static int longs(long[] values) {
+        return values == null ? 0 : align(ARRAY_HEADER + values.length * 8);
+    }
+
+    private static int align(int bytes) {
+        return (bytes + 7) & ~7;
+    }
+}
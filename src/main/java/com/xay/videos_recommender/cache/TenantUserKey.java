@@ -0,0 +1,28 @@
+package com.xay.videos_recommender.cache;
+
+import com.xay.videos_recommender.util.UserKeyUtil;
+
+/**
+ * Cache key for per-user entries. Built from the request's own strings, so a lookup allocates
+ * one small object instead of a concatenated key; the hash comes from the primitive user bits
+ * and never touches the user id string. Equality still compares the full user id.
+ */
+public record TenantUserKey(long tenantId, long userBits, String userId) {
+
+    public static TenantUserKey of(long tenantId, String userId) {
+        return new TenantUserKey(tenantId, UserKeyUtil.userBits(userId), userId);
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        return o instanceof TenantUserKey other
+                && tenantId == other.tenantId
+                && userBits == other.userBits
+                && userId.equals(other.userId);
+    }
+
+    @Override
+    public int hashCode() {
+        return Long.hashCode(UserKeyUtil.tenantUserKey(tenantId, userBits));
+    }
+}
@@ -1,125 +1,331 @@
 package com.xay.videos_recommender.cache.caffeine;
 
+import com.github.benmanes.caffeine.cache.AsyncLoadingCache;
 import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.CacheLoader;
 import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.RemovalCause;
+import com.github.benmanes.caffeine.cache.Weigher;
 import com.xay.videos_recommender.cache.AppCache;
+import com.xay.videos_recommender.cache.CacheFootprint;
+import com.xay.videos_recommender.cache.CacheFootprintReporter;
+import com.xay.videos_recommender.cache.CacheMemoryBudget;
+import com.xay.videos_recommender.cache.ContentVersionRegistry;
+import com.xay.videos_recommender.cache.FeedGenerations;
+import com.xay.videos_recommender.cache.RetainedSize;
+import com.xay.videos_recommender.cache.TenantUserKey;
 import com.xay.videos_recommender.model.domain.ContentCandidate;
+import com.xay.videos_recommender.model.domain.UserSignals;
 import com.xay.videos_recommender.model.entity.Tenant;
-import com.xay.videos_recommender.model.entity.UserProfile;
+import com.xay.videos_recommender.repository.TenantRepository;
+import com.xay.videos_recommender.service.ContentCandidateLoader;
+import com.xay.videos_recommender.util.BoundedExecutors;
 import io.micrometer.core.instrument.MeterRegistry;
 import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
 import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Component;
 
+import java.util.Collection;
 import java.util.Collections;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
 import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadPoolExecutor;
 import java.util.concurrent.TimeUnit;
+import java.util.function.BiConsumer;
 
 @Slf4j
 @Component
 @RequiredArgsConstructor
-public class CaffeineAppCache implements AppCache {
+@ConditionalOnProperty(name = "app.cache.backend", havingValue = "caffeine", matchIfMissing = true)
+public class CaffeineAppCache implements AppCache, CacheFootprintReporter {
 
-    private final MeterRegistry meterRegistry;
+    /**
+     * A cached candidate pool and the content candidates version it was built at.
+     */
+    public record BuiltContentCandidates(int version, List<ContentCandidate> candidates) {}
+
+    private static final Weigher<Long, Tenant> TENANT_WEIGHER =
+            (tenantId, tenant) -> RetainedSize.of(tenantId) + RetainedSize.of(tenant);
+    private static final Weigher<TenantUserKey, UserSignals> USER_SIGNALS_WEIGHER =
+            (key, signals) -> RetainedSize.of(key) + RetainedSize.of(signals);
+    private static final Weigher<Long, List<ContentCandidate>> CONTENT_CANDIDATES_WEIGHER =
+            (tenantId, candidates) -> RetainedSize.of(tenantId) + RetainedSize.ofCandidates(candidates);
 
-    @Value("${app.cache.tenant.max-size}")
-    private int tenantMaxSize;
+    private final MeterRegistry meterRegistry;
+    private final ContentVersionRegistry contentVersionRegistry;
+    private final CacheMemoryBudget memoryBudget;
+    private final TenantRepository tenantRepository;
+    private final ContentCandidateLoader contentCandidateLoader;
+    private final FeedGenerations feedGenerations;
 
-    @Value("${app.cache.user-profile.max-size}")
-    private int userProfileMaxSize;
+    @Value("${app.cache.tenant.refresh-after-write-seconds}")
+    private int tenantRefreshSeconds;
 
     @Value("${app.cache.user-profile.expire-after-write-minutes}")
     private int userProfileExpireMinutes;
 
-    @Value("${app.cache.content-candidates.max-size}")
-    private int contentCandidatesMaxSize;
+    @Value("${app.cache.user-profile.absent-expire-after-write-seconds:30}")
+    private int absentUserProfileExpireSeconds;
+
+    @Value("${app.cache.user-profile.absent-max-size:100000}")
+    private long absentUserProfileMaxSize;
+
+    @Value("${app.cache.content-candidates.refresh-after-write-seconds}")
+    private int contentCandidatesRefreshSeconds;
+
+    @Value("${app.cache.refresh.threads:2}")
+    private int refreshThreads;
 
-    private Cache<Long, Tenant> tenantCache;
-    private Cache<String, UserProfile> userProfileCache;
-    private Cache<Long, List<ContentCandidate>> contentCandidatesCache;
+    @Value("${app.cache.refresh.queue-capacity:1000}")
+    private int refreshQueueCapacity;
+
+    // Reloads run here, never on a request thread; a read past the refresh interval returns the current value
+    private ThreadPoolExecutor refreshExecutor;
+
+    private AsyncLoadingCache<Long, Tenant> tenantCache;
+    private TenantPartitionedCache<TenantUserKey, UserSignals> userSignalsCache;
+    private Cache<TenantUserKey, Boolean> absentUserProfileCache;
+    private AsyncLoadingCache<Long, List<ContentCandidate>> contentCandidatesCache;
+    // Build version of each tenant's cached pool, valid while its list is the cached one
+    private final ConcurrentHashMap<Long, BuiltContentCandidates> contentCandidatesBuilds = new ConcurrentHashMap<>();
 
     @PostConstruct
     public void init() {
+        refreshExecutor = BoundedExecutors.newFixedPool("cache-refresh-", refreshThreads, refreshQueueCapacity);
+
+        // Bounded by estimated retained bytes, so one large tenant cannot blow the heap.
+        // Refreshed in the background so DB-side config changes (e.g. the kill switch) apply within the interval
         tenantCache = Caffeine.newBuilder()
-                .maximumSize(tenantMaxSize)
+                .maximumWeight(memoryBudget.tenantBytes())
+                .weigher(TENANT_WEIGHER)
+                .refreshAfterWrite(tenantRefreshSeconds, TimeUnit.SECONDS)
+                .executor(refreshExecutor)
                 .recordStats()
-                .build();
+                .buildAsync(new TenantLoader());
+
+        // One partition per tenant, so a burst from one tenant cannot evict the others' profiles
+        // Still named userProfile, so its budget share, meters and dashboards carry over
+        userSignalsCache = new TenantPartitionedCache<>("userProfile", memoryBudget.userProfileBytes(),
+                memoryBudget.tenantReservedShare(), memoryBudget.maxTenantPartitions(),
+                memoryBudget.maxTenantOverflowShare(), TenantUserKey::tenantId, USER_SIGNALS_WEIGHER,
+                (maximumWeight, evictionListener) -> Caffeine.newBuilder()
+                        .maximumWeight(maximumWeight)
+                        .weigher(USER_SIGNALS_WEIGHER)
+                        .evictionListener(evictionListener)
+                        .expireAfterWrite(userProfileExpireMinutes, TimeUnit.MINUTES)
+                        .recordStats()
+                        .build(),
+                meterRegistry);
 
-        userProfileCache = Caffeine.newBuilder()
-                .maximumSize(userProfileMaxSize)
-                .expireAfterWrite(userProfileExpireMinutes, TimeUnit.MINUTES)
+        // Keys only, so bounded by count; the short expiry bounds how long a new profile goes unseen
+        absentUserProfileCache = Caffeine.newBuilder()
+                .maximumSize(absentUserProfileMaxSize)
+                .expireAfterWrite(absentUserProfileExpireSeconds, TimeUnit.SECONDS)
                 .recordStats()
                 .build();
 
         contentCandidatesCache = Caffeine.newBuilder()
-                .maximumSize(contentCandidatesMaxSize)
+                .maximumWeight(memoryBudget.contentCandidatesBytes())
+                .weigher(CONTENT_CANDIDATES_WEIGHER)
+                .refreshAfterWrite(contentCandidatesRefreshSeconds, TimeUnit.SECONDS)
+                .executor(refreshExecutor)
+                .removalListener((Long tenantId, List<ContentCandidate> candidates, RemovalCause cause) ->
+                        contentCandidatesBuilds.computeIfPresent(tenantId,
+                                (id, built) -> built.candidates() == candidates ? null : built))
                 .recordStats()
-                .build();
+                .buildAsync(this::loadContentCandidates);
 
         // Register caches with Micrometer for metrics
-        CaffeineCacheMetrics.monitor(meterRegistry, tenantCache, "tenant", Collections.emptyList());
-        CaffeineCacheMetrics.monitor(meterRegistry, userProfileCache, "userProfile", Collections.emptyList());
-        CaffeineCacheMetrics.monitor(meterRegistry, contentCandidatesCache, "contentCandidates", Collections.emptyList());
+        CaffeineCacheMetrics.monitor(meterRegistry, tenantCache.synchronous(), "tenant", Collections.emptyList());
+        CaffeineCacheMetrics.monitor(meterRegistry, absentUserProfileCache, "absentUserProfile", Collections.emptyList());
+        CaffeineCacheMetrics.monitor(meterRegistry, contentCandidatesCache.synchronous(), "contentCandidates",
+                Collections.emptyList());
+
+        // Candidates rebuilt on another node are reloaded here on next access
+        contentVersionRegistry.addRemoteChangeListener((tenantId, version) -> evictContentCandidates(tenantId));
+
+        log.info("CaffeineAppCache initialized: tenantBytes={}, tenantRefreshSeconds={}, userProfileBytes={}, " +
+                        "userProfileExpireMinutes={}, contentCandidatesBytes={}, contentCandidatesRefreshSeconds={}, " +
+                        "refreshThreads={}",
+                memoryBudget.tenantBytes(), tenantRefreshSeconds, memoryBudget.userProfileBytes(),
+                userProfileExpireMinutes, memoryBudget.contentCandidatesBytes(), contentCandidatesRefreshSeconds,
+                refreshThreads);
+    }
 
-        log.info("CaffeineAppCache initialized: tenantMaxSize={}, userProfileMaxSize={}, " +
-                        "userProfileExpireMinutes={}, contentCandidatesMaxSize={}",
-                tenantMaxSize, userProfileMaxSize, userProfileExpireMinutes, contentCandidatesMaxSize);
+    @PreDestroy
+    public void shutdown() {
+        refreshExecutor.shutdown();
     }
 
     @Override
     public Optional<Tenant> getTenant(Long tenantId) {
-        return Optional.ofNullable(tenantCache.getIfPresent(tenantId));
+        return valueOf(tenantCache.getIfPresent(tenantId));
     }
 
     @Override
     public void putTenant(Long tenantId, Tenant tenant) {
-        tenantCache.put(tenantId, tenant);
+        tenantCache.put(tenantId, CompletableFuture.completedFuture(tenant));
     }
 
     @Override
     public void evictTenant(Long tenantId) {
-        tenantCache.invalidate(tenantId);
+        tenantCache.synchronous().invalidate(tenantId);
+    }
+
+    @Override
+    public Optional<UserSignals> getUserSignals(Long tenantId, String userId) {
+        TenantUserKey key = TenantUserKey.of(tenantId, userId);
+        return Optional.ofNullable(userSignalsCache.partitionFor(key).getIfPresent(key));
+    }
+
+    @Override
+    public Map<String, UserSignals> getUserSignals(Long tenantId, Collection<String> userIds) {
+        List<TenantUserKey> keys = userIds.stream()
+                .map(userId -> TenantUserKey.of(tenantId, userId))
+                .toList();
+        Map<TenantUserKey, UserSignals> cached = userSignalsCache.partition(tenantId).getAllPresent(keys);
+
+        Map<String, UserSignals> signals = new HashMap<>(cached.size() * 2);
+        cached.forEach((key, userSignals) -> signals.put(key.userId(), userSignals));
+        return signals;
     }
 
     @Override
-    public Optional<UserProfile> getUserProfile(Long tenantId, String userId) {
-        String key = buildUserProfileKey(tenantId, userId);
-        return Optional.ofNullable(userProfileCache.getIfPresent(key));
+    public void putUserSignals(Long tenantId, String userId, UserSignals signals) {
+        TenantUserKey key = TenantUserKey.of(tenantId, userId);
+        userSignalsCache.partitionFor(key).put(key, signals);
+        absentUserProfileCache.invalidate(key);
     }
 
     @Override
-    public void putUserProfile(Long tenantId, String userId, UserProfile profile) {
-        String key = buildUserProfileKey(tenantId, userId);
-        userProfileCache.put(key, profile);
+    public void putUserSignals(Long tenantId, Map<String, UserSignals> signals) {
+        Cache<TenantUserKey, UserSignals> partition = userSignalsCache.partition(tenantId);
+        signals.forEach((userId, userSignals) -> {
+            TenantUserKey key = TenantUserKey.of(tenantId, userId);
+            partition.put(key, userSignals);
+            absentUserProfileCache.invalidate(key);
+        });
     }
 
     @Override
-    public void evictUserProfile(Long tenantId, String userId) {
-        String key = buildUserProfileKey(tenantId, userId);
-        userProfileCache.invalidate(key);
+    public void evictUserSignals(Long tenantId, String userId) {
+        TenantUserKey key = TenantUserKey.of(tenantId, userId);
+        userSignalsCache.partitionFor(key).invalidate(key);
+        absentUserProfileCache.invalidate(key);
+    }
+
+    @Override
+    public boolean isUserProfileAbsent(Long tenantId, String userId) {
+        return absentUserProfileCache.getIfPresent(TenantUserKey.of(tenantId, userId)) != null;
+    }
+
+    @Override
+    public void putUserProfileAbsent(Long tenantId, String userId) {
+        absentUserProfileCache.put(TenantUserKey.of(tenantId, userId), Boolean.TRUE);
     }
 
     @Override
     public Optional<List<ContentCandidate>> getContentCandidates(Long tenantId) {
-        return Optional.ofNullable(contentCandidatesCache.getIfPresent(tenantId));
+        return valueOf(contentCandidatesCache.getIfPresent(tenantId));
     }
 
     @Override
-    public void putContentCandidates(Long tenantId, List<ContentCandidate> candidates) {
-        contentCandidatesCache.put(tenantId, candidates);
+    public void putContentCandidates(Long tenantId, List<ContentCandidate> candidates, int version) {
+        contentCandidatesBuilds.put(tenantId, new BuiltContentCandidates(version, candidates));
+        contentCandidatesCache.put(tenantId, CompletableFuture.completedFuture(candidates));
     }
 
     @Override
     public void evictContentCandidates(Long tenantId) {
-        contentCandidatesCache.invalidate(tenantId);
+        contentCandidatesCache.synchronous().invalidate(tenantId);
     }
 
-    private String buildUserProfileKey(Long tenantId, String userId) {
-        return tenantId + ":" + userId;
+    /**
+     * Visits every loaded candidate pool with the version it was built at; pools still loading are skipped.
+     */
+    public void forEachContentCandidates(BiConsumer<Long, BuiltContentCandidates> action) {
+        contentCandidatesCache.synchronous().asMap().forEach((tenantId, candidates) -> {
+            BuiltContentCandidates built = contentCandidatesBuilds.get(tenantId);
+            if (built != null && built.candidates() == candidates) {
+                action.accept(tenantId, built);
+            }
+        });
+    }
+
+    /**
+     * Visits every cached user's signals across all tenant partitions.
+     */
+    public void forEachUserSignals(BiConsumer<Long, UserSignals> action) {
+        for (Cache<TenantUserKey, UserSignals> partition : userSignalsCache.partitions()) {
+            partition.asMap().forEach((key, signals) -> action.accept(key.tenantId(), signals));
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${app.cache.tenant-quota.rebalance-interval-ms:5000}")
+    public void rebalanceTenantQuotas() {
+        userSignalsCache.rebalance();
     }
-}
 
+    @Override
+    public List<CacheFootprint> footprints() {
+        return List.of(
+                CaffeineFootprints.of("tenant", memoryBudget.tenantBytes(),
+                        tenantCache.synchronous(), TENANT_WEIGHER, Long::longValue),
+                CaffeineFootprints.of("userProfile", memoryBudget.userProfileBytes(), userSignalsCache, USER_SIGNALS_WEIGHER),
+                CaffeineFootprints.of("contentCandidates", memoryBudget.contentCandidatesBytes(),
+                        contentCandidatesCache.synchronous(), CONTENT_CANDIDATES_WEIGHER, Long::longValue));
+    }
+
+    /**
+     * Reads the version before loading, so a rebuild during the load leaves the pool marked as older.
+     */
+    private List<ContentCandidate> loadContentCandidates(Long tenantId) {
+        int version = contentVersionRegistry.currentVersion(tenantId);
+        List<ContentCandidate> candidates = contentCandidateLoader.load(tenantId);
+        contentCandidatesBuilds.put(tenantId, new BuiltContentCandidates(version, candidates));
+        return candidates;
+    }
+
+    /**
+     * Only completed values count as hits; a load still in flight is a miss for the caller to resolve.
+     */
+    private static <V> Optional<V> valueOf(CompletableFuture<V> future) {
+        if (future == null || !future.isDone() || future.isCompletedExceptionally()) {
+            return Optional.empty();
+        }
+        return Optional.ofNullable(future.join());
+    }
+
+    private final class TenantLoader implements CacheLoader<Long, Tenant> {
+
+        @Override
+        public Tenant load(Long tenantId) {
+            return tenantRepository.findById(tenantId).orElse(null);
+        }
+
+        /**
+         * A config version changed by another node or directly in the database also retires this node's feeds.
+         */
+        @Override
+        public Tenant reload(Long tenantId, Tenant oldTenant) {
+            Tenant tenant = load(tenantId);
+            if (tenant != null && !Objects.equals(tenant.getConfigVersion(), oldTenant.getConfigVersion())) {
+                log.info("Tenant {} config version changed {} -> {} on refresh",
+                        tenantId, oldTenant.getConfigVersion(), tenant.getConfigVersion());
+                feedGenerations.advance(tenantId);
+            }
+            return tenant;
+        }
+    }
+}
@@ -2,76 +2,151 @@ package com.xay.videos_recommender.cache.caffeine;
 
 import com.github.benmanes.caffeine.cache.Cache;
 import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.RemovalCause;
+import com.github.benmanes.caffeine.cache.Weigher;
+import com.xay.videos_recommender.cache.CacheFootprint;
+import com.xay.videos_recommender.cache.CacheFootprintReporter;
+import com.xay.videos_recommender.cache.CacheMemoryBudget;
+import com.xay.videos_recommender.cache.ContentVersionRegistry;
 import com.xay.videos_recommender.cache.FeedCacheManager;
+import com.xay.videos_recommender.cache.FeedGenerations;
+import com.xay.videos_recommender.cache.FeedSnapshots;
+import com.xay.videos_recommender.cache.FeedVersionRegistry;
+import com.xay.videos_recommender.cache.RetainedSize;
+import com.xay.videos_recommender.cache.TenantUserKey;
 import com.xay.videos_recommender.model.domain.CachedFeed;
+import com.xay.videos_recommender.model.domain.FeedSnapshot;
 import io.micrometer.core.instrument.MeterRegistry;
-import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
 import jakarta.annotation.PostConstruct;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Component;
 
-import java.util.Collections;
+import java.time.Duration;
+import java.util.List;
 import java.util.Optional;
 import java.util.concurrent.TimeUnit;
 
 @Slf4j
 @Component
 @RequiredArgsConstructor
-public class CaffeineFeedCacheManager implements FeedCacheManager {
+@ConditionalOnProperty(name = "app.cache.backend", havingValue = "caffeine", matchIfMissing = true)
+@ConditionalOnProperty(name = "app.cache.feed.tier", havingValue = "single", matchIfMissing = true)
+public class CaffeineFeedCacheManager implements FeedCacheManager, CacheFootprintReporter {
 
-    private final MeterRegistry meterRegistry;
+    private static final Weigher<TenantUserKey, CachedFeed> FEED_WEIGHER =
+            (key, feed) -> RetainedSize.of(key) + RetainedSize.of(feed);
+    private static final Weigher<TenantUserKey, List<FeedSnapshot>> SNAPSHOTS_WEIGHER =
+            (key, history) -> RetainedSize.of(key) + RetainedSize.ofSnapshots(history);
 
-    @Value("${app.cache.feed.max-size}")
-    private int feedMaxSize;
+    private final MeterRegistry meterRegistry;
+    private final FeedVersionRegistry feedVersionRegistry;
+    private final FeedGenerations feedGenerations;
+    private final ContentVersionRegistry contentVersionRegistry;
+    private final CacheMemoryBudget memoryBudget;
 
     @Value("${app.cache.feed.expire-after-write-minutes}")
     private int feedExpireMinutes;
 
-    private Cache<String, CachedFeed> feedCache;
+    @Value("${app.cache.feed.snapshot-history:3}")
+    private int snapshotHistory;
+
+    private TenantPartitionedCache<TenantUserKey, CachedFeed> feedCache;
+
+    // Kept apart from feedCache so pagination survives feed invalidation
+    private Cache<TenantUserKey, List<FeedSnapshot>> snapshotCache;
 
     @PostConstruct
     public void init() {
-        feedCache = Caffeine.newBuilder()
-                .maximumSize(feedMaxSize)
+        // Partitioned per tenant with guaranteed minimums, so small tenants keep their warm feeds.
+        // Removals run inline so the revalidation registry never outlives a cache entry
+        feedCache = new TenantPartitionedCache<>("feed", memoryBudget.feedBytes(),
+                memoryBudget.tenantReservedShare(), memoryBudget.maxTenantPartitions(),
+                memoryBudget.maxTenantOverflowShare(), TenantUserKey::tenantId, FEED_WEIGHER,
+                (maximumWeight, evictionListener) -> Caffeine.newBuilder()
+                        .maximumWeight(maximumWeight)
+                        .weigher(FEED_WEIGHER)
+                        .evictionListener(evictionListener)
+                        .expireAfterWrite(feedExpireMinutes, TimeUnit.MINUTES)
+                        .executor(Runnable::run)
+                        .removalListener(this::onFeedRemoved)
+                        .recordStats()
+                        .build(),
+                meterRegistry);
+
+        snapshotCache = Caffeine.newBuilder()
+                .maximumWeight(memoryBudget.feedSnapshotsBytes())
+                .weigher(SNAPSHOTS_WEIGHER)
                 .expireAfterWrite(feedExpireMinutes, TimeUnit.MINUTES)
-                .recordStats()
                 .build();
 
-        // Register cache with Micrometer for metrics
-        CaffeineCacheMetrics.monitor(meterRegistry, feedCache, "feed", Collections.emptyList());
+        // Feeds built from candidates that another node has since rebuilt are stale here too
+        contentVersionRegistry.addRemoteChangeListener((tenantId, version) -> invalidateAllForTenant(tenantId));
 
-        log.info("CaffeineFeedCacheManager initialized: feedMaxSize={}, feedExpireMinutes={}",
-                feedMaxSize, feedExpireMinutes);
+        log.info("CaffeineFeedCacheManager initialized: feedBytes={}, feedSnapshotsBytes={}, feedExpireMinutes={}, " +
+                        "snapshotHistory={}",
+                memoryBudget.feedBytes(), memoryBudget.feedSnapshotsBytes(), feedExpireMinutes, snapshotHistory);
     }
 
     @Override
     public Optional<CachedFeed> getFeed(Long tenantId, String userId) {
-        String key = buildKey(tenantId, userId);
-        return Optional.ofNullable(feedCache.getIfPresent(key));
+        TenantUserKey key = TenantUserKey.of(tenantId, userId);
+        CachedFeed feed = feedCache.partitionFor(key).getIfPresent(key);
+        return feed != null && feedGenerations.isServable(tenantId, feed) ? Optional.of(feed) : Optional.empty();
     }
 
     @Override
     public void putFeed(Long tenantId, String userId, CachedFeed feed) {
-        String key = buildKey(tenantId, userId);
-        feedCache.put(key, feed);
+        TenantUserKey key = TenantUserKey.of(tenantId, userId);
+        feedVersionRegistry.recordThenPut(key, feed, Duration.ofMinutes(feedExpireMinutes),
+                () -> feedCache.partitionFor(key).put(key, feed));
+        FeedSnapshots.append(snapshotCache.asMap(), key, feed, snapshotHistory);
     }
 
     @Override
     public void invalidateFeed(Long tenantId, String userId) {
-        String key = buildKey(tenantId, userId);
-        feedCache.invalidate(key);
+        TenantUserKey key = TenantUserKey.of(tenantId, userId);
+        feedCache.partitionFor(key).invalidate(key);
     }
 
     @Override
     public void invalidateAllForTenant(Long tenantId) {
-        String prefix = tenantId + ":";
-        feedCache.asMap().keySet().removeIf(key -> key.startsWith(prefix));
+        long generation = feedGenerations.advance(tenantId);
+        log.debug("Feeds of tenant {} invalidated, generation is now {}", tenantId, generation);
+    }
+
+    @Override
+    public long currentGeneration(Long tenantId) {
+        return feedGenerations.current(tenantId);
+    }
+
+    @Override
+    public List<FeedSnapshot> getSnapshots(Long tenantId, String userId) {
+        List<FeedSnapshot> history = snapshotCache.getIfPresent(TenantUserKey.of(tenantId, userId));
+        return history != null ? history : List.of();
+    }
+
+    @Scheduled(fixedDelayString = "${app.cache.tenant-quota.rebalance-interval-ms:5000}")
+    public void rebalanceTenantQuotas() {
+        feedCache.rebalance();
+    }
+
+    @Override
+    public List<CacheFootprint> footprints() {
+        return List.of(
+                CaffeineFootprints.of("feed", memoryBudget.feedBytes(), feedCache, FEED_WEIGHER),
+                CaffeineFootprints.of("feedSnapshots", memoryBudget.feedSnapshotsBytes(),
+                        snapshotCache, SNAPSHOTS_WEIGHER, TenantUserKey::tenantId));
     }
 
-    private String buildKey(Long tenantId, String userId) {
-        return tenantId + ":" + userId;
+    private void onFeedRemoved(TenantUserKey key, CachedFeed feed, RemovalCause cause) {
+        if (cause == RemovalCause.REPLACED || key == null || feed == null) {
+            return;
+        }
+        feedVersionRegistry.remove(key.tenantId(), key.userId(), feed.version());
     }
 }
 
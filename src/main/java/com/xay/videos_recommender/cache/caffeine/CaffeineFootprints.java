@@ -0,0 +1,46 @@
+package com.xay.videos_recommender.cache.caffeine;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Weigher;
+import com.xay.videos_recommender.cache.CacheFootprint;
+import com.xay.videos_recommender.cache.TenantUserKey;
+
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.function.ToLongFunction;
+
+public final class CaffeineFootprints {
+
+    private CaffeineFootprints() {}
+
+    /**
+     * Re-weighs every entry and groups the weights by tenant.
+     */
+    public static <K, V> CacheFootprint of(String name, long budgetBytes, Cache<K, V> cache,
+                                           Weigher<? super K, ? super V> weigher, ToLongFunction<K> tenantOf) {
+        return footprint(name, budgetBytes, List.of(cache), weigher, tenantOf);
+    }
+
+    static <V> CacheFootprint of(String name, long budgetBytes, TenantPartitionedCache<TenantUserKey, V> cache,
+                                 Weigher<? super TenantUserKey, ? super V> weigher) {
+        return footprint(name, budgetBytes, cache.partitions(), weigher, TenantUserKey::tenantId);
+    }
+
+    private static <K, V> CacheFootprint footprint(String name, long budgetBytes, List<Cache<K, V>> caches,
+                                                   Weigher<? super K, ? super V> weigher,
+                                                   ToLongFunction<? super K> tenantOf) {
+        Map<Long, Long> bytesByTenant = new TreeMap<>();
+        long estimatedBytes = 0;
+        long entries = 0;
+        for (Cache<K, V> cache : caches) {
+            for (Map.Entry<K, V> entry : cache.asMap().entrySet()) {
+                long bytes = weigher.weigh(entry.getKey(), entry.getValue());
+                bytesByTenant.merge(tenantOf.applyAsLong(entry.getKey()), bytes, Long::sum);
+                estimatedBytes += bytes;
+                entries++;
+            }
+        }
+        return new CacheFootprint(name, budgetBytes, estimatedBytes, entries, bytesByTenant);
+    }
+}
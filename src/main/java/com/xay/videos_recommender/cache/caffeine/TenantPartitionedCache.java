@@ -0,0 +1,324 @@
+package com.xay.videos_recommender.cache.caffeine;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Policy;
+import com.github.benmanes.caffeine.cache.RemovalCause;
+import com.github.benmanes.caffeine.cache.RemovalListener;
+import com.github.benmanes.caffeine.cache.Weigher;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.ToDoubleFunction;
+import java.util.function.ToLongFunction;
+
+/**
+ * A weight-bounded cache split into one Caffeine partition per tenant, so a burst from one tenant
+ * cannot evict another tenant's entries.
+ *
+ * The reserved share of the budget is split evenly between the partitions that exist, so each is guaranteed
+ * {@link #minimumBytes()}. The rest is an overflow pool, split evenly while nothing is evicted for size. Once
+ * something is, {@link #rebalance()} lends it by recent pressure, the weight each partition evicted for size:
+ * partitions under no pressure keep at least the bytes they hold, and only what is left over is lent to the
+ * pressed ones, so one tenant's burst doesn't shrink a quiet tenant's working set. No tenant borrows more than
+ * {@code maxOverflowShare} of the pool while others also press for it, but bytes nobody else wants can be borrowed
+ * in full, so a few tenants can fill the whole budget. Expirations are not pressure. Tenants beyond
+ * {@code maxPartitions} share one extra partition, which also bounds the tenant tag of the per-partition meters.
+ *
+ * A partition created on a request thread starts with the bytes no partition holds as its maximum, or the smallest
+ * possible minimum if that is more, and is sized properly by the next {@link #rebalance()}. Until then the
+ * partitions can exceed the budget by at most the reserved bytes.
+ */
+final class TenantPartitionedCache<K, V> {
+
+    /**
+     * Builds a weight-bounded, stats-recording partition with the given maximum weight, passing the listener to
+     * {@link com.github.benmanes.caffeine.cache.Caffeine#evictionListener}.
+     */
+    @FunctionalInterface
+    interface PartitionFactory<K, V> {
+        Cache<K, V> create(long maximumWeight, RemovalListener<K, V> evictionListener);
+    }
+
+    static final String OTHER_TENANTS = "other";
+
+    // Weight of the previous pressure in each rebalance, so borrowed bytes follow sustained load
+    private static final double PRESSURE_DECAY = 0.5;
+
+    private final String name;
+    private final ToLongFunction<K> tenantOf;
+    private final Weigher<? super K, ? super V> weigher;
+    private final PartitionFactory<K, V> partitionFactory;
+    private final MeterRegistry meterRegistry;
+    private final int maxPartitions;
+    private final long budgetBytes;
+    private final long reservedBytes;
+    private final double maxOverflowShare;
+
+    private final ConcurrentHashMap<Long, Partition> partitions = new ConcurrentHashMap<>();
+    private final Partition otherTenants;
+    // Set once a tenant beyond the partition limit shows up; until then the shared partition holds no budget
+    private volatile boolean otherTenantsInUse;
+
+    // Serializes partition creation and resizing; a lock rather than synchronized, so a virtual request thread
+    // creating a partition does not pin its carrier
+    private final ReentrantLock lock = new ReentrantLock();
+    private volatile long minimumBytes;
+    private volatile long overflowBytes;
+
+    /**
+     * @param weigher the partitions' weigher, to measure what they evict for size
+     */
+    TenantPartitionedCache(String name, long budgetBytes, double reservedShare, int maxPartitions,
+                           double maxOverflowShare, ToLongFunction<K> tenantOf, Weigher<? super K, ? super V> weigher,
+                           PartitionFactory<K, V> partitionFactory, MeterRegistry meterRegistry) {
+        this.name = name;
+        this.tenantOf = tenantOf;
+        this.weigher = weigher;
+        this.partitionFactory = partitionFactory;
+        this.meterRegistry = meterRegistry;
+        this.maxPartitions = maxPartitions;
+        this.budgetBytes = budgetBytes;
+        this.reservedBytes = (long) (budgetBytes * reservedShare);
+        this.maxOverflowShare = maxOverflowShare;
+        this.otherTenants = newPartition(OTHER_TENANTS, 0);
+
+        registerAggregateMeters();
+    }
+
+    Cache<K, V> partitionFor(K key) {
+        return partition(tenantOf.applyAsLong(key));
+    }
+
+    Cache<K, V> partition(long tenantId) {
+        Partition partition = partitions.get(tenantId);
+        if (partition != null) {
+            return partition.cache;
+        }
+        // Rare, and serialized so the partition limit holds exactly
+        lock.lock();
+        try {
+            partition = partitions.get(tenantId);
+            if (partition == null) {
+                if (partitions.size() >= maxPartitions) {
+                    if (!otherTenantsInUse) {
+                        otherTenants.setMaximum(provisionalMaximum());
+                        otherTenantsInUse = true;
+                    }
+                    return otherTenants.cache;
+                }
+                partition = newPartition(String.valueOf(tenantId), provisionalMaximum());
+                partitions.put(tenantId, partition);
+            }
+            return partition.cache;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Every partition, including the one shared by tenants beyond the partition limit.
+     */
+    List<Cache<K, V>> partitions() {
+        List<Cache<K, V>> caches = new ArrayList<>(partitions.size() + 1);
+        for (Partition partition : partitions.values()) {
+            caches.add(partition.cache);
+        }
+        caches.add(otherTenants.cache);
+        return caches;
+    }
+
+    long minimumBytes() {
+        return minimumBytes;
+    }
+
+    long overflowBytes() {
+        return overflowBytes;
+    }
+
+    /**
+     * Sizes the partitions created since the last call and re-divides the overflow pool by eviction pressure.
+     */
+    void rebalance() {
+        lock.lock();
+        try {
+            otherTenants.updatePressure();
+            for (Partition partition : partitions.values()) {
+                partition.updatePressure();
+            }
+            resize();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * The bytes no partition holds as its maximum, but at least the minimum with every partition in use.
+     */
+    private long provisionalMaximum() {
+        long assigned = otherTenants.maximumBytes();
+        for (Partition partition : partitions.values()) {
+            assigned += partition.maximumBytes();
+        }
+        return Math.max(reservedBytes / (maxPartitions + 1), budgetBytes - assigned);
+    }
+
+    /**
+     * Sets every partition's maximum from the partitions that exist and their current pressure.
+     */
+    private void resize() {
+        List<Partition> active = new ArrayList<>(partitions.values());
+        if (otherTenantsInUse) {
+            active.add(otherTenants);
+        } else {
+            otherTenants.setMaximum(0);
+        }
+        if (active.isEmpty()) {
+            return;
+        }
+        minimumBytes = reservedBytes / active.size();
+        overflowBytes = budgetBytes - minimumBytes * active.size();
+
+        double totalPressure = 0;
+        List<Partition> pressed = new ArrayList<>(active.size());
+        List<Partition> unpressed = new ArrayList<>(active.size());
+        for (Partition partition : active) {
+            totalPressure += partition.pressure;
+            (partition.pressure > 0 ? pressed : unpressed).add(partition);
+        }
+
+        // Unpressed partitions keep what they hold, scaled down only if that doesn't leave the pressed their minimum
+        long[] kept = new long[unpressed.size()];
+        long keptAboveMinimum = 0;
+        for (int i = 0; i < kept.length; i++) {
+            kept[i] = Math.max(0L, unpressed.get(i).weightedSize() - minimumBytes);
+            keptAboveMinimum += kept[i];
+        }
+        long keepable = Math.max(0L, overflowBytes);
+        double keptScale = keptAboveMinimum > keepable ? (double) keepable / keptAboveMinimum : 1.0;
+        long idle = overflowBytes;
+        for (int i = 0; i < kept.length; i++) {
+            kept[i] = (long) (kept[i] * keptScale);
+            idle -= kept[i];
+        }
+        if (pressed.isEmpty()) {
+            // Nobody needs more, so the idle bytes are spread evenly as headroom
+            for (int i = 0; i < kept.length; i++) {
+                unpressed.get(i).setMaximum(minimumBytes + kept[i] + idle / kept.length);
+            }
+            return;
+        }
+        for (int i = 0; i < kept.length; i++) {
+            unpressed.get(i).setMaximum(minimumBytes + kept[i]);
+        }
+
+        // Idle bytes go to the pressed partitions: capped shares first, then what the caps left over uncapped
+        long maxBorrowedBytes = (long) (overflowBytes * maxOverflowShare);
+        long[] borrowed = new long[pressed.size()];
+        long unlent = idle;
+        for (int i = 0; i < borrowed.length; i++) {
+            borrowed[i] = Math.min(maxBorrowedBytes, (long) (idle * (pressed.get(i).pressure / totalPressure)));
+            unlent -= borrowed[i];
+        }
+        for (int i = 0; i < borrowed.length; i++) {
+            long extra = (long) (unlent * (pressed.get(i).pressure / totalPressure));
+            pressed.get(i).setMaximum(minimumBytes + borrowed[i] + extra);
+        }
+    }
+
+    private Partition newPartition(String tenantTag, long maximumBytes) {
+        LongAdder sizeEvictedWeight = new LongAdder();
+        Cache<K, V> cache = partitionFactory.create(maximumBytes, (key, value, cause) -> {
+            if (cause == RemovalCause.SIZE && key != null && value != null) {
+                sizeEvictedWeight.add(weigher.weigh(key, value));
+            }
+        });
+        Partition partition = new Partition(cache, sizeEvictedWeight);
+        Tags tags = Tags.of("cache", name, "tenant", tenantTag);
+        FunctionCounter.builder("cache.tenant.gets", partition, p -> p.cache.stats().hitCount())
+                .tags(tags).tag("result", "hit").register(meterRegistry);
+        FunctionCounter.builder("cache.tenant.gets", partition, p -> p.cache.stats().missCount())
+                .tags(tags).tag("result", "miss").register(meterRegistry);
+        FunctionCounter.builder("cache.tenant.evictions", partition, p -> p.cache.stats().evictionCount())
+                .tags(tags).register(meterRegistry);
+        Gauge.builder("cache.tenant.weight.bytes", partition, Partition::weightedSize)
+                .tags(tags).register(meterRegistry);
+        Gauge.builder("cache.tenant.maximum.bytes", partition, Partition::maximumBytes)
+                .tags(tags).register(meterRegistry);
+        return partition;
+    }
+
+    /**
+     * Same names as CaffeineCacheMetrics, summed over partitions, so cache-level dashboards keep working.
+     */
+    private void registerAggregateMeters() {
+        Tags tags = Tags.of("cache", name);
+        FunctionCounter.builder("cache.gets", this, sum(CacheStats::hitCount))
+                .tags(tags).tag("result", "hit").register(meterRegistry);
+        FunctionCounter.builder("cache.gets", this, sum(CacheStats::missCount))
+                .tags(tags).tag("result", "miss").register(meterRegistry);
+        FunctionCounter.builder("cache.evictions", this, sum(CacheStats::evictionCount))
+                .tags(tags).register(meterRegistry);
+        FunctionCounter.builder("cache.eviction.weight", this, sum(CacheStats::evictionWeight))
+                .tags(tags).register(meterRegistry);
+        Gauge.builder("cache.size", this, cache -> {
+            long size = 0;
+            for (Cache<K, V> partition : cache.partitions()) {
+                size += partition.estimatedSize();
+            }
+            return size;
+        }).tags(tags).register(meterRegistry);
+    }
+
+    private ToDoubleFunction<TenantPartitionedCache<K, V>> sum(ToLongFunction<CacheStats> stat) {
+        return cache -> {
+            long total = 0;
+            for (Cache<K, V> partition : cache.partitions()) {
+                total += stat.applyAsLong(partition.stats());
+            }
+            return total;
+        };
+    }
+
+    private final class Partition {
+
+        private final Cache<K, V> cache;
+        // Weight evicted for size; expirations are not pressure
+        private final LongAdder sizeEvictedWeight;
+        private double pressure;
+
+        private Partition(Cache<K, V> cache, LongAdder sizeEvictedWeight) {
+            this.cache = cache;
+            this.sizeEvictedWeight = sizeEvictedWeight;
+        }
+
+        private void updatePressure() {
+            pressure = pressure * PRESSURE_DECAY + sizeEvictedWeight.sumThenReset();
+            if (pressure < 1) {
+                // Decayed to nothing; the partition is no longer pressed
+                pressure = 0;
+            }
+        }
+
+        private void setMaximum(long maximumBytes) {
+            cache.policy().eviction().ifPresent(eviction -> eviction.setMaximum(maximumBytes));
+        }
+
+        private long weightedSize() {
+            return cache.policy().eviction()
+                    .map(eviction -> eviction.weightedSize().orElse(0L))
+                    .orElse(0L);
+        }
+
+        private long maximumBytes() {
+            return cache.policy().eviction().map(Policy.Eviction::getMaximum).orElse(0L);
+        }
+    }
+}
@@ -0,0 +1,94 @@
+package com.xay.videos_recommender.cache.redis;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.data.redis.connection.Message;
+import org.springframework.data.redis.connection.MessageListener;
+import org.springframework.stereotype.Component;
+
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Consumer;
+
+/**
+ * Near-cache invalidation across nodes over Redis pub/sub.
+ * Messages are CBOR-encoded and carry the publishing node's id, so a node ignores its own.
+ * Delivery is at-most-once; near-cache expiry bounds how long a lost message can leave a node stale.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+@ConditionalOnProperty(name = "app.cache.backend", havingValue = "redis")
+public class CacheInvalidationBus implements MessageListener {
+
+    public enum Kind {
+        TENANT,
+        CONTENT_CANDIDATES,
+        USER_PROFILES,
+        FEEDS,
+        FEED_GENERATION
+    }
+
+    /**
+     * Users are set for USER_PROFILES and FEEDS, the generation for FEED_GENERATION.
+     */
+    public record Invalidation(String origin, Kind kind, long tenantId, List<String> userIds, long generation) {
+
+        public Invalidation {
+            userIds = userIds != null ? userIds : List.of();
+        }
+    }
+
+    private final RedisCacheClient redisCacheClient;
+    private final RedisValueCodec codec;
+
+    @Value("${app.cache.redis.invalidation-channel}")
+    private String channel;
+
+    private final String nodeId = UUID.randomUUID().toString();
+    private final Map<Kind, List<Consumer<Invalidation>>> handlers = emptyHandlers();
+
+    public String channel() {
+        return channel;
+    }
+
+    public void subscribe(Kind kind, Consumer<Invalidation> handler) {
+        handlers.get(kind).add(handler);
+    }
+
+    public void publish(Kind kind, long tenantId) {
+        publish(kind, tenantId, List.of(), 0L);
+    }
+
+    public void publish(Kind kind, long tenantId, List<String> userIds) {
+        publish(kind, tenantId, userIds, 0L);
+    }
+
+    public void publish(Kind kind, long tenantId, List<String> userIds, long generation) {
+        redisCacheClient.publish(channel, codec.encode(new Invalidation(nodeId, kind, tenantId, userIds, generation)));
+    }
+
+    @Override
+    public void onMessage(Message message, byte[] pattern) {
+        Invalidation invalidation = codec.decode(message.getBody(), Invalidation.class);
+        if (invalidation == null || nodeId.equals(invalidation.origin()) || invalidation.kind() == null) {
+            return;
+        }
+        log.debug("Invalidation from {}: {} tenant {} ({} users)", invalidation.origin(), invalidation.kind(),
+                invalidation.tenantId(), invalidation.userIds().size());
+        handlers.get(invalidation.kind()).forEach(handler -> handler.accept(invalidation));
+    }
+
+    private static Map<Kind, List<Consumer<Invalidation>>> emptyHandlers() {
+        Map<Kind, List<Consumer<Invalidation>>> handlers = new EnumMap<>(Kind.class);
+        for (Kind kind : Kind.values()) {
+            handlers.put(kind, new CopyOnWriteArrayList<>());
+        }
+        return handlers;
+    }
+}
@@ -0,0 +1,274 @@
+package com.xay.videos_recommender.cache.redis;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.xay.videos_recommender.cache.AppCache;
+import com.xay.videos_recommender.cache.TenantUserKey;
+import com.xay.videos_recommender.cache.redis.CacheInvalidationBus.Kind;
+import com.xay.videos_recommender.mapper.UserProfileMapper;
+import com.xay.videos_recommender.model.domain.ContentCandidate;
+import com.xay.videos_recommender.model.domain.UserSignals;
+import com.xay.videos_recommender.model.entity.Tenant;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Redis-backed {@link AppCache} shared by all nodes, with a bounded per-node Caffeine near cache.
+ * Reads go near cache → Redis; evictions delete from Redis and tell the other nodes to drop their copy.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+@ConditionalOnProperty(name = "app.cache.backend", havingValue = "redis")
+public class RedisAppCache implements AppCache {
+
+    private static final TypeReference<List<ContentCandidate>> CANDIDATES = new TypeReference<>() {};
+
+    private final RedisCacheClient redis;
+    private final RedisValueCodec codec;
+    private final CacheInvalidationBus invalidationBus;
+    private final MeterRegistry meterRegistry;
+    private final UserProfileMapper userProfileMapper;
+
+    @Value("${app.cache.tenant.max-size}")
+    private int tenantMaxSize;
+
+    @Value("${app.cache.user-profile.expire-after-write-minutes}")
+    private int userProfileExpireMinutes;
+
+    @Value("${app.cache.content-candidates.max-size}")
+    private int contentCandidatesMaxSize;
+
+    @Value("${app.cache.redis.near-cache.max-size}")
+    private int nearCacheMaxSize;
+
+    @Value("${app.cache.redis.near-cache.expire-after-write-seconds}")
+    private int nearCacheExpireSeconds;
+
+    private Cache<Long, Tenant> tenantCache;
+    private Cache<TenantUserKey, UserSignals> userSignalsCache;
+    private Cache<Long, List<ContentCandidate>> contentCandidatesCache;
+
+    @PostConstruct
+    public void init() {
+        tenantCache = nearCache(tenantMaxSize);
+        userSignalsCache = nearCache(nearCacheMaxSize);
+        contentCandidatesCache = nearCache(contentCandidatesMaxSize);
+
+        // Same cache names as the Caffeine backend; the near-cache hit rate is what these report
+        CaffeineCacheMetrics.monitor(meterRegistry, tenantCache, "tenant", Collections.emptyList());
+        CaffeineCacheMetrics.monitor(meterRegistry, userSignalsCache, "userProfile", Collections.emptyList());
+        CaffeineCacheMetrics.monitor(meterRegistry, contentCandidatesCache, "contentCandidates", Collections.emptyList());
+
+        invalidationBus.subscribe(Kind.TENANT, message -> tenantCache.invalidate(message.tenantId()));
+        invalidationBus.subscribe(Kind.CONTENT_CANDIDATES, message -> contentCandidatesCache.invalidate(message.tenantId()));
+        invalidationBus.subscribe(Kind.USER_PROFILES, message -> message.userIds()
+                .forEach(userId -> userSignalsCache.invalidate(TenantUserKey.of(message.tenantId(), userId))));
+
+        log.info("RedisAppCache initialized: nearCacheMaxSize={}, nearCacheExpireSeconds={}, userProfileExpireMinutes={}",
+                nearCacheMaxSize, nearCacheExpireSeconds, userProfileExpireMinutes);
+    }
+
+    @Override
+    public Optional<Tenant> getTenant(Long tenantId) {
+        Tenant tenant = tenantCache.getIfPresent(tenantId);
+        if (tenant == null) {
+            tenant = codec.decode(redis.get(RedisKeys.tenant(tenantId)), Tenant.class);
+            if (tenant != null) {
+                tenantCache.put(tenantId, tenant);
+            }
+        }
+        return Optional.ofNullable(tenant);
+    }
+
+    /**
+     * Answers from the near cache only; a near miss reports empty so the caller moves the Redis read off the request thread.
+     */
+    @Override
+    public CompletableFuture<Optional<Tenant>> getTenantAsync(Long tenantId) {
+        return CompletableFuture.completedFuture(Optional.ofNullable(tenantCache.getIfPresent(tenantId)));
+    }
+
+    @Override
+    public void putTenant(Long tenantId, Tenant tenant) {
+        redis.set(RedisKeys.tenant(tenantId), codec.encode(tenant), null);
+        tenantCache.put(tenantId, tenant);
+    }
+
+    @Override
+    public void evictTenant(Long tenantId) {
+        redis.delete(RedisKeys.tenant(tenantId));
+        tenantCache.invalidate(tenantId);
+        invalidationBus.publish(Kind.TENANT, tenantId);
+    }
+
+    @Override
+    public Optional<UserSignals> getUserSignals(Long tenantId, String userId) {
+        TenantUserKey key = TenantUserKey.of(tenantId, userId);
+        UserSignals signals = userSignalsCache.getIfPresent(key);
+        if (signals == null) {
+            signals = fromShared(codec.decode(redis.get(RedisKeys.userSignals(tenantId, userId)), SharedUserSignals.class));
+            if (signals != null) {
+                userSignalsCache.put(key, signals);
+            }
+        }
+        return Optional.ofNullable(signals);
+    }
+
+    @Override
+    public Map<String, UserSignals> getUserSignals(Long tenantId, Collection<String> userIds) {
+        Map<String, UserSignals> signals = new HashMap<>(userIds.size() * 2);
+        List<String> missing = new ArrayList<>();
+        for (String userId : userIds) {
+            UserSignals userSignals = userSignalsCache.getIfPresent(TenantUserKey.of(tenantId, userId));
+            if (userSignals != null) {
+                signals.put(userId, userSignals);
+            } else {
+                missing.add(userId);
+            }
+        }
+        if (missing.isEmpty()) {
+            return signals;
+        }
+
+        List<String> keys = missing.stream()
+                .map(userId -> RedisKeys.userSignals(tenantId, userId))
+                .toList();
+        List<byte[]> values = redis.multiGet(keys);
+        for (int i = 0; i < missing.size(); i++) {
+            UserSignals userSignals = fromShared(codec.decode(values.get(i), SharedUserSignals.class));
+            if (userSignals != null) {
+                signals.put(missing.get(i), userSignals);
+                userSignalsCache.put(TenantUserKey.of(tenantId, missing.get(i)), userSignals);
+            }
+        }
+        return signals;
+    }
+
+    @Override
+    public void putUserSignals(Long tenantId, String userId, UserSignals signals) {
+        redis.set(RedisKeys.userSignals(tenantId, userId), codec.encode(toShared(signals)), userProfileTtl());
+        userSignalsCache.put(TenantUserKey.of(tenantId, userId), signals);
+    }
+
+    @Override
+    public void putUserSignals(Long tenantId, Map<String, UserSignals> signals) {
+        Map<String, byte[]> values = new LinkedHashMap<>(signals.size() * 2);
+        signals.forEach((userId, userSignals) -> {
+            values.put(RedisKeys.userSignals(tenantId, userId), codec.encode(toShared(userSignals)));
+            userSignalsCache.put(TenantUserKey.of(tenantId, userId), userSignals);
+        });
+        redis.multiSet(values, userProfileTtl());
+    }
+
+    @Override
+    public void evictUserSignals(Long tenantId, String userId) {
+        redis.delete(RedisKeys.userSignals(tenantId, userId));
+        userSignalsCache.invalidate(TenantUserKey.of(tenantId, userId));
+        invalidationBus.publish(Kind.USER_PROFILES, tenantId, List.of(userId));
+    }
+
+    @Override
+    public Optional<List<ContentCandidate>> getContentCandidates(Long tenantId) {
+        List<ContentCandidate> candidates = contentCandidatesCache.getIfPresent(tenantId);
+        if (candidates == null) {
+            candidates = codec.decode(redis.get(RedisKeys.contentCandidates(tenantId)), CANDIDATES);
+            if (candidates != null) {
+                contentCandidatesCache.put(tenantId, candidates);
+            }
+        }
+        return Optional.ofNullable(candidates);
+    }
+
+    @Override
+    public void putContentCandidates(Long tenantId, List<ContentCandidate> candidates, int version) {
+        redis.set(RedisKeys.contentCandidates(tenantId), codec.encode(candidates), null);
+        contentCandidatesCache.put(tenantId, candidates);
+    }
+
+    @Override
+    public void evictContentCandidates(Long tenantId) {
+        redis.delete(RedisKeys.contentCandidates(tenantId));
+        contentCandidatesCache.invalidate(tenantId);
+        invalidationBus.publish(Kind.CONTENT_CANDIDATES, tenantId);
+    }
+
+    /**
+     * Category ids are local to each node, so affinities are shared by category name.
+     */
+    private SharedUserSignals toShared(UserSignals signals) {
+        return new SharedUserSignals(signals.tenantId(), signals.hashedUserId(), signals.watchCount(),
+                signals.totalWatchTimeMs(), signals.avgWatchPercentage(), signals.likeCount(), signals.shareCount(),
+                userProfileMapper.toAffinityMap(signals.tenantId(), signals.categoryAffinities()),
+                signals.watchedKeys(), signals.profileUpdatedAt());
+    }
+
+    private UserSignals fromShared(SharedUserSignals shared) {
+        if (shared == null) {
+            return null;
+        }
+        return UserSignals.builder()
+                .tenantId(shared.tenantId())
+                .hashedUserId(shared.hashedUserId())
+                .watchCount(shared.watchCount())
+                .totalWatchTimeMs(shared.totalWatchTimeMs())
+                .avgWatchPercentage(shared.avgWatchPercentage())
+                .likeCount(shared.likeCount())
+                .shareCount(shared.shareCount())
+                .categoryAffinities(shared.categoryAffinities() != null
+                        ? userProfileMapper.toAffinityArray(shared.tenantId(), shared.categoryAffinities())
+                        : null)
+                .watchedKeys(shared.watchedKeys())
+                .profileUpdatedAt(shared.profileUpdatedAt())
+                .build();
+    }
+
+    private Duration userProfileTtl() {
+        return Duration.ofMinutes(userProfileExpireMinutes);
+    }
+
+    private <K, V> Cache<K, V> nearCache(int maxSize) {
+        return Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfterWrite(nearCacheExpireSeconds, TimeUnit.SECONDS)
+                .recordStats()
+                .build();
+    }
+
+    /**
+     * Stored form of {@link UserSignals} in Redis.
+     */
+    record SharedUserSignals(
+            Long tenantId,
+            String hashedUserId,
+            int watchCount,
+            long totalWatchTimeMs,
+            BigDecimal avgWatchPercentage,
+            int likeCount,
+            int shareCount,
+            Map<String, Float> categoryAffinities,
+            long[] watchedKeys,
+            Instant profileUpdatedAt
+    ) {}
+}
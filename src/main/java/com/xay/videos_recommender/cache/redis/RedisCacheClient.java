@@ -0,0 +1,157 @@
+package com.xay.videos_recommender.cache.redis;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.dao.DataAccessException;
+import org.springframework.data.redis.connection.RedisConnectionFactory;
+import org.springframework.data.redis.connection.RedisStringCommands;
+import org.springframework.data.redis.core.RedisCallback;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.types.Expiration;
+import org.springframework.data.redis.serializer.RedisSerializer;
+import org.springframework.stereotype.Component;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Binary-valued Redis access for the Redis cache implementations.
+ * Redis is a cache here, never the source of truth: failures are logged and counted,
+ * reads degrade to misses and writes are dropped.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+@ConditionalOnProperty(name = "app.cache.backend", havingValue = "redis")
+public class RedisCacheClient {
+
+    private final RedisConnectionFactory connectionFactory;
+    private final MeterRegistry meterRegistry;
+
+    private RedisTemplate<String, byte[]> template;
+    private Counter errors;
+
+    @PostConstruct
+    public void init() {
+        template = new RedisTemplate<>();
+        template.setConnectionFactory(connectionFactory);
+        template.setKeySerializer(RedisSerializer.string());
+        template.setValueSerializer(RedisSerializer.byteArray());
+        template.afterPropertiesSet();
+
+        errors = meterRegistry.counter("cache.redis.errors");
+    }
+
+    public byte[] get(String key) {
+        try {
+            return template.opsForValue().get(key);
+        } catch (DataAccessException e) {
+            return failed("GET", e, null);
+        }
+    }
+
+    /**
+     * Like {@link #get}, but a missing key reads as an empty array, so null only means Redis was unavailable.
+     */
+    public byte[] getOrEmpty(String key) {
+        try {
+            byte[] value = template.opsForValue().get(key);
+            return value != null ? value : new byte[0];
+        } catch (DataAccessException e) {
+            return failed("GET", e, null);
+        }
+    }
+
+    /**
+     * Values in key order, null for missing keys.
+     */
+    public List<byte[]> multiGet(List<String> keys) {
+        if (keys.isEmpty()) {
+            return List.of();
+        }
+        try {
+            List<byte[]> values = template.opsForValue().multiGet(keys);
+            return values != null ? values : Collections.nCopies(keys.size(), null);
+        } catch (DataAccessException e) {
+            return failed("MGET", e, Collections.nCopies(keys.size(), null));
+        }
+    }
+
+    /**
+     * Sets a value; a null ttl means no expiry.
+     */
+    public void set(String key, byte[] value, Duration ttl) {
+        try {
+            if (ttl != null) {
+                template.opsForValue().set(key, value, ttl);
+            } else {
+                template.opsForValue().set(key, value);
+            }
+        } catch (DataAccessException e) {
+            failed("SET", e, null);
+        }
+    }
+
+    /**
+     * Sets all values in one pipelined round trip; a null ttl means no expiry.
+     */
+    public void multiSet(Map<String, byte[]> values, Duration ttl) {
+        if (values.isEmpty()) {
+            return;
+        }
+        Expiration expiration = ttl != null ? Expiration.from(ttl) : Expiration.persistent();
+        List<Map.Entry<String, byte[]>> entries = new ArrayList<>(values.entrySet());
+        try {
+            template.executePipelined((RedisCallback<Object>) connection -> {
+                for (Map.Entry<String, byte[]> entry : entries) {
+                    connection.stringCommands().set(entry.getKey().getBytes(StandardCharsets.UTF_8), entry.getValue(),
+                            expiration, RedisStringCommands.SetOption.upsert());
+                }
+                return null;
+            });
+        } catch (DataAccessException e) {
+            failed("SET (pipelined)", e, null);
+        }
+    }
+
+    public void delete(String key) {
+        try {
+            template.delete(key);
+        } catch (DataAccessException e) {
+            failed("DEL", e, null);
+        }
+    }
+
+    /**
+     * Atomically increments a counter; null when Redis is unavailable.
+     */
+    public Long increment(String key) {
+        try {
+            return template.opsForValue().increment(key);
+        } catch (DataAccessException e) {
+            return failed("INCR", e, null);
+        }
+    }
+
+    public void publish(String channel, byte[] message) {
+        try {
+            template.convertAndSend(channel, message);
+        } catch (DataAccessException e) {
+            failed("PUBLISH", e, null);
+        }
+    }
+
+    private <T> T failed(String command, DataAccessException e, T fallback) {
+        errors.increment();
+        log.warn("Redis {} failed, continuing without the shared cache: {}", command, e.getMessage());
+        return fallback;
+    }
+}
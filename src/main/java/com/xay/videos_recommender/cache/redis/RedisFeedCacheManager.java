@@ -0,0 +1,225 @@
+package com.xay.videos_recommender.cache.redis;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.RemovalCause;
+import com.xay.videos_recommender.cache.FeedCacheManager;
+import com.xay.videos_recommender.cache.FeedGenerations;
+import com.xay.videos_recommender.cache.FeedSnapshots;
+import com.xay.videos_recommender.cache.FeedVersionRegistry;
+import com.xay.videos_recommender.cache.TenantUserKey;
+import com.xay.videos_recommender.cache.redis.CacheInvalidationBus.Kind;
+import com.xay.videos_recommender.model.domain.CachedFeed;
+import com.xay.videos_recommender.model.domain.FeedSnapshot;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Redis-backed {@link FeedCacheManager} shared by all nodes, with a bounded per-node near cache.
+ * Every feed put or invalidation is announced so other nodes drop their near copy, and tenant
+ * generations are a Redis counter that each node follows through the same channel.
+ *
+ * The revalidation registry mirrors the near cache, so the pre-dispatch 304 path only answers
+ * for feeds this node currently holds.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+@ConditionalOnProperty(name = "app.cache.backend", havingValue = "redis")
+public class RedisFeedCacheManager implements FeedCacheManager {
+
+    private static final TypeReference<List<FeedSnapshot>> SNAPSHOTS = new TypeReference<>() {};
+
+    private final RedisCacheClient redis;
+    private final RedisValueCodec codec;
+    private final CacheInvalidationBus invalidationBus;
+    private final FeedVersionRegistry feedVersionRegistry;
+    private final FeedGenerations feedGenerations;
+    private final MeterRegistry meterRegistry;
+
+    @Value("${app.cache.feed.expire-after-write-minutes}")
+    private int feedExpireMinutes;
+
+    @Value("${app.cache.feed.snapshot-history:3}")
+    private int snapshotHistory;
+
+    @Value("${app.cache.redis.near-cache.max-size}")
+    private int nearCacheMaxSize;
+
+    @Value("${app.cache.redis.near-cache.expire-after-write-seconds}")
+    private int nearCacheExpireSeconds;
+
+    private Cache<TenantUserKey, CachedFeed> feedCache;
+    private Cache<TenantUserKey, List<FeedSnapshot>> snapshotCache;
+
+    // Tenants whose generation has been read from Redis; later changes arrive as invalidations
+    private final Set<Long> syncedGenerations = ConcurrentHashMap.newKeySet();
+
+    @PostConstruct
+    public void init() {
+        // Removals run inline so the revalidation registry never outlives a near-cache entry
+        feedCache = Caffeine.newBuilder()
+                .maximumSize(nearCacheMaxSize)
+                .expireAfterWrite(nearCacheExpireSeconds, TimeUnit.SECONDS)
+                .executor(Runnable::run)
+                .removalListener(this::onFeedRemoved)
+                .recordStats()
+                .build();
+
+        snapshotCache = Caffeine.newBuilder()
+                .maximumSize(nearCacheMaxSize)
+                .expireAfterWrite(nearCacheExpireSeconds, TimeUnit.SECONDS)
+                .build();
+
+        CaffeineCacheMetrics.monitor(meterRegistry, feedCache, "feed", Collections.emptyList());
+
+        invalidationBus.subscribe(Kind.FEEDS, message -> message.userIds().forEach(userId -> {
+            TenantUserKey key = TenantUserKey.of(message.tenantId(), userId);
+            feedCache.invalidate(key);
+            snapshotCache.invalidate(key);
+        }));
+        invalidationBus.subscribe(Kind.FEED_GENERATION,
+                message -> feedGenerations.advanceTo(message.tenantId(), message.generation()));
+
+        log.info("RedisFeedCacheManager initialized: nearCacheMaxSize={}, nearCacheExpireSeconds={}, feedExpireMinutes={}",
+                nearCacheMaxSize, nearCacheExpireSeconds, feedExpireMinutes);
+    }
+
+    @Override
+    public Optional<CachedFeed> getFeed(Long tenantId, String userId) {
+        TenantUserKey key = TenantUserKey.of(tenantId, userId);
+        CachedFeed feed = feedCache.getIfPresent(key);
+        if (feed == null) {
+            feed = codec.decode(redis.get(RedisKeys.feed(tenantId, userId)), CachedFeed.class);
+            if (feed == null) {
+                return Optional.empty();
+            }
+            holdNear(key, feed);
+        }
+        // Until the shared generation has been read, a near copy may predate an invalidation
+        if (!syncGeneration(tenantId)) {
+            return Optional.empty();
+        }
+        return feedGenerations.isServable(tenantId, feed) ? Optional.of(feed) : Optional.empty();
+    }
+
+    /**
+     * Answers from the near cache only; a near miss reports empty so the caller moves the Redis read off the request thread.
+     */
+    @Override
+    public CompletableFuture<Optional<CachedFeed>> getFeedAsync(Long tenantId, String userId) {
+        CachedFeed feed = feedCache.getIfPresent(TenantUserKey.of(tenantId, userId));
+        if (feed == null || !syncedGenerations.contains(tenantId) || !feedGenerations.isServable(tenantId, feed)) {
+            return CompletableFuture.completedFuture(Optional.empty());
+        }
+        return CompletableFuture.completedFuture(Optional.of(feed));
+    }
+
+    @Override
+    public void putFeed(Long tenantId, String userId, CachedFeed feed) {
+        TenantUserKey key = TenantUserKey.of(tenantId, userId);
+        holdNear(key, feed);
+
+        Map<String, byte[]> values = new LinkedHashMap<>(4);
+        values.put(RedisKeys.feed(tenantId, userId), codec.encode(feed));
+        if (feed.videoIds() != null) {
+            // Brings the stored history into the near cache to append to
+            getSnapshots(tenantId, userId);
+            List<FeedSnapshot> history = FeedSnapshots.append(snapshotCache.asMap(), key, feed, snapshotHistory);
+            values.put(RedisKeys.feedSnapshots(tenantId, userId), codec.encode(history));
+        }
+        redis.multiSet(values, Duration.ofMinutes(feedExpireMinutes));
+        invalidationBus.publish(Kind.FEEDS, tenantId, List.of(userId));
+    }
+
+    @Override
+    public void invalidateFeed(Long tenantId, String userId) {
+        feedCache.invalidate(TenantUserKey.of(tenantId, userId));
+        redis.delete(RedisKeys.feed(tenantId, userId));
+        invalidationBus.publish(Kind.FEEDS, tenantId, List.of(userId));
+    }
+
+    @Override
+    public void invalidateAllForTenant(Long tenantId) {
+        syncGeneration(tenantId);
+        Long shared = redis.increment(RedisKeys.feedGeneration(tenantId));
+        if (shared == null) {
+            // Redis unavailable: at least this node stops serving the tenant's feeds
+            feedGenerations.advance(tenantId);
+            return;
+        }
+        feedGenerations.advanceTo(tenantId, shared);
+        invalidationBus.publish(Kind.FEED_GENERATION, tenantId, List.of(), shared);
+        log.debug("Feeds of tenant {} invalidated, generation is now {}", tenantId, shared);
+    }
+
+    @Override
+    public long currentGeneration(Long tenantId) {
+        syncGeneration(tenantId);
+        return feedGenerations.current(tenantId);
+    }
+
+    @Override
+    public List<FeedSnapshot> getSnapshots(Long tenantId, String userId) {
+        TenantUserKey key = TenantUserKey.of(tenantId, userId);
+        List<FeedSnapshot> history = snapshotCache.getIfPresent(key);
+        if (history == null) {
+            history = codec.decode(redis.get(RedisKeys.feedSnapshots(tenantId, userId)), SNAPSHOTS);
+            if (history == null) {
+                return List.of();
+            }
+            snapshotCache.put(key, history);
+        }
+        return history;
+    }
+
+    private void holdNear(TenantUserKey key, CachedFeed feed) {
+        feedVersionRegistry.recordThenPut(key, feed, Duration.ofSeconds(nearCacheExpireSeconds),
+                () -> feedCache.put(key, feed));
+    }
+
+    /**
+     * Reads the tenant's shared generation once, and returns whether it has been read. A failed read is
+     * retried on the next touch instead of leaving the node on its local generation.
+     */
+    private boolean syncGeneration(long tenantId) {
+        if (syncedGenerations.contains(tenantId)) {
+            return true;
+        }
+        byte[] shared = redis.getOrEmpty(RedisKeys.feedGeneration(tenantId));
+        if (shared == null) {
+            return false;
+        }
+        if (shared.length > 0) {
+            feedGenerations.advanceTo(tenantId, Long.parseLong(new String(shared, StandardCharsets.US_ASCII)));
+        }
+        syncedGenerations.add(tenantId);
+        return true;
+    }
+
+    private void onFeedRemoved(TenantUserKey key, CachedFeed feed, RemovalCause cause) {
+        if (cause == RemovalCause.REPLACED || key == null || feed == null) {
+            return;
+        }
+        feedVersionRegistry.remove(key.tenantId(), key.userId(), feed.version());
+    }
+}
@@ -0,0 +1,33 @@
+package com.xay.videos_recommender.cache.redis;
+
+/**
+ * Redis key layout, as listed in DESIGN.md §4.2.
+ */
+final class RedisKeys {
+
+    private RedisKeys() {}
+
+    static String tenant(long tenantId) {
+        return "tenant:" + tenantId + ":config";
+    }
+
+    static String contentCandidates(long tenantId) {
+        return "tenant:" + tenantId + ":content_candidates";
+    }
+
+    static String feedGeneration(long tenantId) {
+        return "tenant:" + tenantId + ":feed_generation";
+    }
+
+    static String userSignals(long tenantId, String userId) {
+        return "tenant:" + tenantId + ":user:" + userId + ":signals";
+    }
+
+    static String feed(long tenantId, String userId) {
+        return "tenant:" + tenantId + ":user:" + userId + ":feed";
+    }
+
+    static String feedSnapshots(long tenantId, String userId) {
+        return "tenant:" + tenantId + ":user:" + userId + ":feed_snapshots";
+    }
+}
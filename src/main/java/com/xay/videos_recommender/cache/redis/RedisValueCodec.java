@@ -0,0 +1,58 @@
+package com.xay.videos_recommender.cache.redis;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.cbor.databind.CBORMapper;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+
+/**
+ * CBOR encoding of cached values: smaller than JSON and cheaper to parse.
+ * Values that fail to decode (for example after a model change) are treated as cache misses.
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(name = "app.cache.backend", havingValue = "redis")
+public class RedisValueCodec {
+
+    private final ObjectMapper mapper = CBORMapper.builder()
+            .findAndAddModules()
+            .disable(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES)
+            .build();
+
+    public byte[] encode(Object value) {
+        try {
+            return mapper.writeValueAsBytes(value);
+        } catch (IOException e) {
+            throw new IllegalStateException("Cannot encode " + value.getClass().getSimpleName(), e);
+        }
+    }
+
+    public <T> T decode(byte[] bytes, Class<T> type) {
+        if (bytes == null) {
+            return null;
+        }
+        try {
+            return mapper.readValue(bytes, type);
+        } catch (IOException e) {
+            log.warn("Discarding undecodable cached {}: {}", type.getSimpleName(), e.getMessage());
+            return null;
+        }
+    }
+
+    public <T> T decode(byte[] bytes, TypeReference<T> type) {
+        if (bytes == null) {
+            return null;
+        }
+        try {
+            return mapper.readValue(bytes, type);
+        } catch (IOException e) {
+            log.warn("Discarding undecodable cached {}: {}", type.getType().getTypeName(), e.getMessage());
+            return null;
+        }
+    }
+}
@@ -0,0 +1,309 @@
+package com.xay.videos_recommender.cache.snapshot;
+
+import com.xay.videos_recommender.model.domain.ContentCandidate;
+import com.xay.videos_recommender.model.domain.UserSignals;
+
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.BiFunction;
+import java.util.zip.CRC32;
+
+/**
+ * Binary layout of cache snapshot files (big-endian):
+ *
+ * <pre>
+ * header   magic int, format int, createdAt epoch-millis long
+ * section  type byte, tenantId long, version long, entry count int, entries
+ * trailer  END byte, CRC32 int of every preceding byte
+ * </pre>
+ *
+ * Candidate sections carry the tenant's content candidates version; signals sections carry 0 and rely on
+ * each user's profile updated_at. Category ids are local to a process, so affinities are written as
+ * (category name, float) pairs. Strings are an int byte length (-1 for null) and UTF-8 bytes, decimals
+ * are doubles (NaN for null), nullable longs and timestamps use MIN_VALUE.
+ *
+ * Reading works directly on a mapped buffer: the checksum and every field are read in place, only the
+ * decoded values are allocated on the heap.
+ */
+public final class CacheSnapshotCodec {
+
+    static final int MAGIC = 0x56525331; // "VRS1"
+    static final int FORMAT = 2;
+
+    private static final byte CANDIDATES = 1;
+    private static final byte SIGNALS = 3;
+    private static final byte END = 0;
+
+    private CacheSnapshotCodec() {}
+
+    /**
+     * Decoded snapshot: candidate pools (with the version they were built at) and user signals per tenant.
+     */
+    public record Snapshot(
+            Instant createdAt,
+            Map<Long, CandidatePool> candidates,
+            Map<Long, List<UserSignals>> signals
+    ) {}
+
+    public record CandidatePool(long version, List<ContentCandidate> candidates) {}
+
+    /**
+     * Streams a snapshot section by section; callers write the header first and the trailer last.
+     */
+    public static final class Writer {
+
+        private final DataOutputStream out;
+        private final CRC32 crc = new CRC32();
+
+        public Writer(DataOutputStream out) {
+            this.out = out;
+        }
+
+        public void writeHeader(Instant createdAt) throws IOException {
+            writeInt(MAGIC);
+            writeInt(FORMAT);
+            writeLong(createdAt.toEpochMilli());
+        }
+
+        public void writeCandidates(long tenantId, long version, List<ContentCandidate> candidates) throws IOException {
+            writeSectionHeader(CANDIDATES, tenantId, version, candidates.size());
+            for (ContentCandidate candidate : candidates) {
+                writeNullableLong(candidate.videoId());
+                writeString(candidate.externalId());
+                writeString(candidate.category());
+                List<String> tags = candidate.tags() != null ? candidate.tags() : List.of();
+                writeInt(tags.size());
+                for (String tag : tags) {
+                    writeString(tag);
+                }
+                writeDecimal(candidate.baseScore());
+                writeDecimal(candidate.editorialBoost());
+                writeDecimal(candidate.freshnessScore());
+                writeDecimal(candidate.engagementScore());
+                writeString(candidate.maturityRating());
+            }
+        }
+
+        /**
+         * @param affinitiesByName a user's affinities keyed by category name
+         */
+        public void writeSignals(long tenantId, List<UserSignals> signals,
+                                 BiFunction<Long, float[], Map<String, Float>> affinitiesByName) throws IOException {
+            writeSectionHeader(SIGNALS, tenantId, 0L, signals.size());
+            for (UserSignals user : signals) {
+                writeString(user.hashedUserId());
+                writeInt(user.watchCount());
+                writeLong(user.totalWatchTimeMs());
+                writeDecimal(user.avgWatchPercentage());
+                writeInt(user.likeCount());
+                writeInt(user.shareCount());
+                Map<String, Float> affinities = affinitiesByName.apply(tenantId, user.categoryAffinities());
+                writeInt(affinities.size());
+                for (Map.Entry<String, Float> entry : affinities.entrySet()) {
+                    writeString(entry.getKey());
+                    writeInt(Float.floatToRawIntBits(entry.getValue()));
+                }
+                long[] watchedKeys = user.watchedKeys();
+                writeInt(watchedKeys.length);
+                for (long key : watchedKeys) {
+                    writeLong(key);
+                }
+                writeInstant(user.profileUpdatedAt());
+            }
+        }
+
+        public void writeTrailer() throws IOException {
+            out.writeByte(END);
+            crc.update(END);
+            out.writeInt((int) crc.getValue());
+        }
+
+        private void writeSectionHeader(byte type, long tenantId, long version, int count) throws IOException {
+            out.writeByte(type);
+            crc.update(type);
+            writeLong(tenantId);
+            writeLong(version);
+            writeInt(count);
+        }
+
+        private void writeString(String value) throws IOException {
+            if (value == null) {
+                writeInt(-1);
+                return;
+            }
+            byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+            writeInt(bytes.length);
+            out.write(bytes);
+            crc.update(bytes);
+        }
+
+        private void writeDecimal(BigDecimal value) throws IOException {
+            writeLong(Double.doubleToRawLongBits(value != null ? value.doubleValue() : Double.NaN));
+        }
+
+        private void writeNullableLong(Long value) throws IOException {
+            writeLong(value != null ? value : Long.MIN_VALUE);
+        }
+
+        private void writeInstant(Instant value) throws IOException {
+            writeLong(value != null ? value.toEpochMilli() : Long.MIN_VALUE);
+        }
+
+        private void writeInt(int value) throws IOException {
+            out.writeInt(value);
+            for (int shift = 24; shift >= 0; shift -= 8) {
+                crc.update(value >>> shift);
+            }
+        }
+
+        private void writeLong(long value) throws IOException {
+            writeInt((int) (value >>> 32));
+            writeInt((int) value);
+        }
+    }
+
+    /**
+     * Decodes a snapshot from the buffer's position to its limit, or returns null if the header, checksum
+     * or structure is invalid. The source buffer's position is not changed.
+     *
+     * @param affinityArray a user's affinities by category name as an array indexed by category id
+     */
+    public static Snapshot read(ByteBuffer source, BiFunction<Long, Map<String, Float>, float[]> affinityArray) {
+        ByteBuffer buffer = source.duplicate();
+        if (buffer.remaining() < 4 + 4 + 8 + 1 + 4) {
+            return null;
+        }
+
+        CRC32 crc = new CRC32();
+        ByteBuffer checked = buffer.duplicate();
+        checked.limit(buffer.limit() - 4);
+        crc.update(checked);
+        if ((int) crc.getValue() != buffer.getInt(buffer.limit() - 4)) {
+            return null;
+        }
+
+        try {
+            if (buffer.getInt() != MAGIC || buffer.getInt() != FORMAT) {
+                return null;
+            }
+            Instant createdAt = Instant.ofEpochMilli(buffer.getLong());
+            Map<Long, CandidatePool> candidates = new HashMap<>();
+            Map<Long, List<UserSignals>> signals = new HashMap<>();
+
+            while (true) {
+                byte type = buffer.get();
+                if (type == END) {
+                    break;
+                }
+                long tenantId = buffer.getLong();
+                long version = buffer.getLong();
+                int count = buffer.getInt();
+                switch (type) {
+                    case CANDIDATES -> candidates.put(tenantId, new CandidatePool(version, readCandidates(buffer, count)));
+                    case SIGNALS -> signals.put(tenantId, readSignals(buffer, tenantId, count, affinityArray));
+                    default -> {
+                        return null;
+                    }
+                }
+            }
+            return buffer.position() == buffer.limit() - 4 ? new Snapshot(createdAt, candidates, signals) : null;
+        } catch (RuntimeException e) {
+            // Truncated or corrupt despite a matching checksum
+            return null;
+        }
+    }
+
+    private static List<ContentCandidate> readCandidates(ByteBuffer buffer, int count) {
+        List<ContentCandidate> candidates = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            Long videoId = readNullableLong(buffer);
+            String externalId = readString(buffer);
+            String category = readString(buffer);
+            int tagCount = buffer.getInt();
+            List<String> tags = new ArrayList<>(tagCount);
+            for (int t = 0; t < tagCount; t++) {
+                tags.add(readString(buffer));
+            }
+            candidates.add(ContentCandidate.builder()
+                    .videoId(videoId)
+                    .externalId(externalId)
+                    .category(category)
+                    .tags(List.copyOf(tags))
+                    .baseScore(readDecimal(buffer))
+                    .editorialBoost(readDecimal(buffer))
+                    .freshnessScore(readDecimal(buffer))
+                    .engagementScore(readDecimal(buffer))
+                    .maturityRating(readString(buffer))
+                    .build());
+        }
+        return List.copyOf(candidates);
+    }
+
+    private static List<UserSignals> readSignals(ByteBuffer buffer, long tenantId, int count,
+                                                 BiFunction<Long, Map<String, Float>, float[]> affinityArray) {
+        List<UserSignals> signals = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            UserSignals.UserSignalsBuilder builder = UserSignals.builder()
+                    .tenantId(tenantId)
+                    .hashedUserId(readString(buffer))
+                    .watchCount(buffer.getInt())
+                    .totalWatchTimeMs(buffer.getLong())
+                    .avgWatchPercentage(readDecimal(buffer))
+                    .likeCount(buffer.getInt())
+                    .shareCount(buffer.getInt());
+            int affinityCount = buffer.getInt();
+            Map<String, Float> affinities = new HashMap<>(affinityCount * 2);
+            for (int a = 0; a < affinityCount; a++) {
+                affinities.put(readString(buffer), buffer.getFloat());
+            }
+            long[] watchedKeys = new long[buffer.getInt()];
+            buffer.asLongBuffer().get(watchedKeys);
+            buffer.position(buffer.position() + watchedKeys.length * Long.BYTES);
+            signals.add(builder
+                    .categoryAffinities(affinityArray.apply(tenantId, affinities))
+                    .watchedKeys(watchedKeys)
+                    .profileUpdatedAt(readInstant(buffer))
+                    .build());
+        }
+        return signals;
+    }
+
+    private static String readString(ByteBuffer buffer) {
+        int length = buffer.getInt();
+        if (length < 0) {
+            return null;
+        }
+        if (buffer.hasArray()) {
+            String value = new String(buffer.array(), buffer.arrayOffset() + buffer.position(), length, StandardCharsets.UTF_8);
+            buffer.position(buffer.position() + length);
+            return value;
+        }
+        // Mapped buffers have no backing array; decode straight from the mapping
+        ByteBuffer slice = buffer.slice(buffer.position(), length);
+        buffer.position(buffer.position() + length);
+        return StandardCharsets.UTF_8.decode(slice).toString();
+    }
+
+    private static BigDecimal readDecimal(ByteBuffer buffer) {
+        double value = buffer.getDouble();
+        return Double.isNaN(value) ? null : BigDecimal.valueOf(value);
+    }
+
+    private static Long readNullableLong(ByteBuffer buffer) {
+        long value = buffer.getLong();
+        return value != Long.MIN_VALUE ? value : null;
+    }
+
+    private static Instant readInstant(ByteBuffer buffer) {
+        long value = buffer.getLong();
+        return value != Long.MIN_VALUE ? Instant.ofEpochMilli(value) : null;
+    }
+}
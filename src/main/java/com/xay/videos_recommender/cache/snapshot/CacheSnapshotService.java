@@ -0,0 +1,285 @@
+package com.xay.videos_recommender.cache.snapshot;
+
+import com.xay.videos_recommender.cache.ContentVersionRegistry;
+import com.xay.videos_recommender.cache.caffeine.CaffeineAppCache;
+import com.xay.videos_recommender.mapper.UserProfileMapper;
+import com.xay.videos_recommender.model.domain.UserSignals;
+import com.xay.videos_recommender.model.entity.UserProfile;
+import com.xay.videos_recommender.repository.UserProfileRepository;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.DataAccessException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.stream.Stream;
+
+/**
+ * Periodically writes the Caffeine backend's candidate pools and cached user signals to a snapshot file, and
+ * restores the newest valid one on startup, before warm-up and before the node takes traffic.
+ *
+ * Candidate pools are restored only if built at the tenant's current content candidates version. Signals
+ * are served straight away and checked against the profiles' updated_at in the background once the
+ * application is ready: changed ones are re-parsed and deleted ones evicted.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+@ConditionalOnProperty(name = "app.cache.backend", havingValue = "caffeine", matchIfMissing = true)
+@ConditionalOnProperty(name = "app.cache.snapshot.enabled", havingValue = "true")
+public class CacheSnapshotService {
+
+    private static final String FILE_PREFIX = "cache-snapshot-";
+    private static final String FILE_SUFFIX = ".bin";
+    private static final int BUFFER_BYTES = 64 * 1024;
+
+    private final CaffeineAppCache appCache;
+    private final ContentVersionRegistry contentVersionRegistry;
+    private final UserProfileRepository userProfileRepository;
+    private final UserProfileMapper userProfileMapper;
+
+    @Value("${app.cache.snapshot.directory:./data/cache-snapshots}")
+    private String directory;
+
+    @Value("${app.cache.snapshot.retained-files:2}")
+    private int retainedFiles;
+
+    @Value("${app.cache.snapshot.max-age-minutes:60}")
+    private int maxAgeMinutes;
+
+    @Value("${app.cache.snapshot.validation-batch-size:500}")
+    private int validationBatchSize;
+
+    // Signals restored from the snapshot, per tenant, until background validation has checked them
+    private volatile Map<Long, List<UserSignals>> restoredSignals = Map.of();
+
+    @PostConstruct
+    public void restore() {
+        long startNanos = System.nanoTime();
+        CacheSnapshotCodec.Snapshot snapshot = readNewest();
+        if (snapshot == null) {
+            log.info("No usable cache snapshot in {}", directory);
+            return;
+        }
+
+        int candidatePools = 0;
+        for (Map.Entry<Long, CacheSnapshotCodec.CandidatePool> entry : snapshot.candidates().entrySet()) {
+            Long tenantId = entry.getKey();
+            CacheSnapshotCodec.CandidatePool pool = entry.getValue();
+            if (pool.version() == contentVersionRegistry.currentVersion(tenantId)) {
+                appCache.putContentCandidates(tenantId, pool.candidates(), (int) pool.version());
+                candidatePools++;
+            }
+        }
+
+        int users = 0;
+        for (Map.Entry<Long, List<UserSignals>> entry : snapshot.signals().entrySet()) {
+            Map<String, UserSignals> byUser = new HashMap<>(entry.getValue().size() * 2);
+            for (UserSignals signals : entry.getValue()) {
+                byUser.put(signals.hashedUserId(), signals);
+            }
+            appCache.putUserSignals(entry.getKey(), byUser);
+            users += byUser.size();
+        }
+        restoredSignals = snapshot.signals();
+
+        log.info("Restored cache snapshot from {} in {} ms: {}/{} candidate pools current, {} users' signals",
+                snapshot.createdAt(), Duration.ofNanos(System.nanoTime() - startNanos).toMillis(),
+                candidatePools, snapshot.candidates().size(), users);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void onApplicationReady() {
+        if (!restoredSignals.isEmpty()) {
+            Thread.ofVirtual().name("cache-snapshot-validation").start(this::validateRestoredSignals);
+        }
+    }
+
+    @Scheduled(initialDelayString = "${app.cache.snapshot.interval-ms:300000}",
+            fixedDelayString = "${app.cache.snapshot.interval-ms:300000}")
+    public void scheduledWrite() {
+        write();
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        write();
+    }
+
+    synchronized void write() {
+        long startNanos = System.nanoTime();
+        Map<Long, CaffeineAppCache.BuiltContentCandidates> candidates = new HashMap<>();
+        appCache.forEachContentCandidates(candidates::put);
+        Map<Long, List<UserSignals>> signals = new HashMap<>();
+        appCache.forEachUserSignals((tenantId, userSignals) ->
+                signals.computeIfAbsent(tenantId, id -> new ArrayList<>()).add(userSignals));
+
+        Instant createdAt = Instant.now();
+        Path dir = Paths.get(directory);
+        Path target = dir.resolve(FILE_PREFIX + createdAt.toEpochMilli() + FILE_SUFFIX);
+        Path temp = null;
+        try {
+            Files.createDirectories(dir);
+            temp = Files.createTempFile(dir, FILE_PREFIX, ".tmp");
+            try (FileChannel channel = FileChannel.open(temp, StandardOpenOption.WRITE)) {
+                DataOutputStream out = new DataOutputStream(
+                        new BufferedOutputStream(Channels.newOutputStream(channel), BUFFER_BYTES));
+                CacheSnapshotCodec.Writer writer = new CacheSnapshotCodec.Writer(out);
+                writer.writeHeader(createdAt);
+                for (Map.Entry<Long, CaffeineAppCache.BuiltContentCandidates> entry : candidates.entrySet()) {
+                    writer.writeCandidates(entry.getKey(), entry.getValue().version(), entry.getValue().candidates());
+                }
+                for (Map.Entry<Long, List<UserSignals>> entry : signals.entrySet()) {
+                    writer.writeSignals(entry.getKey(), entry.getValue(), userProfileMapper::toAffinityMap);
+                }
+                writer.writeTrailer();
+                out.flush();
+                channel.force(true);
+            }
+            // Readers only ever see complete files
+            Files.move(temp, target, StandardCopyOption.ATOMIC_MOVE);
+            deleteOldSnapshots(dir);
+            log.info("Wrote cache snapshot {} in {} ms: {} candidate pools, {} tenants' user signals",
+                    target.getFileName(), Duration.ofNanos(System.nanoTime() - startNanos).toMillis(),
+                    candidates.size(), signals.size());
+        } catch (IOException | RuntimeException e) {
+            log.warn("Cache snapshot write failed: {}", e.getMessage());
+            if (temp != null) {
+                try {
+                    Files.deleteIfExists(temp);
+                } catch (IOException ignored) {
+                    // Left for the next write's cleanup
+                }
+            }
+        }
+    }
+
+    /**
+     * Newest snapshot that maps, checksums and is younger than max-age-minutes; older files are fallbacks.
+     */
+    private CacheSnapshotCodec.Snapshot readNewest() {
+        Instant oldest = Instant.now().minus(Duration.ofMinutes(maxAgeMinutes));
+        for (Path file : snapshotFiles(Paths.get(directory))) {
+            try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+                MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+                CacheSnapshotCodec.Snapshot snapshot = CacheSnapshotCodec.read(buffer, userProfileMapper::toAffinityArray);
+                if (snapshot == null) {
+                    log.warn("Ignoring corrupt cache snapshot {}", file.getFileName());
+                } else if (snapshot.createdAt().isBefore(oldest)) {
+                    log.info("Ignoring cache snapshot {} older than {} minutes", file.getFileName(), maxAgeMinutes);
+                    return null;
+                } else {
+                    return snapshot;
+                }
+            } catch (IOException e) {
+                log.warn("Cannot read cache snapshot {}: {}", file.getFileName(), e.getMessage());
+            }
+        }
+        return null;
+    }
+
+    private void validateRestoredSignals() {
+        int replaced = 0;
+        int evicted = 0;
+        try {
+            for (Map.Entry<Long, List<UserSignals>> entry : restoredSignals.entrySet()) {
+                Long tenantId = entry.getKey();
+                List<UserSignals> restored = entry.getValue();
+                for (int from = 0; from < restored.size(); from += validationBatchSize) {
+                    List<UserSignals> batch = restored.subList(from, Math.min(from + validationBatchSize, restored.size()));
+                    List<String> userIds = batch.stream().map(UserSignals::hashedUserId).toList();
+                    Map<String, UserProfile> current = new HashMap<>(batch.size() * 2);
+                    for (UserProfile profile : userProfileRepository.findByTenantIdAndHashedUserIdIn(tenantId, userIds)) {
+                        current.put(profile.getHashedUserId(), profile);
+                    }
+
+                    Map<String, UserSignals> changed = new HashMap<>();
+                    for (UserSignals signals : batch) {
+                        UserProfile latest = current.get(signals.hashedUserId());
+                        if (latest == null) {
+                            appCache.evictUserSignals(tenantId, signals.hashedUserId());
+                            evicted++;
+                        } else if (!Objects.equals(latest.getUpdatedAt(), signals.profileUpdatedAt())) {
+                            changed.put(latest.getHashedUserId(), userProfileMapper.toUserSignals(latest));
+                        }
+                    }
+                    appCache.putUserSignals(tenantId, changed);
+                    replaced += changed.size();
+                }
+            }
+            log.info("Validated restored user signals: {} replaced, {} evicted", replaced, evicted);
+        } catch (DataAccessException e) {
+            log.warn("Restored user signals validation stopped after {} replaced, {} evicted: {}",
+                    replaced, evicted, e.getMessage());
+        } finally {
+            restoredSignals = Map.of();
+        }
+    }
+
+    private void deleteOldSnapshots(Path dir) throws IOException {
+        List<Path> files = snapshotFiles(dir);
+        for (Path file : files.subList(Math.min(retainedFiles, files.size()), files.size())) {
+            Files.deleteIfExists(file);
+        }
+        try (Stream<Path> temps = Files.list(dir)) {
+            for (Path temp : temps.filter(path -> path.getFileName().toString().endsWith(".tmp")).toList()) {
+                Files.deleteIfExists(temp);
+            }
+        }
+    }
+
+    /**
+     * Snapshot files, newest first.
+     */
+    private static List<Path> snapshotFiles(Path dir) {
+        if (!Files.isDirectory(dir)) {
+            return List.of();
+        }
+        try (Stream<Path> files = Files.list(dir)) {
+            return files
+                    .filter(path -> {
+                        String name = path.getFileName().toString();
+                        return name.startsWith(FILE_PREFIX) && name.endsWith(FILE_SUFFIX);
+                    })
+                    .sorted(Comparator.comparingLong(CacheSnapshotService::createdAtMillis).reversed())
+                    .toList();
+        } catch (IOException e) {
+            log.warn("Cannot list cache snapshots in {}: {}", dir, e.getMessage());
+            return List.of();
+        }
+    }
+
+    private static long createdAtMillis(Path file) {
+        String name = file.getFileName().toString();
+        try {
+            return Long.parseLong(name.substring(FILE_PREFIX.length(), name.length() - FILE_SUFFIX.length()));
+        } catch (NumberFormatException e) {
+            return Long.MIN_VALUE;
+        }
+    }
+}
@@ -0,0 +1,220 @@
+package com.xay.videos_recommender.cache.tiered;
+
+import com.xay.videos_recommender.model.domain.CachedFeed;
+import com.xay.videos_recommender.model.dto.response.FeedItem;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Compact binary form of a personalized {@link CachedFeed} for the off-heap tier. Items are stored with the feed,
+ * so an entry decodes on its own and serves the items as they were when the feed was ranked.
+ *
+ * Layout: varint version, varlong generation, varlong generatedAt millis, varint feedType length + UTF-8 bytes,
+ * varint id count, then per item its id as a zigzag varint delta from the previous id, its string fields and
+ * varint duration. Each string is front-coded against a reference: varint shared prefix length + 1 (0 for null),
+ * then varint suffix length + UTF-8 bytes. The item id's reference is the decimal video id, the other fields'
+ * the same field of the previous item, so shared URL prefixes and repeated categories take two bytes.
+ */
+final class FeedCodec {
+
+    private FeedCodec() {}
+
+    static byte[] encode(CachedFeed feed) {
+        long[] ids = feed.videoIds();
+        List<FeedItem> items = feed.items();
+        Writer out = new Writer(64 + ids.length * 64);
+
+        out.varlong(feed.version() & 0xFFFFFFFFL);
+        out.varlong(feed.generation());
+        out.varlong(feed.generatedAt().toEpochMilli());
+        byte[] feedType = feed.feedType() != null ? feed.feedType().getBytes(StandardCharsets.UTF_8) : new byte[0];
+        out.varlong(feedType.length);
+        out.bytes(feedType);
+        out.varlong(ids.length);
+
+        long previousId = 0;
+        FeedItem previous = null;
+        for (int i = 0; i < ids.length; i++) {
+            long delta = ids[i] - previousId;
+            out.varlong((delta << 1) ^ (delta >> 63));
+            previousId = ids[i];
+
+            FeedItem item = items.get(i);
+            out.string(item.id(), String.valueOf(ids[i]));
+            out.string(item.externalId(), previous != null ? previous.externalId() : null);
+            out.string(item.title(), previous != null ? previous.title() : null);
+            out.string(item.thumbnailUrl(), previous != null ? previous.thumbnailUrl() : null);
+            out.varlong(item.durationSeconds() & 0xFFFFFFFFL);
+            out.string(item.category(), previous != null ? previous.category() : null);
+            previous = item;
+        }
+        return out.toByteArray();
+    }
+
+    /**
+     * Returns null when the bytes are malformed.
+     */
+    static CachedFeed decode(byte[] bytes, int length) {
+        Reader reader = new Reader(bytes, length);
+        try {
+            int version = (int) reader.varlong();
+            long generation = reader.varlong();
+            Instant generatedAt = Instant.ofEpochMilli(reader.varlong());
+            int feedTypeLength = reader.length();
+            String feedType = new String(bytes, reader.skip(feedTypeLength), feedTypeLength, StandardCharsets.UTF_8);
+            int count = reader.length();
+
+            long[] ids = new long[count];
+            List<FeedItem> items = new ArrayList<>(count);
+            long previousId = 0;
+            FeedItem previous = null;
+            for (int i = 0; i < count; i++) {
+                long zigzag = reader.varlong();
+                previousId += (zigzag >>> 1) ^ -(zigzag & 1);
+                ids[i] = previousId;
+
+                FeedItem item = new FeedItem(
+                        reader.string(String.valueOf(previousId)),
+                        reader.string(previous != null ? previous.externalId() : null),
+                        reader.string(previous != null ? previous.title() : null),
+                        reader.string(previous != null ? previous.thumbnailUrl() : null),
+                        (int) reader.varlong(),
+                        reader.string(previous != null ? previous.category() : null));
+                items.add(item);
+                previous = item;
+            }
+            return CachedFeed.builder()
+                    .version(version)
+                    .generation(generation)
+                    .generatedAt(generatedAt)
+                    .feedType(feedType)
+                    .items(List.copyOf(items))
+                    .videoIds(ids)
+                    .build();
+        } catch (IndexOutOfBoundsException e) {
+            return null;
+        }
+    }
+
+    private static int sharedPrefix(String value, String reference) {
+        int max = Math.min(value.length(), reference.length());
+        int shared = 0;
+        while (shared < max && value.charAt(shared) == reference.charAt(shared)) {
+            shared++;
+        }
+        // Never split a surrogate pair, so the suffix stays valid UTF-16
+        if (shared > 0 && shared < value.length() && Character.isHighSurrogate(value.charAt(shared - 1))) {
+            shared--;
+        }
+        return shared;
+    }
+
+    private static final class Writer {
+        private byte[] bytes;
+        private int pos;
+
+        Writer(int capacity) {
+            this.bytes = new byte[capacity];
+        }
+
+        void varlong(long value) {
+            ensure(10);
+            long remaining = value;
+            while ((remaining & ~0x7FL) != 0) {
+                bytes[pos++] = (byte) ((remaining & 0x7F) | 0x80);
+                remaining >>>= 7;
+            }
+            bytes[pos++] = (byte) remaining;
+        }
+
+        void bytes(byte[] value) {
+            ensure(value.length);
+            System.arraycopy(value, 0, bytes, pos, value.length);
+            pos += value.length;
+        }
+
+        void string(String value, String reference) {
+            if (value == null) {
+                varlong(0);
+                return;
+            }
+            int shared = reference != null ? sharedPrefix(value, reference) : 0;
+            byte[] suffix = value.substring(shared).getBytes(StandardCharsets.UTF_8);
+            varlong(shared + 1L);
+            varlong(suffix.length);
+            bytes(suffix);
+        }
+
+        byte[] toByteArray() {
+            return Arrays.copyOf(bytes, pos);
+        }
+
+        private void ensure(int count) {
+            if (pos + count > bytes.length) {
+                bytes = Arrays.copyOf(bytes, Math.max(bytes.length * 2, pos + count));
+            }
+        }
+    }
+
+    private static final class Reader {
+        private final byte[] bytes;
+        private final int length;
+        private int pos;
+
+        Reader(byte[] bytes, int length) {
+            this.bytes = bytes;
+            this.length = length;
+        }
+
+        long varlong() {
+            long value = 0;
+            for (int shift = 0; shift < 64; shift += 7) {
+                byte b = next();
+                value |= (long) (b & 0x7F) << shift;
+                if ((b & 0x80) == 0) {
+                    return value;
+                }
+            }
+            throw new IndexOutOfBoundsException("varint too long");
+        }
+
+        int length() {
+            long value = varlong();
+            if (value < 0 || value > length - pos) {
+                throw new IndexOutOfBoundsException("length " + value);
+            }
+            return (int) value;
+        }
+
+        String string(String reference) {
+            long prefix = varlong();
+            if (prefix == 0) {
+                return null;
+            }
+            int shared = (int) (prefix - 1);
+            if (prefix - 1 > (reference != null ? reference.length() : 0)) {
+                throw new IndexOutOfBoundsException("prefix " + shared);
+            }
+            int suffixLength = length();
+            String suffix = new String(bytes, skip(suffixLength), suffixLength, StandardCharsets.UTF_8);
+            return shared == 0 ? suffix : reference.substring(0, shared) + suffix;
+        }
+
+        int skip(int count) {
+            int start = pos;
+            pos += count;
+            return start;
+        }
+
+        private byte next() {
+            if (pos >= length) {
+                throw new IndexOutOfBoundsException(pos);
+            }
+            return bytes[pos++];
+        }
+    }
+}
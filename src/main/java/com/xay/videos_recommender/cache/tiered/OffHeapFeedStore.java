@@ -0,0 +1,176 @@
+package com.xay.videos_recommender.cache.tiered;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.RemovalCause;
+import com.xay.videos_recommender.cache.TenantUserKey;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Off-heap store of encoded feeds. Bytes live in {@link SlabAllocator} slots; only a small
+ * on-heap index entry per key is kept, which Caffeine bounds by slot bytes and expires.
+ *
+ * Slot layout: 8-byte stamp, 4-byte length, payload. A slot's stamp is published with release
+ * semantics after its payload and zeroed before the slot is freed, so a reader that copies a
+ * payload and sees the same stamp before and after knows the slot was not recycled meanwhile.
+ */
+final class OffHeapFeedStore {
+
+    /**
+     * Notified when an entry leaves the store for any reason other than being replaced.
+     */
+    interface RemovalHandler {
+        void onRemoved(TenantUserKey key, int version);
+    }
+
+    private static final int HEADER_BYTES = 12;
+    private static final int LENGTH_OFFSET = 8;
+    private static final int EVICTION_BATCH = 16;
+
+    private static final VarHandle STAMP =
+            MethodHandles.byteBufferViewVarHandle(long[].class, ByteOrder.nativeOrder());
+
+    record Slot(long address, int capacity, long stamp, int version) {}
+
+    private final SlabAllocator allocator;
+    private final RemovalHandler removalHandler;
+    private final AtomicLong stamps = new AtomicLong();
+    private final Cache<TenantUserKey, Slot> index;
+
+    OffHeapFeedStore(SlabAllocator allocator, long expireAfterWriteMinutes, RemovalHandler removalHandler) {
+        this.allocator = allocator;
+        this.removalHandler = removalHandler;
+        // Removals run inline so a slot is back on its free list before the next allocation
+        this.index = Caffeine.newBuilder()
+                .maximumWeight(allocator.maxBytes())
+                .weigher((TenantUserKey key, Slot slot) -> slot.capacity())
+                .expireAfterWrite(expireAfterWriteMinutes, TimeUnit.MINUTES)
+                .executor(Runnable::run)
+                .removalListener(this::onRemoved)
+                .recordStats()
+                .build();
+    }
+
+    Cache<TenantUserKey, Slot> index() {
+        return index;
+    }
+
+    /**
+     * Copies the payload into a slot. Returns false when no slot can be found even after
+     * evicting to make room; the caller keeps serving from L1 only.
+     */
+    boolean put(TenantUserKey key, int version, byte[] payload) {
+        int size = HEADER_BYTES + payload.length;
+        if (size > SlabAllocator.maxSlotBytes()) {
+            return false;
+        }
+        long address = allocator.allocate(size);
+        if (address == SlabAllocator.NO_SLOT) {
+            evictFor(size);
+            address = allocator.allocate(size);
+            if (address == SlabAllocator.NO_SLOT) {
+                return false;
+            }
+        }
+
+        ByteBuffer slab = allocator.slab(address);
+        int offset = SlabAllocator.offset(address);
+        slab.putInt(offset + LENGTH_OFFSET, payload.length);
+        slab.put(offset + HEADER_BYTES, payload);
+        long stamp = stamps.incrementAndGet();
+        VarHandle.storeStoreFence();
+        STAMP.setRelease(slab, offset, stamp);
+
+        index.put(key, new Slot(address, SlabAllocator.slotBytes(size), stamp, version));
+        return true;
+    }
+
+    /**
+     * Returns a private copy of the payload, or null when absent or recycled during the read.
+     */
+    byte[] get(TenantUserKey key) {
+        Slot slot = index.getIfPresent(key);
+        if (slot == null) {
+            return null;
+        }
+        ByteBuffer slab = allocator.slab(slot.address());
+        int offset = SlabAllocator.offset(slot.address());
+        if ((long) STAMP.getAcquire(slab, offset) != slot.stamp()) {
+            return null;
+        }
+        int length = slab.getInt(offset + LENGTH_OFFSET);
+        if (length < 0 || length > slot.capacity() - HEADER_BYTES) {
+            return null;
+        }
+        byte[] payload = new byte[length];
+        slab.get(offset + HEADER_BYTES, payload);
+        VarHandle.loadLoadFence();
+        return (long) STAMP.getAcquire(slab, offset) == slot.stamp() ? payload : null;
+    }
+
+    boolean contains(TenantUserKey key, int version) {
+        Slot slot = index.getIfPresent(key);
+        return slot != null && slot.version() == version;
+    }
+
+    void invalidate(TenantUserKey key) {
+        index.invalidate(key);
+    }
+
+    long usedBytes() {
+        return allocator.usedBytes();
+    }
+
+    long reservedBytes() {
+        return allocator.reservedBytes();
+    }
+
+    long maxBytes() {
+        return allocator.maxBytes();
+    }
+
+    /**
+     * Frees a slot of the size's class: evicts the coldest entries of that class, or, when it has none,
+     * every entry of the least used slab so the slab can be reassigned to the class.
+     */
+    private void evictFor(int size) {
+        int slotBytes = SlabAllocator.slotBytes(size);
+        List<TenantUserKey> victims = index.policy().eviction()
+                .map(eviction -> eviction.coldest(entries -> entries
+                        .filter(entry -> entry.getValue().capacity() == slotBytes)
+                        .limit(EVICTION_BATCH)
+                        .map(Map.Entry::getKey)
+                        .toList()))
+                .orElse(List.of());
+        if (victims.isEmpty()) {
+            int slabIndex = allocator.leastUsedSlab();
+            if (slabIndex == SlabAllocator.NO_SLAB) {
+                return;
+            }
+            victims = index.asMap().entrySet().stream()
+                    .filter(entry -> SlabAllocator.slabIndex(entry.getValue().address()) == slabIndex)
+                    .map(Map.Entry::getKey)
+                    .toList();
+        }
+        victims.forEach(index::invalidate);
+    }
+
+    private void onRemoved(TenantUserKey key, Slot slot, RemovalCause cause) {
+        if (slot == null) {
+            return;
+        }
+        STAMP.setVolatile(allocator.slab(slot.address()), SlabAllocator.offset(slot.address()), 0L);
+        allocator.free(slot.address(), slot.capacity());
+        if (cause != RemovalCause.REPLACED && key != null) {
+            removalHandler.onRemoved(key, slot.version());
+        }
+    }
+}
@@ -0,0 +1,209 @@
+package com.xay.videos_recommender.cache.tiered;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Size-class slab allocator over direct (off-heap) buffers.
+ * Slabs are reserved lazily up to a byte budget and each is carved into slots of one
+ * power-of-two size class; freed slots go back to their class's free list. A slab whose slots
+ * are all free again is taken off its class and reused by whichever class next runs out, so a
+ * full budget isn't pinned to the size mix it was first filled with.
+ * Slot addresses pack the slab index into the high 32 bits and the byte offset into the low 32.
+ */
+final class SlabAllocator {
+
+    static final long NO_SLOT = -1L;
+    static final int NO_SLAB = -1;
+
+    private static final int MIN_CLASS_SHIFT = 6;   // 64 B
+    private static final int MAX_CLASS_SHIFT = 16;  // 64 KiB
+    private static final int CLASS_COUNT = MAX_CLASS_SHIFT - MIN_CLASS_SHIFT + 1;
+
+    private final int slabBytes;
+    private final long maxBytes;
+    private final ReentrantLock lock = new ReentrantLock();
+
+    // Slabs are only appended; readers index into a published snapshot of the list
+    private volatile ByteBuffer[] slabs = new ByteBuffer[0];
+    private final List<ByteBuffer> slabList = new ArrayList<>();
+    private final long[][] freeSlots = new long[CLASS_COUNT][];
+    private final int[] freeCounts = new int[CLASS_COUNT];
+    // Per slab, its size class (NO_SLAB while unassigned) and allocated slot count
+    private int[] slabClasses = new int[0];
+    private int[] liveSlots = new int[0];
+    private final ArrayDeque<Integer> emptySlabs = new ArrayDeque<>();
+
+    private long reservedBytes;
+    private long usedBytes;
+
+    SlabAllocator(int slabBytes, long maxBytes) {
+        this.slabBytes = Math.max(slabBytes, 1 << MAX_CLASS_SHIFT);
+        this.maxBytes = maxBytes;
+        for (int i = 0; i < CLASS_COUNT; i++) {
+            freeSlots[i] = new long[16];
+        }
+    }
+
+    static int maxSlotBytes() {
+        return 1 << MAX_CLASS_SHIFT;
+    }
+
+    /**
+     * Slot size that an allocation of the given size occupies.
+     */
+    static int slotBytes(int size) {
+        return 1 << (sizeClass(size) + MIN_CLASS_SHIFT);
+    }
+
+    /**
+     * Returns a slot address, or {@link #NO_SLOT} when the budget is exhausted for this size class.
+     */
+    long allocate(int size) {
+        if (size > maxSlotBytes()) {
+            return NO_SLOT;
+        }
+        int sizeClass = sizeClass(size);
+        lock.lock();
+        try {
+            if (freeCounts[sizeClass] == 0 && !assignSlab(sizeClass)) {
+                return NO_SLOT;
+            }
+            usedBytes += 1 << (sizeClass + MIN_CLASS_SHIFT);
+            long address = freeSlots[sizeClass][--freeCounts[sizeClass]];
+            liveSlots[slabIndex(address)]++;
+            return address;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    void free(long address, int size) {
+        int sizeClass = sizeClass(size);
+        lock.lock();
+        try {
+            usedBytes -= 1 << (sizeClass + MIN_CLASS_SHIFT);
+            push(sizeClass, address);
+            int slabIndex = slabIndex(address);
+            if (--liveSlots[slabIndex] == 0) {
+                releaseSlab(slabIndex);
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    ByteBuffer slab(long address) {
+        return slabs[slabIndex(address)];
+    }
+
+    static int slabIndex(long address) {
+        return (int) (address >>> 32);
+    }
+
+    /**
+     * The assigned slab with the fewest allocated slots, or {@link #NO_SLAB} if none is assigned;
+     * freeing its slots makes it available to any size class.
+     */
+    int leastUsedSlab() {
+        lock.lock();
+        try {
+            int leastUsed = NO_SLAB;
+            for (int i = 0; i < slabClasses.length; i++) {
+                if (slabClasses[i] != NO_SLAB && (leastUsed == NO_SLAB || liveSlots[i] < liveSlots[leastUsed])) {
+                    leastUsed = i;
+                }
+            }
+            return leastUsed;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    static int offset(long address) {
+        return (int) address;
+    }
+
+    long usedBytes() {
+        lock.lock();
+        try {
+            return usedBytes;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    long reservedBytes() {
+        lock.lock();
+        try {
+            return reservedBytes;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    long maxBytes() {
+        return maxBytes;
+    }
+
+    private boolean assignSlab(int sizeClass) {
+        int slabIndex;
+        if (!emptySlabs.isEmpty()) {
+            slabIndex = emptySlabs.pop();
+        } else if (reservedBytes + slabBytes <= maxBytes) {
+            slabIndex = reserveSlab();
+        } else {
+            return false;
+        }
+        slabClasses[slabIndex] = sizeClass;
+        int slotSize = 1 << (sizeClass + MIN_CLASS_SHIFT);
+        for (int offset = slabBytes - slotSize; offset >= 0; offset -= slotSize) {
+            push(sizeClass, ((long) slabIndex << 32) | offset);
+        }
+        return true;
+    }
+
+    private int reserveSlab() {
+        // 8-byte alignment lets slot headers be accessed atomically
+        ByteBuffer slab = ByteBuffer.allocateDirect(slabBytes + 7).alignedSlice(8);
+        int slabIndex = slabList.size();
+        slabList.add(slab);
+        slabs = slabList.toArray(new ByteBuffer[0]);
+        slabClasses = Arrays.copyOf(slabClasses, slabIndex + 1);
+        liveSlots = Arrays.copyOf(liveSlots, slabIndex + 1);
+        reservedBytes += slabBytes;
+        return slabIndex;
+    }
+
+    private void releaseSlab(int slabIndex) {
+        int sizeClass = slabClasses[slabIndex];
+        long[] slots = freeSlots[sizeClass];
+        int kept = 0;
+        for (int i = 0; i < freeCounts[sizeClass]; i++) {
+            if (slabIndex(slots[i]) != slabIndex) {
+                slots[kept++] = slots[i];
+            }
+        }
+        freeCounts[sizeClass] = kept;
+        slabClasses[slabIndex] = NO_SLAB;
+        emptySlabs.push(slabIndex);
+    }
+
+    private void push(int sizeClass, long address) {
+        long[] slots = freeSlots[sizeClass];
+        if (freeCounts[sizeClass] == slots.length) {
+            slots = Arrays.copyOf(slots, slots.length * 2);
+            freeSlots[sizeClass] = slots;
+        }
+        slots[freeCounts[sizeClass]++] = address;
+    }
+
+    private static int sizeClass(int size) {
+        int shift = 32 - Integer.numberOfLeadingZeros(Math.max(size, 1) - 1);
+        return Math.max(shift, MIN_CLASS_SHIFT) - MIN_CLASS_SHIFT;
+    }
+}
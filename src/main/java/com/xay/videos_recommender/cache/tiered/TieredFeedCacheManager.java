@@ -0,0 +1,220 @@
+package com.xay.videos_recommender.cache.tiered;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import com.github.benmanes.caffeine.cache.RemovalCause;
+import com.github.benmanes.caffeine.cache.Weigher;
+import com.xay.videos_recommender.cache.CacheFootprint;
+import com.xay.videos_recommender.cache.CacheFootprintReporter;
+import com.xay.videos_recommender.cache.CacheMemoryBudget;
+import com.xay.videos_recommender.cache.ContentVersionRegistry;
+import com.xay.videos_recommender.cache.FeedCacheManager;
+import com.xay.videos_recommender.cache.FeedGenerations;
+import com.xay.videos_recommender.cache.FeedSnapshots;
+import com.xay.videos_recommender.cache.FeedVersionRegistry;
+import com.xay.videos_recommender.cache.RetainedSize;
+import com.xay.videos_recommender.cache.TenantUserKey;
+import com.xay.videos_recommender.cache.caffeine.CaffeineFootprints;
+import com.xay.videos_recommender.model.domain.CachedFeed;
+import com.xay.videos_recommender.model.domain.FeedSnapshot;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Collections;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Two-tier feed cache: a small on-heap L1 of decoded feeds in front of a large off-heap L2
+ * of encoded feeds, each holding its ranked ids and items. L1 misses decode from L2 and are promoted.
+ *
+ * Both tiers expire relative to the feed's generation time, so promotion never extends a feed's lifetime.
+ *
+ * L1 is bounded by entry count and reported against the feed share of the {@link CacheMemoryBudget};
+ * snapshots are bounded by their share as in the single tier. L2 is off heap, so it is not in the footprint
+ * report.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+@ConditionalOnProperty(name = "app.cache.backend", havingValue = "caffeine", matchIfMissing = true)
+@ConditionalOnProperty(name = "app.cache.feed.tier", havingValue = "tiered")
+public class TieredFeedCacheManager implements FeedCacheManager, CacheFootprintReporter {
+
+    private static final Weigher<TenantUserKey, CachedFeed> FEED_WEIGHER =
+            (key, feed) -> RetainedSize.of(key) + RetainedSize.of(feed);
+    private static final Weigher<TenantUserKey, List<FeedSnapshot>> SNAPSHOTS_WEIGHER =
+            (key, history) -> RetainedSize.of(key) + RetainedSize.ofSnapshots(history);
+
+    private final MeterRegistry meterRegistry;
+    private final FeedVersionRegistry feedVersionRegistry;
+    private final FeedGenerations feedGenerations;
+    private final ContentVersionRegistry contentVersionRegistry;
+    private final CacheMemoryBudget memoryBudget;
+
+    @Value("${app.cache.feed.expire-after-write-minutes}")
+    private int feedExpireMinutes;
+
+    @Value("${app.cache.feed.snapshot-history:3}")
+    private int snapshotHistory;
+
+    @Value("${app.cache.feed.l1-max-size:10000}")
+    private int l1MaxSize;
+
+    @Value("${app.cache.feed.l2-max-bytes:268435456}")
+    private long l2MaxBytes;
+
+    @Value("${app.cache.feed.slab-bytes:4194304}")
+    private int slabBytes;
+
+    private Cache<TenantUserKey, CachedFeed> l1Cache;
+    private OffHeapFeedStore l2Store;
+    private Cache<TenantUserKey, List<FeedSnapshot>> snapshotCache;
+    private Counter l2Rejected;
+    private Counter l2DecodeFailures;
+
+    @PostConstruct
+    public void init() {
+        Duration ttl = Duration.ofMinutes(feedExpireMinutes);
+
+        // Removals run inline so the revalidation registry never outlives a cached feed
+        l1Cache = Caffeine.newBuilder()
+                .maximumSize(l1MaxSize)
+                .expireAfter(Expiry.writing((TenantUserKey key, CachedFeed feed) -> remainingTtl(feed, ttl)))
+                .executor(Runnable::run)
+                .removalListener(this::onL1Removed)
+                .recordStats()
+                .build();
+
+        l2Store = new OffHeapFeedStore(new SlabAllocator(slabBytes, l2MaxBytes), feedExpireMinutes, this::clearRegistry);
+
+        snapshotCache = Caffeine.newBuilder()
+                .maximumWeight(memoryBudget.feedSnapshotsBytes())
+                .weigher(SNAPSHOTS_WEIGHER)
+                .expireAfterWrite(feedExpireMinutes, TimeUnit.MINUTES)
+                .build();
+
+        CaffeineCacheMetrics.monitor(meterRegistry, l1Cache, "feed", Collections.emptyList());
+        CaffeineCacheMetrics.monitor(meterRegistry, l2Store.index(), "feedL2", Collections.emptyList());
+        Gauge.builder("cache.feed.l2.used.bytes", l2Store, OffHeapFeedStore::usedBytes).register(meterRegistry);
+        Gauge.builder("cache.feed.l2.reserved.bytes", l2Store, OffHeapFeedStore::reservedBytes).register(meterRegistry);
+        Gauge.builder("cache.feed.l2.max.bytes", l2Store, OffHeapFeedStore::maxBytes).register(meterRegistry);
+        l2Rejected = meterRegistry.counter("cache.feed.l2.rejected");
+        l2DecodeFailures = meterRegistry.counter("cache.feed.l2.decode.failures");
+
+        // A rebuild on another node advances the generation here; L1 and L2 entries fall out on next read
+        contentVersionRegistry.addRemoteChangeListener((tenantId, version) -> invalidateAllForTenant(tenantId));
+
+        log.info("TieredFeedCacheManager initialized: l1MaxSize={}, l2MaxBytes={}, slabBytes={}, feedExpireMinutes={}",
+                l1MaxSize, l2MaxBytes, slabBytes, feedExpireMinutes);
+    }
+
+    @Override
+    public Optional<CachedFeed> getFeed(Long tenantId, String userId) {
+        TenantUserKey key = TenantUserKey.of(tenantId, userId);
+        CachedFeed feed = l1Cache.getIfPresent(key);
+        if (feed != null) {
+            return servable(tenantId, feed);
+        }
+
+        byte[] encoded = l2Store.get(key);
+        if (encoded == null) {
+            return Optional.empty();
+        }
+        feed = FeedCodec.decode(encoded, encoded.length);
+        if (feed == null) {
+            // Malformed; the feed is regenerated on the miss
+            l2DecodeFailures.increment();
+            l2Store.invalidate(key);
+            return Optional.empty();
+        }
+        // A feed put meanwhile is newer than the decoded copy and wins
+        CachedFeed current = l1Cache.asMap().putIfAbsent(key, feed);
+        return servable(tenantId, current != null ? current : feed);
+    }
+
+    @Override
+    public void putFeed(Long tenantId, String userId, CachedFeed feed) {
+        TenantUserKey key = TenantUserKey.of(tenantId, userId);
+        feedVersionRegistry.recordThenPut(key, feed, Duration.ofMinutes(feedExpireMinutes),
+                () -> l1Cache.put(key, feed));
+        if (feed.videoIds() == null) {
+            l2Store.invalidate(key);
+            return;
+        }
+        if (!l2Store.put(key, feed.version(), FeedCodec.encode(feed))) {
+            l2Rejected.increment();
+        }
+        FeedSnapshots.append(snapshotCache.asMap(), key, feed, snapshotHistory);
+    }
+
+    @Override
+    public void invalidateFeed(Long tenantId, String userId) {
+        TenantUserKey key = TenantUserKey.of(tenantId, userId);
+        l1Cache.invalidate(key);
+        l2Store.invalidate(key);
+    }
+
+    @Override
+    public void invalidateAllForTenant(Long tenantId) {
+        long generation = feedGenerations.advance(tenantId);
+        log.debug("Feeds of tenant {} invalidated, generation is now {}", tenantId, generation);
+    }
+
+    @Override
+    public long currentGeneration(Long tenantId) {
+        return feedGenerations.current(tenantId);
+    }
+
+    @Override
+    public List<FeedSnapshot> getSnapshots(Long tenantId, String userId) {
+        List<FeedSnapshot> history = snapshotCache.getIfPresent(TenantUserKey.of(tenantId, userId));
+        return history != null ? history : List.of();
+    }
+
+    @Override
+    public List<CacheFootprint> footprints() {
+        return List.of(
+                CaffeineFootprints.of("feed", memoryBudget.feedBytes(), l1Cache, FEED_WEIGHER, TenantUserKey::tenantId),
+                CaffeineFootprints.of("feedSnapshots", memoryBudget.feedSnapshotsBytes(),
+                        snapshotCache, SNAPSHOTS_WEIGHER, TenantUserKey::tenantId));
+    }
+
+    private static Duration remainingTtl(CachedFeed feed, Duration ttl) {
+        if (feed.generatedAt() == null) {
+            return ttl;
+        }
+        Duration remaining = ttl.minus(Duration.between(feed.generatedAt(), Instant.now()));
+        return remaining.isNegative() ? Duration.ZERO : remaining;
+    }
+
+    private Optional<CachedFeed> servable(Long tenantId, CachedFeed feed) {
+        return feedGenerations.isServable(tenantId, feed) ? Optional.of(feed) : Optional.empty();
+    }
+
+    private void onL1Removed(TenantUserKey key, CachedFeed feed, RemovalCause cause) {
+        // L2 owns the registry entry; only feeds L2 rejected are mirrored by L1 alone
+        if (cause == RemovalCause.REPLACED || key == null || feed == null || feed.videoIds() == null) {
+            return;
+        }
+        if (!l2Store.contains(key, feed.version())) {
+            clearRegistry(key, feed.version());
+        }
+    }
+
+    private void clearRegistry(TenantUserKey key, int version) {
+        feedVersionRegistry.remove(key.tenantId(), key.userId(), version);
+    }
+}
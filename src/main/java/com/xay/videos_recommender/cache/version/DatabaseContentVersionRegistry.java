@@ -0,0 +1,94 @@
+package com.xay.videos_recommender.cache.version;
+
+import com.xay.videos_recommender.cache.ContentVersionRegistry;
+import com.xay.videos_recommender.model.entity.ContentVersion;
+import com.xay.videos_recommender.repository.ContentVersionRepository;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.dao.DataAccessException;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+/**
+ * Versions are stored in the content_versions table and mirrored into a local map.
+ * Increments are atomic UPDATEs in the database; a poll picks up increments made by other nodes
+ * and notifies listeners, so reads stay in memory and other nodes converge within one poll interval.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+@ConditionalOnProperty(name = "app.content.version-store", havingValue = "database", matchIfMissing = true)
+public class DatabaseContentVersionRegistry implements ContentVersionRegistry {
+
+    private final ContentVersionRepository contentVersionRepository;
+
+    private final ConcurrentHashMap<Long, Integer> versions = new ConcurrentHashMap<>();
+    private final List<RemoteChangeListener> listeners = new CopyOnWriteArrayList<>();
+
+    @PostConstruct
+    public void init() {
+        for (ContentVersion row : contentVersionRepository.findAll()) {
+            versions.put(row.getTenantId(), row.getVersion());
+        }
+        log.info("DatabaseContentVersionRegistry initialized: {} tenant versions loaded", versions.size());
+    }
+
+    @Override
+    public int currentVersion(Long tenantId) {
+        return versions.getOrDefault(tenantId, INITIAL_VERSION);
+    }
+
+    @Override
+    public int increment(Long tenantId) {
+        if (contentVersionRepository.incrementVersion(tenantId) == 0) {
+            try {
+                contentVersionRepository.insertInitialVersion(tenantId);
+            } catch (DataIntegrityViolationException e) {
+                // Another node inserted the row first
+            }
+            contentVersionRepository.incrementVersion(tenantId);
+        }
+        int version = contentVersionRepository.findById(tenantId)
+                .map(ContentVersion::getVersion)
+                .orElse(INITIAL_VERSION);
+        versions.merge(tenantId, version, Math::max);
+        return version;
+    }
+
+    @Override
+    public void addRemoteChangeListener(RemoteChangeListener listener) {
+        listeners.add(listener);
+    }
+
+    @Scheduled(fixedDelayString = "${app.content.version-poll-ms:1000}")
+    public void poll() {
+        List<ContentVersion> rows;
+        try {
+            rows = contentVersionRepository.findAll();
+        } catch (DataAccessException e) {
+            log.warn("Content version poll failed: {}", e.getMessage());
+            return;
+        }
+        for (ContentVersion row : rows) {
+            long tenantId = row.getTenantId();
+            int version = row.getVersion();
+            Integer previous = versions.get(tenantId);
+            if (previous != null && previous >= version) {
+                continue;
+            }
+            versions.merge(tenantId, version, Math::max);
+            log.debug("Content candidates version for tenant {} changed remotely: {} -> {}",
+                    tenantId, previous, version);
+            for (RemoteChangeListener listener : listeners) {
+                listener.onRemoteChange(tenantId, version);
+            }
+        }
+    }
+}
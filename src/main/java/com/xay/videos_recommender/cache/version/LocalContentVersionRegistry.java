@@ -0,0 +1,32 @@
+package com.xay.videos_recommender.cache.version;
+
+import com.xay.videos_recommender.cache.ContentVersionRegistry;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Single-node stand-in: versions live only in this JVM, so there are never remote changes to report.
+ */
+@Component
+@ConditionalOnProperty(name = "app.content.version-store", havingValue = "local")
+public class LocalContentVersionRegistry implements ContentVersionRegistry {
+
+    private final ConcurrentHashMap<Long, Integer> versions = new ConcurrentHashMap<>();
+
+    @Override
+    public int currentVersion(Long tenantId) {
+        return versions.getOrDefault(tenantId, INITIAL_VERSION);
+    }
+
+    @Override
+    public int increment(Long tenantId) {
+        return versions.merge(tenantId, INITIAL_VERSION + 1, (current, ignored) -> current + 1);
+    }
+
+    @Override
+    public void addRemoteChangeListener(RemoteChangeListener listener) {
+        // Nothing else writes to this registry
+    }
+}
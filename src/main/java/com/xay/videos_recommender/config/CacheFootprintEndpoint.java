@@ -0,0 +1,69 @@
+package com.xay.videos_recommender.config;
+
+import com.xay.videos_recommender.cache.CacheFootprint;
+import com.xay.videos_recommender.cache.CacheFootprintReporter;
+import com.xay.videos_recommender.cache.CacheMemoryBudget;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.boot.actuate.endpoint.annotation.Selector;
+import org.springframework.stereotype.Component;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * {@code /actuator/cachefootprint}: estimated heap per in-process cache against its budget share,
+ * with a per-tenant breakdown; {@code /actuator/cachefootprint/{tenantId}} narrows it to one tenant.
+ */
+@Component
+@Endpoint(id = "cachefootprint")
+@RequiredArgsConstructor
+public class CacheFootprintEndpoint {
+
+    private final CacheMemoryBudget memoryBudget;
+    private final ObjectProvider<CacheFootprintReporter> reporters;
+
+    @ReadOperation
+    public Map<String, Object> footprint() {
+        List<CacheFootprint> caches = reporters.orderedStream()
+                .flatMap(reporter -> reporter.footprints().stream())
+                .toList();
+
+        Map<Long, Long> bytesByTenant = new TreeMap<>();
+        long estimatedBytes = 0;
+        for (CacheFootprint cache : caches) {
+            estimatedBytes += cache.estimatedBytes();
+            cache.bytesByTenant().forEach((tenantId, bytes) -> bytesByTenant.merge(tenantId, bytes, Long::sum));
+        }
+
+        Map<String, Object> body = new LinkedHashMap<>();
+        body.put("budgetBytes", memoryBudget.totalBytes());
+        body.put("estimatedBytes", estimatedBytes);
+        body.put("bytesByTenant", bytesByTenant);
+        body.put("caches", caches);
+        return body;
+    }
+
+    @ReadOperation
+    public Map<String, Object> tenantFootprint(@Selector Long tenantId) {
+        Map<String, Long> bytesByCache = new LinkedHashMap<>();
+        long estimatedBytes = 0;
+        for (CacheFootprintReporter reporter : reporters.orderedStream().toList()) {
+            for (CacheFootprint cache : reporter.footprints()) {
+                long bytes = cache.bytesByTenant().getOrDefault(tenantId, 0L);
+                bytesByCache.put(cache.cache(), bytes);
+                estimatedBytes += bytes;
+            }
+        }
+
+        Map<String, Object> body = new LinkedHashMap<>();
+        body.put("tenantId", tenantId);
+        body.put("estimatedBytes", estimatedBytes);
+        body.put("bytesByCache", bytesByCache);
+        return body;
+    }
+}
@@ -0,0 +1,22 @@
+package com.xay.videos_recommender.config;
+
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.converter.cbor.MappingJackson2CborHttpMessageConverter;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+/**
+ * CBOR (application/cbor) encoding, selected through Accept and Content-Type.
+ * Replaces the MVC default CBOR converter in place, after JSON, so JSON stays the default for wildcard
+ * Accept headers. The mapper comes from Spring Boot's builder so both encodings share modules and settings;
+ * Jackson streams CBOR tokens straight into and out of the DTOs without an intermediate tree.
+ */
+@Configuration
+public class CborConfig {
+
+    @Bean
+    public MappingJackson2CborHttpMessageConverter cborHttpMessageConverter(Jackson2ObjectMapperBuilder builder) {
+        return new MappingJackson2CborHttpMessageConverter(builder.factory(new CBORFactory()).build());
+    }
+}
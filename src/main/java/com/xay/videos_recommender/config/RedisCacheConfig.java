@@ -0,0 +1,26 @@
+package com.xay.videos_recommender.config;
+
+import com.xay.videos_recommender.cache.redis.CacheInvalidationBus;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.data.redis.connection.RedisConnectionFactory;
+import org.springframework.data.redis.listener.ChannelTopic;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+
+/**
+ * Subscribes this node to near-cache invalidations when caches are backed by Redis.
+ */
+@Configuration
+@ConditionalOnProperty(name = "app.cache.backend", havingValue = "redis")
+public class RedisCacheConfig {
+
+    @Bean
+    public RedisMessageListenerContainer cacheInvalidationListenerContainer(RedisConnectionFactory connectionFactory,
+                                                                            CacheInvalidationBus invalidationBus) {
+        RedisMessageListenerContainer container = new RedisMessageListenerContainer();
+        container.setConnectionFactory(connectionFactory);
+        container.addMessageListener(invalidationBus, new ChannelTopic(invalidationBus.channel()));
+        return container;
+    }
+}
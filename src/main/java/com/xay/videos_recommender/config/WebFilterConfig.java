@@ -0,0 +1,30 @@
+package com.xay.videos_recommender.config;
+
+import com.xay.videos_recommender.api.filter.FeedRevalidationFilter;
+import com.xay.videos_recommender.cache.FeedVersionRegistry;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.Ordered;
+
+@Configuration
+public class WebFilterConfig {
+
+    @Bean
+    @ConditionalOnProperty(name = "app.feed.revalidation-fast-path", havingValue = "true", matchIfMissing = true)
+    public FilterRegistrationBean<FeedRevalidationFilter> feedRevalidationFilter(FeedVersionRegistry feedVersionRegistry,
+                                                                                 MeterRegistry meterRegistry) {
+        Counter fastPathCounter = Counter.builder("feed.revalidation.fast_path")
+                .description("Conditional feed requests answered with 304 before MVC dispatch")
+                .register(meterRegistry);
+
+        FilterRegistrationBean<FeedRevalidationFilter> registration =
+                new FilterRegistrationBean<>(new FeedRevalidationFilter(feedVersionRegistry, fastPathCounter));
+        registration.addUrlPatterns("/v1/feed");
+        registration.setOrder(Ordered.HIGHEST_PRECEDENCE + 10);
+        return registration;
+    }
+}
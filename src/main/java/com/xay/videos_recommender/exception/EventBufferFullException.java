@@ -0,0 +1,14 @@
+package com.xay.videos_recommender.exception;
+
+import lombok.Getter;
+
+@Getter
+public class EventBufferFullException extends RuntimeException {
+
+    private final long retryAfterSeconds;
+
+    public EventBufferFullException(int rejectedEvents, long retryAfterSeconds) {
+        super("Event buffer full, rejected " + rejectedEvents + " events");
+        this.retryAfterSeconds = retryAfterSeconds;
+    }
+}
@@ -0,0 +1,17 @@
+package com.xay.videos_recommender.exception;
+
+import lombok.Getter;
+
+/**
+ * A request's id or one of its events is still being queued by another request, whose outcome isn't known yet.
+ */
+@Getter
+public class EventsInFlightException extends RuntimeException {
+
+    private final long retryAfterSeconds;
+
+    public EventsInFlightException(long retryAfterSeconds) {
+        super("Request or events still being queued by an earlier attempt");
+        this.retryAfterSeconds = retryAfterSeconds;
+    }
+}
@@ -2,6 +2,7 @@ package com.xay.videos_recommender.exception;
 
 import com.xay.videos_recommender.model.dto.response.ErrorResponse;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.http.converter.HttpMessageNotReadableException;
@@ -11,6 +12,7 @@ import org.springframework.web.bind.annotation.ExceptionHandler;
 import org.springframework.web.bind.annotation.RestControllerAdvice;
 import org.springframework.web.context.request.WebRequest;
 
+import java.util.concurrent.RejectedExecutionException;
 import java.util.stream.Collectors;
 
 @Slf4j
@@ -65,6 +67,31 @@ public class GlobalExceptionHandler {
         return message != null && message.length() > 100 ? message.substring(0, 100) + "..." : message;
     }
 
+    @ExceptionHandler(RejectedExecutionException.class)
+    public ResponseEntity<ErrorResponse> handleRejectedExecution(RejectedExecutionException ex, WebRequest request) {
+        log.warn("Request rejected, executor saturated: {}", ex.getMessage());
+        ErrorResponse error = new ErrorResponse("SERVICE_UNAVAILABLE", "Server is busy, retry later", null);
+        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).body(error);
+    }
+
+    @ExceptionHandler(EventBufferFullException.class)
+    public ResponseEntity<ErrorResponse> handleEventBufferFull(EventBufferFullException ex, WebRequest request) {
+        log.warn("Events rejected: {}", ex.getMessage());
+        ErrorResponse error = new ErrorResponse("SERVICE_UNAVAILABLE", "Event ingestion is busy, retry later", null);
+        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                .header(HttpHeaders.RETRY_AFTER, String.valueOf(ex.getRetryAfterSeconds()))
+                .body(error);
+    }
+
+    @ExceptionHandler(EventsInFlightException.class)
+    public ResponseEntity<ErrorResponse> handleEventsInFlight(EventsInFlightException ex, WebRequest request) {
+        log.debug("Events rejected: {}", ex.getMessage());
+        ErrorResponse error = new ErrorResponse("CONFLICT", "An earlier attempt of this request is still in progress, retry later", null);
+        return ResponseEntity.status(HttpStatus.CONFLICT)
+                .header(HttpHeaders.RETRY_AFTER, String.valueOf(ex.getRetryAfterSeconds()))
+                .body(error);
+    }
+
     @ExceptionHandler(Exception.class)
     public ResponseEntity<ErrorResponse> handleGenericException(Exception ex, WebRequest request) {
         log.error("Unexpected error", ex);
@@ -0,0 +1,84 @@
+package com.xay.videos_recommender.mapper;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Per-tenant, append-only numbering of content categories, so user affinities can be held as a
+ * {@code float[]} indexed by category id and ranking can index it directly.
+ *
+ * Ids are local to this node and never reused; anything stored outside the process keeps category names.
+ * Each tenant gets at most max-categories-per-tenant ids; categories beyond that have none and rank with
+ * a neutral affinity.
+ */
+@Component
+public class CategoryDictionary {
+
+    public static final int NO_CATEGORY = -1;
+
+    private final int maxCategoriesPerTenant;
+    private final ConcurrentHashMap<Long, TenantCategories> tenants = new ConcurrentHashMap<>();
+
+    public CategoryDictionary(@Value("${app.ranking.max-categories-per-tenant:1024}") int maxCategoriesPerTenant) {
+        this.maxCategoriesPerTenant = maxCategoriesPerTenant;
+    }
+
+    /**
+     * The category's id, assigning the next one if it has none; NO_CATEGORY for null or past the limit.
+     */
+    public int idOf(Long tenantId, String category) {
+        if (category == null) {
+            return NO_CATEGORY;
+        }
+        return tenants.computeIfAbsent(tenantId, id -> new TenantCategories()).idOf(category);
+    }
+
+    public String nameOf(Long tenantId, int categoryId) {
+        TenantCategories categories = tenants.get(tenantId);
+        return categories != null ? categories.nameOf(categoryId) : null;
+    }
+
+    private final class TenantCategories {
+
+        private final ConcurrentHashMap<String, Integer> ids = new ConcurrentHashMap<>();
+        private final List<String> names = new ArrayList<>();
+        // A lock rather than synchronized, so a virtual request thread assigning an id does not pin its carrier
+        private final ReentrantLock lock = new ReentrantLock();
+
+        private int idOf(String category) {
+            Integer id = ids.get(category);
+            if (id != null) {
+                return id;
+            }
+            lock.lock();
+            try {
+                id = ids.get(category);
+                if (id == null) {
+                    if (names.size() >= maxCategoriesPerTenant) {
+                        return NO_CATEGORY;
+                    }
+                    id = names.size();
+                    names.add(category);
+                    ids.put(category, id);
+                }
+                return id;
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        private String nameOf(int categoryId) {
+            lock.lock();
+            try {
+                return categoryId >= 0 && categoryId < names.size() ? names.get(categoryId) : null;
+            } finally {
+                lock.unlock();
+            }
+        }
+    }
+}
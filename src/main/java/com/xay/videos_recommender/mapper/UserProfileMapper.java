@@ -4,22 +4,30 @@ import com.fasterxml.jackson.core.type.TypeReference;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.xay.videos_recommender.model.domain.UserSignals;
 import com.xay.videos_recommender.model.entity.UserProfile;
+import com.xay.videos_recommender.util.UserKeyUtil;
+import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Component;
 
 import java.math.BigDecimal;
+import java.util.Arrays;
+import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 
 /**
  * Mapper for converting UserProfile entity to UserSignals domain object.
+ * The profile's JSON columns are parsed here, once per load or update, never on the ranking path.
  */
 @Slf4j
 @Component
+@RequiredArgsConstructor
 public class UserProfileMapper {
 
     private final ObjectMapper objectMapper = new ObjectMapper();
 
+    private final CategoryDictionary categoryDictionary;
+
     public UserSignals toUserSignals(UserProfile profile) {
         return UserSignals.builder()
                 .tenantId(profile.getTenantId())
@@ -29,8 +37,10 @@ public class UserProfileMapper {
                 .avgWatchPercentage(profile.getAvgWatchPercentage() != null ? profile.getAvgWatchPercentage() : BigDecimal.ZERO)
                 .likeCount(profile.getLikeCount() != null ? profile.getLikeCount() : 0)
                 .shareCount(profile.getShareCount() != null ? profile.getShareCount() : 0)
-                .categoryAffinities(parseCategoryAffinities(profile.getCategoryAffinities()))
-                .lastWatchedIds(parseLastWatchedIds(profile.getLastWatchedIds()))
+                .categoryAffinities(toAffinityArray(profile.getTenantId(),
+                        parseCategoryAffinities(profile.getCategoryAffinities())))
+                .watchedKeys(toWatchedKeys(parseLastWatchedIds(profile.getLastWatchedIds())))
+                .profileUpdatedAt(profile.getUpdatedAt())
                 .build();
     }
 
@@ -43,11 +53,63 @@ public class UserProfileMapper {
                 .avgWatchPercentage(BigDecimal.ZERO)
                 .likeCount(0)
                 .shareCount(0)
-                .categoryAffinities(Map.of())
-                .lastWatchedIds(List.of())
                 .build();
     }
 
+    /**
+     * Affinities by category name into an array indexed by the tenant's category ids, NaN where absent.
+     */
+    public float[] toAffinityArray(Long tenantId, Map<String, ? extends Number> affinities) {
+        if (affinities.isEmpty()) {
+            return new float[0];
+        }
+        int[] ids = new int[affinities.size()];
+        float[] values = new float[affinities.size()];
+        int count = 0;
+        int length = 0;
+        for (Map.Entry<String, ? extends Number> entry : affinities.entrySet()) {
+            int id = categoryDictionary.idOf(tenantId, entry.getKey());
+            if (id != CategoryDictionary.NO_CATEGORY && entry.getValue() != null) {
+                ids[count] = id;
+                values[count++] = entry.getValue().floatValue();
+                length = Math.max(length, id + 1);
+            }
+        }
+        float[] array = new float[length];
+        Arrays.fill(array, Float.NaN);
+        for (int i = 0; i < count; i++) {
+            array[ids[i]] = values[i];
+        }
+        return array;
+    }
+
+    /**
+     * The inverse of {@link #toAffinityArray}, for storage outside this node.
+     */
+    public Map<String, Float> toAffinityMap(Long tenantId, float[] affinities) {
+        Map<String, Float> byCategory = new HashMap<>(affinities.length * 2);
+        for (int id = 0; id < affinities.length; id++) {
+            String category = categoryDictionary.nameOf(tenantId, id);
+            if (category != null && !Float.isNaN(affinities[id])) {
+                byCategory.put(category, affinities[id]);
+            }
+        }
+        return byCategory;
+    }
+
+    public static long[] toWatchedKeys(List<String> watchedIds) {
+        long[] keys = new long[watchedIds.size()];
+        int count = 0;
+        for (String id : watchedIds) {
+            if (id != null) {
+                keys[count++] = UserKeyUtil.fnv1a(id);
+            }
+        }
+        keys = Arrays.copyOf(keys, count);
+        Arrays.sort(keys);
+        return keys;
+    }
+
     private Map<String, Double> parseCategoryAffinities(String json) {
         if (json == null || json.isBlank() || json.equals("{}")) {
             return Map.of();
@@ -72,4 +134,3 @@ public class UserProfileMapper {
         }
     }
 }
-
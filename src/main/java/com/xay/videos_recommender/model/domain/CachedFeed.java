@@ -9,7 +9,14 @@ import java.util.List;
 @Builder(toBuilder = true)
 public record CachedFeed(
         int version,
+        long generation,
         Instant generatedAt,
         String feedType,
-        List<FeedItem> items
-) {}
+        List<FeedItem> items,
+        long[] videoIds
+) {
+
+    public FeedSnapshot snapshot() {
+        return new FeedSnapshot(version, videoIds);
+    }
+}
@@ -0,0 +1,11 @@
+package com.xay.videos_recommender.model.domain;
+
+/**
+ * Ranked video ids of a personalized feed at a given version.
+ * The id array is never mutated after construction, so snapshots are shared
+ * between the feed cache and the pagination history without copying.
+ */
+public record FeedSnapshot(
+        int version,
+        long[] videoIds
+) {}
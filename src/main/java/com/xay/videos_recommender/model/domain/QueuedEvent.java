@@ -0,0 +1,14 @@
+package com.xay.videos_recommender.model.domain;
+
+import com.xay.videos_recommender.model.dto.request.EventItem;
+
+/**
+ * An event waiting for aggregation, with the event log positions where its record starts and ends
+ * (both 0 when the event log is disabled).
+ */
+public record QueuedEvent(
+        EventItem event,
+        long logStart,
+        long logEnd
+) {
+}
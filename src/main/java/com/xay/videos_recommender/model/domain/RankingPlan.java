@@ -0,0 +1,25 @@
+package com.xay.videos_recommender.model.domain;
+
+/**
+ * Tenant ranking weights and candidate features unpacked into columns once,
+ * so ranking many users against the same candidates skips per-user parsing and conversions.
+ * Categories are the tenant's category ids and video ids are also kept as watched keys,
+ * matching the layout of {@link UserSignals}.
+ */
+public record RankingPlan(
+        double recencyWeight,
+        double engagementWeight,
+        double affinityWeight,
+        long[] videoIds,
+        long[] watchedKeys,
+        String[] externalIds,
+        int[] categoryIds,
+        double[] freshnessScores,
+        double[] engagementScores,
+        double[] editorialBoosts
+) {
+
+    public int size() {
+        return videoIds.length;
+    }
+}
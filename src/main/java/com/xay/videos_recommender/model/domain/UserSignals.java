@@ -3,9 +3,16 @@ package com.xay.videos_recommender.model.domain;
 import lombok.Builder;
 
 import java.math.BigDecimal;
-import java.util.List;
-import java.util.Map;
+import java.time.Instant;
+import java.util.Arrays;
 
+/**
+ * A user's ranking signals, parsed from the profile once and cached as is.
+ *
+ * Affinities are indexed by the tenant's {@link com.xay.videos_recommender.mapper.CategoryDictionary} ids,
+ * NaN where the user has none. Watched videos are the sorted FNV-1a keys of their id strings
+ * ({@link com.xay.videos_recommender.util.UserKeyUtil#fnv1a(String)}). Treat both arrays as read-only.
+ */
 @Builder(toBuilder = true)
 public record UserSignals(
         Long tenantId,
@@ -15,6 +22,33 @@ public record UserSignals(
         BigDecimal avgWatchPercentage,
         int likeCount,
         int shareCount,
-        Map<String, Double> categoryAffinities,
-        List<String> lastWatchedIds
-) {}
+        float[] categoryAffinities,
+        long[] watchedKeys,
+        Instant profileUpdatedAt
+) {
+
+    public static final double NEUTRAL_AFFINITY = 0.5;
+
+    private static final float[] NO_AFFINITIES = new float[0];
+    private static final long[] NO_WATCHED = new long[0];
+
+    public UserSignals {
+        categoryAffinities = categoryAffinities != null ? categoryAffinities : NO_AFFINITIES;
+        watchedKeys = watchedKeys != null ? watchedKeys : NO_WATCHED;
+    }
+
+    /**
+     * The user's affinity for a category id, neutral if the user has none for it.
+     */
+    public double affinity(int categoryId) {
+        if (categoryId < 0 || categoryId >= categoryAffinities.length) {
+            return NEUTRAL_AFFINITY;
+        }
+        float affinity = categoryAffinities[categoryId];
+        return Float.isNaN(affinity) ? NEUTRAL_AFFINITY : affinity;
+    }
+
+    public boolean hasWatched(long watchedKey) {
+        return watchedKeys.length > 0 && Arrays.binarySearch(watchedKeys, watchedKey) >= 0;
+    }
+}
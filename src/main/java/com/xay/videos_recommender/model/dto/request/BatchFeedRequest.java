@@ -0,0 +1,23 @@
+package com.xay.videos_recommender.model.dto.request;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import jakarta.validation.constraints.Max;
+import jakarta.validation.constraints.Min;
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.Size;
+
+import java.util.List;
+
+@Schema(description = "Users of one tenant to render first feed pages for")
+public record BatchFeedRequest(
+        @NotEmpty(message = "User ID list cannot be empty")
+        @Size(max = 500, message = "Maximum 500 users per request")
+        @Schema(description = "Hashed user identifiers", example = "[\"a4f2e8c1b9d3e7f6\", \"b7c3d9e2f1a4b8c5\"]")
+        List<@NotBlank String> userIds,
+
+        @Min(value = 1, message = "Limit must be at least 1")
+        @Max(value = 100, message = "Maximum limit is 100")
+        @Schema(description = "Maximum number of items per user", example = "5", defaultValue = "5")
+        Integer limit
+) {}
@@ -0,0 +1,20 @@
+package com.xay.videos_recommender.model.dto.response;
+
+import java.util.List;
+
+/**
+ * One line of a batch feed response: the first feed page of a single user.
+ * Carries the page ETag in the body since per-user headers are not available.
+ */
+public record BatchFeedResult(
+        String userId,
+        List<FeedItem> items,
+        PaginationInfo pagination,
+        FeedMeta meta,
+        String eTag
+) {
+
+    public static BatchFeedResult of(String userId, FeedResponse feed) {
+        return new BatchFeedResult(userId, feed.items(), feed.pagination(), feed.meta(), feed.eTag());
+    }
+}
@@ -0,0 +1,10 @@
+package com.xay.videos_recommender.model.dto.response;
+
+import java.util.List;
+
+public record FeedDelta(
+        int baseVersion,
+        List<FeedInsertion> inserted,
+        List<String> removed,
+        List<FeedMove> moved
+) {}
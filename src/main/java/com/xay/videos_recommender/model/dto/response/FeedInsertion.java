@@ -0,0 +1,6 @@
+package com.xay.videos_recommender.model.dto.response;
+
+public record FeedInsertion(
+        int position,
+        FeedItem item
+) {}
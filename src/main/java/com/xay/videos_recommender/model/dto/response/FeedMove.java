@@ -0,0 +1,7 @@
+package com.xay.videos_recommender.model.dto.response;
+
+public record FeedMove(
+        String id,
+        int from,
+        int to
+) {}
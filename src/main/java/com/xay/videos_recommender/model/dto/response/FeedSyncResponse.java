@@ -0,0 +1,19 @@
+package com.xay.videos_recommender.model.dto.response;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+
+import java.util.List;
+
+/**
+ * Response of the feed sync endpoint.
+ * In "delta" mode only {@code delta} is set; in "full" mode {@code items} carries the first page.
+ */
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public record FeedSyncResponse(
+        String mode,
+        int feedVersion,
+        FeedDelta delta,
+        List<FeedItem> items,
+        PaginationInfo pagination,
+        FeedMeta meta
+) {}
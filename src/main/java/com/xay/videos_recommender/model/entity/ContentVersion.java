@@ -0,0 +1,26 @@
+package com.xay.videos_recommender.model.entity;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.time.Instant;
+
+@Entity
+@Table(name = "content_versions")
+@Getter
+@Setter
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class ContentVersion {
+
+    @Id
+    @Column(name = "tenant_id")
+    private Long tenantId;
+
+    @Column(nullable = false)
+    private Integer version;
+
+    @Column(name = "updated_at")
+    private Instant updatedAt;
+}
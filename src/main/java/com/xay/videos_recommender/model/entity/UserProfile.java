@@ -1,5 +1,6 @@
 package com.xay.videos_recommender.model.entity;
 
+import com.xay.videos_recommender.cache.KnownUserListener;
 import jakarta.persistence.*;
 import lombok.*;
 
@@ -7,6 +8,7 @@ import java.math.BigDecimal;
 import java.time.Instant;
 
 @Entity
+@EntityListeners(KnownUserListener.class)
 @Table(name = "user_profiles", indexes = {
         @Index(name = "idx_user_profiles_lookup", columnList = "tenant_id, hashed_user_id")
 })
@@ -0,0 +1,27 @@
+package com.xay.videos_recommender.repository;
+
+import com.xay.videos_recommender.model.entity.ContentVersion;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+@Repository
+public interface ContentVersionRepository extends JpaRepository<ContentVersion, Long> {
+
+    /**
+     * Atomic in-database increment, so concurrent rebuilds on different nodes never lose a version.
+     */
+    @Transactional
+    @Modifying
+    @Query(value = "UPDATE content_versions SET version = version + 1, updated_at = CURRENT_TIMESTAMP " +
+            "WHERE tenant_id = :tenantId", nativeQuery = true)
+    int incrementVersion(@Param("tenantId") Long tenantId);
+
+    @Transactional
+    @Modifying
+    @Query(value = "INSERT INTO content_versions (tenant_id, version) VALUES (:tenantId, 1)", nativeQuery = true)
+    void insertInitialVersion(@Param("tenantId") Long tenantId);
+}
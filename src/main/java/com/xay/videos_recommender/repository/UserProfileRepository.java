@@ -1,13 +1,40 @@
 package com.xay.videos_recommender.repository;
 
 import com.xay.videos_recommender.model.entity.UserProfile;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
 
 @Repository
 public interface UserProfileRepository extends JpaRepository<UserProfile, Long> {
 
     Optional<UserProfile> findByTenantIdAndHashedUserId(Long tenantId, String hashedUserId);
+
+    List<UserProfile> findByTenantIdAndHashedUserIdIn(Long tenantId, Collection<String> hashedUserIds);
+
+    /**
+     * Most recently active users of a tenant, served by idx_user_profiles_active.
+     */
+    List<UserProfile> findByTenantIdOrderByLastActiveAtDesc(Long tenantId, Pageable pageable);
+
+    @Query("SELECT p.tenantId FROM UserProfile p GROUP BY p.tenantId ORDER BY MAX(p.lastActiveAt) DESC")
+    List<Long> findMostActiveTenantIds(Pageable pageable);
+
+    long countByTenantId(Long tenantId);
+
+    /**
+     * One keyset page of a tenant's user ids, without loading the profiles.
+     */
+    List<KnownUser> findByTenantIdAndIdGreaterThanOrderById(Long tenantId, Long afterId, Limit limit);
+
+    interface KnownUser {
+        Long getId();
+        String getHashedUserId();
+    }
 }
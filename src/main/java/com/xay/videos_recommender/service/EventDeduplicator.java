@@ -0,0 +1,162 @@
+package com.xay.videos_recommender.service;
+
+import com.xay.videos_recommender.exception.EventsInFlightException;
+import com.xay.videos_recommender.model.dto.request.EventItem;
+import com.xay.videos_recommender.util.RotatingBloomFilter;
+import com.xay.videos_recommender.util.UserKeyUtil;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Consumer;
+
+/**
+ * Drops SDK retries before they reach the event queue. Requests are recognized by X-Request-ID and single events
+ * by a fingerprint of tenant, user, video, type and timestamp, both remembered in a {@link RotatingBloomFilter}
+ * for at least window-seconds.
+ *
+ * While a request is being queued its keys are also held in an exact in-flight set. A request that meets one of
+ * them is rejected with {@link EventsInFlightException} rather than acknowledged, since the earlier attempt may
+ * still fail; only keys already in the filter make a retry a duplicate. Keys move to the filter once their events
+ * are queued and are simply released if queueing fails, so a rejected request can be retried. A false positive
+ * drops a genuine event; keep false-positive-rate low and expected-keys-per-second above the real rate of events
+ * plus request ids.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class EventDeduplicator {
+
+    // Keeps request ids and event fingerprints apart in the shared filter
+    private static final long REQUEST_DOMAIN = 0x5245515545535449L;
+
+    private final MeterRegistry meterRegistry;
+
+    @Value("${app.events.dedup.enabled:true}")
+    private boolean enabled;
+
+    @Value("${app.events.dedup.window-seconds:600}")
+    private long windowSeconds;
+
+    @Value("${app.events.dedup.generations:6}")
+    private int generations;
+
+    @Value("${app.events.dedup.expected-keys-per-second:2000}")
+    private long expectedKeysPerSecond;
+
+    @Value("${app.events.dedup.false-positive-rate:0.001}")
+    private double falsePositiveRate;
+
+    @Value("${app.events.dedup.in-flight-retry-after-seconds:1}")
+    private long inFlightRetryAfterSeconds;
+
+    private RotatingBloomFilter seen;
+    private final Set<Long> inFlight = ConcurrentHashMap.newKeySet();
+    private Counter duplicateRequestCounter;
+    private Counter duplicateEventCounter;
+
+    @PostConstruct
+    public void init() {
+        if (!enabled) {
+            return;
+        }
+        long generationMillis = Math.max(1L, windowSeconds * 1000 / Math.max(1, generations - 1));
+        long expectedPerGeneration = Math.max(1L, expectedKeysPerSecond * generationMillis / 1000);
+        // A lookup checks every generation, so each gets a share of the target rate
+        seen = new RotatingBloomFilter(generations, generationMillis, expectedPerGeneration,
+                falsePositiveRate / generations, System::currentTimeMillis);
+
+        duplicateRequestCounter = Counter.builder("events.deduplicated")
+                .tag("by", "request")
+                .description("Events dropped as retries before queueing")
+                .register(meterRegistry);
+        duplicateEventCounter = Counter.builder("events.deduplicated")
+                .tag("by", "event")
+                .description("Events dropped as retries before queueing")
+                .register(meterRegistry);
+
+        log.info("EventDeduplicator initialized: windowSeconds={}, generations={}, expectedPerGeneration={}, bytes={}",
+                windowSeconds, generations, expectedPerGeneration, seen.bitCount() / 8);
+    }
+
+    /**
+     * Hands the events not queued within the window, nor repeated earlier in the list, to the enqueue action,
+     * unless a request with this id was already queued. Exceptions from the action propagate, and nothing is
+     * remembered then.
+     *
+     * @throws EventsInFlightException if another request is still queueing this request id or one of its events
+     */
+    public void enqueueOnce(Long tenantId, String userId, String requestId, List<EventItem> events,
+                            Consumer<List<EventItem>> enqueue) {
+        if (!enabled) {
+            enqueue.accept(events);
+            return;
+        }
+        Set<Long> claimed = new HashSet<>(events.size() * 2 + 2);
+        try {
+            if (requestId != null && !claim(requestKey(tenantId, requestId), claimed)) {
+                duplicateRequestCounter.increment(events.size());
+                return;
+            }
+            long userBits = UserKeyUtil.userBits(userId);
+            List<EventItem> unseen = new ArrayList<>(events.size());
+            for (EventItem event : events) {
+                if (claim(eventKey(tenantId, userBits, event), claimed)) {
+                    unseen.add(event);
+                }
+            }
+            if (unseen.size() < events.size()) {
+                duplicateEventCounter.increment(events.size() - unseen.size());
+            }
+            if (!unseen.isEmpty()) {
+                enqueue.accept(unseen);
+            }
+            // Into the filter before the claims are released, so no retry slips in between
+            for (long key : claimed) {
+                seen.put(key);
+            }
+        } finally {
+            claimed.forEach(inFlight::remove);
+        }
+    }
+
+    /**
+     * Takes the key for this request unless it was seen within the window or this request already holds it.
+     *
+     * @throws EventsInFlightException if another request holds the key
+     */
+    private boolean claim(long key, Set<Long> claimed) {
+        if (claimed.contains(key)) {
+            return false;
+        }
+        if (!inFlight.add(key)) {
+            throw new EventsInFlightException(inFlightRetryAfterSeconds);
+        }
+        if (seen.mightContain(key)) {
+            inFlight.remove(key);
+            return false;
+        }
+        claimed.add(key);
+        return true;
+    }
+
+    private static long requestKey(Long tenantId, String requestId) {
+        return UserKeyUtil.tenantUserKey(tenantId, UserKeyUtil.fnv1a(requestId) ^ REQUEST_DOMAIN);
+    }
+
+    private static long eventKey(Long tenantId, long userBits, EventItem event) {
+        long key = UserKeyUtil.tenantUserKey(tenantId, userBits);
+        key = UserKeyUtil.tenantUserKey(key, UserKeyUtil.fnv1a(event.videoId()));
+        key = UserKeyUtil.tenantUserKey(key, event.type().ordinal());
+        return UserKeyUtil.tenantUserKey(key, event.timestamp().toEpochMilli());
+    }
+}
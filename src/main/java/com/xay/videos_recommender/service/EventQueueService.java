@@ -1,45 +1,313 @@
 package com.xay.videos_recommender.service;
 
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.xay.videos_recommender.exception.EventBufferFullException;
+import com.xay.videos_recommender.model.domain.QueuedEvent;
 import com.xay.videos_recommender.model.dto.request.EventItem;
+import com.xay.videos_recommender.storage.eventlog.EventLog;
+import com.xay.videos_recommender.util.MpscRingBuffer;
+import com.xay.videos_recommender.util.UserKeyUtil;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 
+import java.io.IOException;
 import java.util.ArrayList;
+import java.util.Collection;
 import java.util.List;
-import java.util.concurrent.BlockingQueue;
-import java.util.concurrent.LinkedBlockingQueue;
+import java.lang.invoke.VarHandle;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.locks.LockSupport;
+import java.util.concurrent.locks.ReentrantLock;
 
 /**
  * In-memory event queue for demo purposes.
  * In production, this would be Redis Streams or similar.
+ *
+ * Events are partitioned by a hash of tenant and user into bounded ring buffers, one per aggregation consumer,
+ * so each user's events are always handled by the same consumer. When a request's events don't fit in their
+ * partition, none are queued and the request is rejected with a retry hint, so a burst that outruns the
+ * aggregation worker sheds load instead of growing the heap.
+ *
+ * With the {@link EventLog} enabled, events are also appended to it and the request returns once they are on disk;
+ * if forcing them fails they stay queued, and the failure is logged and counted rather than returned.
+ * Appends and buffer offers happen in log order, so {@link #offeredPosition()} covers every queued event.
+ * Events not yet checkpointed are replayed into the buffers on startup; until the replay is done new events are
+ * rejected, so they queue behind it.
  */
 @Slf4j
 @Service
+@RequiredArgsConstructor
 public class EventQueueService {
 
-    private final BlockingQueue<EventItem> eventQueue = new LinkedBlockingQueue<>();
+    private static final long REPLAY_BACKOFF_NANOS = 10_000_000;
+
+    private final MeterRegistry meterRegistry;
+    private final ObjectMapper objectMapper;
+    private final ObjectProvider<EventLog> eventLogProvider;
+
+    @Value("${app.events.buffer.capacity:65536}")
+    private int capacity;
+
+    @Value("${app.events.buffer.retry-after-seconds:1}")
+    private long retryAfterSeconds;
+
+    @Value("${app.events.partitions:0}")
+    private int configuredPartitions;
+
+    private List<MpscRingBuffer<QueuedEvent>> partitions;
+    // Per partition: its consumer thread, and 1 while that consumer is parked waiting for events
+    private AtomicReferenceArray<Thread> consumers;
+    private AtomicIntegerArray idleConsumers;
+    private Counter acceptedCounter;
+    private Counter rejectedCounter;
+    private Counter unpersistedCounter;
+
+    private EventLog eventLog;
+    // Keeps log order and buffer order the same
+    private final ReentrantLock appendLock = new ReentrantLock();
+    private volatile boolean replaying;
+    // End of the last logged event offered to a partition
+    private volatile long offeredPosition;
+
+    @PostConstruct
+    public void init() {
+        int partitionCount = configuredPartitions > 0 ? configuredPartitions : Runtime.getRuntime().availableProcessors();
+        int partitionCapacity = Math.max(1, capacity / partitionCount);
+        partitions = new ArrayList<>(partitionCount);
+        for (int i = 0; i < partitionCount; i++) {
+            partitions.add(new MpscRingBuffer<>(partitionCapacity));
+        }
+        consumers = new AtomicReferenceArray<>(partitionCount);
+        idleConsumers = new AtomicIntegerArray(partitionCount);
+
+        Gauge.builder("events.buffer.depth", this, EventQueueService::getQueueSize)
+                .description("Events waiting in the ingestion buffers")
+                .register(meterRegistry);
+        Gauge.builder("events.buffer.fill.ratio", this, service -> (double) service.getQueueSize() / service.totalCapacity())
+                .description("Fraction of the ingestion buffers in use")
+                .register(meterRegistry);
+        acceptedCounter = Counter.builder("events.buffer.offered")
+                .tag("result", "accepted")
+                .description("Events offered to the ingestion buffers")
+                .register(meterRegistry);
+        rejectedCounter = Counter.builder("events.buffer.offered")
+                .tag("result", "rejected")
+                .description("Events offered to the ingestion buffers")
+                .register(meterRegistry);
+        unpersistedCounter = Counter.builder("events.log.unpersisted")
+                .description("Events queued but not forced to the event log")
+                .register(meterRegistry);
+
+        eventLog = eventLogProvider.getIfAvailable();
+        if (eventLog != null) {
+            offeredPosition = eventLog.checkpointPosition();
+            replaying = true;
+            Thread.ofVirtual().name("event-log-replay").start(this::replay);
+        }
+        log.info("EventQueueService initialized: partitions={}, partitionCapacity={}, eventLog={}",
+                partitionCount, partitionCapacity(), eventLog != null);
+    }
 
     /**
-     * Enqueues events with tenant and user context.
+     * Enqueues events with tenant and user context, all or none.
+     *
+     * @throws EventBufferFullException if their partition has no room for all of them
      */
     public void enqueue(Long tenantId, String userId, List<EventItem> events) {
+        List<EventItem> enriched = new ArrayList<>(events.size());
         for (EventItem event : events) {
-            EventItem enriched = event.withContext(tenantId, userId);
-            eventQueue.offer(enriched);
+            enriched.add(event.withContext(tenantId, userId));
         }
+        int partitionIndex = partitionOf(tenantId, userId);
+        MpscRingBuffer<QueuedEvent> partition = partitions.get(partitionIndex);
+        if (eventLog != null) {
+            enqueueLogged(partition, enriched);
+        } else {
+            List<QueuedEvent> queued = new ArrayList<>(enriched.size());
+            for (EventItem event : enriched) {
+                queued.add(new QueuedEvent(event, 0L, 0L));
+            }
+            if (!partition.offerAll(queued)) {
+                reject(events.size());
+            }
+        }
+        wakeConsumer(partitionIndex);
+        acceptedCounter.increment(events.size());
         log.debug("Enqueued {} events for tenant {} user {}", events.size(), tenantId, userId);
     }
 
+    public int partitionCount() {
+        return partitions.size();
+    }
+
+    public int partitionCapacity() {
+        return partitions.getFirst().capacity();
+    }
+
+    /**
+     * Moves up to maxEvents of a partition's events into the target, oldest first. Only the partition's
+     * consumer may call this.
+     */
+    public int drain(int partition, Collection<? super QueuedEvent> target, int maxEvents) {
+        return partitions.get(partition).drainTo(target, maxEvents);
+    }
+
+    /**
+     * Parks the partition's consumer until events are offered to the partition or the timeout passes.
+     * Returns at once if events are already waiting. Only the partition's consumer may call this.
+     */
+    public void awaitEvents(int partition, long timeoutNanos) {
+        consumers.set(partition, Thread.currentThread());
+        idleConsumers.set(partition, 1);
+        // Pairs with the fence in wakeConsumer: either the producer sees the consumer idle, or the consumer sees the event
+        VarHandle.fullFence();
+        if (partitions.get(partition).peek() == null) {
+            LockSupport.parkNanos(this, timeoutNanos);
+        }
+        idleConsumers.set(partition, 0);
+    }
+
+    /**
+     * The oldest event still in a partition's buffer, or null. Only the partition's consumer may call this.
+     */
+    public QueuedEvent peek(int partition) {
+        return partitions.get(partition).peek();
+    }
+
     /**
-     * Drains up to batchSize events from the queue.
+     * Every logged event ending at or before this position has been offered to its partition.
      */
-    public List<EventItem> dequeue(int batchSize) {
-        List<EventItem> batch = new ArrayList<>(batchSize);
-        eventQueue.drainTo(batch, batchSize);
-        return batch;
+    public long offeredPosition() {
+        return offeredPosition;
+    }
+
+    /**
+     * Records that every logged event before the position has been processed, so it is not replayed after a restart.
+     */
+    public void checkpoint(long position) {
+        if (eventLog == null) {
+            return;
+        }
+        try {
+            eventLog.checkpoint(position);
+        } catch (IOException e) {
+            // The next checkpoint covers this one; until then a restart replays these events
+            log.warn("Event log checkpoint at {} failed: {}", position, e.getMessage());
+        }
     }
 
     public int getQueueSize() {
-        return eventQueue.size();
+        int size = 0;
+        for (MpscRingBuffer<QueuedEvent> partition : partitions) {
+            size += partition.size();
+        }
+        return size;
+    }
+
+    private int totalCapacity() {
+        return partitions.size() * partitionCapacity();
+    }
+
+    private int partitionOf(Long tenantId, String userId) {
+        return (int) Math.floorMod(UserKeyUtil.tenantUserKey(tenantId, UserKeyUtil.userBits(userId)), (long) partitions.size());
+    }
+
+    private void enqueueLogged(MpscRingBuffer<QueuedEvent> partition, List<EventItem> events) {
+        List<byte[]> payloads = new ArrayList<>(events.size());
+        for (EventItem event : events) {
+            payloads.add(serialize(event));
+        }
+
+        long durableAt;
+        appendLock.lock();
+        try {
+            // Only appenders fill the buffers and they all hold the lock, so this room can't be taken
+            if (replaying || partition.remainingCapacity() < events.size()) {
+                reject(events.size());
+            }
+            long start = eventLog.endPosition();
+            long[] ends = eventLog.append(payloads);
+            List<QueuedEvent> queued = new ArrayList<>(events.size());
+            for (int i = 0; i < events.size(); i++) {
+                queued.add(new QueuedEvent(events.get(i), i == 0 ? start : ends[i - 1], ends[i]));
+            }
+            partition.offerAll(queued);
+            durableAt = ends[ends.length - 1];
+            offeredPosition = durableAt;
+        } finally {
+            appendLock.unlock();
+        }
+
+        try {
+            eventLog.awaitDurable(durableAt);
+        } catch (IOException e) {
+            // Already queued and will be processed; failing the request would only make the client send them twice
+            unpersistedCounter.increment(events.size());
+            log.error("{} queued events not persisted to the event log; a restart before they are processed loses them",
+                    events.size(), e);
+        }
+    }
+
+    private void wakeConsumer(int partition) {
+        VarHandle.fullFence();
+        if (idleConsumers.get(partition) == 1 && idleConsumers.compareAndSet(partition, 1, 0)) {
+            LockSupport.unpark(consumers.get(partition));
+        }
+    }
+
+    private void reject(int eventCount) {
+        rejectedCounter.increment(eventCount);
+        throw new EventBufferFullException(eventCount, retryAfterSeconds);
+    }
+
+    private void replay() {
+        long startNanos = System.nanoTime();
+        AtomicLong replayed = new AtomicLong();
+        AtomicLong previousEnd = new AtomicLong(eventLog.checkpointPosition());
+        try {
+            eventLog.read(eventLog.checkpointPosition(), (payload, endPosition) -> {
+                long start = previousEnd.getAndSet(endPosition);
+                EventItem event;
+                try {
+                    event = objectMapper.readValue(payload, EventItem.class);
+                } catch (IOException e) {
+                    log.warn("Skipping unreadable event at log position {}: {}", start, e.getMessage());
+                    offeredPosition = endPosition;
+                    return;
+                }
+                List<QueuedEvent> single = List.of(new QueuedEvent(event, start, endPosition));
+                int partitionIndex = partitionOf(event.tenantId(), event.userId());
+                // Consumers make room; new events are rejected until the replay is done, so it can't be starved
+                while (!partitions.get(partitionIndex).offerAll(single)) {
+                    wakeConsumer(partitionIndex);
+                    LockSupport.parkNanos(REPLAY_BACKOFF_NANOS);
+                }
+                wakeConsumer(partitionIndex);
+                offeredPosition = endPosition;
+                replayed.incrementAndGet();
+            });
+            log.info("Replayed {} unconsumed events from the event log in {} ms",
+                    replayed.get(), (System.nanoTime() - startNanos) / 1_000_000);
+        } finally {
+            replaying = false;
+        }
+    }
+
+    private byte[] serialize(EventItem event) {
+        try {
+            return objectMapper.writeValueAsBytes(event);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Failed to serialize event", e);
+        }
     }
 }
@@ -1,28 +1,45 @@
 package com.xay.videos_recommender.service;
 
 import com.xay.videos_recommender.cache.FeedCacheManager;
+import com.xay.videos_recommender.cache.TenantUserKey;
 import com.xay.videos_recommender.model.domain.CachedFeed;
 import com.xay.videos_recommender.model.domain.ContentCandidate;
+import com.xay.videos_recommender.model.domain.FeedSnapshot;
 import com.xay.videos_recommender.model.domain.RankedVideo;
+import com.xay.videos_recommender.model.domain.RankingPlan;
 import com.xay.videos_recommender.model.domain.UserSignals;
+import com.xay.videos_recommender.model.dto.response.BatchFeedResult;
+import com.xay.videos_recommender.model.dto.response.FeedDelta;
 import com.xay.videos_recommender.model.dto.response.FeedItem;
 import com.xay.videos_recommender.model.dto.response.FeedMeta;
 import com.xay.videos_recommender.model.dto.response.FeedResponse;
+import com.xay.videos_recommender.model.dto.response.FeedSyncResponse;
 import com.xay.videos_recommender.model.dto.response.PaginationInfo;
 import com.xay.videos_recommender.model.entity.Tenant;
 import com.xay.videos_recommender.model.entity.Video;
 import com.xay.videos_recommender.repository.VideoRepository;
+import com.xay.videos_recommender.util.BoundedExecutors;
 import com.xay.videos_recommender.util.CursorUtil;
 import com.xay.videos_recommender.util.ETagUtil;
+import com.xay.videos_recommender.util.FeedDiffUtil;
+import com.xay.videos_recommender.util.FeedHashUtil;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 
 import java.time.Instant;
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.function.Consumer;
 import java.util.function.Function;
 import java.util.stream.Collectors;
 
@@ -37,6 +54,12 @@ public class FeedService {
     @Value("${app.feed.timeout-ms}")
     private long timeoutMs;
 
+    @Value("${app.cache.feed.stale-rebuild-threads:2}")
+    private int staleRebuildThreads;
+
+    @Value("${app.cache.feed.stale-rebuild-queue-capacity:1000}")
+    private int staleRebuildQueueCapacity;
+
     private final TenantService tenantService;
     private final ContentService contentService;
     private final UserProfileService userProfileService;
@@ -44,37 +67,43 @@ public class FeedService {
     private final FeedCacheManager feedCacheManager;
     private final VideoRepository videoRepository;
 
+    // Feeds served from an older generation (stale-generation=serve) are rebuilt here, once per user at a time
+    private ThreadPoolExecutor staleRebuildExecutor;
+    private final Set<TenantUserKey> staleRebuilds = ConcurrentHashMap.newKeySet();
+
+    @PostConstruct
+    public void init() {
+        staleRebuildExecutor = BoundedExecutors.newFixedPool("feed-stale-rebuild-", staleRebuildThreads,
+                staleRebuildQueueCapacity);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        staleRebuildExecutor.shutdown();
+    }
+
     public Optional<FeedResponse> generateFeed(Long tenantId, String userId, int limit, String cursor, String ifNoneMatch) {
         long startTime = System.currentTimeMillis();
-        int offset = CursorUtil.decode(cursor);
+        long cursorState = CursorUtil.decodeRaw(cursor);
+        int offset = CursorUtil.offset(cursorState);
+        int cursorVersion = CursorUtil.feedVersion(cursorState);
 
         // 1. Check feature flag
-        if (!tenantService.isPersonalizationEnabled(tenantId) ||
-            !tenantService.isUserInRollout(tenantId, userId)) {
+        if (!isPersonalized(tenantId, userId)) {
             log.debug("Tenant {} user {} not in rollout, using fallback", tenantId, userId);
             return generateFallbackFeed(tenantId, limit, offset, "fallback", ifNoneMatch);
         }
 
         // 2. Check cache
         Optional<CachedFeed> cachedFeed = feedCacheManager.getFeed(tenantId, userId);
-        int candidatesVersion = contentService.getContentCandidatesVersion(tenantId);
         
         if (cachedFeed.isPresent()) {
             log.debug("Feed cache HIT for tenant {} user {}", tenantId, userId);
-            CachedFeed feed = cachedFeed.get();
-            
-            // Check if client's ETag matches (304 Not Modified scenario)
-            // ETag includes cursor, so each page has unique ETag
-            if (ETagUtil.matches(ifNoneMatch, candidatesVersion, feed.version(), offset)) {
-                log.debug("ETag matched, returning 304 Not Modified");
-                return Optional.empty();
-            }
-            
-            // Return cached feed with pagination
-            String etag = ETagUtil.generate(candidatesVersion, feed.version(), offset);
-            return Optional.of(buildResponseFromCachedFeed(feed, limit, offset, etag));
+            rebuildIfStale(tenantId, userId, cachedFeed.get());
+            return servePage(tenantId, userId, cachedFeed.get(), cursorVersion, offset, limit, ifNoneMatch);
         }
         log.debug("Feed cache MISS for tenant {} user {}", tenantId, userId);
+        long generation = feedCacheManager.currentGeneration(tenantId);
 
         // 3. Get user signals (cold-start check)
         UserSignals userSignals = userProfileService.getUserSignals(tenantId, userId);
@@ -97,43 +126,246 @@ public class FeedService {
             log.warn("Feed generation timeout for tenant {} user {}", tenantId, userId);
         }
 
-        // 6. Rank candidates
+        // 6. Rank candidates, then build and cache feed (version is content-addressed: same ordering, same version)
+        CachedFeed newFeed = rankAndCache(tenantId, userId, generation, userSignals, candidates);
+
+        // 7. Return paginated response (a rebuild that left this page unchanged still returns 304)
+        return servePage(tenantId, userId, newFeed, cursorVersion, offset, limit, ifNoneMatch);
+    }
+
+    /**
+     * Returns the changes to the top {@code limit} items of a user's feed since {@code sinceVersion}.
+     * Empty when the client already has the current version. Falls back to a full first page when
+     * the base snapshot is no longer retained or the user is not on a personalized feed.
+     */
+    public Optional<FeedSyncResponse> syncFeed(Long tenantId, String userId, Integer sinceVersion, int limit) {
+        if (!isPersonalized(tenantId, userId)) {
+            return generateFeed(tenantId, userId, limit, null, null)
+                    .map(page -> toFullSync(page, CursorUtil.UNBOUND_VERSION));
+        }
+
+        Optional<CachedFeed> cachedFeed = feedCacheManager.getFeed(tenantId, userId);
+        cachedFeed.ifPresent(feed -> rebuildIfStale(tenantId, userId, feed));
+        if (cachedFeed.isEmpty()) {
+            cachedFeed = buildFeed(tenantId, userId);
+            if (cachedFeed.isEmpty()) {
+                // Cold-start and empty feeds are not cached, so there is no feed version to sync against
+                return generateFeed(tenantId, userId, limit, null, null)
+                        .map(page -> toFullSync(page, CursorUtil.UNBOUND_VERSION));
+            }
+        }
+
+        CachedFeed current = cachedFeed.get();
+        if (sinceVersion != null && sinceVersion == current.version()) {
+            log.debug("Feed unchanged since version {} for tenant {} user {}", sinceVersion, tenantId, userId);
+            return Optional.empty();
+        }
+
+        Optional<FeedSnapshot> base = sinceVersion == null
+                ? Optional.empty()
+                : feedCacheManager.getSnapshot(tenantId, userId, sinceVersion);
+        if (base.isEmpty()) {
+            log.debug("No snapshot for version {} (tenant {} user {}), sending full page", sinceVersion, tenantId, userId);
+            FeedResponse page = buildResponseFromCachedFeed(current, limit, 0, null);
+            return Optional.of(toFullSync(page, current.version()));
+        }
+
+        FeedDelta delta = FeedDiffUtil.diff(base.get(), current, limit);
+        int windowEnd = Math.min(limit, current.items().size());
+        boolean hasMore = windowEnd < current.items().size();
+        return Optional.of(new FeedSyncResponse(
+                "delta",
+                current.version(),
+                delta,
+                null,
+                new PaginationInfo(hasMore ? CursorUtil.encode(current.version(), windowEnd) : null, hasMore),
+                new FeedMeta(current.feedType(), Instant.now(), ttlHintSeconds)
+        ));
+    }
+
+    /**
+     * Renders the first page for many users of one tenant, handing each result to the sink as soon as it is ready.
+     * Tenant flags, candidates, the ranking plan and video details are resolved once for the whole batch,
+     * and profiles of users without a cached feed are loaded with a single query.
+     */
+    public void generateFeeds(Long tenantId, List<String> userIds, int limit, Consumer<BatchFeedResult> sink) {
+        long generation = feedCacheManager.currentGeneration(tenantId);
+        Tenant tenant = tenantService.getTenant(tenantId);
+        boolean personalizationEnabled = Boolean.TRUE.equals(tenant.getPersonalizationEnabled());
+        BatchContext batch = new BatchContext(tenantId);
+
+        // 1. Fallback users and cache hits need no profile
+        List<String> pending = new ArrayList<>();
+        for (String userId : userIds) {
+            if (!personalizationEnabled || !tenantService.isUserInRollout(tenant, userId)) {
+                sink.accept(BatchFeedResult.of(userId, batch.fallbackPage("fallback", limit)));
+                continue;
+            }
+            Optional<CachedFeed> cachedFeed = feedCacheManager.getFeed(tenantId, userId);
+            if (cachedFeed.isPresent()) {
+                rebuildIfStale(tenantId, userId, cachedFeed.get());
+                sink.accept(BatchFeedResult.of(userId, firstPage(tenantId, userId, cachedFeed.get(), limit)));
+            } else {
+                pending.add(userId);
+            }
+        }
+        log.debug("Batch feed for tenant {}: {} users, {} to rank", tenantId, userIds.size(), pending.size());
+        if (pending.isEmpty()) {
+            return;
+        }
+
+        // 2. Bulk-load signals and rank the rest against shared candidate columns
+        Map<String, UserSignals> signals = userProfileService.getUserSignals(tenantId, pending);
+        RankingPlan plan = null;
+        for (String userId : pending) {
+            UserSignals userSignals = signals.get(userId);
+            if (userSignals.watchCount() == 0) {
+                sink.accept(BatchFeedResult.of(userId, batch.fallbackPage("cold_start", limit)));
+                continue;
+            }
+            if (batch.candidates().isEmpty()) {
+                sink.accept(BatchFeedResult.of(userId, generateEmptyFeed("no_content")));
+                continue;
+            }
+            if (plan == null) {
+                plan = rankingService.plan(batch.candidates(), tenant);
+            }
+            List<RankedVideo> rankedVideos = rankingService.rank(plan, userSignals, plan.size());
+            CachedFeed feed = cachePersonalizedFeed(tenantId, userId, generation, batch.toFeedItems(rankedVideos));
+            sink.accept(BatchFeedResult.of(userId, firstPage(tenantId, userId, feed, limit)));
+        }
+    }
+
+    private boolean isPersonalized(Long tenantId, String userId) {
+        return tenantService.isPersonalizationEnabled(tenantId) &&
+                tenantService.isUserInRollout(tenantId, userId);
+    }
+
+    /**
+     * Serves a page of a personalized feed, honouring snapshot-bound cursors and If-None-Match.
+     */
+    private Optional<FeedResponse> servePage(Long tenantId, String userId, CachedFeed feed, int cursorVersion,
+                                             int offset, int limit, String ifNoneMatch) {
+        // Cursor issued against an older version: keep paging through that snapshot
+        Optional<FeedSnapshot> pinned = findPinnedSnapshot(tenantId, userId, feed, cursorVersion);
+        long[] servedIds = pinned.map(FeedSnapshot::videoIds).orElse(feed.videoIds());
+        int pageHash = FeedHashUtil.pageHash(servedIds, offset, limit);
+
+        // Check if client's ETag matches (304 Not Modified scenario)
+        // ETag includes cursor, so each page has unique ETag
+        if (ETagUtil.matches(ifNoneMatch, pageHash, offset)) {
+            log.debug("ETag matched, returning 304 Not Modified");
+            return Optional.empty();
+        }
+
+        String etag = ETagUtil.generate(pageHash, offset);
+        return Optional.of(pinned
+                .map(snapshot -> buildResponseFromSnapshot(feed, snapshot, limit, offset, etag))
+                .orElseGet(() -> buildResponseFromCachedFeed(feed, limit, offset, etag)));
+    }
+
+    private FeedResponse firstPage(Long tenantId, String userId, CachedFeed feed, int limit) {
+        return servePage(tenantId, userId, feed, CursorUtil.UNBOUND_VERSION, 0, limit, null).orElseThrow();
+    }
+
+    /**
+     * Schedules a background rebuild of a feed from an older generation, which the cache only returns when
+     * stale feeds may be served. If the queue is full the feed stays stale until its next hit.
+     */
+    private void rebuildIfStale(Long tenantId, String userId, CachedFeed feed) {
+        long generation = feedCacheManager.currentGeneration(tenantId);
+        if (feed.generation() >= generation) {
+            return;
+        }
+        TenantUserKey key = TenantUserKey.of(tenantId, userId);
+        if (!staleRebuilds.add(key)) {
+            return;
+        }
+        try {
+            staleRebuildExecutor.execute(() -> {
+                try {
+                    rebuild(tenantId, userId, generation);
+                } catch (RuntimeException e) {
+                    log.warn("Rebuilding stale feed for tenant {} user {} failed", tenantId, userId, e);
+                } finally {
+                    staleRebuilds.remove(key);
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            staleRebuilds.remove(key);
+            log.debug("Stale feed rebuild queue full, tenant {} user {} retries on its next hit", tenantId, userId);
+        }
+    }
+
+    private void rebuild(Long tenantId, String userId, long generation) {
+        UserSignals userSignals = userProfileService.getUserSignals(tenantId, userId);
+        List<ContentCandidate> candidates = contentService.getContentCandidates(tenantId);
+        if (userSignals.watchCount() == 0 || candidates.isEmpty()) {
+            // Such feeds aren't cached; the next request builds its fallback
+            feedCacheManager.invalidateFeed(tenantId, userId);
+            return;
+        }
+        rankAndCache(tenantId, userId, generation, userSignals, candidates);
+        log.debug("Rebuilt stale feed for tenant {} user {} at generation {}", tenantId, userId, generation);
+    }
+
+    /**
+     * Ranks and caches a personalized feed; empty for cold-start users and tenants without content.
+     */
+    private Optional<CachedFeed> buildFeed(Long tenantId, String userId) {
+        long generation = feedCacheManager.currentGeneration(tenantId);
+        UserSignals userSignals = userProfileService.getUserSignals(tenantId, userId);
+        if (userSignals.watchCount() == 0) {
+            return Optional.empty();
+        }
+        List<ContentCandidate> candidates = contentService.getContentCandidates(tenantId);
+        if (candidates.isEmpty()) {
+            return Optional.empty();
+        }
+        return Optional.of(rankAndCache(tenantId, userId, generation, userSignals, candidates));
+    }
+
+    private CachedFeed rankAndCache(Long tenantId, String userId, long generation, UserSignals userSignals,
+                                    List<ContentCandidate> candidates) {
         Tenant tenant = tenantService.getTenant(tenantId);
         List<RankedVideo> rankedVideos = rankingService.rank(candidates, userSignals, tenant, candidates.size());
+        return cachePersonalizedFeed(tenantId, userId, generation, buildFeedItems(tenantId, rankedVideos));
+    }
 
-        // 7. Build and cache feed
-        List<FeedItem> feedItems = buildFeedItems(tenantId, rankedVideos);
-        int feedVersion = 1;
-        
-        CachedFeed newFeed = CachedFeed.builder()
-                .version(feedVersion)
+    private CachedFeed cachePersonalizedFeed(Long tenantId, String userId, long generation, List<FeedItem> feedItems) {
+        long[] videoIds = toVideoIds(feedItems);
+        CachedFeed feed = CachedFeed.builder()
+                .version(FeedHashUtil.feedVersion(videoIds))
+                .generation(generation)
                 .generatedAt(Instant.now())
                 .feedType("personalized")
                 .items(feedItems)
+                .videoIds(videoIds)
                 .build();
-        feedCacheManager.putFeed(tenantId, userId, newFeed);
-        log.debug("Generated personalized feed for tenant {} user {} with {} items", 
+        feedCacheManager.putFeed(tenantId, userId, feed);
+        log.debug("Generated personalized feed for tenant {} user {} with {} items",
                 tenantId, userId, feedItems.size());
+        return feed;
+    }
 
-        // 8. Return paginated response
-        String etag = ETagUtil.generate(candidatesVersion, feedVersion, offset);
-        return Optional.of(buildPaginatedResponse(feedItems, limit, offset, "personalized", etag));
+    private FeedSyncResponse toFullSync(FeedResponse page, int feedVersion) {
+        return new FeedSyncResponse("full", feedVersion, null, page.items(), page.pagination(), page.meta());
     }
 
     private Optional<FeedResponse> generateFallbackFeed(Long tenantId, int limit, int offset, String feedType, String ifNoneMatch) {
-        int version = contentService.getContentCandidatesVersion(tenantId);
+        List<ContentCandidate> candidates = contentService.getContentCandidates(tenantId);
+        List<RankedVideo> rankedVideos = rankingService.rankWithoutPersonalization(candidates, candidates.size());
+        int pageHash = FeedHashUtil.pageHash(toRankedIds(rankedVideos), offset, limit);
 
-        // Check ETag for fallback feeds too
-        if (ETagUtil.matches(ifNoneMatch, version, 0, offset)) {
+        // Check ETag for fallback feeds too, before loading any video details
+        if (ETagUtil.matches(ifNoneMatch, pageHash, offset)) {
             return Optional.empty();
         }
 
-        List<ContentCandidate> candidates = contentService.getContentCandidates(tenantId);
-        List<RankedVideo> rankedVideos = rankingService.rankWithoutPersonalization(candidates, candidates.size());
         List<FeedItem> feedItems = buildFeedItems(tenantId, rankedVideos);
 
-        String eTag = ETagUtil.generate(version, 0, offset);
-        return Optional.of(buildPaginatedResponse(feedItems, limit, offset, feedType, eTag));
+        String eTag = ETagUtil.generate(pageHash, offset);
+        return Optional.of(buildPaginatedResponse(feedItems, limit, offset, feedType, CursorUtil.UNBOUND_VERSION, eTag));
     }
 
     private FeedResponse generateEmptyFeed(String feedType) {
@@ -141,21 +373,64 @@ public class FeedService {
                 List.of(),
                 new PaginationInfo(null, false),
                 new FeedMeta(feedType, Instant.now(), ttlHintSeconds),
-                ETagUtil.generate(0, 0, 0)
+                ETagUtil.generate(FeedHashUtil.hash(new long[0], 0, 0), 0)
         );
     }
 
     private FeedResponse buildResponseFromCachedFeed(CachedFeed feed, int limit, int offset, String etag) {
         List<FeedItem> items = feed.items();
-        return buildPaginatedResponse(items, limit, offset, feed.feedType(), etag);
+        return buildPaginatedResponse(items, limit, offset, feed.feedType(), feed.version(), etag);
+    }
+
+    /**
+     * Serves a page from a retained snapshot, resolving items from the current feed
+     * and loading only videos that dropped out of it since.
+     */
+    private FeedResponse buildResponseFromSnapshot(CachedFeed current, FeedSnapshot snapshot, int limit, int offset, String etag) {
+        long[] videoIds = snapshot.videoIds();
+        int startIndex = Math.min(offset, videoIds.length);
+        int endIndex = (int) Math.min((long) offset + limit, videoIds.length);
+
+        Map<String, FeedItem> currentItems = current.items().stream()
+                .collect(Collectors.toMap(FeedItem::id, Function.identity(), (a, b) -> a));
+
+        List<Long> missingIds = new ArrayList<>();
+        for (int i = startIndex; i < endIndex; i++) {
+            if (!currentItems.containsKey(String.valueOf(videoIds[i]))) {
+                missingIds.add(videoIds[i]);
+            }
+        }
+        Map<String, FeedItem> loadedItems = missingIds.isEmpty() ? Map.of() : videoRepository.findAllById(missingIds).stream()
+                .map(this::toFeedItem)
+                .collect(Collectors.toMap(FeedItem::id, Function.identity()));
+
+        List<FeedItem> pageItems = new ArrayList<>(endIndex - startIndex);
+        for (int i = startIndex; i < endIndex; i++) {
+            String id = String.valueOf(videoIds[i]);
+            FeedItem item = currentItems.containsKey(id) ? currentItems.get(id) : loadedItems.get(id);
+            if (item != null) {
+                pageItems.add(item);
+            }
+        }
+
+        boolean hasMore = endIndex < videoIds.length;
+        String nextCursor = hasMore ? CursorUtil.encode(snapshot.version(), endIndex) : null;
+
+        return new FeedResponse(
+                pageItems,
+                new PaginationInfo(nextCursor, hasMore),
+                new FeedMeta(current.feedType(), Instant.now(), ttlHintSeconds),
+                etag
+        );
     }
 
-    private FeedResponse buildPaginatedResponse(List<FeedItem> allItems, int limit, int offset, String feedType, String etag) {
-        int endIndex = Math.min(offset + limit, allItems.size());
+    private FeedResponse buildPaginatedResponse(List<FeedItem> allItems, int limit, int offset, String feedType,
+                                                int feedVersion, String etag) {
+        int endIndex = (int) Math.min((long) offset + limit, allItems.size());
         List<FeedItem> pageItems = allItems.subList(Math.min(offset, allItems.size()), endIndex);
 
         boolean hasMore = endIndex < allItems.size();
-        String nextCursor = hasMore ? CursorUtil.encode(endIndex) : null;
+        String nextCursor = hasMore ? CursorUtil.encode(feedVersion, endIndex) : null;
 
         return new FeedResponse(
                 pageItems,
@@ -165,6 +440,34 @@ public class FeedService {
         );
     }
 
+    private Optional<FeedSnapshot> findPinnedSnapshot(Long tenantId, String userId, CachedFeed current, int cursorVersion) {
+        if (cursorVersion == CursorUtil.UNBOUND_VERSION || cursorVersion == current.version()) {
+            return Optional.empty();
+        }
+        Optional<FeedSnapshot> snapshot = feedCacheManager.getSnapshot(tenantId, userId, cursorVersion);
+        if (snapshot.isEmpty()) {
+            log.debug("Snapshot {} evicted for tenant {} user {}, paging current version {}",
+                    cursorVersion, tenantId, userId, current.version());
+        }
+        return snapshot;
+    }
+
+    private long[] toRankedIds(List<RankedVideo> rankedVideos) {
+        long[] videoIds = new long[rankedVideos.size()];
+        for (int i = 0; i < videoIds.length; i++) {
+            videoIds[i] = rankedVideos.get(i).videoId();
+        }
+        return videoIds;
+    }
+
+    private long[] toVideoIds(List<FeedItem> feedItems) {
+        long[] videoIds = new long[feedItems.size()];
+        for (int i = 0; i < videoIds.length; i++) {
+            videoIds[i] = Long.parseLong(feedItems.get(i).id());
+        }
+        return videoIds;
+    }
+
     private List<FeedItem> buildFeedItems(Long tenantId, List<RankedVideo> rankedVideos) {
         // Fetch video details
         List<Long> videoIds = rankedVideos.stream()
@@ -180,19 +483,77 @@ public class FeedService {
                     if (video == null) {
                         return null;
                     }
-                    return new FeedItem(
-                            String.valueOf(video.getId()),
-                            video.getExternalId(),
-                            video.getTitle(),
-                            buildThumbnailUrl(video.getExternalId()),
-                            video.getDurationSeconds(),
-                            video.getCategory()
-                    );
+                    return toFeedItem(video);
                 })
                 .filter(item -> item != null)
                 .toList();
     }
 
+    /**
+     * Per-tenant data shared by every user of a batch, loaded on first use.
+     */
+    private final class BatchContext {
+
+        private final Long tenantId;
+        private List<ContentCandidate> candidates;
+        private Map<Long, FeedItem> catalog;
+        private long[] fallbackIds;
+        private List<FeedItem> fallbackItems;
+
+        private BatchContext(Long tenantId) {
+            this.tenantId = tenantId;
+        }
+
+        List<ContentCandidate> candidates() {
+            if (candidates == null) {
+                candidates = contentService.getContentCandidates(tenantId);
+            }
+            return candidates;
+        }
+
+        /**
+         * Maps ranked videos to feed items from one bulk load of every candidate video.
+         */
+        List<FeedItem> toFeedItems(List<RankedVideo> rankedVideos) {
+            if (catalog == null) {
+                List<Long> videoIds = candidates().stream()
+                        .map(ContentCandidate::videoId)
+                        .toList();
+                catalog = videoRepository.findAllById(videoIds).stream()
+                        .collect(Collectors.toMap(Video::getId, FeedService.this::toFeedItem));
+            }
+            List<FeedItem> items = new ArrayList<>(rankedVideos.size());
+            for (RankedVideo ranked : rankedVideos) {
+                FeedItem item = catalog.get(ranked.videoId());
+                if (item != null) {
+                    items.add(item);
+                }
+            }
+            return items;
+        }
+
+        FeedResponse fallbackPage(String feedType, int limit) {
+            if (fallbackItems == null) {
+                List<RankedVideo> rankedVideos = rankingService.rankWithoutPersonalization(candidates(), candidates().size());
+                fallbackIds = toRankedIds(rankedVideos);
+                fallbackItems = toFeedItems(rankedVideos);
+            }
+            String eTag = ETagUtil.generate(FeedHashUtil.pageHash(fallbackIds, 0, limit), 0);
+            return buildPaginatedResponse(fallbackItems, limit, 0, feedType, CursorUtil.UNBOUND_VERSION, eTag);
+        }
+    }
+
+    private FeedItem toFeedItem(Video video) {
+        return new FeedItem(
+                String.valueOf(video.getId()),
+                video.getExternalId(),
+                video.getTitle(),
+                buildThumbnailUrl(video.getExternalId()),
+                video.getDurationSeconds(),
+                video.getCategory()
+        );
+    }
+
     private String buildThumbnailUrl(String externalId) {
         return "https://cdn.example.com/thumb/" + externalId + ".jpg";
     }
@@ -0,0 +1,98 @@
+package com.xay.videos_recommender.service;
+
+import com.xay.videos_recommender.cache.AppCache;
+import com.xay.videos_recommender.cache.FeedCacheManager;
+import com.xay.videos_recommender.model.domain.CachedFeed;
+import com.xay.videos_recommender.model.dto.response.FeedResponse;
+import com.xay.videos_recommender.model.dto.response.FeedSyncResponse;
+import com.xay.videos_recommender.model.entity.Tenant;
+import com.xay.videos_recommender.util.BoundedExecutors;
+import com.xay.videos_recommender.util.CursorUtil;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Service;
+
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.function.Predicate;
+import java.util.function.Supplier;
+
+/**
+ * Non-blocking front of {@link FeedService}.
+ * Requests whose tenant and feed are already cached complete on the calling thread without leaving it;
+ * everything that may touch the database runs on a bounded executor, so request threads never block on JPA.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+@ConditionalOnProperty(name = "app.feed.execution-mode", havingValue = "non-blocking")
+public class NonBlockingFeedService {
+
+    private final FeedService feedService;
+    private final TenantService tenantService;
+    private final AppCache appCache;
+    private final FeedCacheManager feedCacheManager;
+
+    @Value("${app.feed.non-blocking.db-threads:16}")
+    private int dbThreads;
+
+    @Value("${app.feed.non-blocking.db-queue-capacity:1000}")
+    private int dbQueueCapacity;
+
+    private ThreadPoolExecutor dbExecutor;
+
+    @PostConstruct
+    public void init() {
+        dbExecutor = BoundedExecutors.newFixedPool("feed-db-", dbThreads, dbQueueCapacity);
+        log.info("NonBlockingFeedService initialized: dbThreads={}, dbQueueCapacity={}", dbThreads, dbQueueCapacity);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        dbExecutor.shutdown();
+    }
+
+    public CompletableFuture<Optional<FeedResponse>> generateFeed(Long tenantId, String userId, int limit,
+                                                                  String cursor, String ifNoneMatch) {
+        // Paging an older snapshot may load videos that dropped out of the current feed
+        int cursorVersion = CursorUtil.feedVersion(CursorUtil.decodeRaw(cursor));
+        return serve(tenantId, userId,
+                feed -> cursorVersion == CursorUtil.UNBOUND_VERSION || cursorVersion == feed.version(),
+                () -> feedService.generateFeed(tenantId, userId, limit, cursor, ifNoneMatch));
+    }
+
+    public CompletableFuture<Optional<FeedSyncResponse>> syncFeed(Long tenantId, String userId, Integer sinceVersion,
+                                                                  int limit) {
+        return serve(tenantId, userId, feed -> true,
+                () -> feedService.syncFeed(tenantId, userId, sinceVersion, limit));
+    }
+
+    /**
+     * Runs the call inline when it can be answered from cached state alone, otherwise on the DB executor.
+     */
+    private <T> CompletableFuture<T> serve(Long tenantId, String userId, Predicate<CachedFeed> servableFromCache,
+                                           Supplier<T> call) {
+        return appCache.getTenantAsync(tenantId).thenCompose(tenant -> {
+            if (tenant.isEmpty() || !isPersonalized(tenant.get(), userId)) {
+                return offload(call);
+            }
+            return feedCacheManager.getFeedAsync(tenantId, userId).thenCompose(feed ->
+                    feed.isPresent() && servableFromCache.test(feed.get())
+                            ? CompletableFuture.completedFuture(call.get())
+                            : offload(call));
+        });
+    }
+
+    private boolean isPersonalized(Tenant tenant, String userId) {
+        return Boolean.TRUE.equals(tenant.getPersonalizationEnabled()) && tenantService.isUserInRollout(tenant, userId);
+    }
+
+    private <T> CompletableFuture<T> offload(Supplier<T> call) {
+        return CompletableFuture.supplyAsync(call, dbExecutor);
+    }
+}
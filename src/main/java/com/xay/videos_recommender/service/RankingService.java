@@ -2,36 +2,103 @@ package com.xay.videos_recommender.service;
 
 import com.fasterxml.jackson.core.type.TypeReference;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.xay.videos_recommender.mapper.CategoryDictionary;
 import com.xay.videos_recommender.model.domain.ContentCandidate;
 import com.xay.videos_recommender.model.domain.RankedVideo;
+import com.xay.videos_recommender.model.domain.RankingPlan;
 import com.xay.videos_recommender.model.domain.UserSignals;
 import com.xay.videos_recommender.model.entity.Tenant;
+import com.xay.videos_recommender.util.UserKeyUtil;
+import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Service;
 
+import java.util.ArrayList;
 import java.util.Comparator;
 import java.util.List;
 import java.util.Map;
 
 @Slf4j
 @Service
+@RequiredArgsConstructor
 public class RankingService {
 
     private final ObjectMapper objectMapper = new ObjectMapper();
 
+    private final CategoryDictionary categoryDictionary;
+
     // Default weights if tenant doesn't specify
     private static final double DEFAULT_RECENCY_WEIGHT = 0.3;
     private static final double DEFAULT_ENGAGEMENT_WEIGHT = 0.4;
     private static final double DEFAULT_AFFINITY_WEIGHT = 0.3;
 
     public List<RankedVideo> rank(List<ContentCandidate> candidates, UserSignals userSignals, Tenant tenant, int limit) {
+        return rank(plan(candidates, tenant), userSignals, limit);
+    }
+
+    /**
+     * Resolves a tenant's weights and the candidate feature columns once for ranking many users.
+     */
+    public RankingPlan plan(List<ContentCandidate> candidates, Tenant tenant) {
         Map<String, Double> weights = parseRankingWeights(tenant.getRankingWeights());
-        
-        return candidates.stream()
-                .map(candidate -> scoreCandidate(candidate, userSignals, weights))
-                .sorted(Comparator.comparingDouble(RankedVideo::score).reversed())
-                .limit(limit)
-                .toList();
+        int size = candidates.size();
+        long[] videoIds = new long[size];
+        long[] watchedKeys = new long[size];
+        String[] externalIds = new String[size];
+        int[] categoryIds = new int[size];
+        double[] freshnessScores = new double[size];
+        double[] engagementScores = new double[size];
+        double[] editorialBoosts = new double[size];
+
+        for (int i = 0; i < size; i++) {
+            ContentCandidate candidate = candidates.get(i);
+            videoIds[i] = candidate.videoId();
+            watchedKeys[i] = UserKeyUtil.fnv1a(String.valueOf(candidate.videoId()));
+            externalIds[i] = candidate.externalId();
+            categoryIds[i] = categoryDictionary.idOf(tenant.getId(), candidate.category());
+            freshnessScores[i] = candidate.freshnessScore().doubleValue();
+            engagementScores[i] = candidate.engagementScore().doubleValue();
+            editorialBoosts[i] = candidate.editorialBoost().doubleValue();
+        }
+
+        return new RankingPlan(
+                weights.getOrDefault("recency", DEFAULT_RECENCY_WEIGHT),
+                weights.getOrDefault("engagement", DEFAULT_ENGAGEMENT_WEIGHT),
+                weights.getOrDefault("affinity", DEFAULT_AFFINITY_WEIGHT),
+                videoIds, watchedKeys, externalIds, categoryIds,
+                freshnessScores, engagementScores, editorialBoosts
+        );
+    }
+
+    /**
+     * Ranks a plan's candidates for one user, highest score first; equal scores keep the candidates' order.
+     */
+    public List<RankedVideo> rank(RankingPlan plan, UserSignals userSignals, int limit) {
+        List<RankedVideo> ranked = new ArrayList<>(plan.size());
+        for (int i = 0; i < plan.size(); i++) {
+            double affinityScore = userSignals.affinity(plan.categoryIds()[i]);
+            // Heavy penalty for already watched
+            double watchedPenalty = userSignals.hasWatched(plan.watchedKeys()[i]) ? 0.1 : 1.0;
+            double freshnessScore = plan.freshnessScores()[i];
+            double engagementScore = plan.engagementScores()[i];
+
+            double score = (
+                    plan.recencyWeight() * freshnessScore +
+                    plan.engagementWeight() * engagementScore +
+                    plan.affinityWeight() * affinityScore
+            ) * plan.editorialBoosts()[i] * watchedPenalty;
+
+            ranked.add(RankedVideo.builder()
+                    .videoId(plan.videoIds()[i])
+                    .externalId(plan.externalIds()[i])
+                    .score(score)
+                    .reason(determineReason(affinityScore, freshnessScore, engagementScore, plan.affinityWeight()))
+                    .build());
+        }
+
+        // List.sort is stable
+        ranked.sort(Comparator.comparingDouble(RankedVideo::score).reversed());
+        return ranked.size() > limit ? ranked.subList(0, limit) : ranked;
     }
 
     public List<RankedVideo> rankWithoutPersonalization(List<ContentCandidate> candidates, int limit) {
@@ -48,52 +115,6 @@ public class RankingService {
                 .toList();
     }
 
-    private RankedVideo scoreCandidate(ContentCandidate candidate, UserSignals userSignals, Map<String, Double> weights) {
-        double recencyWeight = weights.getOrDefault("recency", DEFAULT_RECENCY_WEIGHT);
-        double engagementWeight = weights.getOrDefault("engagement", DEFAULT_ENGAGEMENT_WEIGHT);
-        double affinityWeight = weights.getOrDefault("affinity", DEFAULT_AFFINITY_WEIGHT);
-
-        double freshnessScore = candidate.freshnessScore().doubleValue();
-        double engagementScore = candidate.engagementScore().doubleValue();
-        double affinityScore = calculateAffinityScore(candidate, userSignals);
-        double editorialBoost = candidate.editorialBoost().doubleValue();
-
-        // Apply penalty for already watched videos
-        double watchedPenalty = calculateWatchedPenalty(candidate, userSignals);
-
-        // Calculate final score
-        double score = (
-                recencyWeight * freshnessScore +
-                engagementWeight * engagementScore +
-                affinityWeight * affinityScore
-        ) * editorialBoost * watchedPenalty;
-
-        String reason = determineReason(affinityScore, freshnessScore, engagementScore, affinityWeight);
-
-        return RankedVideo.builder()
-                .videoId(candidate.videoId())
-                .externalId(candidate.externalId())
-                .score(score)
-                .reason(reason)
-                .build();
-    }
-
-    private double calculateAffinityScore(ContentCandidate candidate, UserSignals userSignals) {
-        if (candidate.category() == null || userSignals.categoryAffinities().isEmpty()) {
-            return 0.5; // Neutral score if no category or no affinities
-        }
-        return userSignals.categoryAffinities()
-                .getOrDefault(candidate.category(), 0.5);
-    }
-
-    private double calculateWatchedPenalty(ContentCandidate candidate, UserSignals userSignals) {
-        String videoIdStr = String.valueOf(candidate.videoId());
-        if (userSignals.lastWatchedIds().contains(videoIdStr)) {
-            return 0.1; // Heavy penalty for already watched
-        }
-        return 1.0;
-    }
-
     private String determineReason(double affinity, double freshness, double engagement, double affinityWeight) {
         if (affinityWeight > 0.2 && affinity > 0.6) {
             return "category_affinity";
@@ -1,6 +1,7 @@
 package com.xay.videos_recommender.service;
 
 import com.xay.videos_recommender.cache.AppCache;
+import com.xay.videos_recommender.cache.FeedCacheManager;
 import com.xay.videos_recommender.exception.TenantNotFoundException;
 import com.xay.videos_recommender.model.entity.Tenant;
 import com.xay.videos_recommender.repository.TenantRepository;
@@ -17,6 +18,7 @@ public class TenantService {
 
     private final TenantRepository tenantRepository;
     private final AppCache appCache;
+    private final FeedCacheManager feedCacheManager;
 
     public Tenant getTenant(Long tenantId) {
         return appCache.getTenant(tenantId)
@@ -39,11 +41,13 @@ public class TenantService {
 
     public void updateConfigVersion(Long tenantId) {
         log.info("Updating config version for tenant {}", tenantId);
-        appCache.evictTenant(tenantId);
         tenantRepository.findById(tenantId).ifPresent(tenant -> {
             tenant.setConfigVersion(tenant.getConfigVersion() + 1);
             tenantRepository.save(tenant);
         });
+        appCache.evictTenant(tenantId);
+        // Lazy rebuild: cached feeds become misses on their next request, nothing is deleted
+        feedCacheManager.invalidateAllForTenant(tenantId);
     }
 
     // Feature flag methods
@@ -54,7 +58,10 @@ public class TenantService {
     }
 
     public boolean isUserInRollout(Long tenantId, String userId) {
-        Tenant tenant = getTenant(tenantId);
+        return isUserInRollout(getTenant(tenantId), userId);
+    }
+
+    public boolean isUserInRollout(Tenant tenant, String userId) {
         int rolloutPercentage = tenant.getRolloutPercentage() != null ? tenant.getRolloutPercentage() : 100;
 
         if (rolloutPercentage >= 100) {
@@ -1,6 +1,7 @@
 package com.xay.videos_recommender.service;
 
 import com.xay.videos_recommender.cache.AppCache;
+import com.xay.videos_recommender.cache.KnownUserFilter;
 import com.xay.videos_recommender.mapper.UserProfileMapper;
 import com.xay.videos_recommender.model.domain.UserSignals;
 import com.xay.videos_recommender.model.entity.UserProfile;
@@ -9,6 +10,11 @@ import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Service;
 
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 
 @Slf4j
@@ -19,23 +25,82 @@ public class UserProfileService {
     private final UserProfileRepository userProfileRepository;
     private final AppCache appCache;
     private final UserProfileMapper userProfileMapper;
+    private final KnownUserFilter knownUserFilter;
 
-    public Optional<UserProfile> getProfile(Long tenantId, String userId) {
-        Optional<UserProfile> cached = appCache.getUserProfile(tenantId, userId);
+    /**
+     * Signals for one user, parsed from the profile on a cache miss only; cold-start signals if there is no profile.
+     */
+    public UserSignals getUserSignals(Long tenantId, String userId) {
+        Optional<UserSignals> cached = appCache.getUserSignals(tenantId, userId);
         if (cached.isPresent()) {
-            log.debug("User profile cache HIT for tenant {} user {}", tenantId, userId);
-            return cached;
+            log.debug("User signals cache HIT for tenant {} user {}", tenantId, userId);
+            return cached.get();
+        }
+
+        if (!knownUserFilter.mightBeKnown(tenantId, userId) || appCache.isUserProfileAbsent(tenantId, userId)) {
+            log.debug("User profile known absent for tenant {} user {}", tenantId, userId);
+            return userProfileMapper.createEmptySignals(tenantId, userId);
         }
-        
-        log.debug("User profile cache MISS for tenant {} user {}", tenantId, userId);
+
+        log.debug("User signals cache MISS for tenant {} user {}", tenantId, userId);
         Optional<UserProfile> profile = userProfileRepository.findByTenantIdAndHashedUserId(tenantId, userId);
-        profile.ifPresent(p -> appCache.putUserProfile(tenantId, userId, p));
-        return profile;
+        if (profile.isEmpty()) {
+            appCache.putUserProfileAbsent(tenantId, userId);
+            return userProfileMapper.createEmptySignals(tenantId, userId);
+        }
+        UserSignals signals = userProfileMapper.toUserSignals(profile.get());
+        appCache.putUserSignals(tenantId, userId, signals);
+        return signals;
     }
 
-    public UserSignals getUserSignals(Long tenantId, String userId) {
-        return getProfile(tenantId, userId)
-                .map(userProfileMapper::toUserSignals)
-                .orElse(userProfileMapper.createEmptySignals(tenantId, userId));
+    /**
+     * Signals for many users of one tenant: one cache multi-get, then a single IN query for the misses
+     * that may have a profile. Users without a profile get empty (cold-start) signals.
+     */
+    public Map<String, UserSignals> getUserSignals(Long tenantId, Collection<String> userIds) {
+        Map<String, UserSignals> signals = new HashMap<>(userIds.size() * 2);
+        signals.putAll(appCache.getUserSignals(tenantId, userIds));
+
+        List<String> missing = new ArrayList<>();
+        for (String userId : userIds) {
+            if (!signals.containsKey(userId)
+                    && knownUserFilter.mightBeKnown(tenantId, userId)
+                    && !appCache.isUserProfileAbsent(tenantId, userId)) {
+                missing.add(userId);
+            }
+        }
+        log.debug("User signals batch for tenant {}: {} cached, {} to load", tenantId, signals.size(), missing.size());
+
+        if (!missing.isEmpty()) {
+            Map<String, UserSignals> loaded = new HashMap<>(missing.size() * 2);
+            for (UserProfile profile : userProfileRepository.findByTenantIdAndHashedUserIdIn(tenantId, missing)) {
+                loaded.put(profile.getHashedUserId(), userProfileMapper.toUserSignals(profile));
+            }
+            appCache.putUserSignals(tenantId, loaded);
+            signals.putAll(loaded);
+            for (String userId : missing) {
+                if (!loaded.containsKey(userId)) {
+                    appCache.putUserProfileAbsent(tenantId, userId);
+                }
+            }
+        }
+
+        for (String userId : userIds) {
+            if (!signals.containsKey(userId)) {
+                signals.put(userId, userProfileMapper.createEmptySignals(tenantId, userId));
+            }
+        }
+        return signals;
+    }
+
+    /**
+     * Parses profiles into signals and caches them, e.g. after a bulk read of a tenant's active users.
+     */
+    public void cacheProfiles(Long tenantId, List<UserProfile> profiles) {
+        Map<String, UserSignals> signals = new HashMap<>(profiles.size() * 2);
+        for (UserProfile profile : profiles) {
+            signals.put(profile.getHashedUserId(), userProfileMapper.toUserSignals(profile));
+        }
+        appCache.putUserSignals(tenantId, signals);
     }
 }
@@ -0,0 +1,532 @@
+package com.xay.videos_recommender.storage.eventlog;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.io.UncheckedIOException;
+import java.lang.ref.Cleaner;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.channels.OverlappingFileLockException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.stream.Stream;
+import java.util.zip.CRC32C;
+
+/**
+ * Append-only log of accepted events on local disk, so events queued but not yet aggregated survive a restart.
+ *
+ * The log is a run of memory-mapped segment files named after the log position of their first record.
+ * A record is its payload length, a CRC32C of the payload and the payload. Appends only copy into the mapping;
+ * a single flusher thread forces everything appended since its last pass, so concurrent appenders waiting in
+ * {@link #awaitDurable} share one fsync. Consumers {@link #checkpoint} the position they have processed, and
+ * segments entirely below it are released. On startup the tail of the last segment is scanned, and a torn
+ * record left by a crash is cut off.
+ *
+ * A released segment is zeroed and kept mapped as a spare, up to spare-segments of them, and the next new segment
+ * renames a spare's file instead of creating and mapping one. Beyond that it is deleted, but a mapping can't be
+ * unmapped explicitly: its disk and address space stay held until the buffer is garbage collected, which the
+ * events.log.segments.deleted.mapped gauge counts.
+ *
+ * Positions are logical: a segment's unused tail isn't counted, so the next segment starts where the last
+ * record of the previous one ended.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+@ConditionalOnProperty(name = "app.events.log.enabled", havingValue = "true")
+public class EventLog {
+
+    private static final int HEADER_BYTES = 8;
+    private static final String SEGMENT_PREFIX = "events-";
+    private static final String SEGMENT_SUFFIX = ".log";
+    private static final String CHECKPOINT_FILE = "checkpoint";
+    private static final String LOCK_FILE = ".lock";
+    private static final Cleaner UNMAP_CLEANER = Cleaner.create();
+
+    /**
+     * Receives a record's payload and the log position just after it.
+     */
+    @FunctionalInterface
+    public interface RecordHandler {
+        void handle(byte[] payload, long endPosition);
+    }
+
+    private final MeterRegistry meterRegistry;
+
+    @Value("${app.events.log.directory:./data/event-log}")
+    private String directory;
+
+    @Value("${app.events.log.segment-bytes:67108864}")
+    private int segmentBytes;
+
+    @Value("${app.events.log.spare-segments:1}")
+    private int spareSegments;
+
+    private final ConcurrentSkipListMap<Long, Segment> segments = new ConcurrentSkipListMap<>();
+    // Released segments, zeroed and still mapped, for createSegment to reuse
+    private final ConcurrentLinkedQueue<Segment> spares = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger deletedMappedSegments = new AtomicInteger();
+    private final CRC32C crc = new CRC32C();
+
+    private Path logDirectory;
+    private FileChannel lockChannel;
+    private FileLock directoryLock;
+
+    // Appender state; appends are serialized by the caller
+    private Segment active;
+    private volatile long writePosition;
+    private volatile long checkpointPosition;
+
+    private final ReentrantLock flushLock = new ReentrantLock();
+    private final Condition appended = flushLock.newCondition();
+    private final Condition flushed = flushLock.newCondition();
+    // Guarded by flushLock
+    private long appendedPosition;
+    private long durablePosition;
+    private long failedPosition = -1;
+    private boolean closed;
+
+    private Thread flusher;
+    private Timer flushTimer;
+
+    @PostConstruct
+    public void open() throws IOException {
+        logDirectory = Path.of(directory);
+        Files.createDirectories(logDirectory);
+        lockDirectory();
+
+        Path checkpointFile = logDirectory.resolve(CHECKPOINT_FILE);
+        checkpointPosition = Files.exists(checkpointFile) ? ByteBuffer.wrap(Files.readAllBytes(checkpointFile)).getLong() : 0L;
+
+        try (Stream<Path> files = Files.list(logDirectory)) {
+            for (Path file : files.filter(EventLog::isSegment).toList()) {
+                try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+                    Segment segment = new Segment(baseOf(file), file,
+                            channel.map(FileChannel.MapMode.READ_WRITE, 0, channel.size()));
+                    segments.put(segment.base, segment);
+                }
+            }
+        }
+
+        if (segments.isEmpty()) {
+            active = createSegment(checkpointPosition);
+            writePosition = checkpointPosition;
+        } else {
+            active = segments.lastEntry().getValue();
+            writePosition = active.base + recoverTail(active);
+        }
+        appendedPosition = writePosition;
+        durablePosition = writePosition;
+        releaseConsumedSegments();
+
+        flushTimer = Timer.builder("events.log.flush")
+                .description("Forcing appended events to disk, one per group commit")
+                .register(meterRegistry);
+        Gauge.builder("events.log.unconsumed.bytes", this, log -> log.writePosition - log.checkpointPosition)
+                .description("Event log bytes appended but not yet checkpointed by the consumer")
+                .register(meterRegistry);
+        Gauge.builder("events.log.segments.spare", spares, ConcurrentLinkedQueue::size)
+                .description("Consumed event log segments kept mapped for reuse")
+                .register(meterRegistry);
+        Gauge.builder("events.log.segments.deleted.mapped", deletedMappedSegments, AtomicInteger::get)
+                .description("Deleted event log segments whose mapping has not been garbage collected yet")
+                .register(meterRegistry);
+
+        flusher = Thread.ofPlatform().name("event-log-flusher").daemon().start(this::flushLoop);
+        log.info("EventLog opened at {}: {} segments, checkpoint={}, end={}",
+                logDirectory.toAbsolutePath(), segments.size(), checkpointPosition, writePosition);
+    }
+
+    @PreDestroy
+    public void close() throws IOException {
+        flushLock.lock();
+        try {
+            closed = true;
+            appended.signalAll();
+            flushed.signalAll();
+        } finally {
+            flushLock.unlock();
+        }
+        try {
+            flusher.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        force(durablePosition, writePosition);
+        directoryLock.release();
+        lockChannel.close();
+    }
+
+    /**
+     * Copies the payloads into the log and returns the position after each. Callers must serialize appends,
+     * and call {@link #awaitDurable} before treating them as persisted.
+     */
+    public long[] append(List<byte[]> payloads) {
+        long[] endPositions = new long[payloads.size()];
+        for (int i = 0; i < payloads.size(); i++) {
+            endPositions[i] = write(payloads.get(i));
+        }
+        flushLock.lock();
+        try {
+            appendedPosition = writePosition;
+            appended.signal();
+        } finally {
+            flushLock.unlock();
+        }
+        return endPositions;
+    }
+
+    /**
+     * Blocks until everything up to the position has been forced to disk.
+     */
+    public void awaitDurable(long position) throws IOException {
+        flushLock.lock();
+        try {
+            while (durablePosition < position) {
+                if (failedPosition >= position) {
+                    throw new IOException("Event log flush failed up to position " + failedPosition);
+                }
+                if (closed) {
+                    throw new IOException("Event log closed");
+                }
+                flushed.await();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted waiting for the event log flush");
+        } finally {
+            flushLock.unlock();
+        }
+    }
+
+    /**
+     * Hands every intact record from the position to the current end to the handler, in order.
+     * Reads must not overlap appends.
+     */
+    public void read(long fromPosition, RecordHandler handler) {
+        long end = writePosition;
+        Long firstBase = segments.floorKey(fromPosition);
+        Map<Long, Segment> fromSegments = firstBase != null ? segments.tailMap(firstBase) : segments;
+        for (Segment segment : fromSegments.values()) {
+            int offset = (int) Math.max(0, fromPosition - segment.base);
+            while (segment.base + offset < end) {
+                int length = segment.recordLength(offset);
+                if (length < 0) {
+                    if (length == Segment.CORRUPT) {
+                        log.warn("Skipping the rest of event log segment {} after a corrupt record at offset {}",
+                                segment.path.getFileName(), offset);
+                    }
+                    break;
+                }
+                byte[] payload = new byte[length];
+                segment.buffer.get(offset + HEADER_BYTES, payload);
+                offset += HEADER_BYTES + length;
+                handler.handle(payload, segment.base + offset);
+            }
+        }
+    }
+
+    /**
+     * The position the next append starts at.
+     */
+    public long endPosition() {
+        return writePosition;
+    }
+
+    public long checkpointPosition() {
+        return checkpointPosition;
+    }
+
+    /**
+     * Records that everything up to the position has been consumed and releases segments no longer needed.
+     * The position is clamped to what is on disk, so a crash can't leave the checkpoint past the recovered end.
+     * Called by the single consumer.
+     */
+    public void checkpoint(long position) throws IOException {
+        flushLock.lock();
+        try {
+            position = Math.min(position, durablePosition);
+        } finally {
+            flushLock.unlock();
+        }
+        if (position <= checkpointPosition) {
+            return;
+        }
+        Path temp = logDirectory.resolve(CHECKPOINT_FILE + ".tmp");
+        try (FileChannel channel = FileChannel.open(temp, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING)) {
+            channel.write(ByteBuffer.allocate(Long.BYTES).putLong(0, position));
+            channel.force(true);
+        }
+        Files.move(temp, logDirectory.resolve(CHECKPOINT_FILE), StandardCopyOption.ATOMIC_MOVE);
+        checkpointPosition = position;
+        releaseConsumedSegments();
+    }
+
+    private long write(byte[] payload) {
+        int recordBytes = HEADER_BYTES + payload.length;
+        if (recordBytes > segmentBytes) {
+            throw new IllegalArgumentException("Event of " + payload.length + " bytes exceeds the event log segment size");
+        }
+        int offset = (int) (writePosition - active.base);
+        if (offset + recordBytes > active.buffer.capacity()) {
+            active = createSegment(writePosition);
+            offset = 0;
+        }
+        crc.reset();
+        crc.update(payload);
+        active.buffer.put(offset + HEADER_BYTES, payload);
+        active.buffer.putInt(offset + 4, (int) crc.getValue());
+        active.buffer.putInt(offset, payload.length);
+        writePosition += recordBytes;
+        return writePosition;
+    }
+
+    private void flushLoop() {
+        while (true) {
+            long from;
+            long to;
+            flushLock.lock();
+            try {
+                while (appendedPosition == durablePosition && !closed) {
+                    appended.awaitUninterruptibly();
+                }
+                if (closed) {
+                    return;
+                }
+                from = durablePosition;
+                to = appendedPosition;
+            } finally {
+                flushLock.unlock();
+            }
+
+            boolean forced = false;
+            long startNanos = System.nanoTime();
+            try {
+                force(from, to);
+                forced = true;
+                flushTimer.record(System.nanoTime() - startNanos, TimeUnit.NANOSECONDS);
+            } catch (UncheckedIOException e) {
+                log.error("Event log flush up to position {} failed", to, e);
+            }
+
+            flushLock.lock();
+            try {
+                if (forced) {
+                    durablePosition = to;
+                } else {
+                    failedPosition = to;
+                }
+                flushed.signalAll();
+            } finally {
+                flushLock.unlock();
+            }
+            if (!forced) {
+                // Retried with the next pass; don't spin on a failing disk
+                sleepQuietly();
+            }
+        }
+    }
+
+    private void force(long from, long to) {
+        if (to <= from) {
+            return;
+        }
+        Long firstBase = segments.floorKey(from);
+        for (Segment segment : segments.subMap(firstBase != null ? firstBase : from, true, to, false).values()) {
+            int start = (int) Math.max(0, from - segment.base);
+            int end = (int) Math.min(segment.buffer.capacity(), to - segment.base);
+            if (end > start) {
+                segment.buffer.force(start, end - start);
+            }
+        }
+    }
+
+    /**
+     * Returns the end offset of the last intact record, zeroing anything after it.
+     */
+    private int recoverTail(Segment segment) {
+        int offset = 0;
+        int length;
+        while ((length = segment.recordLength(offset)) >= 0) {
+            offset += HEADER_BYTES + length;
+        }
+        if (length == Segment.CORRUPT) {
+            log.warn("Truncating torn record at offset {} of event log segment {}", offset, segment.path.getFileName());
+            zero(segment.buffer, offset);
+            segment.buffer.force();
+        }
+        return offset;
+    }
+
+    private static void zero(MappedByteBuffer buffer, int fromOffset) {
+        byte[] zeros = new byte[64 * 1024];
+        for (int index = fromOffset; index < buffer.capacity(); index += zeros.length) {
+            buffer.put(index, zeros, 0, Math.min(zeros.length, buffer.capacity() - index));
+        }
+    }
+
+    private Segment createSegment(long base) {
+        Path file = logDirectory.resolve(SEGMENT_PREFIX + String.format("%020d", base) + SEGMENT_SUFFIX);
+        Segment spare = spares.poll();
+        if (spare != null) {
+            try {
+                Files.move(spare.path, file, StandardCopyOption.ATOMIC_MOVE);
+                // The new name must be durable before records land in it, or a crash could replay them at the old base
+                syncDirectory();
+                Segment segment = new Segment(base, file, spare.buffer);
+                segments.put(base, segment);
+                return segment;
+            } catch (IOException e) {
+                log.warn("Failed to reuse event log segment {}, creating a new one", spare.path.getFileName(), e);
+                delete(Files.exists(spare.path) ? spare : new Segment(spare.base, file, spare.buffer));
+            }
+        }
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE_NEW,
+                StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            Segment segment = new Segment(base, file, channel.map(FileChannel.MapMode.READ_WRITE, 0, segmentBytes));
+            segments.put(base, segment);
+            return segment;
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to create event log segment " + file, e);
+        }
+    }
+
+    private void releaseConsumedSegments() {
+        long deletableBelow;
+        flushLock.lock();
+        try {
+            deletableBelow = Math.min(checkpointPosition, durablePosition);
+        } finally {
+            flushLock.unlock();
+        }
+        // A segment ends where the next one starts; the last one is still being appended to
+        for (Map.Entry<Long, Segment> entry = segments.firstEntry(); entry != null; entry = segments.firstEntry()) {
+            Long nextBase = segments.higherKey(entry.getKey());
+            if (nextBase == null || nextBase > deletableBelow) {
+                break;
+            }
+            segments.remove(entry.getKey());
+            release(entry.getValue());
+        }
+    }
+
+    private void release(Segment segment) {
+        if (spares.size() < spareSegments && segment.buffer.capacity() == segmentBytes) {
+            // Forced before reuse, so a crash never shows the old records under the new name
+            zero(segment.buffer, 0);
+            segment.buffer.force();
+            spares.add(segment);
+            log.debug("Kept consumed event log segment {} as a spare", segment.path.getFileName());
+            return;
+        }
+        delete(segment);
+    }
+
+    private void delete(Segment segment) {
+        try {
+            Files.deleteIfExists(segment.path);
+        } catch (IOException e) {
+            log.warn("Failed to delete consumed event log segment {}", segment.path.getFileName(), e);
+            return;
+        }
+        deletedMappedSegments.incrementAndGet();
+        UNMAP_CLEANER.register(segment.buffer, deletedMappedSegments::decrementAndGet);
+        log.debug("Deleted consumed event log segment {}", segment.path.getFileName());
+    }
+
+    private void syncDirectory() throws IOException {
+        try (FileChannel channel = FileChannel.open(logDirectory, StandardOpenOption.READ)) {
+            channel.force(true);
+        }
+    }
+
+    private void lockDirectory() throws IOException {
+        lockChannel = FileChannel.open(logDirectory.resolve(LOCK_FILE), StandardOpenOption.CREATE, StandardOpenOption.WRITE);
+        try {
+            directoryLock = lockChannel.tryLock();
+        } catch (OverlappingFileLockException e) {
+            directoryLock = null;
+        }
+        if (directoryLock == null) {
+            lockChannel.close();
+            throw new IllegalStateException("Event log directory " + logDirectory + " is in use by another process");
+        }
+    }
+
+    private static void sleepQuietly() {
+        try {
+            Thread.sleep(100);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static boolean isSegment(Path file) {
+        String name = file.getFileName().toString();
+        return name.startsWith(SEGMENT_PREFIX) && name.endsWith(SEGMENT_SUFFIX);
+    }
+
+    private static long baseOf(Path file) {
+        String name = file.getFileName().toString();
+        return Long.parseLong(name.substring(SEGMENT_PREFIX.length(), name.length() - SEGMENT_SUFFIX.length()));
+    }
+
+    private static final class Segment {
+
+        static final int END = -1;
+        static final int CORRUPT = -2;
+
+        final long base;
+        final Path path;
+        final MappedByteBuffer buffer;
+
+        Segment(long base, Path path, MappedByteBuffer buffer) {
+            this.base = base;
+            this.path = path;
+            this.buffer = buffer;
+        }
+
+        /**
+         * The payload length of an intact record at the offset, END where nothing was written, or CORRUPT.
+         */
+        int recordLength(int offset) {
+            if (offset + HEADER_BYTES > buffer.capacity()) {
+                return END;
+            }
+            int length = buffer.getInt(offset);
+            if (length == 0) {
+                return END;
+            }
+            if (length < 0 || length > buffer.capacity() - offset - HEADER_BYTES) {
+                return CORRUPT;
+            }
+            CRC32C check = new CRC32C();
+            check.update(buffer.slice(offset + HEADER_BYTES, length));
+            return (int) check.getValue() == buffer.getInt(offset + 4) ? length : CORRUPT;
+        }
+    }
+}
@@ -0,0 +1,39 @@
+package com.xay.videos_recommender.util;
+
+/**
+ * Batch size that follows load within bounds: it grows by half while full batches finish within the target
+ * latency and more work is waiting, and halves when a batch takes longer than the target.
+ * Not thread-safe; meant to be owned by one consumer.
+ */
+public final class AdaptiveBatchSize {
+
+    private final int min;
+    private final int max;
+    private final long targetNanos;
+    private int current;
+
+    public AdaptiveBatchSize(int min, int max, long targetNanos) {
+        if (min < 1 || max < min) {
+            throw new IllegalArgumentException("Batch size bounds must satisfy 1 <= min <= max: " + min + ", " + max);
+        }
+        this.min = min;
+        this.max = max;
+        this.targetNanos = targetNanos;
+        this.current = min;
+    }
+
+    public int current() {
+        return current;
+    }
+
+    /**
+     * Adjusts the size after a batch of the given size took elapsedNanos, with backlog events still waiting.
+     */
+    public void record(int batchSize, long elapsedNanos, int backlog) {
+        if (elapsedNanos > targetNanos) {
+            current = Math.max(min, current / 2);
+        } else if (batchSize >= current && backlog > 0) {
+            current = (int) Math.min(max, current + Math.max(1L, current / 2));
+        }
+    }
+}
@@ -0,0 +1,33 @@
+package com.xay.videos_recommender.util;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Fixed-size pools of daemon threads with a bounded queue, for background work that must not pile up:
+ * a task submitted to a full queue is rejected with RejectedExecutionException.
+ */
+public final class BoundedExecutors {
+
+    private BoundedExecutors() {}
+
+    /**
+     * @param threadNamePrefix thread names are this prefix followed by 1, 2, ...
+     */
+    public static ThreadPoolExecutor newFixedPool(String threadNamePrefix, int threads, int queueCapacity) {
+        AtomicInteger threadCount = new AtomicInteger();
+        return new ThreadPoolExecutor(
+                threads, threads,
+                60, TimeUnit.SECONDS,
+                new ArrayBlockingQueue<>(queueCapacity),
+                runnable -> {
+                    Thread thread = new Thread(runnable, threadNamePrefix + threadCount.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                },
+                new ThreadPoolExecutor.AbortPolicy()
+        );
+    }
+}
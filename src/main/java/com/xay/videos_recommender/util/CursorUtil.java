@@ -1,34 +1,172 @@
 package com.xay.videos_recommender.util;
 
-import java.nio.charset.StandardCharsets;
-import java.util.Base64;
+import java.util.Arrays;
 
 /**
  * Utility for cursor-based pagination.
- * Encodes/decodes offset as base64 for opaque cursor.
+ * A cursor binds an offset to the feed snapshot version it was issued against, so a client
+ * paging through a feed keeps the same ordering even if the feed is rebuilt in between.
+ *
+ * Layout before base64url encoding: format byte, varint feed version, varint offset.
+ * Decoding walks the characters directly and returns both values packed into a long,
+ * so the per-request path allocates nothing.
  */
 public final class CursorUtil {
 
+    /** Version used by cursors that are not bound to a feed snapshot (fallback feeds, legacy cursors). */
+    public static final int UNBOUND_VERSION = 0;
+
+    private static final int FORMAT_V1 = 1;
+    private static final int MAX_ENCODED_BYTES = 11; // format byte + two 5-byte varints
+
+    private static final char[] ALPHABET =
+            "ABCDEFGHIJKLMNOPQRSTUVWXYZabcdefghijklmnopqrstuvwxyz0123456789-_".toCharArray();
+    private static final byte[] DECODE_TABLE = new byte[128];
+
+    static {
+        Arrays.fill(DECODE_TABLE, (byte) -1);
+        for (int i = 0; i < ALPHABET.length; i++) {
+            DECODE_TABLE[ALPHABET[i]] = (byte) i;
+        }
+    }
+
     private CursorUtil() {}
 
     public static String encode(int offset) {
-        return Base64.getUrlEncoder()
-                .withoutPadding()
-                .encodeToString(String.valueOf(offset).getBytes(StandardCharsets.UTF_8));
+        return encode(UNBOUND_VERSION, offset);
     }
 
+    public static String encode(int feedVersion, int offset) {
+        byte[] bytes = new byte[MAX_ENCODED_BYTES];
+        bytes[0] = FORMAT_V1;
+        int length = writeVarint(bytes, 1, feedVersion);
+        length = writeVarint(bytes, length, offset);
+
+        char[] chars = new char[(length * 8 + 5) / 6];
+        int bits = 0;
+        int bitCount = 0;
+        int pos = 0;
+        for (int i = 0; i < length; i++) {
+            bits = (bits << 8) | (bytes[i] & 0xFF);
+            bitCount += 8;
+            while (bitCount >= 6) {
+                bitCount -= 6;
+                chars[pos++] = ALPHABET[(bits >>> bitCount) & 0x3F];
+            }
+        }
+        if (bitCount > 0) {
+            chars[pos] = ALPHABET[(bits << (6 - bitCount)) & 0x3F];
+        }
+        return new String(chars);
+    }
+
+    /**
+     * Decodes the offset of a cursor, ignoring the snapshot version.
+     */
     public static int decode(String cursor) {
-        if (cursor == null || cursor.isBlank()) {
-            return 0;
+        return offset(decodeRaw(cursor));
+    }
+
+    /**
+     * Decodes a cursor into its packed (feed version, offset) form.
+     * Invalid cursors decode to the first page of an unbound feed.
+     * Cursors from before snapshot binding (base64 of the decimal offset) decode as unbound.
+     */
+    public static long decodeRaw(String cursor) {
+        if (cursor == null || cursor.isEmpty()) {
+            return 0L;
+        }
+
+        int bits = 0;
+        int bitCount = 0;
+        int byteIndex = 0;
+        boolean legacy = false;
+        long legacyOffset = 0;
+
+        int field = 0;
+        long varint = 0;
+        int shift = 0;
+        int version = UNBOUND_VERSION;
+        int offset = 0;
+
+        for (int i = 0; i < cursor.length(); i++) {
+            char c = cursor.charAt(i);
+            int digit = c < DECODE_TABLE.length ? DECODE_TABLE[c] : -1;
+            if (digit < 0) {
+                return 0L;
+            }
+            bits = (bits << 6) | digit;
+            bitCount += 6;
+            if (bitCount < 8) {
+                continue;
+            }
+            bitCount -= 8;
+            int b = (bits >>> bitCount) & 0xFF;
+
+            if (byteIndex++ == 0) {
+                if (b == FORMAT_V1) {
+                    continue;
+                }
+                legacy = true;
+            }
+
+            if (legacy) {
+                if (b < '0' || b > '9') {
+                    return 0L;
+                }
+                legacyOffset = legacyOffset * 10 + (b - '0');
+                if (legacyOffset > Integer.MAX_VALUE) {
+                    return 0L;
+                }
+                continue;
+            }
+
+            if (field > 1 || shift > 28) {
+                return 0L;
+            }
+            varint |= (long) (b & 0x7F) << shift;
+            if ((b & 0x80) != 0) {
+                shift += 7;
+                continue;
+            }
+            if (field == 0) {
+                version = (int) varint;
+            } else {
+                if (varint > Integer.MAX_VALUE) {
+                    return 0L;
+                }
+                offset = (int) varint;
+            }
+            field++;
+            varint = 0;
+            shift = 0;
+        }
+
+        if (legacy) {
+            return pack(UNBOUND_VERSION, (int) legacyOffset);
         }
-        try {
-            String decoded = new String(
-                    Base64.getUrlDecoder().decode(cursor),
-                    StandardCharsets.UTF_8
-            );
-            return Integer.parseInt(decoded);
-        } catch (Exception e) {
-            return 0;
+        return field == 2 ? pack(version, offset) : 0L;
+    }
+
+    public static int feedVersion(long packedCursor) {
+        return (int) (packedCursor >>> 32);
+    }
+
+    public static int offset(long packedCursor) {
+        return (int) packedCursor;
+    }
+
+    private static long pack(int feedVersion, int offset) {
+        return ((long) feedVersion << 32) | (offset & 0xFFFFFFFFL);
+    }
+
+    private static int writeVarint(byte[] bytes, int pos, int value) {
+        int remaining = value;
+        while ((remaining & ~0x7F) != 0) {
+            bytes[pos++] = (byte) ((remaining & 0x7F) | 0x80);
+            remaining >>>= 7;
         }
+        bytes[pos++] = (byte) remaining;
+        return pos;
     }
 }
@@ -0,0 +1,90 @@
+package com.xay.videos_recommender.util;
+
+import java.util.ArrayDeque;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
+import java.util.function.ToIntFunction;
+
+/**
+ * Deficit round robin over per-key FIFO queues: each round, every key with queued elements earns
+ * quantum times its weight in credit and is served up to its credit, so a key with a deep backlog can't
+ * delay the others by more than one round. Unused credit is dropped when a key's queue empties.
+ * Not thread-safe; meant to be owned by one consumer.
+ */
+public final class DeficitRoundRobin<K, E> {
+
+    private final int quantum;
+    private final ToIntFunction<K> weights;
+
+    private final Map<K, Flow<E>> flows = new HashMap<>();
+    // Keys with queued elements, in service order
+    private final ArrayDeque<K> active = new ArrayDeque<>();
+    private int size;
+
+    public DeficitRoundRobin(int quantum, ToIntFunction<K> weights) {
+        if (quantum < 1) {
+            throw new IllegalArgumentException("quantum must be positive: " + quantum);
+        }
+        this.quantum = quantum;
+        this.weights = weights;
+    }
+
+    public void add(K key, E element) {
+        Flow<E> flow = flows.get(key);
+        if (flow == null) {
+            flow = new Flow<>();
+            flows.put(key, flow);
+            active.addLast(key);
+        }
+        flow.queue.addLast(element);
+        size++;
+    }
+
+    /**
+     * Serves one round over the keys queued when it starts, appending what each key may take to the target.
+     */
+    public int nextRound(List<? super E> target) {
+        int served = 0;
+        for (int keys = active.size(); keys > 0; keys--) {
+            K key = active.pollFirst();
+            Flow<E> flow = flows.get(key);
+            flow.deficit += (long) quantum * Math.max(1, weights.applyAsInt(key));
+            while (flow.deficit > 0 && !flow.queue.isEmpty()) {
+                target.add(flow.queue.pollFirst());
+                flow.deficit--;
+                served++;
+            }
+            if (flow.queue.isEmpty()) {
+                flows.remove(key);
+            } else {
+                active.addLast(key);
+            }
+        }
+        size -= served;
+        return served;
+    }
+
+    /**
+     * Visits the oldest queued element of every key.
+     */
+    public void forEachHead(Consumer<? super E> action) {
+        for (Flow<E> flow : flows.values()) {
+            action.accept(flow.queue.peekFirst());
+        }
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    private static final class Flow<E> {
+        private final ArrayDeque<E> queue = new ArrayDeque<>();
+        private long deficit;
+    }
+}
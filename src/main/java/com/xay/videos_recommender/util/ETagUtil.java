@@ -2,26 +2,59 @@ package com.xay.videos_recommender.util;
 
 /**
  * Utility for generating ETag headers.
- * Format: "{candidatesVersion}x{feedVersion}x{cursor}"
+ * Format: "{pageHash}x{cursor}"
  * 
- * Including cursor ensures each page has a unique ETag,
+ * The page hash covers the ranked video ids on the page (see {@link FeedHashUtil}),
+ * so an ETag stays valid across feed rebuilds and candidate version bumps that
+ * leave the page unchanged. Including cursor ensures each page has a unique ETag,
  * enabling proper 304 handling for all requests.
  */
 public final class ETagUtil {
 
     private ETagUtil() {}
 
-    public static String generate(int candidatesVersion, int feedVersion, int cursor) {
-        return candidatesVersion + "x" + feedVersion + "x" + cursor;
+    public static String generate(int pageHash, int cursor) {
+        return Integer.toHexString(pageHash) + "x" + cursor;
     }
 
-    public static boolean matches(String clientETag, int candidatesVersion, int feedVersion, int cursor) {
-        if (clientETag == null || clientETag.isBlank()) {
+    /**
+     * Compares a client ETag against a page hash and cursor by parsing it in place,
+     * so revalidation allocates nothing.
+     */
+    public static boolean matches(String clientETag, int pageHash, int cursor) {
+        if (clientETag == null) {
             return false;
         }
         // Handle quoted ETags (HTTP spec requires quotes)
-        String normalizedETag = clientETag.replace("\"", "");
-        String expected = generate(candidatesVersion, feedVersion, cursor);
-        return expected.equals(normalizedETag);
+        int start = 0;
+        int end = clientETag.length();
+        if (end - start >= 2 && clientETag.charAt(start) == '"' && clientETag.charAt(end - 1) == '"') {
+            start++;
+            end--;
+        }
+
+        long hash = 0;
+        int i = start;
+        for (; i < end && clientETag.charAt(i) != 'x'; i++) {
+            int digit = Character.digit(clientETag.charAt(i), 16);
+            if (digit < 0 || i - start >= 8) {
+                return false;
+            }
+            hash = (hash << 4) | digit;
+        }
+        if (i == start || i == end) {
+            return false;
+        }
+
+        long position = 0;
+        int cursorStart = ++i;
+        for (; i < end; i++) {
+            char c = clientETag.charAt(i);
+            if (c < '0' || c > '9' || i - cursorStart >= 10) {
+                return false;
+            }
+            position = position * 10 + (c - '0');
+        }
+        return i > cursorStart && (int) hash == pageHash && position == cursor;
     }
 }
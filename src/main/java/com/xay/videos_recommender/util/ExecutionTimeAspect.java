@@ -6,6 +6,8 @@ import org.aspectj.lang.annotation.Around;
 import org.aspectj.lang.annotation.Aspect;
 import org.springframework.stereotype.Component;
 
+import java.util.concurrent.CompletionStage;
+
 /**
  * Aspect that measures and logs execution time for methods
  * annotated with {@link LogExecutionTime}.
@@ -21,12 +23,20 @@ class ExecutionTimeAspect {
 
         Object result = joinPoint.proceed();
 
-        long duration = System.currentTimeMillis() - startTime;
         String methodName = joinPoint.getSignature().toShortString();
-
-        log.info("{} executed in {} ms", methodName, duration);
+        if (result instanceof CompletionStage<?> stage) {
+            // Asynchronous methods are timed until their result completes
+            stage.whenComplete((value, error) -> logDuration(methodName, startTime));
+        } else {
+            logDuration(methodName, startTime);
+        }
 
         return result;
     }
+
+    private void logDuration(String methodName, long startTime) {
+        long duration = System.currentTimeMillis() - startTime;
+        log.info("{} executed in {} ms", methodName, duration);
+    }
 }
 
@@ -0,0 +1,100 @@
+package com.xay.videos_recommender.util;
+
+import com.xay.videos_recommender.model.domain.CachedFeed;
+import com.xay.videos_recommender.model.domain.FeedSnapshot;
+import com.xay.videos_recommender.model.dto.response.FeedDelta;
+import com.xay.videos_recommender.model.dto.response.FeedInsertion;
+import com.xay.videos_recommender.model.dto.response.FeedMove;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Computes the minimal edit between the top window of two ranked feeds.
+ * Items kept in the longest increasing run of old positions stay put; every other
+ * surviving item is reported as a move, so clients apply removals, moves, then insertions.
+ */
+public final class FeedDiffUtil {
+
+    private FeedDiffUtil() {}
+
+    public static FeedDelta diff(FeedSnapshot base, CachedFeed current, int window) {
+        long[] oldIds = base.videoIds();
+        long[] newIds = current.videoIds();
+        int oldLen = Math.min(window, oldIds.length);
+        int newLen = Math.min(window, newIds.length);
+
+        Map<Long, Integer> oldPositions = new HashMap<>(oldLen * 2);
+        for (int i = 0; i < oldLen; i++) {
+            oldPositions.put(oldIds[i], i);
+        }
+
+        // Old position of each new-window item, -1 when inserted
+        int[] fromPositions = new int[newLen];
+        List<FeedInsertion> inserted = new ArrayList<>();
+        for (int j = 0; j < newLen; j++) {
+            Integer from = oldPositions.remove(newIds[j]);
+            fromPositions[j] = from == null ? -1 : from;
+            if (from == null) {
+                inserted.add(new FeedInsertion(j, current.items().get(j)));
+            }
+        }
+
+        // Whatever is left in the map fell out of the window
+        List<String> removed = new ArrayList<>(oldPositions.size());
+        for (int i = 0; i < oldLen; i++) {
+            if (oldPositions.containsKey(oldIds[i])) {
+                removed.add(String.valueOf(oldIds[i]));
+            }
+        }
+
+        boolean[] stable = longestIncreasingRun(fromPositions);
+        List<FeedMove> moved = new ArrayList<>();
+        for (int j = 0; j < newLen; j++) {
+            if (fromPositions[j] >= 0 && !stable[j]) {
+                moved.add(new FeedMove(String.valueOf(newIds[j]), fromPositions[j], j));
+            }
+        }
+
+        return new FeedDelta(base.version(), inserted, removed, moved);
+    }
+
+    /**
+     * Marks the entries forming a longest strictly increasing subsequence, skipping negatives.
+     */
+    private static boolean[] longestIncreasingRun(int[] values) {
+        int n = values.length;
+        int[] tails = new int[n];
+        int[] previous = new int[n];
+        int length = 0;
+
+        for (int j = 0; j < n; j++) {
+            if (values[j] < 0) {
+                continue;
+            }
+            int lo = 0;
+            int hi = length;
+            while (lo < hi) {
+                int mid = (lo + hi) >>> 1;
+                if (values[tails[mid]] < values[j]) {
+                    lo = mid + 1;
+                } else {
+                    hi = mid;
+                }
+            }
+            previous[j] = lo > 0 ? tails[lo - 1] : -1;
+            tails[lo] = j;
+            if (lo == length) {
+                length++;
+            }
+        }
+
+        boolean[] stable = new boolean[n];
+        for (int j = length > 0 ? tails[length - 1] : -1; j >= 0; j = previous[j]) {
+            stable[j] = true;
+        }
+        return stable;
+    }
+}
@@ -0,0 +1,47 @@
+package com.xay.videos_recommender.util;
+
+/**
+ * Fast non-cryptographic hashing of ranked video id sequences.
+ * Feed versions and per-page ETags are derived from these hashes, so a rebuild
+ * that produces the same ordering keeps the same version and clients keep their 304s.
+ */
+public final class FeedHashUtil {
+
+    private static final long SEED = 0x9E3779B97F4A7C15L;
+    private static final long MULTIPLIER = 0xC2B2AE3D27D4EB4FL;
+
+    private FeedHashUtil() {}
+
+    /**
+     * Content-addressed feed version for a full ranked id sequence.
+     * Never returns {@link CursorUtil#UNBOUND_VERSION}, which is reserved for unbound cursors.
+     */
+    public static int feedVersion(long[] videoIds) {
+        int hash = hash(videoIds, 0, videoIds.length);
+        return hash == CursorUtil.UNBOUND_VERSION ? 1 : hash;
+    }
+
+    /**
+     * Hash of the page starting at offset, clamped to the bounds of the id sequence.
+     */
+    public static int pageHash(long[] videoIds, int offset, int limit) {
+        int start = Math.min(offset, videoIds.length);
+        int end = (int) Math.min((long) offset + limit, videoIds.length);
+        return hash(videoIds, start, end);
+    }
+
+    public static int hash(long[] videoIds, int from, int to) {
+        long h = SEED ^ (to - from);
+        for (int i = from; i < to; i++) {
+            h ^= videoIds[i] * MULTIPLIER;
+            h = Long.rotateLeft(h, 31) * SEED;
+        }
+        // fmix64 finalizer from MurmurHash3
+        h ^= h >>> 33;
+        h *= 0xFF51AFD7ED558CCDL;
+        h ^= h >>> 33;
+        h *= 0xC4CEB9FE1A85EC53L;
+        h ^= h >>> 33;
+        return (int) (h ^ (h >>> 32));
+    }
+}
@@ -0,0 +1,111 @@
+package com.xay.videos_recommender.util;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * Bounded lock-free ring buffer for many producers and a single consumer.
+ *
+ * Slots are allocated once at a power-of-two capacity. A producer claims a run of slots by advancing the tail
+ * with a CAS, only if they all fit behind the head, then publishes each element into its slot. The consumer
+ * takes elements in sequence order, stops at the first slot not yet published, and releases the slots by
+ * advancing the head. Offers never block and never allocate: a full buffer rejects the whole batch.
+ */
+public final class MpscRingBuffer<E> {
+
+    private final AtomicReferenceArray<E> slots;
+    private final int capacity;
+    private final int mask;
+
+    // Next sequence to claim, advanced by producers
+    private final AtomicLong tail = new AtomicLong();
+    // Next sequence to take, advanced by the consumer only
+    private final AtomicLong head = new AtomicLong();
+
+    public MpscRingBuffer(int requestedCapacity) {
+        if (requestedCapacity < 1 || requestedCapacity > 1 << 30) {
+            throw new IllegalArgumentException("capacity must be in [1, 2^30]: " + requestedCapacity);
+        }
+        this.capacity = requestedCapacity == 1 ? 1 : Integer.highestOneBit(requestedCapacity - 1) << 1;
+        this.mask = capacity - 1;
+        this.slots = new AtomicReferenceArray<>(capacity);
+    }
+
+    /**
+     * Publishes all elements, or none if they don't all fit. Null elements are not allowed.
+     */
+    public boolean offerAll(List<? extends E> elements) {
+        int count = elements.size();
+        if (count == 0) {
+            return true;
+        }
+        long claimed;
+        do {
+            claimed = tail.get();
+            if (claimed + count - head.get() > capacity) {
+                return false;
+            }
+        } while (!tail.compareAndSet(claimed, claimed + count));
+
+        for (int i = 0; i < count; i++) {
+            // The slot was cleared before the head passed it, so no later producer can hold it
+            slots.setRelease(index(claimed + i), elements.get(i));
+        }
+        return true;
+    }
+
+    /**
+     * Moves up to maxElements published elements into the target, in order. Single consumer only.
+     */
+    public int drainTo(Collection<? super E> target, int maxElements) {
+        long next = head.get();
+        int drained = 0;
+        while (drained < maxElements) {
+            int index = index(next);
+            E element = slots.getAcquire(index);
+            if (element == null) {
+                break;
+            }
+            slots.setRelease(index, null);
+            target.add(element);
+            next++;
+            drained++;
+        }
+        if (drained > 0) {
+            head.set(next);
+        }
+        return drained;
+    }
+
+    /**
+     * The next element the consumer would take, or null if it isn't published yet. Single consumer only.
+     */
+    public E peek() {
+        return slots.getAcquire(index(head.get()));
+    }
+
+    /**
+     * Claimed slots, including those whose producer is still publishing.
+     */
+    public int size() {
+        long currentHead = head.get();
+        return (int) Math.max(0, Math.min(capacity, tail.get() - currentHead));
+    }
+
+    /**
+     * Slots free for producers; exact only while producers are serialized by the caller.
+     */
+    public int remainingCapacity() {
+        return capacity - size();
+    }
+
+    public int capacity() {
+        return capacity;
+    }
+
+    private int index(long sequence) {
+        return (int) sequence & mask;
+    }
+}
@@ -0,0 +1,82 @@
+package com.xay.videos_recommender.util;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.LongSupplier;
+
+/**
+ * Time-windowed Bloom filter: a fixed ring of {@link BloomFilter} generations, each taking new keys for
+ * generationMillis before the oldest is cleared and reused. A key is remembered for at least
+ * (generations - 1) * generationMillis, and memory never grows.
+ * A lookup checks every generation, so its false-positive rate is about generations times the per-generation rate.
+ *
+ * Rotation is claimed with a lock that callers only try, so lookups and inserts never block. After an idle spell
+ * longer than the whole window every generation is cleared, and a key put meanwhile by another thread may be
+ * cleared with them.
+ */
+public final class RotatingBloomFilter {
+
+    private final BloomFilter[] generations;
+    private final long generationMillis;
+    private final LongSupplier clock;
+    private final AtomicLong currentEpoch;
+    private final ReentrantLock rotateLock = new ReentrantLock();
+
+    public RotatingBloomFilter(int generations, long generationMillis, long expectedInsertionsPerGeneration,
+                               double falsePositiveRatePerGeneration, LongSupplier clock) {
+        if (generations < 2 || generationMillis < 1) {
+            throw new IllegalArgumentException("Need at least 2 generations of at least 1 ms");
+        }
+        this.generations = new BloomFilter[generations];
+        for (int i = 0; i < generations; i++) {
+            this.generations[i] = new BloomFilter(expectedInsertionsPerGeneration, falsePositiveRatePerGeneration);
+        }
+        this.generationMillis = generationMillis;
+        this.clock = clock;
+        this.currentEpoch = new AtomicLong(clock.getAsLong() / generationMillis);
+    }
+
+    public boolean mightContain(long key) {
+        rotate();
+        for (BloomFilter generation : generations) {
+            if (generation.mightContain(key)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    public void put(long key) {
+        generations[indexOf(rotate())].put(key);
+    }
+
+    public long bitCount() {
+        return generations.length * generations[0].bitCount();
+    }
+
+    /**
+     * Clears the generations whose time has passed and returns the current epoch. One caller rotates while the
+     * others carry on with the epoch before it, so no request thread waits for the clearing.
+     */
+    private long rotate() {
+        long epoch = clock.getAsLong() / generationMillis;
+        long current = currentEpoch.get();
+        if (epoch <= current || !rotateLock.tryLock()) {
+            return current;
+        }
+        try {
+            current = currentEpoch.get();
+            for (long next = current + 1; next <= epoch && next <= current + generations.length; next++) {
+                generations[indexOf(next)].clear();
+            }
+            currentEpoch.set(Math.max(current, epoch));
+            return currentEpoch.get();
+        } finally {
+            rotateLock.unlock();
+        }
+    }
+
+    private int indexOf(long epoch) {
+        return (int) Math.floorMod(epoch, (long) generations.length);
+    }
+}
@@ -0,0 +1,53 @@
+package com.xay.videos_recommender.util;
+
+/**
+ * Maps hashed user ids to 64-bit keys for primitive-keyed lookups.
+ * Ids that are 16 hex digits (the SDK format) are parsed as-is; anything else is FNV-1a hashed.
+ * Keys may collide, so structures keyed by them must verify the full user id.
+ */
+public final class UserKeyUtil {
+
+    private static final long FNV_OFFSET_BASIS = 0xCBF29CE484222325L;
+    private static final long FNV_PRIME = 0x100000001B3L;
+
+    private UserKeyUtil() {}
+
+    public static long userBits(String userId) {
+        int length = userId.length();
+        if (length == 16) {
+            long bits = 0;
+            for (int i = 0; i < length; i++) {
+                int digit = Character.digit(userId.charAt(i), 16);
+                if (digit < 0) {
+                    return fnv1a(userId);
+                }
+                bits = (bits << 4) | digit;
+            }
+            return bits;
+        }
+        return fnv1a(userId);
+    }
+
+    /**
+     * Combines a tenant id and user bits into one well-mixed key.
+     */
+    public static long tenantUserKey(long tenantId, long userBits) {
+        long h = userBits ^ (tenantId * 0x9E3779B97F4A7C15L);
+        h ^= h >>> 33;
+        h *= 0xFF51AFD7ED558CCDL;
+        h ^= h >>> 33;
+        return h;
+    }
+
+    /**
+     * 64-bit FNV-1a of the string's chars; also keys other string ids, such as watched video ids.
+     */
+    public static long fnv1a(String value) {
+        long hash = FNV_OFFSET_BASIS;
+        for (int i = 0; i < value.length(); i++) {
+            hash ^= value.charAt(i);
+            hash *= FNV_PRIME;
+        }
+        return hash;
+    }
+}
@@ -0,0 +1,35 @@
+package com.xay.videos_recommender.worker;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.actuate.health.Health;
+import org.springframework.boot.actuate.health.HealthIndicator;
+import org.springframework.stereotype.Component;
+
+/**
+ * Part of the readiness group: OUT_OF_SERVICE until cache warm-up has completed the configured share
+ * of its steps, so the load balancer only routes to this node once common requests are cache hits.
+ * Warm-up that fails or times out still ends in UP; a cold node beats one that never becomes ready.
+ */
+@Component("cacheWarmup")
+@RequiredArgsConstructor
+public class CacheWarmupHealthIndicator implements HealthIndicator {
+
+    private final CacheWarmupWorker cacheWarmupWorker;
+
+    @Value("${app.warmup.ready-threshold:0.9}")
+    private double readyThreshold;
+
+    @Override
+    public Health health() {
+        double progress = cacheWarmupWorker.progress();
+        Health.Builder builder = cacheWarmupWorker.isFinished() || progress >= readyThreshold
+                ? Health.up()
+                : Health.outOfService();
+        return builder
+                .withDetail("finished", cacheWarmupWorker.isFinished())
+                .withDetail("completedSteps", cacheWarmupWorker.completedSteps())
+                .withDetail("plannedSteps", cacheWarmupWorker.plannedSteps())
+                .build();
+    }
+}
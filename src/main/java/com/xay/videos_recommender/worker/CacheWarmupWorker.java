@@ -0,0 +1,217 @@
+package com.xay.videos_recommender.worker;
+
+import com.xay.videos_recommender.cache.AppCache;
+import com.xay.videos_recommender.model.domain.ContentCandidate;
+import com.xay.videos_recommender.model.domain.RankingPlan;
+import com.xay.videos_recommender.model.domain.UserSignals;
+import com.xay.videos_recommender.model.entity.Tenant;
+import com.xay.videos_recommender.model.entity.UserProfile;
+import com.xay.videos_recommender.repository.UserProfileRepository;
+import com.xay.videos_recommender.service.ContentService;
+import com.xay.videos_recommender.service.FeedService;
+import com.xay.videos_recommender.service.RankingService;
+import com.xay.videos_recommender.service.TenantService;
+import com.xay.videos_recommender.service.UserProfileService;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Warms caches after startup in the order of DESIGN.md §6.5: tenant configs, then per most active tenant
+ * its content candidates, the profiles and feeds of its most active users, and a short replay of the
+ * ranking and serving path so the JIT compiles it before real traffic arrives.
+ *
+ * Tenants are warmed in parallel on virtual threads; every step that reads the database first takes a
+ * permit, so warm-up never holds more than db-concurrency pool connections. Readiness is reported by
+ * {@link CacheWarmupHealthIndicator} from the share of steps completed.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class CacheWarmupWorker {
+
+    // Candidates, profiles, feeds, JIT replay
+    private static final int STEPS_PER_TENANT = 4;
+    private static final String PERSONALIZED = "personalized";
+
+    private final TenantService tenantService;
+    private final ContentService contentService;
+    private final UserProfileService userProfileService;
+    private final FeedService feedService;
+    private final RankingService rankingService;
+    private final UserProfileRepository userProfileRepository;
+    private final AppCache appCache;
+    private final MeterRegistry meterRegistry;
+
+    @Value("${app.warmup.enabled:true}")
+    private boolean enabled;
+
+    @Value("${app.warmup.top-tenants:20}")
+    private int topTenants;
+
+    @Value("${app.warmup.profiles-per-tenant:100}")
+    private int profilesPerTenant;
+
+    @Value("${app.warmup.feeds-per-tenant:50}")
+    private int feedsPerTenant;
+
+    @Value("${app.warmup.feed-page-size:20}")
+    private int feedPageSize;
+
+    @Value("${app.warmup.db-concurrency:4}")
+    private int dbConcurrency;
+
+    @Value("${app.warmup.jit-replay-rounds:20}")
+    private int jitReplayRounds;
+
+    @Value("${app.warmup.timeout-seconds:60}")
+    private int timeoutSeconds;
+
+    private final AtomicInteger plannedSteps = new AtomicInteger();
+    private final AtomicInteger completedSteps = new AtomicInteger();
+    private volatile boolean finished;
+
+    private Semaphore dbPermits;
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void onApplicationReady() {
+        if (!enabled) {
+            finished = true;
+            log.info("Cache warm-up disabled");
+            return;
+        }
+        dbPermits = new Semaphore(dbConcurrency, true);
+        Thread.ofVirtual().name("cache-warmup").start(this::warmUp);
+    }
+
+    public boolean isFinished() {
+        return finished;
+    }
+
+    /**
+     * Share of planned steps completed, 0 until the plan is known.
+     */
+    public double progress() {
+        int planned = plannedSteps.get();
+        return planned == 0 ? 0.0 : (double) completedSteps.get() / planned;
+    }
+
+    public int plannedSteps() {
+        return plannedSteps.get();
+    }
+
+    public int completedSteps() {
+        return completedSteps.get();
+    }
+
+    private void warmUp() {
+        long startNanos = System.nanoTime();
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            List<Long> tenantIds = new ArrayList<>();
+            withDbPermit(() -> {
+                for (Tenant tenant : tenantService.getAllActiveTenants()) {
+                    appCache.putTenant(tenant.getId(), tenant);
+                }
+                tenantIds.addAll(userProfileRepository.findMostActiveTenantIds(PageRequest.of(0, topTenants)));
+            });
+            plannedSteps.set(1 + STEPS_PER_TENANT * tenantIds.size());
+            completedSteps.incrementAndGet();
+
+            // Submitted most active first; the fair semaphore keeps that order under contention
+            List<Callable<Void>> tasks = new ArrayList<>(tenantIds.size());
+            for (Long tenantId : tenantIds) {
+                tasks.add(() -> {
+                    warmTenant(tenantId);
+                    return null;
+                });
+            }
+            executor.invokeAll(tasks, timeoutSeconds, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (RuntimeException e) {
+            log.warn("Cache warm-up failed: {}", e.getMessage());
+        } finally {
+            finished = true;
+            long elapsedNanos = System.nanoTime() - startNanos;
+            meterRegistry.timer("cache.warmup.duration").record(elapsedNanos, TimeUnit.NANOSECONDS);
+            log.info("Cache warm-up finished in {} ms: {}/{} steps completed",
+                    TimeUnit.NANOSECONDS.toMillis(elapsedNanos), completedSteps.get(), plannedSteps.get());
+        }
+    }
+
+    private void warmTenant(Long tenantId) throws InterruptedException {
+        try {
+            withDbPermit(() -> contentService.getContentCandidates(tenantId));
+            completedSteps.incrementAndGet();
+
+            List<String> userIds = new ArrayList<>(profilesPerTenant);
+            withDbPermit(() -> {
+                List<UserProfile> profiles = userProfileRepository.findByTenantIdOrderByLastActiveAtDesc(
+                        tenantId, PageRequest.of(0, profilesPerTenant));
+                for (UserProfile profile : profiles) {
+                    userIds.add(profile.getHashedUserId());
+                }
+                userProfileService.cacheProfiles(tenantId, profiles);
+            });
+            completedSteps.incrementAndGet();
+
+            List<String> feedUserIds = userIds.subList(0, Math.min(feedsPerTenant, userIds.size()));
+            List<String> personalizedUserIds = new ArrayList<>(feedUserIds.size());
+            if (!feedUserIds.isEmpty()) {
+                withDbPermit(() -> feedService.generateFeeds(tenantId, feedUserIds, feedPageSize, result -> {
+                    if (PERSONALIZED.equals(result.meta().feedType())) {
+                        personalizedUserIds.add(result.userId());
+                    }
+                }));
+            }
+            completedSteps.incrementAndGet();
+
+            replayRanking(tenantId, personalizedUserIds);
+            completedSteps.incrementAndGet();
+        } catch (RuntimeException e) {
+            log.warn("Cache warm-up for tenant {} stopped: {}", tenantId, e.getMessage());
+        }
+    }
+
+    /**
+     * Reruns ranking and cached-page serving for users whose feed was just cached; no database access.
+     */
+    private void replayRanking(Long tenantId, List<String> userIds) {
+        List<ContentCandidate> candidates = contentService.getContentCandidates(tenantId);
+        if (userIds.isEmpty() || candidates.isEmpty()) {
+            return;
+        }
+        RankingPlan plan = rankingService.plan(candidates, tenantService.getTenant(tenantId));
+        Map<String, UserSignals> signals = userProfileService.getUserSignals(tenantId, userIds);
+        for (int round = 0; round < jitReplayRounds && !Thread.currentThread().isInterrupted(); round++) {
+            for (String userId : userIds) {
+                rankingService.rank(plan, signals.get(userId), plan.size());
+                feedService.generateFeed(tenantId, userId, feedPageSize, null, null);
+            }
+        }
+    }
+
+    private void withDbPermit(Runnable step) throws InterruptedException {
+        dbPermits.acquire();
+        try {
+            step.run();
+        } finally {
+            dbPermits.release();
+        }
+    }
+}
@@ -1,45 +1,216 @@
 package com.xay.videos_recommender.worker;
 
+import com.xay.videos_recommender.model.domain.QueuedEvent;
 import com.xay.videos_recommender.model.dto.request.EventItem;
 import com.xay.videos_recommender.service.EventQueueService;
 import com.xay.videos_recommender.storage.ArchiveStorage;
+import com.xay.videos_recommender.util.AdaptiveBatchSize;
+import com.xay.videos_recommender.util.DeficitRoundRobin;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Component;
 
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.locks.LockSupport;
+import java.util.stream.Collectors;
 
 /**
- * Pulls events from queue and processes them.
- * For demo: runs every 500ms to show near real-time processing.
+ * Pulls events from the queue partitions and processes them, one consumer thread per partition.
+ * A partition holds all events of its users, so per-user aggregation needs no locks.
+ *
+ * Within a partition, tenants are served by deficit round robin: each round every tenant with pending events
+ * takes up to quantum times its weight, so one busy tenant's backlog delays the others by at most a round.
+ * Consumers pull their partition's buffer into that schedule before each batch, while it holds less than
+ * the partition's capacity, and park only when both are empty; enqueues wake them.
+ *
+ * Rounds are gathered into batches whose size adapts between min-batch-size and max-batch-size: it grows while
+ * full batches finish within target-batch-latency-ms and more events wait, and halves when the aggregation and
+ * archive calls slow down. Consumer lag is exported as the age of the oldest pending event by its timestamp.
+ *
+ * A batch that fails is retried, with the backoff doubling from retry-backoff-ms up to retry-max-backoff-ms, before
+ * the consumer takes new events; the partition's buffer fills meanwhile and further events are rejected.
+ *
+ * With the event log enabled, each consumer publishes the log position below which all of its partition's
+ * events are processed, and the lowest of those is checkpointed. A failing batch counts as pending, so it is
+ * never checkpointed away and is replayed if the node stops first.
  */
 @Slf4j
 @Component
 @RequiredArgsConstructor
 public class EventAggregationWorker {
 
+    private static final long NO_PENDING = Long.MAX_VALUE;
+
     private final EventQueueService eventQueueService;
     private final ArchiveStorage archiveStorage;
+    private final MeterRegistry meterRegistry;
+
+    @Value("${app.worker.event-aggregation.min-batch-size:50}")
+    private int minBatchSize;
+
+    @Value("${app.worker.event-aggregation.max-batch-size:5000}")
+    private int maxBatchSize;
+
+    @Value("${app.worker.event-aggregation.target-batch-latency-ms:100}")
+    private long targetBatchLatencyMs;
+
+    @Value("${app.worker.event-aggregation.idle-park-ms:500}")
+    private long idleParkMs;
+
+    @Value("${app.worker.event-aggregation.retry-backoff-ms:500}")
+    private long retryBackoffMs;
+
+    @Value("${app.worker.event-aggregation.retry-max-backoff-ms:30000}")
+    private long retryMaxBackoffMs;
+
+    @Value("${app.worker.event-aggregation.quantum:64}")
+    private int quantum;
+
+    // tenantId:weight pairs, comma separated; unlisted tenants weigh 1
+    @Value("${app.worker.event-aggregation.tenant-weights:}")
+    private String tenantWeightsSpec;
+
+    private Map<Long, Integer> tenantWeights;
+    private AtomicLongArray processedPositions;
+    // Per partition, the timestamp in epoch millis of its oldest pending event
+    private AtomicLongArray oldestPendingMillis;
+    private Timer batchTimer;
+    private Counter failedBatchCounter;
+    private final List<Thread> consumers = new ArrayList<>();
+    private volatile boolean running;
 
-    @Value("${app.worker.event-aggregation.batch-size:50}")
-    private int batchSize;
+    @PostConstruct
+    public void start() {
+        tenantWeights = parseTenantWeights(tenantWeightsSpec);
+        int partitions = eventQueueService.partitionCount();
+        // All 0, so nothing is checkpointed until every consumer has looked at its partition
+        processedPositions = new AtomicLongArray(partitions);
+        oldestPendingMillis = new AtomicLongArray(partitions);
+        for (int partition = 0; partition < partitions; partition++) {
+            oldestPendingMillis.set(partition, NO_PENDING);
+        }
+
+        batchTimer = Timer.builder("events.aggregation.batch")
+                .description("Aggregating and archiving one batch of events")
+                .register(meterRegistry);
+        failedBatchCounter = Counter.builder("events.aggregation.batch.failed")
+                .description("Batches that failed and were kept for a retry")
+                .register(meterRegistry);
+        Gauge.builder("events.ingestion.lag", this, EventAggregationWorker::lagSeconds)
+                .baseUnit("seconds")
+                .description("Age of the oldest event waiting for aggregation, by its timestamp")
+                .register(meterRegistry);
+
+        running = true;
+        for (int partition = 0; partition < partitions; partition++) {
+            int owned = partition;
+            consumers.add(Thread.ofPlatform().name("event-consumer-" + partition).daemon()
+                    .start(() -> consume(owned)));
+        }
+        log.info("EventAggregationWorker started: consumers={}, batchSize=[{}, {}], quantum={}, tenantWeights={}",
+                partitions, minBatchSize, maxBatchSize, quantum, tenantWeights);
+    }
 
-    @Scheduled(fixedRateString = "${app.worker.event-aggregation.poll-interval-ms:500}")
-    public void processEvents() {
-        List<EventItem> events = eventQueueService.dequeue(batchSize);
+    @PreDestroy
+    public void stop() throws InterruptedException {
+        running = false;
+        for (Thread consumer : consumers) {
+            LockSupport.unpark(consumer);
+        }
+        for (Thread consumer : consumers) {
+            consumer.join(TimeUnit.SECONDS.toMillis(5));
+        }
+        checkpoint();
+    }
 
-        if (events.isEmpty()) {
-            return;
+    /**
+     * Checkpoints the event log below the oldest event any consumer still has to process.
+     */
+    @Scheduled(fixedDelayString = "${app.worker.event-aggregation.checkpoint-interval-ms:500}")
+    public void checkpoint() {
+        long position = Long.MAX_VALUE;
+        for (int partition = 0; partition < processedPositions.length(); partition++) {
+            position = Math.min(position, processedPositions.get(partition));
         }
+        if (position > 0) {
+            eventQueueService.checkpoint(position);
+        }
+    }
 
-        log.info("Processing {} events from queue", events.size());
+    private void consume(int partition) {
+        DeficitRoundRobin<Long, QueuedEvent> schedule = new DeficitRoundRobin<>(quantum,
+                tenantId -> tenantWeights.getOrDefault(tenantId, 1));
+        AdaptiveBatchSize batchSize = new AdaptiveBatchSize(minBatchSize, maxBatchSize,
+                TimeUnit.MILLISECONDS.toNanos(targetBatchLatencyMs));
+        int partitionCapacity = eventQueueService.partitionCapacity();
+        List<QueuedEvent> round = new ArrayList<>();
+        // Taken from the schedule, and kept until processed
+        List<QueuedEvent> batch = new ArrayList<>();
+        long backoffNanos = TimeUnit.MILLISECONDS.toNanos(retryBackoffMs);
+
+        while (running) {
+            try {
+                if (schedule.size() < partitionCapacity) {
+                    round.clear();
+                    eventQueueService.drain(partition, round, partitionCapacity - schedule.size());
+                    for (QueuedEvent queued : round) {
+                        schedule.add(queued.event().tenantId(), queued);
+                    }
+                }
+                if (batch.isEmpty()) {
+                    if (schedule.isEmpty()) {
+                        publishProgress(partition, schedule, batch);
+                        eventQueueService.awaitEvents(partition, TimeUnit.MILLISECONDS.toNanos(idleParkMs));
+                        continue;
+                    }
+                    // Whole rounds, so every waiting tenant gets its share of each batch
+                    while (batch.size() < batchSize.current() && !schedule.isEmpty()) {
+                        schedule.nextRound(batch);
+                    }
+                }
+
+                long startNanos = System.nanoTime();
+                process(batch);
+                long elapsedNanos = System.nanoTime() - startNanos;
+                batchTimer.record(elapsedNanos, TimeUnit.NANOSECONDS);
+                batchSize.record(batch.size(), elapsedNanos, schedule.size());
+                batch.clear();
+                backoffNanos = TimeUnit.MILLISECONDS.toNanos(retryBackoffMs);
+                publishProgress(partition, schedule, batch);
+            } catch (RuntimeException e) {
+                // Keep the consumer alive; the batch stays pending, so the checkpoint can't pass it
+                failedBatchCounter.increment();
+                log.error("Event consumer {} failed a batch of {} events, retrying in {} ms",
+                        partition, batch.size(), TimeUnit.NANOSECONDS.toMillis(backoffNanos), e);
+                publishProgress(partition, schedule, batch);
+                LockSupport.parkNanos(backoffNanos);
+                backoffNanos = Math.min(backoffNanos * 2, TimeUnit.MILLISECONDS.toNanos(retryMaxBackoffMs));
+            }
+        }
+    }
+
+    private void process(List<QueuedEvent> batch) {
+        List<EventItem> events = batch.stream().map(QueuedEvent::event).toList();
+
+        log.debug("Processing {} events from queue", events.size());
 
         // Group by user and process
         events.stream()
-                .collect(java.util.stream.Collectors.groupingBy(
-                        e -> e.tenantId() + ":" + e.userId()))
+                .collect(Collectors.groupingBy(e -> e.tenantId() + ":" + e.userId()))
                 .forEach((key, userEvents) -> {
                     log.debug("User {}: {} events", key, userEvents.size());
                     // In production: update user profile aggregates
@@ -48,6 +219,62 @@ public class EventAggregationWorker {
         // Archive to S3 (stub - does nothing in demo)
         archiveStorage.archive(events);
 
-        log.info("Processed and archived {} events", events.size());
+        log.debug("Processed and archived {} events", events.size());
+    }
+
+    /**
+     * Publishes the log position below which every event routed to the partition is processed, and the timestamp
+     * of its oldest pending event. Pending events are the unprocessed batch's and the schedule's, or, with the
+     * schedule empty, the batch's and the buffer's; with none pending the position is the offered position read
+     * before looking.
+     */
+    private void publishProgress(int partition, DeficitRoundRobin<Long, QueuedEvent> schedule, List<QueuedEvent> batch) {
+        long offered = eventQueueService.offeredPosition();
+        long[] oldest = {Long.MAX_VALUE, NO_PENDING};
+        for (QueuedEvent queued : batch) {
+            oldest[0] = Math.min(oldest[0], queued.logStart());
+            oldest[1] = Math.min(oldest[1], timestampMillis(queued));
+        }
+        if (!schedule.isEmpty()) {
+            // Anything still in the buffer was offered after what the schedule holds
+            schedule.forEachHead(queued -> {
+                oldest[0] = Math.min(oldest[0], queued.logStart());
+                oldest[1] = Math.min(oldest[1], timestampMillis(queued));
+            });
+        } else {
+            QueuedEvent next = eventQueueService.peek(partition);
+            oldest[0] = Math.min(oldest[0], next != null ? next.logStart() : offered);
+            oldest[1] = Math.min(oldest[1], next != null ? timestampMillis(next) : NO_PENDING);
+        }
+        processedPositions.set(partition, oldest[0]);
+        oldestPendingMillis.set(partition, oldest[1]);
+    }
+
+    private double lagSeconds() {
+        long oldest = NO_PENDING;
+        for (int partition = 0; partition < oldestPendingMillis.length(); partition++) {
+            oldest = Math.min(oldest, oldestPendingMillis.get(partition));
+        }
+        return oldest == NO_PENDING ? 0.0 : Math.max(0L, System.currentTimeMillis() - oldest) / 1000.0;
+    }
+
+    private static long timestampMillis(QueuedEvent queued) {
+        Instant timestamp = queued.event().timestamp();
+        return timestamp != null ? timestamp.toEpochMilli() : System.currentTimeMillis();
+    }
+
+    private static Map<Long, Integer> parseTenantWeights(String spec) {
+        Map<Long, Integer> weights = new HashMap<>();
+        if (spec == null || spec.isBlank()) {
+            return weights;
+        }
+        for (String pair : spec.split(",")) {
+            String[] parts = pair.trim().split(":");
+            if (parts.length != 2) {
+                throw new IllegalArgumentException("Invalid tenant weight '" + pair + "', expected tenantId:weight");
+            }
+            weights.put(Long.parseLong(parts[0].trim()), Integer.parseInt(parts[1].trim()));
+        }
+        return weights;
     }
 }
@@ -0,0 +1,7 @@
+-- Content candidates version per tenant, shared by all nodes.
+-- Rows are created on the first rebuild; a missing row means version 1.
+CREATE TABLE content_versions (
+    tenant_id               BIGINT PRIMARY KEY REFERENCES tenants(id),
+    version                 INT NOT NULL DEFAULT 1,
+    updated_at              TIMESTAMP DEFAULT CURRENT_TIMESTAMP
+);
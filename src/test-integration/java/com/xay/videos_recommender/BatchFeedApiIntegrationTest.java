@@ -0,0 +1,77 @@
+package com.xay.videos_recommender;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+
+import java.util.HashSet;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+/**
+ * Integration tests for the Batch Feed API.
+ */
+@SpringBootTest
+@AutoConfigureMockMvc
+class BatchFeedApiIntegrationTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Test
+    @DisplayName("POST /v1/feed/batch streams one result per distinct user")
+    void getFeeds_streamsOneLinePerUser() throws Exception {
+        MvcResult started = mockMvc.perform(post("/v1/feed/batch")
+                        .header("X-Tenant-ID", "1")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("""
+                                {"userIds": ["a4f2e8c1b9d3e7f6", "batch_cold_user", "a4f2e8c1b9d3e7f6"], "limit": 3}
+                                """))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        String body = mockMvc.perform(asyncDispatch(started))
+                .andExpect(status().isOk())
+                .andExpect(content().contentTypeCompatibleWith(MediaType.APPLICATION_NDJSON))
+                .andReturn()
+                .getResponse()
+                .getContentAsString();
+
+        String[] lines = body.strip().split("\n");
+        assertThat(lines).hasSize(2);
+
+        Set<String> users = new HashSet<>();
+        for (String line : lines) {
+            JsonNode result = objectMapper.readTree(line);
+            users.add(result.path("userId").asText());
+            assertThat(result.path("items").size()).isLessThanOrEqualTo(3);
+            assertThat(result.path("meta").path("feedType").asText()).isNotEmpty();
+        }
+        assertThat(users).containsExactlyInAnyOrder("a4f2e8c1b9d3e7f6", "batch_cold_user");
+    }
+
+    @Test
+    @DisplayName("POST /v1/feed/batch with empty user list returns 400")
+    void getFeeds_emptyUserList_returns400() throws Exception {
+        mockMvc.perform(post("/v1/feed/batch")
+                        .header("X-Tenant-ID", "1")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"userIds\": []}"))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.code").value("VALIDATION_ERROR"));
+    }
+}
@@ -1,5 +1,8 @@
 package com.xay.videos_recommender;
 
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.cbor.databind.CBORMapper;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -8,6 +11,7 @@ import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.http.MediaType;
 import org.springframework.test.web.servlet.MockMvc;
 
+import static org.assertj.core.api.Assertions.assertThat;
 import static org.hamcrest.Matchers.is;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
@@ -22,6 +26,9 @@ class EventApiIntegrationTest {
     @Autowired
     private MockMvc mockMvc;
 
+    @Autowired
+    private ObjectMapper objectMapper;
+
     private static final String VALID_PAYLOAD = """
             {
               "events": [
@@ -95,5 +102,28 @@ class EventApiIntegrationTest {
                 .andExpect(status().isBadRequest())
                 .andExpect(jsonPath("$.code", is("VALIDATION_ERROR")));
     }
-}
 
+    @Test
+    @DisplayName("POST /v1/events with CBOR payload returns 202 with CBOR response")
+    void postEvents_cborPayload_returns202() throws Exception {
+        CBORMapper cborMapper = new CBORMapper();
+        byte[] cborPayload = cborMapper.writeValueAsBytes(objectMapper.readTree(VALID_PAYLOAD));
+        assertThat(cborPayload.length).isLessThan(VALID_PAYLOAD.strip().length());
+
+        byte[] body = mockMvc.perform(post("/v1/events")
+                        .header("X-Tenant-ID", 1)
+                        .header("X-User-ID", "a4f2e8c1b9d3e7f6")
+                        .contentType(MediaType.APPLICATION_CBOR)
+                        .accept(MediaType.APPLICATION_CBOR)
+                        .content(cborPayload))
+                .andExpect(status().isAccepted())
+                .andExpect(content().contentType(MediaType.APPLICATION_CBOR))
+                .andReturn()
+                .getResponse()
+                .getContentAsByteArray();
+
+        JsonNode response = cborMapper.readTree(body);
+        assertThat(response.path("status").asText()).isEqualTo("accepted");
+        assertThat(response.path("eventsCount").asInt()).isEqualTo(1);
+    }
+}
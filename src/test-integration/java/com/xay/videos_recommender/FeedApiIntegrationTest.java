@@ -2,6 +2,7 @@ package com.xay.videos_recommender;
 
 import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.cbor.databind.CBORMapper;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -12,6 +13,7 @@ import org.springframework.test.web.servlet.MockMvc;
 import org.springframework.test.web.servlet.MvcResult;
 
 import static org.hamcrest.Matchers.*;
+import static org.assertj.core.api.Assertions.assertThat;
 import static org.junit.jupiter.api.Assertions.assertNotEquals;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
@@ -177,4 +179,64 @@ class FeedApiIntegrationTest {
         String page2ETag = secondResult.getResponse().getHeader("ETag");
         assertNotEquals(page1ETag, page2ETag, "Page 1 and Page 2 should have different ETags");
     }
+
+    @Test
+    @DisplayName("GET /v1/feed/changes without a version returns the full first page")
+    void getFeedChanges_withoutVersion_returnsFullPage() throws Exception {
+        mockMvc.perform(get("/v1/feed/changes")
+                        .header("X-Tenant-ID", TENANT_ID)
+                        .header("X-User-ID", USER_ID)
+                        .param("limit", "3"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.mode").value("full"))
+                .andExpect(jsonPath("$.feedVersion").exists())
+                .andExpect(jsonPath("$.items.length()").value(lessThanOrEqualTo(3)))
+                .andExpect(jsonPath("$.delta").doesNotExist());
+    }
+
+    @Test
+    @DisplayName("GET /v1/feed/changes with the current version returns 304")
+    void getFeedChanges_currentVersion_returns304() throws Exception {
+        MvcResult result = mockMvc.perform(get("/v1/feed/changes")
+                        .header("X-Tenant-ID", TENANT_ID)
+                        .header("X-User-ID", USER_ID))
+                .andExpect(status().isOk())
+                .andReturn();
+
+        JsonNode response = objectMapper.readTree(result.getResponse().getContentAsString());
+        String version = response.path("feedVersion").asText();
+
+        mockMvc.perform(get("/v1/feed/changes")
+                        .header("X-Tenant-ID", TENANT_ID)
+                        .header("X-User-ID", USER_ID)
+                        .param("since", version))
+                .andExpect(status().isNotModified());
+    }
+
+    @Test
+    @DisplayName("GET /v1/feed with Accept: application/cbor returns the same feed, smaller")
+    void getFeed_acceptCbor_returnsCborFeed() throws Exception {
+        String json = mockMvc.perform(get("/v1/feed")
+                        .header("X-Tenant-ID", TENANT_ID)
+                        .header("X-User-ID", USER_ID))
+                .andExpect(status().isOk())
+                .andReturn()
+                .getResponse()
+                .getContentAsString();
+
+        byte[] cbor = mockMvc.perform(get("/v1/feed")
+                        .header("X-Tenant-ID", TENANT_ID)
+                        .header("X-User-ID", USER_ID)
+                        .accept(MediaType.APPLICATION_CBOR))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType(MediaType.APPLICATION_CBOR))
+                .andReturn()
+                .getResponse()
+                .getContentAsByteArray();
+
+        JsonNode fromJson = objectMapper.readTree(json);
+        JsonNode fromCbor = new CBORMapper().readTree(cbor);
+        assertThat(fromCbor.path("items")).isEqualTo(fromJson.path("items"));
+        assertThat(cbor.length).isLessThan(json.getBytes().length);
+    }
 }
@@ -0,0 +1,281 @@
+package com.xay.videos_recommender;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Minimal in-process server speaking the Redis protocol (RESP2), for integration tests of the Redis cache backend.
+ * Supports the commands the cache uses: GET, SET (EX/PX), MGET, DEL, INCR, PUBLISH, SUBSCRIBE and the
+ * connection handshake. HELLO is rejected so clients fall back to RESP2.
+ */
+final class InProcessRedisServer implements AutoCloseable {
+
+    private final ServerSocket serverSocket;
+    private final Map<String, byte[]> values = new ConcurrentHashMap<>();
+    private final Map<String, Long> expiresAtMillis = new ConcurrentHashMap<>();
+    private final Map<String, Set<Connection>> subscribers = new ConcurrentHashMap<>();
+
+    private InProcessRedisServer() throws IOException {
+        serverSocket = new ServerSocket(0, 50, InetAddress.getLoopbackAddress());
+        Thread acceptor = new Thread(this::acceptLoop, "in-process-redis");
+        acceptor.setDaemon(true);
+        acceptor.start();
+    }
+
+    static InProcessRedisServer start() {
+        try {
+            return new InProcessRedisServer();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    int port() {
+        return serverSocket.getLocalPort();
+    }
+
+    byte[] get(String key) {
+        Long expiresAt = expiresAtMillis.get(key);
+        if (expiresAt != null && expiresAt <= System.currentTimeMillis()) {
+            values.remove(key);
+            expiresAtMillis.remove(key);
+        }
+        return values.get(key);
+    }
+
+    void set(String key, byte[] value) {
+        values.put(key, value);
+        expiresAtMillis.remove(key);
+    }
+
+    @Override
+    public void close() throws IOException {
+        serverSocket.close();
+    }
+
+    private void acceptLoop() {
+        while (!serverSocket.isClosed()) {
+            try {
+                Socket socket = serverSocket.accept();
+                Thread handler = new Thread(() -> new Connection(socket).serve(), "in-process-redis-connection");
+                handler.setDaemon(true);
+                handler.start();
+            } catch (IOException e) {
+                return;
+            }
+        }
+    }
+
+    private final class Connection {
+
+        private final Socket socket;
+        private OutputStream out;
+
+        Connection(Socket socket) {
+            this.socket = socket;
+        }
+
+        void serve() {
+            try (socket) {
+                InputStream in = new BufferedInputStream(socket.getInputStream());
+                out = new BufferedOutputStream(socket.getOutputStream());
+                List<byte[]> command;
+                while ((command = readCommand(in)) != null) {
+                    if (!execute(command)) {
+                        return;
+                    }
+                }
+            } catch (IOException ignored) {
+                // Client went away
+            } finally {
+                subscribers.values().forEach(connections -> connections.remove(this));
+            }
+        }
+
+        private boolean execute(List<byte[]> command) throws IOException {
+            String name = string(command.get(0)).toUpperCase(Locale.ROOT);
+            switch (name) {
+                case "PING" -> simple("PONG");
+                case "AUTH", "SELECT", "CLIENT", "READONLY" -> simple("OK");
+                case "QUIT" -> {
+                    simple("OK");
+                    return false;
+                }
+                case "GET" -> bulk(get(string(command.get(1))));
+                case "SET" -> {
+                    String key = string(command.get(1));
+                    values.put(key, command.get(2));
+                    expiresAtMillis.remove(key);
+                    for (int i = 3; i + 1 < command.size(); i += 2) {
+                        String option = string(command.get(i)).toUpperCase(Locale.ROOT);
+                        long amount = Long.parseLong(string(command.get(i + 1)));
+                        if (option.equals("PX")) {
+                            expiresAtMillis.put(key, System.currentTimeMillis() + amount);
+                        } else if (option.equals("EX")) {
+                            expiresAtMillis.put(key, System.currentTimeMillis() + amount * 1000);
+                        }
+                    }
+                    simple("OK");
+                }
+                case "MGET" -> {
+                    List<byte[]> found = new ArrayList<>();
+                    for (int i = 1; i < command.size(); i++) {
+                        found.add(get(string(command.get(i))));
+                    }
+                    array(found);
+                }
+                case "DEL" -> {
+                    long removed = 0;
+                    for (int i = 1; i < command.size(); i++) {
+                        String key = string(command.get(i));
+                        expiresAtMillis.remove(key);
+                        removed += values.remove(key) != null ? 1 : 0;
+                    }
+                    integer(removed);
+                }
+                case "INCR" -> {
+                    String key = string(command.get(1));
+                    byte[] updated = values.compute(key, (k, current) -> String.valueOf(
+                            (current == null ? 0 : Long.parseLong(string(current))) + 1).getBytes(StandardCharsets.US_ASCII));
+                    integer(Long.parseLong(string(updated)));
+                }
+                case "PUBLISH" -> {
+                    Set<Connection> receivers = subscribers.getOrDefault(string(command.get(1)), Set.of());
+                    for (Connection receiver : receivers) {
+                        receiver.message(command.get(1), command.get(2));
+                    }
+                    integer(receivers.size());
+                }
+                case "SUBSCRIBE", "UNSUBSCRIBE" -> {
+                    boolean subscribe = name.equals("SUBSCRIBE");
+                    for (int i = 1; i < command.size(); i++) {
+                        Set<Connection> connections = subscribers.computeIfAbsent(string(command.get(i)),
+                                channel -> ConcurrentHashMap.newKeySet());
+                        if (subscribe) {
+                            connections.add(this);
+                        } else {
+                            connections.remove(this);
+                        }
+                        long count = subscribers.values().stream().filter(c -> c.contains(this)).count();
+                        send(new Reply().raw("*3").bulk(bytes(name.toLowerCase(Locale.ROOT))).bulk(command.get(i))
+                                .raw(":" + count));
+                    }
+                }
+                default -> error("ERR unknown command '" + name + "'");
+            }
+            return true;
+        }
+
+        private void message(byte[] channel, byte[] payload) throws IOException {
+            send(new Reply().raw("*3").bulk(bytes("message")).bulk(channel).bulk(payload));
+        }
+
+        private void simple(String value) throws IOException {
+            send(new Reply().raw("+" + value));
+        }
+
+        private void error(String message) throws IOException {
+            send(new Reply().raw("-" + message));
+        }
+
+        private void integer(long value) throws IOException {
+            send(new Reply().raw(":" + value));
+        }
+
+        private void bulk(byte[] value) throws IOException {
+            send(new Reply().bulk(value));
+        }
+
+        private void array(List<byte[]> items) throws IOException {
+            Reply reply = new Reply().raw("*" + items.size());
+            items.forEach(reply::bulk);
+            send(reply);
+        }
+
+        // Publishes from other connections write here too
+        private synchronized void send(Reply reply) throws IOException {
+            out.write(reply.bytes.toByteArray());
+            out.flush();
+        }
+    }
+
+    private static final class Reply {
+
+        private final ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+
+        Reply raw(String line) {
+            bytes.writeBytes(InProcessRedisServer.bytes(line + "\r\n"));
+            return this;
+        }
+
+        Reply bulk(byte[] value) {
+            if (value == null) {
+                return raw("$-1");
+            }
+            raw("$" + value.length);
+            bytes.writeBytes(value);
+            bytes.writeBytes(InProcessRedisServer.bytes("\r\n"));
+            return this;
+        }
+    }
+
+    private static byte[] bytes(String value) {
+        return value.getBytes(StandardCharsets.UTF_8);
+    }
+
+    private static String string(byte[] bytes) {
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Reads one command sent as a RESP array of bulk strings; null at end of stream.
+     */
+    private static List<byte[]> readCommand(InputStream in) throws IOException {
+        int type = in.read();
+        if (type == -1) {
+            return null;
+        }
+        if (type != '*') {
+            throw new IOException("Unsupported request type: " + (char) type);
+        }
+        int count = Integer.parseInt(readLine(in));
+        List<byte[]> parts = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            if (in.read() != '$') {
+                throw new IOException("Expected bulk string");
+            }
+            int length = Integer.parseInt(readLine(in));
+            parts.add(in.readNBytes(length));
+            in.readNBytes(2);
+        }
+        return parts;
+    }
+
+    private static String readLine(InputStream in) throws IOException {
+        StringBuilder line = new StringBuilder();
+        int c;
+        while ((c = in.read()) != '\r') {
+            if (c == -1) {
+                throw new IOException("Unexpected end of stream");
+            }
+            line.append((char) c);
+        }
+        in.read();
+        return line.toString();
+    }
+}
@@ -0,0 +1,96 @@
+package com.xay.videos_recommender;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.xay.videos_recommender.model.dto.response.FeedResponse;
+import com.xay.videos_recommender.service.FeedService;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.RequestBuilder;
+import org.springframework.test.web.servlet.ResultActions;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+/**
+ * Integration tests for the non-blocking feed path.
+ * Responses must match what the blocking path produces for the same state.
+ */
+@SpringBootTest(properties = "app.feed.execution-mode=non-blocking")
+@AutoConfigureMockMvc
+class NonBlockingFeedApiIntegrationTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private FeedService feedService;
+
+    private static final String TENANT_ID = "1";
+    private static final String USER_ID = "a4f2e8c1b9d3e7f6";
+
+    @Test
+    @DisplayName("GET /v1/feed on a cache miss returns the same page as the blocking service")
+    void getFeed_matchesBlockingService() throws Exception {
+        MvcResult result = performAsync(get("/v1/feed")
+                        .header("X-Tenant-ID", TENANT_ID)
+                        .header("X-User-ID", USER_ID)
+                        .param("limit", "3"))
+                .andExpect(status().isOk())
+                .andExpect(header().exists("ETag"))
+                .andExpect(jsonPath("$.meta.feedType").exists())
+                .andReturn();
+
+        FeedResponse blocking = feedService.generateFeed(1L, USER_ID, 3, null, null).orElseThrow();
+        JsonNode body = objectMapper.readTree(result.getResponse().getContentAsString());
+
+        assertThat(body.path("items")).isEqualTo(objectMapper.valueToTree(blocking.items()));
+        assertThat(body.path("pagination")).isEqualTo(objectMapper.valueToTree(blocking.pagination()));
+        assertThat(result.getResponse().getHeader("ETag")).isEqualTo("\"" + blocking.eTag() + "\"");
+    }
+
+    @Test
+    @DisplayName("GET /v1/feed with matching ETag returns 304 from the cache-hit path")
+    void getFeed_matchingETag_returns304() throws Exception {
+        String etag = performAsync(get("/v1/feed")
+                        .header("X-Tenant-ID", TENANT_ID)
+                        .header("X-User-ID", USER_ID))
+                .andExpect(status().isOk())
+                .andReturn()
+                .getResponse()
+                .getHeader("ETag");
+
+        performAsync(get("/v1/feed")
+                        .header("X-Tenant-ID", TENANT_ID)
+                        .header("X-User-ID", USER_ID)
+                        .header("If-None-Match", etag))
+                .andExpect(status().isNotModified());
+    }
+
+    @Test
+    @DisplayName("GET /v1/feed for an unknown tenant returns 404")
+    void getFeed_unknownTenant_returns404() throws Exception {
+        performAsync(get("/v1/feed")
+                        .header("X-Tenant-ID", "999")
+                        .header("X-User-ID", USER_ID))
+                .andExpect(status().isNotFound())
+                .andExpect(jsonPath("$.code").value("TENANT_NOT_FOUND"));
+    }
+
+    private ResultActions performAsync(RequestBuilder requestBuilder) throws Exception {
+        MvcResult started = mockMvc.perform(requestBuilder)
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        return mockMvc.perform(asyncDispatch(started));
+    }
+}
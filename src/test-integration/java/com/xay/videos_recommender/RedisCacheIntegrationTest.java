@@ -0,0 +1,121 @@
+package com.xay.videos_recommender;
+
+import com.xay.videos_recommender.cache.FeedCacheManager;
+import com.xay.videos_recommender.cache.redis.CacheInvalidationBus;
+import com.xay.videos_recommender.cache.redis.CacheInvalidationBus.Invalidation;
+import com.xay.videos_recommender.cache.redis.CacheInvalidationBus.Kind;
+import com.xay.videos_recommender.cache.redis.RedisCacheClient;
+import com.xay.videos_recommender.cache.redis.RedisValueCodec;
+import com.xay.videos_recommender.model.domain.CachedFeed;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.awaitility.Awaitility.await;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Integration tests for the Redis cache backend against an in-process Redis-protocol server.
+ * Another node is simulated by writing to the server directly and publishing invalidations with a foreign origin.
+ */
+@SpringBootTest(properties = "app.cache.backend=redis")
+@AutoConfigureMockMvc
+class RedisCacheIntegrationTest {
+
+    private static final InProcessRedisServer REDIS = InProcessRedisServer.start();
+
+    private static final long TENANT_ID = 1L;
+    private static final String USER_ID = "a4f2e8c1b9d3e7f6";
+
+    @DynamicPropertySource
+    static void redisProperties(DynamicPropertyRegistry registry) {
+        registry.add("spring.data.redis.host", () -> "127.0.0.1");
+        registry.add("spring.data.redis.port", REDIS::port);
+    }
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private FeedCacheManager feedCacheManager;
+
+    @Autowired
+    private RedisCacheClient redisCacheClient;
+
+    @Autowired
+    private RedisValueCodec codec;
+
+    @Autowired
+    private CacheInvalidationBus invalidationBus;
+
+    @Test
+    @DisplayName("GET /v1/feed populates the shared cache with the tenant, profile and feed")
+    void getFeed_populatesRedis() throws Exception {
+        mockMvc.perform(get("/v1/feed")
+                        .header("X-Tenant-ID", String.valueOf(TENANT_ID))
+                        .header("X-User-ID", USER_ID))
+                .andExpect(status().isOk());
+
+        assertThat(REDIS.get("tenant:1:config")).isNotNull();
+        assertThat(REDIS.get("tenant:1:user:" + USER_ID + ":profile")).isNotNull();
+        CachedFeed shared = codec.decode(REDIS.get("tenant:1:user:" + USER_ID + ":feed"), CachedFeed.class);
+        assertThat(shared).isNotNull();
+        assertThat(feedCacheManager.getFeed(TENANT_ID, USER_ID)).hasValueSatisfying(
+                feed -> assertThat(feed.videoIds()).containsExactly(shared.videoIds()));
+    }
+
+    @Test
+    @DisplayName("A feed written by another node replaces the near copy once its invalidation arrives")
+    void feedFromAnotherNode_replacesNearCopy() {
+        String userId = "e1f2a3b4c5d6e7f8";
+        feedCacheManager.putFeed(TENANT_ID, userId, feed(101, 1L, 2L, 3L));
+        assertThat(feedCacheManager.getFeed(TENANT_ID, userId)).map(CachedFeed::version).hasValue(101);
+
+        REDIS.set("tenant:1:user:" + userId + ":feed", codec.encode(feed(202, 3L, 2L, 1L)));
+        publishFromOtherNode(new Invalidation("other-node", Kind.FEEDS, TENANT_ID, List.of(userId), 0L));
+
+        await().atMost(Duration.ofSeconds(5)).untilAsserted(() ->
+                assertThat(feedCacheManager.getFeed(TENANT_ID, userId)).map(CachedFeed::version).hasValue(202));
+    }
+
+    @Test
+    @DisplayName("A tenant generation advanced on another node turns this node's cached feeds into misses")
+    void generationFromAnotherNode_invalidatesFeeds() {
+        long tenantId = 2L;
+        String userId = "f1e2d3c4b5a69788";
+        long generation = feedCacheManager.currentGeneration(tenantId);
+        feedCacheManager.putFeed(tenantId, userId, feed(303, 4L, 5L).toBuilder().generation(generation).build());
+        assertThat(feedCacheManager.getFeed(tenantId, userId)).isPresent();
+
+        publishFromOtherNode(new Invalidation("other-node", Kind.FEED_GENERATION, tenantId, List.of(), generation + 1));
+
+        await().atMost(Duration.ofSeconds(5)).untilAsserted(() ->
+                assertThat(feedCacheManager.getFeed(tenantId, userId)).isEmpty());
+        assertThat(feedCacheManager.currentGeneration(tenantId)).isEqualTo(generation + 1);
+    }
+
+    private void publishFromOtherNode(Invalidation invalidation) {
+        redisCacheClient.publish(invalidationBus.channel(), codec.encode(invalidation));
+    }
+
+    private static CachedFeed feed(int version, long... videoIds) {
+        return CachedFeed.builder()
+                .version(version)
+                .generatedAt(Instant.now())
+                .feedType("personalized")
+                .items(List.of())
+                .videoIds(videoIds)
+                .build();
+    }
+}
@@ -0,0 +1,71 @@
+package com.xay.videos_recommender.cache;
+
+import com.xay.videos_recommender.util.CursorUtil;
+import com.xay.videos_recommender.util.ETagUtil;
+import com.xay.videos_recommender.util.FeedHashUtil;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class FeedVersionRegistryTest {
+
+    private static final long[] VIDEO_IDS = {10L, 9L, 8L, 7L, 6L, 5L, 4L, 3L, 2L, 1L};
+    private static final long TTL = TimeUnit.MINUTES.toNanos(5);
+
+    private final FeedGenerations generations = new FeedGenerations();
+    private final FeedVersionRegistry registry = new FeedVersionRegistry(generations);
+
+    @Test
+    @DisplayName("Matches the ETag of the page the cached feed would serve")
+    void matchesCurrentPage() {
+        registry.record(1L, "a4f2e8c1b9d3e7f6", 7, 0L, VIDEO_IDS, System.nanoTime() + TTL);
+
+        assertThat(registry.matches(1L, "a4f2e8c1b9d3e7f6", CursorUtil.UNBOUND_VERSION, 5, 5, quoted(etag(5, 5)))).isTrue();
+        assertThat(registry.matches(1L, "a4f2e8c1b9d3e7f6", 7, 5, 5, etag(5, 5))).isTrue();
+        assertThat(registry.matches(1L, "a4f2e8c1b9d3e7f6", CursorUtil.UNBOUND_VERSION, 0, 5, etag(5, 5))).isFalse();
+        assertThat(registry.matches(2L, "a4f2e8c1b9d3e7f6", CursorUtil.UNBOUND_VERSION, 5, 5, etag(5, 5))).isFalse();
+    }
+
+    @Test
+    @DisplayName("Cursors pinned to another version and expired entries are left to the full path")
+    void pinnedOrExpired_doesNotMatch() {
+        registry.record(1L, "user_pinned", 7, 0L, VIDEO_IDS, System.nanoTime() + TTL);
+        registry.record(1L, "user_expired", 7, 0L, VIDEO_IDS, System.nanoTime() - 1);
+
+        assertThat(registry.matches(1L, "user_pinned", 3, 0, 5, etag(0, 5))).isFalse();
+        assertThat(registry.matches(1L, "user_expired", CursorUtil.UNBOUND_VERSION, 0, 5, etag(0, 5))).isFalse();
+    }
+
+    @Test
+    @DisplayName("Removal is conditional on the mirrored version and a generation bump stops matching only that tenant")
+    void removeAndInvalidate() {
+        for (int i = 0; i < 5_000; i++) {
+            registry.record(i % 3, "user_" + i, 7, 0L, VIDEO_IDS, System.nanoTime() + TTL);
+        }
+        assertThat(registry.size()).isEqualTo(5_000);
+
+        registry.remove(1L, "user_1", 8);
+        assertThat(registry.matches(1L, "user_1", CursorUtil.UNBOUND_VERSION, 0, 5, etag(0, 5))).isTrue();
+        registry.remove(1L, "user_1", 7);
+        assertThat(registry.matches(1L, "user_1", CursorUtil.UNBOUND_VERSION, 0, 5, etag(0, 5))).isFalse();
+
+        generations.advance(2L);
+        for (int i = 0; i < 5_000; i++) {
+            boolean expected = i % 3 != 2 && i != 1;
+            assertThat(registry.matches(i % 3, "user_" + i, CursorUtil.UNBOUND_VERSION, 0, 5, etag(0, 5)))
+                    .as("user_%d", i)
+                    .isEqualTo(expected);
+        }
+    }
+
+    private static String etag(int offset, int limit) {
+        return ETagUtil.generate(FeedHashUtil.pageHash(VIDEO_IDS, offset, limit), offset);
+    }
+
+    private static String quoted(String etag) {
+        return "\"" + etag + "\"";
+    }
+}
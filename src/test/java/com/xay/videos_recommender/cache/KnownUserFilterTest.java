@@ -0,0 +1,172 @@
+package com.xay.videos_recommender.cache;
+
+import com.xay.videos_recommender.model.entity.Tenant;
+import com.xay.videos_recommender.repository.TenantRepository;
+import com.xay.videos_recommender.repository.UserProfileRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.QueryTimeoutException;
+import org.springframework.data.domain.Limit;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class KnownUserFilterTest {
+
+    private static final Long TENANT_ID = 1L;
+
+    @Mock
+    private TenantRepository tenantRepository;
+
+    @Mock
+    private UserProfileRepository userProfileRepository;
+
+    @InjectMocks
+    private KnownUserFilter filter;
+
+    @BeforeEach
+    void setUp() {
+        ReflectionTestUtils.setField(filter, "enabled", true);
+        ReflectionTestUtils.setField(filter, "falsePositiveRate", 0.000001);
+        ReflectionTestUtils.setField(filter, "growthFactor", 2.0);
+        ReflectionTestUtils.setField(filter, "minExpectedUsers", 1024L);
+        ReflectionTestUtils.setField(filter, "pageSize", 2);
+    }
+
+    @Test
+    @DisplayName("Before a tenant's filter is built every user may be known")
+    void unbuilt_everyUserMightBeKnown() {
+        assertThat(filter.mightBeKnown(TENANT_ID, "stranger")).isTrue();
+
+        filter.add(TENANT_ID, "user_a");
+
+        assertThat(filter.mightBeKnown(TENANT_ID, "stranger")).isTrue();
+    }
+
+    @Test
+    @DisplayName("A rebuild pages through every profile and rules out users without one")
+    void rebuild_pagesThroughProfiles() {
+        givenTenant();
+        when(userProfileRepository.countByTenantId(TENANT_ID)).thenReturn(3L);
+        when(userProfileRepository.findByTenantIdAndIdGreaterThanOrderById(eq(TENANT_ID), eq(0L), any(Limit.class)))
+                .thenReturn(List.of(user(1L, "user_a"), user(2L, "user_b")));
+        when(userProfileRepository.findByTenantIdAndIdGreaterThanOrderById(eq(TENANT_ID), eq(2L), any(Limit.class)))
+                .thenReturn(List.of(user(3L, "user_c")));
+
+        filter.rebuild();
+
+        assertThat(filter.mightBeKnown(TENANT_ID, "user_a")).isTrue();
+        assertThat(filter.mightBeKnown(TENANT_ID, "user_b")).isTrue();
+        assertThat(filter.mightBeKnown(TENANT_ID, "user_c")).isTrue();
+        assertThat(filter.mightBeKnown(TENANT_ID, "stranger")).isFalse();
+        // Other tenants have no filter yet
+        assertThat(filter.mightBeKnown(2L, "stranger")).isTrue();
+    }
+
+    @Test
+    @DisplayName("A profile persisted while the filter is being built is in the new filter")
+    void addDuringBuild_keptInNewFilter() {
+        givenTenant();
+        when(userProfileRepository.findByTenantIdAndIdGreaterThanOrderById(eq(TENANT_ID), eq(0L), any(Limit.class)))
+                .thenAnswer(invocation -> {
+                    filter.add(TENANT_ID, "user_new");
+                    return List.of(user(1L, "user_a"));
+                });
+
+        filter.rebuild();
+
+        assertThat(filter.mightBeKnown(TENANT_ID, "user_new")).isTrue();
+        assertThat(filter.mightBeKnown(TENANT_ID, "user_a")).isTrue();
+    }
+
+    @Test
+    @DisplayName("A profile persisted after the build is added to the active filter")
+    void addAfterBuild_known() {
+        givenTenant();
+        when(userProfileRepository.findByTenantIdAndIdGreaterThanOrderById(eq(TENANT_ID), eq(0L), any(Limit.class)))
+                .thenReturn(List.of());
+        filter.rebuild();
+        assertThat(filter.mightBeKnown(TENANT_ID, "user_new")).isFalse();
+
+        filter.add(TENANT_ID, "user_new");
+
+        assertThat(filter.mightBeKnown(TENANT_ID, "user_new")).isTrue();
+    }
+
+    @Test
+    @DisplayName("A catch-up adds the profiles persisted since the last read, such as another node's")
+    void catchUp_addsProfilesAfterLastId() {
+        givenTenant();
+        when(userProfileRepository.findByTenantIdAndIdGreaterThanOrderById(eq(TENANT_ID), eq(0L), any(Limit.class)))
+                .thenReturn(List.of(user(1L, "user_a")));
+        filter.rebuild();
+        assertThat(filter.mightBeKnown(TENANT_ID, "user_remote")).isFalse();
+
+        when(userProfileRepository.findByTenantIdAndIdGreaterThanOrderById(eq(TENANT_ID), eq(1L), any(Limit.class)))
+                .thenReturn(List.of(user(5L, "user_remote")));
+        filter.catchUp();
+
+        assertThat(filter.mightBeKnown(TENANT_ID, "user_remote")).isTrue();
+
+        // The next catch-up reads on from the last id
+        when(userProfileRepository.findByTenantIdAndIdGreaterThanOrderById(eq(TENANT_ID), eq(5L), any(Limit.class)))
+                .thenReturn(List.of());
+        filter.catchUp();
+        verify(userProfileRepository).findByTenantIdAndIdGreaterThanOrderById(eq(TENANT_ID), eq(5L), any(Limit.class));
+    }
+
+    @Test
+    @DisplayName("A catch-up skips tenants whose filter is not built yet")
+    void catchUp_skipsUnbuiltFilters() {
+        filter.catchUp();
+
+        verifyNoInteractions(userProfileRepository);
+    }
+
+    @Test
+    @DisplayName("A failed rebuild keeps the previous filter")
+    void failedRebuild_keepsPreviousFilter() {
+        givenTenant();
+        when(userProfileRepository.findByTenantIdAndIdGreaterThanOrderById(eq(TENANT_ID), eq(0L), any(Limit.class)))
+                .thenReturn(List.of(user(1L, "user_a")));
+        filter.rebuild();
+
+        when(tenantRepository.findAll()).thenThrow(new QueryTimeoutException("timeout"));
+        filter.rebuild();
+
+        assertThat(filter.mightBeKnown(TENANT_ID, "user_a")).isTrue();
+        assertThat(filter.mightBeKnown(TENANT_ID, "stranger")).isFalse();
+    }
+
+    private void givenTenant() {
+        when(tenantRepository.findAll()).thenReturn(List.of(Tenant.builder().id(TENANT_ID).name("Tenant").build()));
+    }
+
+    private static UserProfileRepository.KnownUser user(Long id, String hashedUserId) {
+        return new KnownUserRow(id, hashedUserId);
+    }
+
+    private record KnownUserRow(Long id, String hashedUserId) implements UserProfileRepository.KnownUser {
+
+        @Override
+        public Long getId() {
+            return id;
+        }
+
+        @Override
+        public String getHashedUserId() {
+            return hashedUserId;
+        }
+    }
+}
@@ -0,0 +1,29 @@
+package com.xay.videos_recommender.cache;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class RetainedSizeTest {
+
+    @Test
+    @DisplayName("Latin-1 strings count one byte per char")
+    void latin1String_oneBytePerChar() {
+        // 24-byte String object plus a 16-byte array header and 20 bytes, aligned to 40
+        assertThat(RetainedSize.of("café-café-café-café-")).isEqualTo(24 + 40);
+    }
+
+    @Test
+    @DisplayName("A single char beyond Latin-1 makes the whole string two bytes per char")
+    void nonLatin1String_twoBytesPerChar() {
+        // 16-byte array header plus 18 chars at two bytes each, aligned to 56
+        assertThat(RetainedSize.of("日本-café-café-café-")).isEqualTo(24 + 56);
+    }
+
+    @Test
+    @DisplayName("A null string takes no space")
+    void nullString_zero() {
+        assertThat(RetainedSize.of((String) null)).isZero();
+    }
+}
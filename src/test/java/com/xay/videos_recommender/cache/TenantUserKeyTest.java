@@ -0,0 +1,51 @@
+package com.xay.videos_recommender.cache;
+
+import com.xay.videos_recommender.util.UserKeyUtil;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class TenantUserKeyTest {
+
+    @Test
+    @DisplayName("Keys built from equal tenant and user id strings are equal and hash alike")
+    void equalIds_equalKeys() {
+        TenantUserKey key = TenantUserKey.of(1L, "user_abc123");
+        TenantUserKey same = TenantUserKey.of(1L, new String("user_abc123"));
+
+        assertThat(same).isEqualTo(key);
+        assertThat(same.hashCode()).isEqualTo(key.hashCode());
+        assertThat(key.userBits()).isEqualTo(UserKeyUtil.userBits("user_abc123"));
+    }
+
+    @Test
+    @DisplayName("The same user id under another tenant is another key")
+    void otherTenant_otherKey() {
+        assertThat(TenantUserKey.of(2L, "user_abc123")).isNotEqualTo(TenantUserKey.of(1L, "user_abc123"));
+    }
+
+    @Test
+    @DisplayName("User ids whose bits collide stay distinct keys")
+    void collidingBits_distinctKeys() {
+        TenantUserKey key = new TenantUserKey(1L, 42L, "user_a");
+        TenantUserKey colliding = new TenantUserKey(1L, 42L, "user_b");
+
+        assertThat(colliding.hashCode()).isEqualTo(key.hashCode());
+        assertThat(colliding).isNotEqualTo(key);
+
+        Map<TenantUserKey, String> map = new HashMap<>();
+        map.put(key, "a");
+        map.put(colliding, "b");
+        assertThat(map).hasSize(2).containsEntry(key, "a").containsEntry(colliding, "b");
+    }
+
+    @Test
+    @DisplayName("SDK-format hex ids map to their own bits")
+    void hexUserId_parsedAsBits() {
+        assertThat(TenantUserKey.of(1L, "00000000000000ff").userBits()).isEqualTo(0xFFL);
+    }
+}
@@ -0,0 +1,152 @@
+package com.xay.videos_recommender.cache.caffeine;
+
+import com.github.benmanes.caffeine.cache.AsyncLoadingCache;
+import com.xay.videos_recommender.cache.CacheMemoryBudget;
+import com.xay.videos_recommender.cache.ContentVersionRegistry;
+import com.xay.videos_recommender.cache.FeedGenerations;
+import com.xay.videos_recommender.model.domain.ContentCandidate;
+import com.xay.videos_recommender.model.entity.Tenant;
+import com.xay.videos_recommender.repository.TenantRepository;
+import com.xay.videos_recommender.service.ContentCandidateLoader;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.awaitility.Awaitility.await;
+import static org.mockito.Mockito.*;
+
+class CaffeineAppCacheTest {
+
+    private static final Long TENANT_ID = 1L;
+
+    private final TenantRepository tenantRepository = mock(TenantRepository.class);
+    private final ContentCandidateLoader contentCandidateLoader = mock(ContentCandidateLoader.class);
+    private final ContentVersionRegistry contentVersionRegistry = mock(ContentVersionRegistry.class);
+    private final FeedGenerations feedGenerations = new FeedGenerations();
+    private CaffeineAppCache appCache;
+
+    @BeforeEach
+    void setUp() {
+        CacheMemoryBudget memoryBudget = new CacheMemoryBudget();
+        ReflectionTestUtils.setField(memoryBudget, "totalBytes", 1L << 20);
+        ReflectionTestUtils.setField(memoryBudget, "tenantShare", 0.1);
+        ReflectionTestUtils.setField(memoryBudget, "userProfileShare", 0.4);
+        ReflectionTestUtils.setField(memoryBudget, "contentCandidatesShare", 0.4);
+        ReflectionTestUtils.setField(memoryBudget, "tenantReservedShare", 0.5);
+        ReflectionTestUtils.setField(memoryBudget, "maxTenantPartitions", 10);
+        ReflectionTestUtils.setField(memoryBudget, "maxTenantOverflowShare", 0.5);
+
+        appCache = new CaffeineAppCache(new SimpleMeterRegistry(), contentVersionRegistry, memoryBudget,
+                tenantRepository, contentCandidateLoader, feedGenerations);
+        ReflectionTestUtils.setField(appCache, "tenantRefreshSeconds", 60);
+        ReflectionTestUtils.setField(appCache, "userProfileExpireMinutes", 60);
+        ReflectionTestUtils.setField(appCache, "absentUserProfileExpireSeconds", 30);
+        ReflectionTestUtils.setField(appCache, "absentUserProfileMaxSize", 100L);
+        ReflectionTestUtils.setField(appCache, "contentCandidatesRefreshSeconds", 60);
+        ReflectionTestUtils.setField(appCache, "refreshThreads", 1);
+        ReflectionTestUtils.setField(appCache, "refreshQueueCapacity", 10);
+        appCache.init();
+    }
+
+    @AfterEach
+    void tearDown() {
+        appCache.shutdown();
+    }
+
+    @Test
+    @DisplayName("A refresh that finds a new config version advances the tenant's feed generation")
+    void tenantReload_newConfigVersion_advancesGeneration() {
+        appCache.putTenant(TENANT_ID, tenant(1));
+        when(tenantRepository.findById(TENANT_ID)).thenReturn(Optional.of(tenant(2)));
+
+        tenantCache().synchronous().refresh(TENANT_ID).join();
+
+        await().atMost(Duration.ofSeconds(5)).untilAsserted(() ->
+                assertThat(appCache.getTenant(TENANT_ID)).map(Tenant::getConfigVersion).contains(2));
+        assertThat(feedGenerations.current(TENANT_ID)).isEqualTo(1L);
+    }
+
+    @Test
+    @DisplayName("A refresh that finds the same config version keeps the tenant's feed generation")
+    void tenantReload_sameConfigVersion_keepsGeneration() {
+        appCache.putTenant(TENANT_ID, tenant(1));
+        Tenant reloaded = tenant(1);
+        when(tenantRepository.findById(TENANT_ID)).thenReturn(Optional.of(reloaded));
+
+        tenantCache().synchronous().refresh(TENANT_ID).join();
+
+        await().atMost(Duration.ofSeconds(5)).untilAsserted(() ->
+                assertThat(appCache.getTenant(TENANT_ID)).containsSame(reloaded));
+        assertThat(feedGenerations.current(TENANT_ID)).isZero();
+    }
+
+    @Test
+    @DisplayName("Content candidates are reloaded through the loader off the request thread")
+    void contentCandidatesRefresh_usesLoader() {
+        appCache.putContentCandidates(TENANT_ID, List.of(), 0);
+        List<ContentCandidate> reloaded = List.of(ContentCandidate.builder().videoId(42L).build());
+        when(contentCandidateLoader.load(TENANT_ID)).thenReturn(reloaded);
+
+        contentCandidatesCache().synchronous().refresh(TENANT_ID).join();
+
+        await().atMost(Duration.ofSeconds(5)).untilAsserted(() ->
+                assertThat(appCache.getContentCandidates(TENANT_ID)).containsSame(reloaded));
+        verify(contentCandidateLoader).load(TENANT_ID);
+    }
+
+    @Test
+    @DisplayName("A loaded pool keeps the version read before the load, even if a rebuild lands meanwhile")
+    void contentCandidatesLoad_recordsVersionReadBeforeLoad() {
+        List<ContentCandidate> loaded = List.of(ContentCandidate.builder().videoId(42L).build());
+        when(contentVersionRegistry.currentVersion(TENANT_ID)).thenReturn(3, 4);
+        when(contentCandidateLoader.load(TENANT_ID)).thenReturn(loaded);
+
+        contentCandidatesCache().get(TENANT_ID).join();
+
+        Map<Long, CaffeineAppCache.BuiltContentCandidates> visited = new HashMap<>();
+        appCache.forEachContentCandidates(visited::put);
+        assertThat(visited).containsOnlyKeys(TENANT_ID);
+        assertThat(visited.get(TENANT_ID).version()).isEqualTo(3);
+        assertThat(visited.get(TENANT_ID).candidates()).isSameAs(loaded);
+    }
+
+    @Test
+    @DisplayName("A put pool keeps the version it was put with")
+    void putContentCandidates_recordsGivenVersion() {
+        List<ContentCandidate> candidates = List.of(ContentCandidate.builder().videoId(42L).build());
+        appCache.putContentCandidates(TENANT_ID, candidates, 7);
+
+        Map<Long, CaffeineAppCache.BuiltContentCandidates> visited = new HashMap<>();
+        appCache.forEachContentCandidates(visited::put);
+        assertThat(visited.get(TENANT_ID)).isEqualTo(new CaffeineAppCache.BuiltContentCandidates(7, candidates));
+    }
+
+    @SuppressWarnings("unchecked")
+    private AsyncLoadingCache<Long, Tenant> tenantCache() {
+        return (AsyncLoadingCache<Long, Tenant>) ReflectionTestUtils.getField(appCache, "tenantCache");
+    }
+
+    @SuppressWarnings("unchecked")
+    private AsyncLoadingCache<Long, List<ContentCandidate>> contentCandidatesCache() {
+        return (AsyncLoadingCache<Long, List<ContentCandidate>>) ReflectionTestUtils.getField(appCache,
+                "contentCandidatesCache");
+    }
+
+    private static Tenant tenant(int configVersion) {
+        return Tenant.builder()
+                .id(TENANT_ID)
+                .name("Tenant")
+                .configVersion(configVersion)
+                .build();
+    }
+}
@@ -0,0 +1,198 @@
+package com.xay.videos_recommender.cache.caffeine;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Ticker;
+import com.github.benmanes.caffeine.cache.Weigher;
+import com.xay.videos_recommender.cache.TenantUserKey;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class TenantPartitionedCacheTest {
+
+    private static final Weigher<TenantUserKey, String> WEIGHER = (key, value) -> value.length();
+
+    // 1100 bytes: half reserved and split between the partitions in use, 550 overflow, capped at 275 while contended
+    private final TenantPartitionedCache<TenantUserKey, String> cache = new TenantPartitionedCache<>(
+            "test", 1_100, 0.5, 10, 0.5, TenantUserKey::tenantId, WEIGHER,
+            (maximumWeight, evictionListener) -> Caffeine.newBuilder()
+                    .maximumWeight(maximumWeight)
+                    .weigher(WEIGHER)
+                    .evictionListener(evictionListener)
+                    .executor(Runnable::run)
+                    .recordStats()
+                    .build(),
+            new SimpleMeterRegistry());
+
+    @Test
+    @DisplayName("A burst from one tenant does not evict another tenant's entries")
+    void burstStaysInItsPartition() {
+        TenantUserKey quietUser = TenantUserKey.of(2L, "quiet");
+        put(quietUser, "0123456789");
+
+        for (int i = 0; i < 100; i++) {
+            put(TenantUserKey.of(1L, "user" + i), "0123456789");
+        }
+        cache.partitions().forEach(Cache::cleanUp);
+
+        assertThat(cache.partitionFor(quietUser).getIfPresent(quietUser)).isEqualTo("0123456789");
+    }
+
+    @Test
+    @DisplayName("A new partition takes the unassigned bytes, or the smallest minimum, until the next rebalance")
+    void newPartitionSizedAtRebalance() {
+        cache.partition(1L);
+        cache.partition(2L);
+
+        assertThat(maximum(1L)).isEqualTo(1_100);
+        // The reserved 550 bytes split between the 10 partitions and the shared one
+        assertThat(maximum(2L)).isEqualTo(50);
+
+        cache.rebalance();
+
+        // Without evictions to go by, the two tenants split the budget evenly
+        assertThat(maximum(1L)).isEqualTo(550);
+        assertThat(maximum(2L)).isEqualTo(550);
+    }
+
+    @Test
+    @DisplayName("Rebalancing lends the overflow the quiet tenant isn't using to the evicting tenant")
+    void rebalanceLendsOverflowToPressure() {
+        put(TenantUserKey.of(2L, "quiet"), "0123456789");
+        for (int i = 0; i < 100; i++) {
+            put(TenantUserKey.of(1L, "user" + i), "0123456789");
+        }
+
+        cache.rebalance();
+
+        assertThat(cache.minimumBytes()).isEqualTo(275);
+        assertThat(cache.overflowBytes()).isEqualTo(550);
+        assertThat(maximum(1L)).isEqualTo(275 + 550);
+        assertThat(maximum(2L)).isEqualTo(275);
+    }
+
+    @Test
+    @DisplayName("A quiet tenant holding more than its minimum keeps its entries when another tenant bursts")
+    void quietWorkingSetSurvivesBurst() {
+        for (int i = 0; i < 40; i++) {
+            put(TenantUserKey.of(2L, "quiet" + i), "0123456789");
+        }
+        for (int i = 0; i < 100; i++) {
+            put(TenantUserKey.of(1L, "user" + i), "0123456789");
+        }
+
+        cache.rebalance();
+        cache.partitions().forEach(Cache::cleanUp);
+
+        assertThat(maximum(2L)).isEqualTo(400);
+        assertThat(cache.partition(2L).estimatedSize()).isEqualTo(40);
+        assertThat(maximum(1L)).isEqualTo(700);
+    }
+
+    @Test
+    @DisplayName("Expired entries are not eviction pressure")
+    void expirationIsNotPressure() {
+        FakeTicker ticker = new FakeTicker();
+        TenantPartitionedCache<TenantUserKey, String> expiring = new TenantPartitionedCache<>(
+                "expiring", 1_100, 0.5, 10, 0.5, TenantUserKey::tenantId, WEIGHER,
+                (maximumWeight, evictionListener) -> Caffeine.newBuilder()
+                        .maximumWeight(maximumWeight)
+                        .weigher(WEIGHER)
+                        .evictionListener(evictionListener)
+                        .expireAfterWrite(Duration.ofMinutes(60))
+                        .ticker(ticker)
+                        .executor(Runnable::run)
+                        .recordStats()
+                        .build(),
+                new SimpleMeterRegistry());
+        for (int i = 0; i < 40; i++) {
+            TenantUserKey key = TenantUserKey.of(1L, "user" + i);
+            expiring.partitionFor(key).put(key, "0123456789");
+        }
+        expiring.partition(2L);
+
+        ticker.advance(Duration.ofMinutes(61));
+        expiring.partitions().forEach(Cache::cleanUp);
+        expiring.rebalance();
+
+        assertThat(expiring.partition(1L).policy().eviction().orElseThrow().getMaximum()).isEqualTo(550);
+        assertThat(expiring.partition(2L).policy().eviction().orElseThrow().getMaximum()).isEqualTo(550);
+    }
+
+    @Test
+    @DisplayName("A single tenant can fill the whole budget")
+    void singleTenantFillsBudget() {
+        for (int i = 0; i < 100; i++) {
+            put(TenantUserKey.of(1L, "user" + i), "0123456789");
+        }
+        cache.partitions().forEach(Cache::cleanUp);
+
+        assertThat(maximum(1L)).isEqualTo(1_100);
+        assertThat(cache.partition(1L).estimatedSize()).isEqualTo(100);
+
+        for (int i = 100; i < 200; i++) {
+            put(TenantUserKey.of(1L, "user" + i), "0123456789");
+        }
+        cache.rebalance();
+
+        assertThat(maximum(1L)).isEqualTo(1_100);
+    }
+
+    @Test
+    @DisplayName("Two evicting tenants split the whole budget between them")
+    void twoTenantsFillBudget() {
+        cache.partition(1L);
+        cache.partition(2L);
+        cache.rebalance();
+
+        for (int i = 0; i < 100; i++) {
+            put(TenantUserKey.of(1L, "user" + i), "0123456789");
+            put(TenantUserKey.of(2L, "user" + i), "0123456789");
+        }
+
+        cache.rebalance();
+
+        assertThat(maximum(1L) + maximum(2L)).isBetween(1_098L, 1_100L);
+        assertThat(maximum(1L)).isBetween(500L, 600L);
+    }
+
+    @Test
+    @DisplayName("Tenants beyond the partition limit share one partition")
+    void tenantsBeyondLimitShareAPartition() {
+        for (long tenantId = 1; tenantId <= 10; tenantId++) {
+            cache.partition(tenantId);
+        }
+
+        assertThat(cache.partition(11L)).isSameAs(cache.partition(12L));
+        assertThat(cache.partition(11L)).isNotSameAs(cache.partition(10L));
+        assertThat(cache.partitions()).hasSize(11);
+    }
+
+    private static final class FakeTicker implements Ticker {
+
+        private final AtomicLong nanos = new AtomicLong();
+
+        @Override
+        public long read() {
+            return nanos.get();
+        }
+
+        void advance(Duration duration) {
+            nanos.addAndGet(duration.toNanos());
+        }
+    }
+
+    private void put(TenantUserKey key, String value) {
+        cache.partitionFor(key).put(key, value);
+    }
+
+    private long maximum(long tenantId) {
+        return cache.partition(tenantId).policy().eviction().orElseThrow().getMaximum();
+    }
+}
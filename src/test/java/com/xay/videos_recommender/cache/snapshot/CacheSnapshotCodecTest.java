@@ -0,0 +1,99 @@
+package com.xay.videos_recommender.cache.snapshot;
+
+import com.xay.videos_recommender.model.domain.ContentCandidate;
+import com.xay.videos_recommender.model.domain.UserSignals;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.ByteBuffer;
+import java.time.Instant;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class CacheSnapshotCodecTest {
+
+    private static final Instant CREATED_AT = Instant.ofEpochMilli(1_760_000_000_123L);
+
+    // Category id 0 is "sports" for the test's single tenant
+    private static final float[] AFFINITIES = {0.9f};
+
+    @Test
+    @DisplayName("Round-trips candidate pools and user signals from a direct buffer, including null fields")
+    void roundTrip() throws IOException {
+        byte[] encoded = encode();
+        // Direct, like a mapped file: no backing array
+        ByteBuffer buffer = ByteBuffer.allocateDirect(encoded.length).put(encoded).flip();
+
+        CacheSnapshotCodec.Snapshot snapshot = read(buffer);
+
+        assertThat(snapshot).isNotNull();
+        assertThat(snapshot.createdAt()).isEqualTo(CREATED_AT);
+        assertThat(snapshot.candidates().get(1L).version()).isEqualTo(7L);
+        assertThat(snapshot.candidates().get(1L).candidates()).containsExactly(candidate(), candidate().toBuilder()
+                .videoId(null).tags(List.of()).editorialBoost(null).maturityRating(null).build());
+        assertThat(snapshot.signals().get(1L)).singleElement()
+                .usingRecursiveComparison().isEqualTo(signals());
+        assertThat(buffer.position()).isZero();
+    }
+
+    @Test
+    @DisplayName("A flipped byte or a truncated file reads as no snapshot")
+    void corruptOrTruncated_readsAsNull() throws IOException {
+        byte[] encoded = encode();
+        byte[] corrupt = encoded.clone();
+        corrupt[20] ^= 1;
+
+        assertThat(read(ByteBuffer.wrap(corrupt))).isNull();
+        assertThat(read(ByteBuffer.wrap(encoded, 0, encoded.length - 1))).isNull();
+        assertThat(read(ByteBuffer.allocate(0))).isNull();
+    }
+
+    private static byte[] encode() throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        CacheSnapshotCodec.Writer writer = new CacheSnapshotCodec.Writer(new DataOutputStream(bytes));
+        writer.writeHeader(CREATED_AT);
+        writer.writeCandidates(1L, 7L, List.of(candidate(), candidate().toBuilder()
+                .videoId(null).tags(null).editorialBoost(null).maturityRating(null).build()));
+        writer.writeSignals(1L, List.of(signals()), (tenantId, affinities) -> Map.of("sports", affinities[0]));
+        writer.writeTrailer();
+        return bytes.toByteArray();
+    }
+
+    private static ContentCandidate candidate() {
+        return ContentCandidate.builder()
+                .videoId(42L)
+                .externalId("vid-42")
+                .category("sports")
+                .tags(List.of("football", "héroes"))
+                .baseScore(BigDecimal.valueOf(0.75))
+                .editorialBoost(BigDecimal.valueOf(1.2))
+                .freshnessScore(BigDecimal.valueOf(0.5))
+                .engagementScore(BigDecimal.valueOf(0.33))
+                .maturityRating("PG")
+                .build();
+    }
+
+    private static CacheSnapshotCodec.Snapshot read(ByteBuffer buffer) {
+        return CacheSnapshotCodec.read(buffer, (tenantId, affinities) -> new float[]{affinities.get("sports")});
+    }
+
+    private static UserSignals signals() {
+        return UserSignals.builder()
+                .tenantId(1L)
+                .hashedUserId("user-9")
+                .watchCount(12)
+                .totalWatchTimeMs(0L)
+                .avgWatchPercentage(BigDecimal.valueOf(0.8125))
+                .likeCount(3)
+                .categoryAffinities(AFFINITIES)
+                .watchedKeys(new long[]{-5L, 17L})
+                .profileUpdatedAt(CREATED_AT.minusSeconds(60))
+                .build();
+    }
+}
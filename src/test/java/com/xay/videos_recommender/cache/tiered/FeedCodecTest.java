@@ -0,0 +1,91 @@
+package com.xay.videos_recommender.cache.tiered;
+
+import com.xay.videos_recommender.model.domain.CachedFeed;
+import com.xay.videos_recommender.model.dto.response.FeedItem;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.time.Instant;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class FeedCodecTest {
+
+    private static final long[] VIDEO_IDS = {42L, 7L, 1_000_000_007L, 8L, 3L};
+
+    private final Map<Long, FeedItem> catalog = Arrays.stream(VIDEO_IDS).boxed()
+            .collect(Collectors.toMap(Function.identity(), FeedCodecTest::item));
+
+    @Test
+    @DisplayName("Round-trips a feed and its items through the binary form")
+    void roundTrip() {
+        CachedFeed feed = feed();
+
+        byte[] encoded = FeedCodec.encode(feed);
+        CachedFeed decoded = FeedCodec.decode(encoded, encoded.length);
+
+        assertThat(decoded).isNotNull();
+        assertThat(decoded.version()).isEqualTo(feed.version());
+        assertThat(decoded.generation()).isEqualTo(3L);
+        assertThat(decoded.generatedAt()).isEqualTo(feed.generatedAt());
+        assertThat(decoded.feedType()).isEqualTo("personalized");
+        assertThat(decoded.videoIds()).containsExactly(VIDEO_IDS);
+        assertThat(decoded.items()).isEqualTo(feed.items());
+    }
+
+    @Test
+    @DisplayName("Null fields, non-Latin text and item ids other than the video id survive the round trip")
+    void roundTrip_unusualItems() {
+        List<FeedItem> items = List.of(
+                new FeedItem("custom-1", null, "日本語のタイトル 🎬", null, 0, "アニメ"),
+                new FeedItem("2", "ext_2", "日本語のタイトル 🎥", "https://cdn.example.com/thumb/ext_2.jpg", -1, null));
+        CachedFeed feed = feed().toBuilder()
+                .items(items)
+                .videoIds(new long[]{1L, 2L})
+                .build();
+
+        byte[] encoded = FeedCodec.encode(feed);
+
+        assertThat(FeedCodec.decode(encoded, encoded.length).items()).isEqualTo(items);
+    }
+
+    @Test
+    @DisplayName("Shared prefixes keep items compact")
+    void sharedPrefixes_compact() {
+        byte[] encoded = FeedCodec.encode(feed());
+        int plainBytes = feed().items().stream()
+                .mapToInt(item -> item.externalId().length() + item.title().length()
+                        + item.thumbnailUrl().length() + item.category().length())
+                .sum();
+
+        assertThat(encoded.length).isLessThan(plainBytes);
+    }
+
+    @Test
+    @DisplayName("Truncated bytes decode as a miss")
+    void truncated_decodesAsMiss() {
+        byte[] encoded = FeedCodec.encode(feed());
+
+        assertThat(FeedCodec.decode(encoded, encoded.length - 1)).isNull();
+    }
+
+    private CachedFeed feed() {
+        return CachedFeed.builder()
+                .version(-123456789)
+                .generation(3L)
+                .generatedAt(Instant.ofEpochMilli(1_760_000_000_123L))
+                .feedType("personalized")
+                .items(Arrays.stream(VIDEO_IDS).mapToObj(catalog::get).toList())
+                .videoIds(VIDEO_IDS.clone())
+                .build();
+    }
+
+    private static FeedItem item(long id) {
+        return new FeedItem(String.valueOf(id), "ext_" + id, "Video " + id, "https://cdn.example.com/thumb/ext_" + id + ".jpg", 60, "sports");
+    }
+}
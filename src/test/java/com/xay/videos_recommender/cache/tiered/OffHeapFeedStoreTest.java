@@ -0,0 +1,93 @@
+package com.xay.videos_recommender.cache.tiered;
+
+import com.xay.videos_recommender.cache.TenantUserKey;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class OffHeapFeedStoreTest {
+
+    private static final int SLAB_BYTES = 1 << 16;
+
+    // Payloads of 1000 bytes take 1 KiB slots, 64 per slab
+    private static final int SMALL = 1000;
+    private static final int LARGE = 4000;
+
+    private final List<TenantUserKey> removed = new ArrayList<>();
+    private final OffHeapFeedStore store = new OffHeapFeedStore(
+            new SlabAllocator(SLAB_BYTES, 2L * SLAB_BYTES), 60, (key, version) -> removed.add(key));
+
+    @Test
+    @DisplayName("Stores and returns a private copy of the payload")
+    void putAndGet() {
+        TenantUserKey key = TenantUserKey.of(1L, "user");
+
+        assertThat(store.put(key, 7, payload(SMALL, 1))).isTrue();
+
+        assertThat(store.get(key)).isEqualTo(payload(SMALL, 1));
+        assertThat(store.contains(key, 7)).isTrue();
+        assertThat(store.contains(key, 8)).isFalse();
+    }
+
+    @Test
+    @DisplayName("Replacing and invalidating entries puts their slots back for reuse")
+    void slotsAreReused() {
+        TenantUserKey key = TenantUserKey.of(1L, "user");
+        for (int i = 0; i < 1000; i++) {
+            assertThat(store.put(key, i, payload(SMALL, i))).isTrue();
+        }
+        assertThat(store.usedBytes()).isEqualTo(1024);
+
+        store.invalidate(key);
+
+        assertThat(store.usedBytes()).isZero();
+        assertThat(store.reservedBytes()).isEqualTo(SLAB_BYTES);
+        assertThat(removed).containsExactly(key);
+    }
+
+    @Test
+    @DisplayName("When full, a put evicts only entries of its own size class")
+    void fullStoreEvictsWithinSizeClass() {
+        // One slab of small slots, one of medium
+        for (int i = 0; i < 64; i++) {
+            assertThat(store.put(TenantUserKey.of(1L, "small" + i), 1, payload(SMALL, i))).isTrue();
+        }
+        for (int i = 0; i < 32; i++) {
+            assertThat(store.put(TenantUserKey.of(1L, "medium" + i), 1, payload(2 * SMALL, i))).isTrue();
+        }
+
+        TenantUserKey key = TenantUserKey.of(1L, "small-next");
+        assertThat(store.put(key, 1, payload(SMALL, 99))).isTrue();
+
+        assertThat(store.get(key)).isEqualTo(payload(SMALL, 99));
+        assertThat(removed).isNotEmpty().allMatch(evicted -> evicted.userId().startsWith("small"));
+        assertThat(store.index().asMap().keySet()).filteredOn(k -> k.userId().startsWith("medium")).hasSize(32);
+    }
+
+    @Test
+    @DisplayName("A size class without slabs gets one by evicting the least used slab")
+    void newSizeClassTakesOverLeastUsedSlab() {
+        for (int i = 0; i < 128; i++) {
+            assertThat(store.put(TenantUserKey.of(1L, "small" + i), 1, payload(SMALL, i))).isTrue();
+        }
+
+        TenantUserKey key = TenantUserKey.of(1L, "large");
+        assertThat(store.put(key, 1, payload(LARGE, 5))).isTrue();
+
+        assertThat(store.get(key)).isEqualTo(payload(LARGE, 5));
+        assertThat(removed).hasSize(64);
+        assertThat(store.index().estimatedSize()).isEqualTo(65);
+        assertThat(store.reservedBytes()).isEqualTo(2L * SLAB_BYTES);
+    }
+
+    private static byte[] payload(int length, int seed) {
+        byte[] payload = new byte[length];
+        Arrays.fill(payload, (byte) seed);
+        return payload;
+    }
+}
@@ -0,0 +1,71 @@
+package com.xay.videos_recommender.cache.tiered;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class SlabAllocatorTest {
+
+    private static final int SLAB_BYTES = 1 << 16;
+
+    // Two slabs of 64 KiB
+    private final SlabAllocator allocator = new SlabAllocator(SLAB_BYTES, 2L * SLAB_BYTES);
+
+    @Test
+    @DisplayName("A freed slot is handed out again for the same size class")
+    void freedSlotIsReused() {
+        long first = allocator.allocate(1000);
+        allocator.allocate(1000);
+        allocator.free(first, 1000);
+
+        assertThat(allocator.allocate(900)).isEqualTo(first);
+        assertThat(allocator.usedBytes()).isEqualTo(2 * 1024);
+        assertThat(allocator.reservedBytes()).isEqualTo(SLAB_BYTES);
+    }
+
+    @Test
+    @DisplayName("Once the budget is reserved, a slab freed entirely is reassigned to another size class")
+    void emptySlabIsReassigned() {
+        List<Long> slots = fill(1000);
+        assertThat(allocator.allocate(4000)).isEqualTo(SlabAllocator.NO_SLOT);
+
+        int slabIndex = allocator.leastUsedSlab();
+        slots.stream()
+                .filter(address -> SlabAllocator.slabIndex(address) == slabIndex)
+                .forEach(address -> allocator.free(address, 1000));
+
+        long address = allocator.allocate(4000);
+        assertThat(address).isNotEqualTo(SlabAllocator.NO_SLOT);
+        assertThat(SlabAllocator.slabIndex(address)).isEqualTo(slabIndex);
+        // The reassigned slab no longer serves its old class
+        assertThat(allocator.allocate(1000)).isEqualTo(SlabAllocator.NO_SLOT);
+        assertThat(allocator.reservedBytes()).isEqualTo(2L * SLAB_BYTES);
+    }
+
+    @Test
+    @DisplayName("The least used slab is the one with the fewest allocated slots")
+    void leastUsedSlab() {
+        assertThat(allocator.leastUsedSlab()).isEqualTo(SlabAllocator.NO_SLAB);
+
+        List<Long> slots = fill(1000);
+        slots.stream()
+                .filter(address -> SlabAllocator.slabIndex(address) == 1)
+                .limit(3)
+                .forEach(address -> allocator.free(address, 1000));
+
+        assertThat(allocator.leastUsedSlab()).isEqualTo(1);
+    }
+
+    private List<Long> fill(int size) {
+        List<Long> slots = new ArrayList<>();
+        for (long address = allocator.allocate(size); address != SlabAllocator.NO_SLOT; address = allocator.allocate(size)) {
+            slots.add(address);
+        }
+        assertThat(slots).hasSize(2 * SLAB_BYTES / SlabAllocator.slotBytes(size));
+        return slots;
+    }
+}
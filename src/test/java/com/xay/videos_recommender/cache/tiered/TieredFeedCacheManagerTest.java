@@ -0,0 +1,117 @@
+package com.xay.videos_recommender.cache.tiered;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.xay.videos_recommender.cache.CacheFootprint;
+import com.xay.videos_recommender.cache.CacheMemoryBudget;
+import com.xay.videos_recommender.cache.ContentVersionRegistry;
+import com.xay.videos_recommender.cache.FeedGenerations;
+import com.xay.videos_recommender.cache.FeedVersionRegistry;
+import com.xay.videos_recommender.cache.TenantUserKey;
+import com.xay.videos_recommender.model.domain.CachedFeed;
+import com.xay.videos_recommender.model.dto.response.FeedItem;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.Instant;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+
+class TieredFeedCacheManagerTest {
+
+    private static final Long TENANT_ID = 1L;
+    private static final String USER_ID = "user_abc123";
+    private static final long[] VIDEO_IDS = {42L, 7L, 8L};
+
+    private final FeedGenerations feedGenerations = new FeedGenerations();
+    private TieredFeedCacheManager manager;
+
+    @BeforeEach
+    void setUp() {
+        CacheMemoryBudget memoryBudget = new CacheMemoryBudget();
+        ReflectionTestUtils.setField(memoryBudget, "totalBytes", 1L << 20);
+        ReflectionTestUtils.setField(memoryBudget, "feedShare", 0.4);
+        ReflectionTestUtils.setField(memoryBudget, "feedSnapshotsShare", 0.1);
+
+        manager = new TieredFeedCacheManager(new SimpleMeterRegistry(), new FeedVersionRegistry(feedGenerations),
+                feedGenerations, mock(ContentVersionRegistry.class), memoryBudget);
+        ReflectionTestUtils.setField(manager, "feedExpireMinutes", 60);
+        ReflectionTestUtils.setField(manager, "snapshotHistory", 3);
+        ReflectionTestUtils.setField(manager, "l1MaxSize", 100);
+        ReflectionTestUtils.setField(manager, "l2MaxBytes", 1L << 20);
+        ReflectionTestUtils.setField(manager, "slabBytes", 1 << 16);
+        manager.init();
+    }
+
+    @Test
+    @DisplayName("An L1 miss decodes the feed from L2 and promotes it back to L1")
+    void l1MissPromotesFromL2() {
+        CachedFeed feed = feed();
+        manager.putFeed(TENANT_ID, USER_ID, feed);
+        TenantUserKey key = TenantUserKey.of(TENANT_ID, USER_ID);
+        l1Cache().invalidate(key);
+
+        Optional<CachedFeed> result = manager.getFeed(TENANT_ID, USER_ID);
+
+        assertThat(result).isPresent();
+        assertThat(result.get()).isNotSameAs(feed);
+        assertThat(result.get().version()).isEqualTo(feed.version());
+        assertThat(result.get().videoIds()).containsExactly(VIDEO_IDS);
+        assertThat(result.get().items()).isEqualTo(feed.items());
+        assertThat(l1Cache().getIfPresent(key)).isSameAs(result.get());
+    }
+
+    @Test
+    @DisplayName("Feeds from an older generation are misses in both tiers")
+    void staleGenerationIsMiss() {
+        manager.putFeed(TENANT_ID, USER_ID, feed());
+        l1Cache().invalidate(TenantUserKey.of(TENANT_ID, USER_ID));
+
+        manager.invalidateAllForTenant(TENANT_ID);
+
+        assertThat(manager.getFeed(TENANT_ID, USER_ID)).isEmpty();
+    }
+
+    @Test
+    @DisplayName("Footprints report L1 feeds and snapshots per tenant against their budget shares")
+    void footprintsCoverHeapTiers() {
+        manager.putFeed(TENANT_ID, USER_ID, feed());
+        manager.putFeed(2L, USER_ID, feed());
+
+        List<CacheFootprint> footprints = manager.footprints();
+
+        assertThat(footprints).extracting(CacheFootprint::cache).containsExactly("feed", "feedSnapshots");
+        CacheFootprint feeds = footprints.getFirst();
+        assertThat(feeds.budgetBytes()).isEqualTo((long) ((1L << 20) * 0.4));
+        assertThat(feeds.entries()).isEqualTo(2);
+        assertThat(feeds.bytesByTenant()).containsOnlyKeys(TENANT_ID, 2L);
+        assertThat(feeds.estimatedBytes()).isPositive();
+        assertThat(footprints.get(1).entries()).isEqualTo(2);
+    }
+
+    @SuppressWarnings("unchecked")
+    private Cache<TenantUserKey, CachedFeed> l1Cache() {
+        return (Cache<TenantUserKey, CachedFeed>) ReflectionTestUtils.getField(manager, "l1Cache");
+    }
+
+    private static CachedFeed feed() {
+        return CachedFeed.builder()
+                .version(12345)
+                .generation(0L)
+                .generatedAt(Instant.now())
+                .feedType("personalized")
+                .items(Arrays.stream(VIDEO_IDS).mapToObj(TieredFeedCacheManagerTest::item).toList())
+                .videoIds(VIDEO_IDS.clone())
+                .build();
+    }
+
+    private static FeedItem item(long id) {
+        return new FeedItem(String.valueOf(id), "ext_" + id, "Video " + id, "https://cdn.example.com/thumb/ext_" + id + ".jpg", 60, "sports");
+    }
+}
@@ -0,0 +1,121 @@
+package com.xay.videos_recommender.cache.version;
+
+import com.xay.videos_recommender.cache.ContentVersionRegistry;
+import com.xay.videos_recommender.model.entity.ContentVersion;
+import com.xay.videos_recommender.repository.ContentVersionRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.dao.QueryTimeoutException;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class DatabaseContentVersionRegistryTest {
+
+    private static final Long TENANT_ID = 1L;
+
+    @Mock
+    private ContentVersionRepository contentVersionRepository;
+
+    @InjectMocks
+    private DatabaseContentVersionRegistry registry;
+
+    private final List<String> notifications = new ArrayList<>();
+
+    @BeforeEach
+    void setUp() {
+        registry.addRemoteChangeListener((tenantId, version) -> notifications.add(tenantId + ":" + version));
+    }
+
+    @Test
+    @DisplayName("The first increment of a tenant inserts its row and increments it")
+    void firstIncrement_insertsRow() {
+        when(contentVersionRepository.incrementVersion(TENANT_ID)).thenReturn(0, 1);
+        when(contentVersionRepository.findById(TENANT_ID)).thenReturn(Optional.of(row(TENANT_ID, 2)));
+
+        assertThat(registry.increment(TENANT_ID)).isEqualTo(2);
+
+        verify(contentVersionRepository).insertInitialVersion(TENANT_ID);
+        verify(contentVersionRepository, times(2)).incrementVersion(TENANT_ID);
+        assertThat(registry.currentVersion(TENANT_ID)).isEqualTo(2);
+    }
+
+    @Test
+    @DisplayName("When another node inserts the row first, the increment still lands on it")
+    void insertRace_stillIncrements() {
+        when(contentVersionRepository.incrementVersion(TENANT_ID)).thenReturn(0, 1);
+        doThrow(new DataIntegrityViolationException("duplicate key"))
+                .when(contentVersionRepository).insertInitialVersion(TENANT_ID);
+        // The other node's increment and ours both landed
+        when(contentVersionRepository.findById(TENANT_ID)).thenReturn(Optional.of(row(TENANT_ID, 3)));
+
+        assertThat(registry.increment(TENANT_ID)).isEqualTo(3);
+
+        verify(contentVersionRepository, times(2)).incrementVersion(TENANT_ID);
+        assertThat(registry.currentVersion(TENANT_ID)).isEqualTo(3);
+    }
+
+    @Test
+    @DisplayName("A version read back lower than one already seen doesn't move the local copy back")
+    void increment_neverLowersLocalVersion() {
+        when(contentVersionRepository.findAll()).thenReturn(List.of(row(TENANT_ID, 5)));
+        registry.poll();
+        when(contentVersionRepository.incrementVersion(TENANT_ID)).thenReturn(1);
+        when(contentVersionRepository.findById(TENANT_ID)).thenReturn(Optional.of(row(TENANT_ID, 4)));
+
+        assertThat(registry.increment(TENANT_ID)).isEqualTo(4);
+
+        assertThat(registry.currentVersion(TENANT_ID)).isEqualTo(5);
+    }
+
+    @Test
+    @DisplayName("A poll notifies listeners of versions other nodes advanced, once each")
+    void poll_notifiesRemoteChanges() {
+        when(contentVersionRepository.findAll()).thenReturn(List.of(row(TENANT_ID, 2), row(2L, 1)));
+        registry.poll();
+        when(contentVersionRepository.findAll()).thenReturn(List.of(row(TENANT_ID, 3), row(2L, 1)));
+        registry.poll();
+
+        assertThat(notifications).containsExactly("1:2", "2:1", "1:3");
+        assertThat(registry.currentVersion(TENANT_ID)).isEqualTo(3);
+    }
+
+    @Test
+    @DisplayName("A poll doesn't notify listeners of this node's own increments")
+    void poll_skipsLocalIncrements() {
+        when(contentVersionRepository.incrementVersion(TENANT_ID)).thenReturn(1);
+        when(contentVersionRepository.findById(TENANT_ID)).thenReturn(Optional.of(row(TENANT_ID, 2)));
+        registry.increment(TENANT_ID);
+        when(contentVersionRepository.findAll()).thenReturn(List.of(row(TENANT_ID, 2)));
+
+        registry.poll();
+
+        assertThat(notifications).isEmpty();
+    }
+
+    @Test
+    @DisplayName("A failed poll keeps the local versions and notifies nobody")
+    void pollFailure_keepsVersions() {
+        when(contentVersionRepository.findAll()).thenThrow(new QueryTimeoutException("timeout"));
+
+        registry.poll();
+
+        assertThat(notifications).isEmpty();
+        assertThat(registry.currentVersion(TENANT_ID)).isEqualTo(ContentVersionRegistry.INITIAL_VERSION);
+    }
+
+    private static ContentVersion row(Long tenantId, int version) {
+        return ContentVersion.builder().tenantId(tenantId).version(version).build();
+    }
+}
@@ -0,0 +1,123 @@
+package com.xay.videos_recommender.service;
+
+import com.xay.videos_recommender.exception.EventBufferFullException;
+import com.xay.videos_recommender.exception.EventsInFlightException;
+import com.xay.videos_recommender.model.dto.request.EventItem;
+import com.xay.videos_recommender.model.dto.request.EventType;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class EventDeduplicatorTest {
+
+    private static final Long TENANT_ID = 1L;
+    private static final String USER_ID = "user_abc123";
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final List<List<EventItem>> enqueued = new ArrayList<>();
+    private EventDeduplicator deduplicator;
+
+    @BeforeEach
+    void setUp() {
+        deduplicator = new EventDeduplicator(meterRegistry);
+        ReflectionTestUtils.setField(deduplicator, "enabled", true);
+        ReflectionTestUtils.setField(deduplicator, "windowSeconds", 600L);
+        ReflectionTestUtils.setField(deduplicator, "generations", 6);
+        ReflectionTestUtils.setField(deduplicator, "expectedKeysPerSecond", 100L);
+        ReflectionTestUtils.setField(deduplicator, "falsePositiveRate", 0.001);
+        ReflectionTestUtils.setField(deduplicator, "inFlightRetryAfterSeconds", 1L);
+        deduplicator.init();
+    }
+
+    @Test
+    @DisplayName("A request id already queued drops the whole retry")
+    void repeatedRequestId_isDropped() {
+        deduplicator.enqueueOnce(TENANT_ID, USER_ID, "req-1", List.of(event("v1", 1)), enqueued::add);
+        deduplicator.enqueueOnce(TENANT_ID, USER_ID, "req-1", List.of(event("v2", 2)), enqueued::add);
+
+        assertThat(enqueued).hasSize(1);
+        assertThat(deduplicated("request")).isEqualTo(1.0);
+    }
+
+    @Test
+    @DisplayName("Events already queued, or repeated within the request, are dropped by fingerprint")
+    void repeatedEvents_areDroppedByFingerprint() {
+        deduplicator.enqueueOnce(TENANT_ID, USER_ID, "req-1", List.of(event("v1", 1)), enqueued::add);
+        deduplicator.enqueueOnce(TENANT_ID, USER_ID, "req-2",
+                List.of(event("v1", 1), event("v2", 2), event("v2", 2)), enqueued::add);
+
+        assertThat(enqueued).containsExactly(List.of(event("v1", 1)), List.of(event("v2", 2)));
+        assertThat(deduplicated("event")).isEqualTo(2.0);
+    }
+
+    @Test
+    @DisplayName("The same event from another user or tenant is not a duplicate")
+    void sameEventOtherUser_isKept() {
+        deduplicator.enqueueOnce(TENANT_ID, USER_ID, null, List.of(event("v1", 1)), enqueued::add);
+        deduplicator.enqueueOnce(TENANT_ID, "other_user", null, List.of(event("v1", 1)), enqueued::add);
+        deduplicator.enqueueOnce(2L, USER_ID, null, List.of(event("v1", 1)), enqueued::add);
+
+        assertThat(enqueued).hasSize(3);
+    }
+
+    @Test
+    @DisplayName("A retry arriving while the original is still being queued is rejected, not acknowledged")
+    void concurrentRetry_isRejected() {
+        List<EventItem> events = List.of(event("v1", 1));
+
+        deduplicator.enqueueOnce(TENANT_ID, USER_ID, "req-1", events, queued -> {
+            assertThatThrownBy(() -> deduplicator.enqueueOnce(TENANT_ID, USER_ID, "req-1", events, enqueued::add))
+                    .isInstanceOf(EventsInFlightException.class);
+            enqueued.add(queued);
+        });
+        deduplicator.enqueueOnce(TENANT_ID, USER_ID, "req-1", events, enqueued::add);
+
+        assertThat(enqueued).containsExactly(events);
+        assertThat(deduplicated("request")).isEqualTo(1.0);
+    }
+
+    @Test
+    @DisplayName("A retry rejected while the original was in flight is queued once the original fails")
+    void concurrentRetry_originalRejected_retryQueued() {
+        List<EventItem> events = List.of(event("v1", 1));
+
+        assertThatThrownBy(() -> deduplicator.enqueueOnce(TENANT_ID, USER_ID, "req-1", events, queued -> {
+            assertThatThrownBy(() -> deduplicator.enqueueOnce(TENANT_ID, USER_ID, "req-2", events, enqueued::add))
+                    .isInstanceOf(EventsInFlightException.class);
+            throw new EventBufferFullException(queued.size(), 1);
+        })).isInstanceOf(EventBufferFullException.class);
+        deduplicator.enqueueOnce(TENANT_ID, USER_ID, "req-2", events, enqueued::add);
+
+        assertThat(enqueued).containsExactly(events);
+    }
+
+    @Test
+    @DisplayName("A rejected request is not remembered, so its retry is queued")
+    void rejectedRequest_canBeRetried() {
+        List<EventItem> events = List.of(event("v1", 1));
+
+        assertThatThrownBy(() -> deduplicator.enqueueOnce(TENANT_ID, USER_ID, "req-1", events, queued -> {
+            throw new EventBufferFullException(queued.size(), 1);
+        })).isInstanceOf(EventBufferFullException.class);
+        deduplicator.enqueueOnce(TENANT_ID, USER_ID, "req-1", events, enqueued::add);
+
+        assertThat(enqueued).containsExactly(events);
+    }
+
+    private double deduplicated(String by) {
+        return meterRegistry.get("events.deduplicated").tag("by", by).counter().count();
+    }
+
+    private static EventItem event(String videoId, long second) {
+        return new EventItem(EventType.VIDEO_WATCH, videoId, Instant.ofEpochSecond(1_760_000_000L + second), null, null, null);
+    }
+}
@@ -1,17 +1,25 @@
 package com.xay.videos_recommender.service;
 
 import com.xay.videos_recommender.cache.FeedCacheManager;
+import com.xay.videos_recommender.mapper.UserProfileMapper;
 import com.xay.videos_recommender.model.domain.CachedFeed;
 import com.xay.videos_recommender.model.domain.ContentCandidate;
+import com.xay.videos_recommender.model.domain.FeedSnapshot;
 import com.xay.videos_recommender.model.domain.RankedVideo;
+import com.xay.videos_recommender.model.domain.RankingPlan;
 import com.xay.videos_recommender.model.domain.UserSignals;
+import com.xay.videos_recommender.model.dto.response.BatchFeedResult;
+import com.xay.videos_recommender.model.dto.response.FeedDelta;
 import com.xay.videos_recommender.model.dto.response.FeedItem;
+import com.xay.videos_recommender.model.dto.response.FeedMove;
 import com.xay.videos_recommender.model.dto.response.FeedResponse;
+import com.xay.videos_recommender.model.dto.response.FeedSyncResponse;
 import com.xay.videos_recommender.model.entity.Tenant;
 import com.xay.videos_recommender.model.entity.Video;
 import com.xay.videos_recommender.repository.VideoRepository;
 import com.xay.videos_recommender.util.CursorUtil;
 import com.xay.videos_recommender.util.ETagUtil;
+import com.xay.videos_recommender.util.FeedHashUtil;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Nested;
@@ -20,9 +28,11 @@ import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.util.ReflectionTestUtils;
 
 import java.math.BigDecimal;
 import java.time.Instant;
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
@@ -112,8 +122,8 @@ class FeedServiceTest {
                 .avgWatchPercentage(BigDecimal.valueOf(0.75))
                 .likeCount(10)
                 .shareCount(2)
-                .categoryAffinities(Map.of("sports", 0.8, "news", 0.5))
-                .lastWatchedIds(List.of("vid001", "vid002"))
+                .categoryAffinities(new float[]{0.8f, 0.5f})
+                .watchedKeys(UserProfileMapper.toWatchedKeys(List.of("vid001", "vid002")))
                 .build();
 
         // Cold-start user (no history)
@@ -125,8 +135,6 @@ class FeedServiceTest {
                 .avgWatchPercentage(BigDecimal.ZERO)
                 .likeCount(0)
                 .shareCount(0)
-                .categoryAffinities(Map.of())
-                .lastWatchedIds(List.of())
                 .build();
 
         // Sample tenant
@@ -180,16 +188,13 @@ class FeedServiceTest {
         @DisplayName("First page with matching ETag returns null (304 Not Modified)")
         void firstPageWithMatchingETag_returnsNull() {
             // Given
-            int candidatesVersion = 2;
             int feedVersion = 3;
             int firstPageCursor = 0;
-            String matchingETag = ETagUtil.generate(candidatesVersion, feedVersion, firstPageCursor);
+            String matchingETag = pageETag(firstPageCursor);
 
             setupPersonalizationEnabled();
             when(feedCacheManager.getFeed(TENANT_ID, USER_ID))
                     .thenReturn(Optional.of(createCachedFeed(feedVersion)));
-            when(contentService.getContentCandidatesVersion(TENANT_ID))
-                    .thenReturn(candidatesVersion);
 
             // When
             Optional<FeedResponse> response = feedService.generateFeed(TENANT_ID, USER_ID, DEFAULT_LIMIT, null, matchingETag);
@@ -202,15 +207,12 @@ class FeedServiceTest {
         @DisplayName("First page with non-matching ETag returns feed with data")
         void firstPageWithNonMatchingETag_returnsFeed() {
             // Given
-            int candidatesVersion = 2;
             int feedVersion = 3;
             String oldETag = "1x2"; // Different from current
 
             setupPersonalizationEnabled();
             when(feedCacheManager.getFeed(TENANT_ID, USER_ID))
                     .thenReturn(Optional.of(createCachedFeed(feedVersion)));
-            when(contentService.getContentCandidatesVersion(TENANT_ID))
-                    .thenReturn(candidatesVersion);
 
             // When
             Optional<FeedResponse> response = feedService.generateFeed(TENANT_ID, USER_ID, DEFAULT_LIMIT, null, oldETag);
@@ -224,18 +226,15 @@ class FeedServiceTest {
         @DisplayName("Paginated request with page 1 ETag returns data (different cursor = different ETag)")
         void paginatedRequestWithPage1ETag_returnsData() {
             // Given
-            int candidatesVersion = 2;
             int feedVersion = 3;
             int page1Cursor = 0;
             int page2Cursor = 5;
-            String page1ETag = ETagUtil.generate(candidatesVersion, feedVersion, page1Cursor);
+            String page1ETag = pageETag(page1Cursor);
             String cursor = CursorUtil.encode(page2Cursor); // Page 2
 
             setupPersonalizationEnabled();
             when(feedCacheManager.getFeed(TENANT_ID, USER_ID))
                     .thenReturn(Optional.of(createCachedFeed(feedVersion)));
-            when(contentService.getContentCandidatesVersion(TENANT_ID))
-                    .thenReturn(candidatesVersion);
 
             // When - request page 2 with page 1's ETag
             Optional<FeedResponse> response = feedService.generateFeed(TENANT_ID, USER_ID, DEFAULT_LIMIT, cursor, page1ETag);
@@ -249,17 +248,14 @@ class FeedServiceTest {
         @DisplayName("Same page request with matching ETag returns 304")
         void samePageWithMatchingETag_returns304() {
             // Given
-            int candidatesVersion = 2;
             int feedVersion = 3;
             int cursor = 5;
-            String matchingETag = ETagUtil.generate(candidatesVersion, feedVersion, cursor);
+            String matchingETag = pageETag(cursor);
             String cursorString = CursorUtil.encode(cursor);
 
             setupPersonalizationEnabled();
             when(feedCacheManager.getFeed(TENANT_ID, USER_ID))
                     .thenReturn(Optional.of(createCachedFeed(feedVersion)));
-            when(contentService.getContentCandidatesVersion(TENANT_ID))
-                    .thenReturn(candidatesVersion);
 
             // When - request same page with matching ETag
             Optional<FeedResponse> response = feedService.generateFeed(TENANT_ID, USER_ID, DEFAULT_LIMIT, cursorString, matchingETag);
@@ -267,6 +263,60 @@ class FeedServiceTest {
             // Then - should return empty (304) because ETag matches for same cursor
             assertThat(response).isEmpty();
         }
+
+        @Test
+        @DisplayName("Rebuild that produces the same ordering keeps the ETag valid (304)")
+        void rebuildWithSameOrdering_returns304() {
+            // Given - feed was evicted, rebuild ranks the same videos in the same order
+            String etagBeforeRebuild = pageETag(0);
+
+            setupPersonalizationEnabled();
+            setupNoCachedFeed();
+            setupActiveUser();
+            setupContentAndRanking();
+
+            // When
+            Optional<FeedResponse> response = feedService.generateFeed(TENANT_ID, USER_ID, DEFAULT_LIMIT, null, etagBeforeRebuild);
+
+            // Then
+            assertThat(response).isEmpty();
+            verify(feedCacheManager).putFeed(eq(TENANT_ID), eq(USER_ID), any(CachedFeed.class));
+        }
+
+        @Test
+        @DisplayName("Feed version is derived from the ranked ids")
+        void feedVersion_isContentAddressed() {
+            // Given
+            setupPersonalizationEnabled();
+            setupNoCachedFeed();
+            setupActiveUser();
+            setupContentAndRanking();
+
+            // When
+            feedService.generateFeed(TENANT_ID, USER_ID, DEFAULT_LIMIT, null, null);
+
+            // Then
+            verify(feedCacheManager).putFeed(eq(TENANT_ID), eq(USER_ID), argThat(feed ->
+                    feed.version() == FeedHashUtil.feedVersion(sampleVideoIds())));
+        }
+
+        @Test
+        @DisplayName("Fallback feed with matching ETag returns 304 without loading videos")
+        void fallbackWithMatchingETag_skipsVideoLoad() {
+            // Given
+            when(tenantService.isPersonalizationEnabled(TENANT_ID)).thenReturn(false);
+            when(contentService.getContentCandidates(TENANT_ID))
+                    .thenReturn(sampleCandidates);
+            when(rankingService.rankWithoutPersonalization(anyList(), anyInt()))
+                    .thenReturn(sampleRankedVideos);
+
+            // When
+            Optional<FeedResponse> response = feedService.generateFeed(TENANT_ID, USER_ID, DEFAULT_LIMIT, null, pageETag(0));
+
+            // Then
+            assertThat(response).isEmpty();
+            verifyNoInteractions(videoRepository);
+        }
     }
 
     @Nested
@@ -283,8 +333,6 @@ class FeedServiceTest {
                     .thenReturn(coldStartUserSignals);
             when(contentService.getContentCandidates(TENANT_ID))
                     .thenReturn(sampleCandidates);
-            when(contentService.getContentCandidatesVersion(TENANT_ID))
-                    .thenReturn(1);
             when(rankingService.rankWithoutPersonalization(anyList(), anyInt()))
                     .thenReturn(sampleRankedVideos);
             when(videoRepository.findAllById(anyList()))
@@ -305,8 +353,6 @@ class FeedServiceTest {
             when(tenantService.isPersonalizationEnabled(TENANT_ID)).thenReturn(false);
             when(contentService.getContentCandidates(TENANT_ID))
                     .thenReturn(sampleCandidates);
-            when(contentService.getContentCandidatesVersion(TENANT_ID))
-                    .thenReturn(1);
             when(rankingService.rankWithoutPersonalization(anyList(), anyInt()))
                     .thenReturn(sampleRankedVideos);
             when(videoRepository.findAllById(anyList()))
@@ -328,8 +374,6 @@ class FeedServiceTest {
             when(tenantService.isUserInRollout(TENANT_ID, USER_ID)).thenReturn(false);
             when(contentService.getContentCandidates(TENANT_ID))
                     .thenReturn(sampleCandidates);
-            when(contentService.getContentCandidatesVersion(TENANT_ID))
-                    .thenReturn(1);
             when(rankingService.rankWithoutPersonalization(anyList(), anyInt()))
                     .thenReturn(sampleRankedVideos);
             when(videoRepository.findAllById(anyList()))
@@ -352,8 +396,6 @@ class FeedServiceTest {
             setupActiveUser();
             when(contentService.getContentCandidates(TENANT_ID))
                     .thenReturn(List.of()); // No content
-            when(contentService.getContentCandidatesVersion(TENANT_ID))
-                    .thenReturn(1);
 
             // When
             Optional<FeedResponse> response = feedService.generateFeed(TENANT_ID, USER_ID, DEFAULT_LIMIT, null, null);
@@ -402,8 +444,6 @@ class FeedServiceTest {
             setupPersonalizationEnabled();
             when(feedCacheManager.getFeed(TENANT_ID, USER_ID))
                     .thenReturn(Optional.of(createCachedFeed(feedVersion)));
-            when(contentService.getContentCandidatesVersion(TENANT_ID))
-                    .thenReturn(1);
 
             // When
             Optional<FeedResponse> response = feedService.generateFeed(TENANT_ID, USER_ID, DEFAULT_LIMIT, cursor, null);
@@ -443,8 +483,25 @@ class FeedServiceTest {
             setupPersonalizationEnabled();
             when(feedCacheManager.getFeed(TENANT_ID, USER_ID))
                     .thenReturn(Optional.of(createCachedFeed(feedVersion)));
-            when(contentService.getContentCandidatesVersion(TENANT_ID))
-                    .thenReturn(1);
+
+            // When
+            Optional<FeedResponse> response = feedService.generateFeed(TENANT_ID, USER_ID, DEFAULT_LIMIT, cursor, null);
+
+            // Then
+            assertThat(response).isPresent();
+            assertThat(response.get().items()).isEmpty();
+            assertThat(response.get().pagination().hasMore()).isFalse();
+        }
+
+        @Test
+        @DisplayName("Cursor at the largest offset returns empty page instead of overflowing")
+        void cursorAtMaxOffset_returnsEmptyPage() {
+            // Given
+            String cursor = CursorUtil.encode(1, Integer.MAX_VALUE);
+
+            setupPersonalizationEnabled();
+            when(feedCacheManager.getFeed(TENANT_ID, USER_ID))
+                    .thenReturn(Optional.of(createCachedFeed(1)));
 
             // When
             Optional<FeedResponse> response = feedService.generateFeed(TENANT_ID, USER_ID, DEFAULT_LIMIT, cursor, null);
@@ -456,6 +513,244 @@ class FeedServiceTest {
         }
     }
 
+    @Nested
+    @DisplayName("Snapshot-bound cursor scenarios")
+    class SnapshotCursorScenarios {
+
+        @Test
+        @DisplayName("Cursor bound to an older version keeps paging through that snapshot")
+        void cursorForOlderVersion_servesRetainedSnapshot() {
+            // Given - client paged version 1, feed has since been rebuilt as version 2
+            long[] oldOrder = {10L, 9L, 8L, 7L, 6L, 5L, 4L, 3L, 2L, 1L};
+            String cursor = CursorUtil.encode(1, 5);
+
+            setupPersonalizationEnabled();
+            when(feedCacheManager.getFeed(TENANT_ID, USER_ID))
+                    .thenReturn(Optional.of(createCachedFeed(2)));
+            when(feedCacheManager.getSnapshot(TENANT_ID, USER_ID, 1))
+                    .thenReturn(Optional.of(new FeedSnapshot(1, oldOrder)));
+
+            // When
+            Optional<FeedResponse> response = feedService.generateFeed(TENANT_ID, USER_ID, DEFAULT_LIMIT, cursor, null);
+
+            // Then - second page of the old ordering, no duplicates from the new one
+            assertThat(response).isPresent();
+            assertThat(response.get().items())
+                    .extracting(FeedItem::id)
+                    .containsExactly("5", "4", "3", "2", "1");
+            assertThat(response.get().pagination().hasMore()).isFalse();
+            verifyNoInteractions(videoRepository);
+        }
+
+        @Test
+        @DisplayName("Snapshot cursor at the largest offset returns empty page instead of overflowing")
+        void snapshotCursorAtMaxOffset_returnsEmptyPage() {
+            // Given
+            String cursor = CursorUtil.encode(1, Integer.MAX_VALUE);
+
+            setupPersonalizationEnabled();
+            when(feedCacheManager.getFeed(TENANT_ID, USER_ID))
+                    .thenReturn(Optional.of(createCachedFeed(2)));
+            when(feedCacheManager.getSnapshot(TENANT_ID, USER_ID, 1))
+                    .thenReturn(Optional.of(new FeedSnapshot(1, new long[]{3L, 2L, 1L})));
+
+            // When
+            Optional<FeedResponse> response = feedService.generateFeed(TENANT_ID, USER_ID, DEFAULT_LIMIT, cursor, null);
+
+            // Then
+            assertThat(response).isPresent();
+            assertThat(response.get().items()).isEmpty();
+            assertThat(response.get().pagination().hasMore()).isFalse();
+            verifyNoInteractions(videoRepository);
+        }
+
+        @Test
+        @DisplayName("Cursor bound to an evicted version falls back to the current feed")
+        void cursorForEvictedVersion_servesCurrentFeed() {
+            // Given
+            String cursor = CursorUtil.encode(1, 5);
+
+            setupPersonalizationEnabled();
+            when(feedCacheManager.getFeed(TENANT_ID, USER_ID))
+                    .thenReturn(Optional.of(createCachedFeed(2)));
+            when(feedCacheManager.getSnapshot(TENANT_ID, USER_ID, 1))
+                    .thenReturn(Optional.empty());
+
+            // When
+            Optional<FeedResponse> response = feedService.generateFeed(TENANT_ID, USER_ID, DEFAULT_LIMIT, cursor, null);
+
+            // Then
+            assertThat(response).isPresent();
+            assertThat(response.get().items())
+                    .extracting(FeedItem::id)
+                    .containsExactly("6", "7", "8", "9", "10");
+        }
+
+        @Test
+        @DisplayName("Next cursor is bound to the served feed version")
+        void nextCursor_isBoundToFeedVersion() {
+            // Given
+            setupPersonalizationEnabled();
+            when(feedCacheManager.getFeed(TENANT_ID, USER_ID))
+                    .thenReturn(Optional.of(createCachedFeed(7)));
+
+            // When
+            Optional<FeedResponse> response = feedService.generateFeed(TENANT_ID, USER_ID, DEFAULT_LIMIT, null, null);
+
+            // Then
+            assertThat(response).isPresent();
+            long nextCursor = CursorUtil.decodeRaw(response.get().pagination().nextCursor());
+            assertThat(CursorUtil.feedVersion(nextCursor)).isEqualTo(7);
+            assertThat(CursorUtil.offset(nextCursor)).isEqualTo(5);
+        }
+    }
+
+    @Nested
+    @DisplayName("Feed sync scenarios")
+    class FeedSyncScenarios {
+
+        @Test
+        @DisplayName("Sync against the current version returns not modified")
+        void currentVersion_returnsEmpty() {
+            // Given
+            setupPersonalizationEnabled();
+            when(feedCacheManager.getFeed(TENANT_ID, USER_ID))
+                    .thenReturn(Optional.of(createCachedFeed(3)));
+
+            // When
+            Optional<FeedSyncResponse> response = feedService.syncFeed(TENANT_ID, USER_ID, 3, DEFAULT_LIMIT);
+
+            // Then
+            assertThat(response).isEmpty();
+        }
+
+        @Test
+        @DisplayName("Sync on a cache miss sends the full feed stamped with the version it just built")
+        void cacheMiss_fullSyncCarriesBuiltVersion() {
+            // Given - the whole feed fits one page, so there is no next cursor to carry the version
+            setupPersonalizationEnabled();
+            setupNoCachedFeed();
+            setupActiveUser();
+            setupContentAndRanking();
+
+            // When
+            Optional<FeedSyncResponse> response = feedService.syncFeed(TENANT_ID, USER_ID, null, sampleVideos.size());
+
+            // Then
+            assertThat(response).isPresent();
+            assertThat(response.get().mode()).isEqualTo("full");
+            assertThat(response.get().pagination().nextCursor()).isNull();
+            assertThat(response.get().feedVersion()).isEqualTo(FeedHashUtil.feedVersion(sampleVideoIds()));
+            verify(feedCacheManager).putFeed(eq(TENANT_ID), eq(USER_ID), any(CachedFeed.class));
+        }
+
+        @Test
+        @DisplayName("Sync against a retained version returns only the changed window")
+        void retainedVersion_returnsDelta() {
+            // Given - version 2 had 1 and 2 swapped and 11 where 5 now is
+            long[] oldOrder = {2L, 1L, 3L, 4L, 11L, 6L, 7L, 8L, 9L, 10L};
+
+            setupPersonalizationEnabled();
+            when(feedCacheManager.getFeed(TENANT_ID, USER_ID))
+                    .thenReturn(Optional.of(createCachedFeed(3)));
+            when(feedCacheManager.getSnapshot(TENANT_ID, USER_ID, 2))
+                    .thenReturn(Optional.of(new FeedSnapshot(2, oldOrder)));
+
+            // When
+            Optional<FeedSyncResponse> response = feedService.syncFeed(TENANT_ID, USER_ID, 2, DEFAULT_LIMIT);
+
+            // Then
+            assertThat(response).isPresent();
+            assertThat(response.get().mode()).isEqualTo("delta");
+            assertThat(response.get().items()).isNull();
+            FeedDelta delta = response.get().delta();
+            assertThat(delta.baseVersion()).isEqualTo(2);
+            assertThat(delta.removed()).containsExactly("11");
+            assertThat(delta.inserted()).singleElement()
+                    .satisfies(insertion -> {
+                        assertThat(insertion.position()).isEqualTo(4);
+                        assertThat(insertion.item().id()).isEqualTo("5");
+                    });
+            assertThat(delta.moved()).containsExactly(new FeedMove("1", 1, 0));
+            verifyNoInteractions(videoRepository);
+        }
+    }
+
+    @Nested
+    @DisplayName("Batch feed scenarios")
+    class BatchFeedScenarios {
+
+        @Test
+        @DisplayName("Batch serves cache hits directly and ranks misses with one profile and one video load")
+        void mixedHitsAndMisses_loadSharedDataOnce() {
+            // Given
+            String cachedUser = "user_cached";
+            List<String> missedUsers = List.of("user_miss_1", "user_miss_2");
+            RankingPlan plan = new RankingPlan(0.3, 0.4, 0.3, new long[sampleCandidates.size()],
+                    null, null, null, null, null, null);
+
+            when(tenantService.getTenant(TENANT_ID)).thenReturn(sampleTenant);
+            when(tenantService.isUserInRollout(eq(sampleTenant), anyString())).thenReturn(true);
+            when(feedCacheManager.getFeed(TENANT_ID, cachedUser)).thenReturn(Optional.of(createCachedFeed(4)));
+            when(feedCacheManager.getFeed(eq(TENANT_ID), argThat(missedUsers::contains))).thenReturn(Optional.empty());
+            when(userProfileService.getUserSignals(TENANT_ID, missedUsers))
+                    .thenReturn(Map.of("user_miss_1", activeUserSignals, "user_miss_2", activeUserSignals));
+            when(contentService.getContentCandidates(TENANT_ID)).thenReturn(sampleCandidates);
+            when(rankingService.plan(sampleCandidates, sampleTenant)).thenReturn(plan);
+            when(rankingService.rank(plan, activeUserSignals, sampleCandidates.size())).thenReturn(sampleRankedVideos);
+            when(videoRepository.findAllById(anyList())).thenReturn(sampleVideos);
+
+            // When
+            List<BatchFeedResult> results = new ArrayList<>();
+            feedService.generateFeeds(TENANT_ID, List.of(cachedUser, "user_miss_1", "user_miss_2"), DEFAULT_LIMIT, results::add);
+
+            // Then
+            assertThat(results)
+                    .extracting(BatchFeedResult::userId)
+                    .containsExactly(cachedUser, "user_miss_1", "user_miss_2");
+            assertThat(results).allSatisfy(result -> {
+                assertThat(result.items()).hasSize(DEFAULT_LIMIT);
+                assertThat(result.eTag()).isEqualTo(pageETag(0));
+            });
+            verify(videoRepository, times(1)).findAllById(anyList());
+            verify(rankingService, times(1)).plan(anyList(), any());
+            verify(feedCacheManager, times(2)).putFeed(eq(TENANT_ID), anyString(), any());
+        }
+    }
+
+    @Nested
+    @DisplayName("Stale generation scenarios")
+    class StaleGenerationScenarios {
+
+        @Test
+        @DisplayName("A feed from an older generation is served and rebuilt in the background")
+        void staleFeed_isServedAndRebuilt() {
+            // Given - stale-generation=serve let the cache return a feed built before two invalidations
+            ReflectionTestUtils.setField(feedService, "staleRebuildThreads", 1);
+            ReflectionTestUtils.setField(feedService, "staleRebuildQueueCapacity", 10);
+            feedService.init();
+            setupPersonalizationEnabled();
+            when(feedCacheManager.getFeed(TENANT_ID, USER_ID))
+                    .thenReturn(Optional.of(createCachedFeed(1)));
+            when(feedCacheManager.currentGeneration(TENANT_ID)).thenReturn(2L);
+            setupActiveUser();
+            setupContentAndRanking();
+
+            try {
+                // When
+                Optional<FeedResponse> response = feedService.generateFeed(TENANT_ID, USER_ID, DEFAULT_LIMIT, null, null);
+
+                // Then
+                assertThat(response).isPresent();
+                assertThat(response.get().items()).hasSize(DEFAULT_LIMIT);
+                verify(feedCacheManager, timeout(5000))
+                        .putFeed(eq(TENANT_ID), eq(USER_ID), argThat(feed -> feed.generation() == 2L));
+            } finally {
+                feedService.shutdown();
+            }
+        }
+    }
+
     // Helper methods
 
     private void setupPersonalizationEnabled() {
@@ -465,7 +760,6 @@ class FeedServiceTest {
 
     private void setupNoCachedFeed() {
         when(feedCacheManager.getFeed(TENANT_ID, USER_ID)).thenReturn(Optional.empty());
-        when(contentService.getContentCandidatesVersion(TENANT_ID)).thenReturn(1);
     }
 
     private void setupActiveUser() {
@@ -484,6 +778,14 @@ class FeedServiceTest {
                 .thenReturn(sampleVideos);
     }
 
+    private long[] sampleVideoIds() {
+        return sampleVideos.stream().mapToLong(Video::getId).toArray();
+    }
+
+    private String pageETag(int offset) {
+        return ETagUtil.generate(FeedHashUtil.pageHash(sampleVideoIds(), offset, DEFAULT_LIMIT), offset);
+    }
+
     private CachedFeed createCachedFeed(int version) {
         List<FeedItem> items = sampleVideos.stream()
                 .map(v -> new FeedItem(
@@ -501,6 +803,7 @@ class FeedServiceTest {
                 .generatedAt(Instant.now())
                 .feedType("personalized")
                 .items(items)
+                .videoIds(sampleVideoIds())
                 .build();
     }
 }
@@ -0,0 +1,86 @@
+package com.xay.videos_recommender.service;
+
+import com.xay.videos_recommender.mapper.CategoryDictionary;
+import com.xay.videos_recommender.model.domain.ContentCandidate;
+import com.xay.videos_recommender.model.domain.RankedVideo;
+import com.xay.videos_recommender.model.domain.UserSignals;
+import com.xay.videos_recommender.model.entity.Tenant;
+import com.xay.videos_recommender.util.UserKeyUtil;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.within;
+
+class RankingServiceTest {
+
+    private static final Long TENANT_ID = 1L;
+
+    private final CategoryDictionary categoryDictionary = new CategoryDictionary(1024);
+    private final RankingService rankingService = new RankingService(categoryDictionary);
+
+    private final Tenant tenant = Tenant.builder().id(TENANT_ID).name("Tenant").build();
+    private final List<ContentCandidate> candidates = List.of(
+            candidate(1L, "comedy"),
+            candidate(2L, "drama"),
+            candidate(3L, null),
+            candidate(4L, "comedy"));
+    private UserSignals userSignals;
+
+    @BeforeEach
+    void setUp() {
+        int comedy = categoryDictionary.idOf(TENANT_ID, "comedy");
+        int drama = categoryDictionary.idOf(TENANT_ID, "drama");
+        float[] affinities = new float[2];
+        affinities[comedy] = 0.9f;
+        affinities[drama] = 0.1f;
+
+        userSignals = UserSignals.builder()
+                .tenantId(TENANT_ID)
+                .hashedUserId("user_abc123")
+                .categoryAffinities(affinities)
+                .watchedKeys(new long[]{UserKeyUtil.fnv1a("4")})
+                .build();
+    }
+
+    @Test
+    @DisplayName("Ranking candidates and ranking their plan give the same videos, scores and reasons")
+    void candidatesAndPlan_rankTheSame() {
+        List<RankedVideo> fromCandidates = rankingService.rank(candidates, userSignals, tenant, candidates.size());
+        List<RankedVideo> fromPlan = rankingService.rank(
+                rankingService.plan(candidates, tenant), userSignals, candidates.size());
+
+        assertThat(fromCandidates).isEqualTo(fromPlan);
+        // Liked category first, the neutral one next, the disliked one after, and the watched video last
+        assertThat(fromCandidates).extracting(RankedVideo::videoId).containsExactly(1L, 3L, 2L, 4L);
+        assertThat(fromCandidates.getFirst().reason()).isEqualTo("category_affinity");
+        assertThat(fromCandidates.getFirst().score()).isCloseTo(0.62, within(1e-6));
+    }
+
+    @Test
+    @DisplayName("Both ranking paths stop at the limit")
+    void candidatesAndPlan_respectLimit() {
+        List<RankedVideo> fromCandidates = rankingService.rank(candidates, userSignals, tenant, 2);
+        List<RankedVideo> fromPlan = rankingService.rank(rankingService.plan(candidates, tenant), userSignals, 2);
+
+        assertThat(fromCandidates).isEqualTo(fromPlan);
+        assertThat(fromCandidates).extracting(RankedVideo::videoId).containsExactly(1L, 3L);
+    }
+
+    private static ContentCandidate candidate(Long videoId, String category) {
+        return ContentCandidate.builder()
+                .videoId(videoId)
+                .externalId("ext_" + videoId)
+                .category(category)
+                .tags(List.of())
+                .baseScore(BigDecimal.valueOf(50))
+                .editorialBoost(BigDecimal.ONE)
+                .freshnessScore(BigDecimal.valueOf(0.5))
+                .engagementScore(BigDecimal.valueOf(0.5))
+                .build();
+    }
+}
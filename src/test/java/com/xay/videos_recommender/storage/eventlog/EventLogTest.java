@@ -0,0 +1,141 @@
+package com.xay.videos_recommender.storage.eventlog;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class EventLogTest {
+
+    @TempDir
+    Path directory;
+
+    @Test
+    @DisplayName("Replays records after the checkpoint across segments and deletes consumed segments")
+    void checkpointAndReopen_replaysUnconsumed() throws IOException {
+        EventLog eventLog = open();
+        long[] positions = eventLog.append(IntStream.range(0, 100).mapToObj(i -> payload("event-" + i)).toList());
+        eventLog.awaitDurable(positions[99]);
+        long segmentsBefore = segmentCount();
+        assertThat(segmentsBefore).isGreaterThan(1);
+
+        eventLog.checkpoint(positions[59]);
+        assertThat(segmentCount()).isLessThan(segmentsBefore);
+        eventLog.close();
+
+        EventLog reopened = open();
+        List<String> replayed = readFromCheckpoint(reopened);
+        reopened.close();
+
+        assertThat(replayed).containsExactlyElementsOf(IntStream.range(60, 100).mapToObj(i -> "event-" + i).toList());
+    }
+
+    @Test
+    @DisplayName("Reuses a consumed segment for the next one, and replays correctly after reopening")
+    void consumedSegment_reusedAsSpare() throws IOException {
+        EventLog eventLog = open(1);
+        long[] positions = eventLog.append(IntStream.range(0, 100).mapToObj(i -> payload("event-" + i)).toList());
+        eventLog.awaitDurable(positions[99]);
+        long segmentsBefore = segmentCount();
+
+        eventLog.checkpoint(positions[59]);
+        assertThat(segmentCount()).isEqualTo(segmentsBefore);
+
+        // Fills the last segment and starts a new one in the spare's file
+        long[] more = eventLog.append(IntStream.range(100, 140).mapToObj(i -> payload("event-" + i)).toList());
+        eventLog.awaitDurable(more[39]);
+        assertThat(segmentCount()).isEqualTo(segmentsBefore);
+        eventLog.close();
+
+        EventLog reopened = open(1);
+        List<String> replayed = readFromCheckpoint(reopened);
+        reopened.close();
+
+        assertThat(replayed).containsExactlyElementsOf(IntStream.range(60, 140).mapToObj(i -> "event-" + i).toList());
+    }
+
+    @Test
+    @DisplayName("Cuts off a torn record at the tail and appends after the last intact one")
+    void tornTail_isTruncated() throws IOException {
+        EventLog eventLog = open();
+        long end = eventLog.append(List.of(payload("first")))[0];
+        eventLog.awaitDurable(end);
+        eventLog.close();
+
+        Path segment;
+        try (Stream<Path> files = Files.list(directory)) {
+            segment = files.filter(file -> file.toString().endsWith(".log")).findFirst().orElseThrow();
+        }
+        try (FileChannel channel = FileChannel.open(segment, StandardOpenOption.WRITE)) {
+            // A length and payload whose CRC doesn't match
+            channel.write(ByteBuffer.allocate(12).putInt(4).putInt(42).putInt(7).flip(), end);
+        }
+
+        EventLog reopened = open();
+        long next = reopened.append(List.of(payload("second")))[0];
+        reopened.awaitDurable(next);
+        List<String> replayed = readFromCheckpoint(reopened);
+        reopened.close();
+
+        assertThat(replayed).containsExactly("first", "second");
+    }
+
+    @Test
+    @DisplayName("Never checkpoints past what is on disk")
+    void checkpoint_isClampedToDurablePosition() throws IOException {
+        EventLog eventLog = open();
+        long end = eventLog.append(List.of(payload("only")))[0];
+
+        eventLog.checkpoint(end + 1_000);
+        long checkpoint = eventLog.checkpointPosition();
+        eventLog.awaitDurable(end);
+        eventLog.close();
+
+        assertThat(checkpoint).isLessThanOrEqualTo(end);
+    }
+
+    private EventLog open() throws IOException {
+        return open(0);
+    }
+
+    private EventLog open(int spareSegments) throws IOException {
+        EventLog eventLog = new EventLog(new SimpleMeterRegistry());
+        ReflectionTestUtils.setField(eventLog, "directory", directory.toString());
+        ReflectionTestUtils.setField(eventLog, "segmentBytes", 512);
+        ReflectionTestUtils.setField(eventLog, "spareSegments", spareSegments);
+        eventLog.open();
+        return eventLog;
+    }
+
+    private static List<String> readFromCheckpoint(EventLog eventLog) {
+        List<String> records = new ArrayList<>();
+        eventLog.read(eventLog.checkpointPosition(),
+                (payload, endPosition) -> records.add(new String(payload, StandardCharsets.UTF_8)));
+        return records;
+    }
+
+    private long segmentCount() throws IOException {
+        try (Stream<Path> files = Files.list(directory)) {
+            return files.filter(file -> file.toString().endsWith(".log")).count();
+        }
+    }
+
+    private static byte[] payload(String value) {
+        return value.getBytes(StandardCharsets.UTF_8);
+    }
+}
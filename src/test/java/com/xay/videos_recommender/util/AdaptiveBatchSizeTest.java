@@ -0,0 +1,31 @@
+package com.xay.videos_recommender.util;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class AdaptiveBatchSizeTest {
+
+    @Test
+    @DisplayName("Grows on fast full batches with a backlog, halves on slow ones, and stays within bounds")
+    void followsLatencyAndBacklog() {
+        AdaptiveBatchSize batchSize = new AdaptiveBatchSize(10, 40, 1_000);
+
+        batchSize.record(10, 500, 100);
+        assertThat(batchSize.current()).isEqualTo(15);
+        batchSize.record(3, 500, 0);
+        assertThat(batchSize.current()).isEqualTo(15);
+
+        for (int i = 0; i < 10; i++) {
+            batchSize.record(batchSize.current(), 500, 100);
+        }
+        assertThat(batchSize.current()).isEqualTo(40);
+
+        batchSize.record(40, 2_000, 100);
+        assertThat(batchSize.current()).isEqualTo(20);
+        batchSize.record(20, 2_000, 100);
+        batchSize.record(10, 2_000, 100);
+        assertThat(batchSize.current()).isEqualTo(10);
+    }
+}
@@ -0,0 +1,27 @@
+package com.xay.videos_recommender.util;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class BloomFilterTest {
+
+    @Test
+    @DisplayName("Contains every inserted key and stays near the configured false-positive rate")
+    void noFalseNegatives_boundedFalsePositives() {
+        BloomFilter filter = new BloomFilter(10_000, 0.01);
+        for (int i = 0; i < 10_000; i++) {
+            filter.put(UserKeyUtil.userBits("user-" + i));
+        }
+
+        int falsePositives = 0;
+        for (int i = 0; i < 10_000; i++) {
+            assertThat(filter.mightContain(UserKeyUtil.userBits("user-" + i))).isTrue();
+            if (filter.mightContain(UserKeyUtil.userBits("stranger-" + i))) {
+                falsePositives++;
+            }
+        }
+        assertThat(falsePositives).isLessThan(200);
+    }
+}
@@ -0,0 +1,56 @@
+package com.xay.videos_recommender.util;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class CursorUtilTest {
+
+    @Test
+    @DisplayName("Encoded cursor round-trips feed version and offset")
+    void encodeDecode_roundTrips() {
+        int[] versions = {0, 1, 42, -17, Integer.MIN_VALUE, Integer.MAX_VALUE};
+        int[] offsets = {0, 5, 300, Integer.MAX_VALUE};
+
+        for (int version : versions) {
+            for (int offset : offsets) {
+                long decoded = CursorUtil.decodeRaw(CursorUtil.encode(version, offset));
+                assertThat(CursorUtil.feedVersion(decoded)).isEqualTo(version);
+                assertThat(CursorUtil.offset(decoded)).isEqualTo(offset);
+            }
+        }
+    }
+
+    @Test
+    @DisplayName("Cursor is valid unpadded base64url")
+    void encode_producesUrlSafeBase64() {
+        String cursor = CursorUtil.encode(-123456, 20);
+
+        byte[] bytes = Base64.getUrlDecoder().decode(cursor);
+        assertThat(Base64.getUrlEncoder().withoutPadding().encodeToString(bytes)).isEqualTo(cursor);
+    }
+
+    @Test
+    @DisplayName("Legacy offset-only cursors decode as unbound")
+    void legacyCursor_decodesAsUnbound() {
+        String legacy = Base64.getUrlEncoder().withoutPadding()
+                .encodeToString("25".getBytes(StandardCharsets.UTF_8));
+
+        long decoded = CursorUtil.decodeRaw(legacy);
+        assertThat(CursorUtil.feedVersion(decoded)).isEqualTo(CursorUtil.UNBOUND_VERSION);
+        assertThat(CursorUtil.offset(decoded)).isEqualTo(25);
+    }
+
+    @Test
+    @DisplayName("Missing or malformed cursors decode to the first page")
+    void invalidCursor_decodesToFirstPage() {
+        assertThat(CursorUtil.decodeRaw(null)).isZero();
+        assertThat(CursorUtil.decodeRaw("")).isZero();
+        assertThat(CursorUtil.decodeRaw("not a cursor!")).isZero();
+        assertThat(CursorUtil.decodeRaw("AQ")).isZero(); // truncated
+    }
+}
@@ -0,0 +1,39 @@
+package com.xay.videos_recommender.util;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class DeficitRoundRobinTest {
+
+    @Test
+    @DisplayName("A backlogged key takes its weighted quantum per round and can't hold back a quiet one")
+    void weightedRounds_serveEveryKey() {
+        Map<String, Integer> weights = Map.of("busy", 2);
+        DeficitRoundRobin<String, String> schedule = new DeficitRoundRobin<>(3, key -> weights.getOrDefault(key, 1));
+        for (int i = 0; i < 100; i++) {
+            schedule.add("busy", "busy-" + i);
+        }
+        schedule.add("quiet", "quiet-0");
+        schedule.add("quiet", "quiet-1");
+
+        List<String> round = new ArrayList<>();
+        assertThat(schedule.nextRound(round)).isEqualTo(8);
+        assertThat(round).containsExactly("busy-0", "busy-1", "busy-2", "busy-3", "busy-4", "busy-5",
+                "quiet-0", "quiet-1");
+
+        round.clear();
+        schedule.nextRound(round);
+        assertThat(round).hasSize(6).allMatch(event -> event.startsWith("busy"));
+        assertThat(schedule.size()).isEqualTo(88);
+
+        List<String> heads = new ArrayList<>();
+        schedule.forEachHead(heads::add);
+        assertThat(heads).containsExactly("busy-12");
+    }
+}
@@ -0,0 +1,68 @@
+package com.xay.videos_recommender.util;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class MpscRingBufferTest {
+
+    @Test
+    @DisplayName("Rejects a batch that doesn't fit as a whole and accepts it again once drained")
+    void fullBuffer_rejectsWholeBatch() {
+        MpscRingBuffer<Integer> buffer = new MpscRingBuffer<>(3);
+        assertThat(buffer.capacity()).isEqualTo(4);
+
+        assertThat(buffer.offerAll(List.of(1, 2, 3))).isTrue();
+        assertThat(buffer.offerAll(List.of(4, 5))).isFalse();
+        assertThat(buffer.size()).isEqualTo(3);
+
+        List<Integer> drained = new ArrayList<>();
+        assertThat(buffer.drainTo(drained, 2)).isEqualTo(2);
+        assertThat(buffer.offerAll(List.of(4, 5))).isTrue();
+        assertThat(buffer.drainTo(drained, 10)).isEqualTo(3);
+
+        assertThat(drained).containsExactly(1, 2, 3, 4, 5);
+        assertThat(buffer.size()).isZero();
+    }
+
+    @Test
+    @DisplayName("Keeps each producer's events in order across concurrent producers")
+    void concurrentProducers_preserveOrder() throws InterruptedException {
+        MpscRingBuffer<Long> buffer = new MpscRingBuffer<>(64);
+        int producers = 4;
+        long perProducer = 20_000;
+        List<Thread> threads = new ArrayList<>();
+        for (int p = 0; p < producers; p++) {
+            long base = p * perProducer;
+            threads.add(Thread.ofPlatform().start(() -> {
+                for (long i = 0; i < perProducer; ) {
+                    if (buffer.offerAll(List.of(base + i, base + i + 1))) {
+                        i += 2;
+                    } else {
+                        Thread.onSpinWait();
+                    }
+                }
+            }));
+        }
+
+        long[] next = new long[producers];
+        long received = 0;
+        List<Long> batch = new ArrayList<>();
+        while (received < producers * perProducer) {
+            batch.clear();
+            received += buffer.drainTo(batch, 16);
+            for (long value : batch) {
+                int producer = (int) (value / perProducer);
+                assertThat(value % perProducer).isEqualTo(next[producer]++);
+            }
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
+        assertThat(buffer.size()).isZero();
+    }
+}
@@ -0,0 +1,30 @@
+package com.xay.videos_recommender.util;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class RotatingBloomFilterTest {
+
+    @Test
+    @DisplayName("Remembers a key for the window and forgets it once its generation is reused")
+    void keysExpireWithTheirGeneration() {
+        AtomicLong now = new AtomicLong(1_000_000);
+        RotatingBloomFilter filter = new RotatingBloomFilter(3, 1_000, 1_000, 0.001, now::get);
+
+        filter.put(42L);
+        now.addAndGet(1_999);
+        assertThat(filter.mightContain(42L)).isTrue();
+
+        filter.put(43L);
+        now.addAndGet(1_001);
+        assertThat(filter.mightContain(42L)).isFalse();
+        assertThat(filter.mightContain(43L)).isTrue();
+
+        now.addAndGet(10_000);
+        assertThat(filter.mightContain(43L)).isFalse();
+    }
+}
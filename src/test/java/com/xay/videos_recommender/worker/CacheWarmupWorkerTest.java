@@ -0,0 +1,142 @@
+package com.xay.videos_recommender.worker;
+
+import com.xay.videos_recommender.cache.AppCache;
+import com.xay.videos_recommender.repository.UserProfileRepository;
+import com.xay.videos_recommender.service.ContentService;
+import com.xay.videos_recommender.service.FeedService;
+import com.xay.videos_recommender.service.RankingService;
+import com.xay.videos_recommender.service.TenantService;
+import com.xay.videos_recommender.service.UserProfileService;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.boot.actuate.health.Status;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.awaitility.Awaitility.await;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class CacheWarmupWorkerTest {
+
+    private static final Long TENANT_ID = 1L;
+
+    @Mock
+    private TenantService tenantService;
+
+    @Mock
+    private ContentService contentService;
+
+    @Mock
+    private UserProfileService userProfileService;
+
+    @Mock
+    private FeedService feedService;
+
+    @Mock
+    private RankingService rankingService;
+
+    @Mock
+    private UserProfileRepository userProfileRepository;
+
+    @Mock
+    private AppCache appCache;
+
+    private CacheWarmupWorker worker;
+    private CacheWarmupHealthIndicator healthIndicator;
+
+    @BeforeEach
+    void setUp() {
+        worker = new CacheWarmupWorker(tenantService, contentService, userProfileService, feedService,
+                rankingService, userProfileRepository, appCache, new SimpleMeterRegistry());
+        ReflectionTestUtils.setField(worker, "enabled", true);
+        ReflectionTestUtils.setField(worker, "topTenants", 20);
+        ReflectionTestUtils.setField(worker, "profilesPerTenant", 100);
+        ReflectionTestUtils.setField(worker, "feedsPerTenant", 50);
+        ReflectionTestUtils.setField(worker, "feedPageSize", 20);
+        ReflectionTestUtils.setField(worker, "dbConcurrency", 4);
+        ReflectionTestUtils.setField(worker, "jitReplayRounds", 1);
+        ReflectionTestUtils.setField(worker, "timeoutSeconds", 10);
+
+        healthIndicator = new CacheWarmupHealthIndicator(worker);
+        ReflectionTestUtils.setField(healthIndicator, "readyThreshold", 0.9);
+    }
+
+    @Test
+    @DisplayName("Disabled warm-up is finished at once and ready")
+    void disabled_readyAtOnce() {
+        ReflectionTestUtils.setField(worker, "enabled", false);
+
+        worker.onApplicationReady();
+
+        assertThat(worker.isFinished()).isTrue();
+        assertThat(healthIndicator.health().getStatus()).isEqualTo(Status.UP);
+        verifyNoInteractions(tenantService, userProfileRepository);
+    }
+
+    @Test
+    @DisplayName("Out of service while warm-up runs, up once it is done")
+    void outOfServiceUntilWarm() throws InterruptedException {
+        CountDownLatch release = new CountDownLatch(1);
+        CountDownLatch started = new CountDownLatch(1);
+        when(tenantService.getAllActiveTenants()).thenAnswer(invocation -> {
+            started.countDown();
+            release.await();
+            return List.of();
+        });
+        when(userProfileRepository.findMostActiveTenantIds(any())).thenReturn(List.of());
+
+        worker.onApplicationReady();
+        started.await();
+
+        assertThat(healthIndicator.health().getStatus()).isEqualTo(Status.OUT_OF_SERVICE);
+        assertThat(worker.progress()).isZero();
+
+        release.countDown();
+        await().atMost(Duration.ofSeconds(5)).until(worker::isFinished);
+
+        assertThat(worker.plannedSteps()).isEqualTo(1);
+        assertThat(worker.completedSteps()).isEqualTo(1);
+        assertThat(healthIndicator.health().getStatus()).isEqualTo(Status.UP);
+    }
+
+    @Test
+    @DisplayName("A tenant whose warm-up fails still lets the node become ready")
+    void failedTenant_stillReady() {
+        when(tenantService.getAllActiveTenants()).thenReturn(List.of());
+        when(userProfileRepository.findMostActiveTenantIds(any())).thenReturn(List.of(TENANT_ID));
+        when(contentService.getContentCandidates(TENANT_ID)).thenThrow(new IllegalStateException("database down"));
+
+        worker.onApplicationReady();
+        await().atMost(Duration.ofSeconds(5)).until(worker::isFinished);
+
+        assertThat(worker.plannedSteps()).isEqualTo(5);
+        assertThat(worker.completedSteps()).isEqualTo(1);
+        assertThat(healthIndicator.health().getStatus()).isEqualTo(Status.UP);
+        verifyNoInteractions(feedService);
+    }
+
+    @Test
+    @DisplayName("Ready before warm-up finishes once the threshold share of steps is done")
+    void readyAtThreshold() {
+        CacheWarmupWorker running = mock(CacheWarmupWorker.class);
+        CacheWarmupHealthIndicator indicator = new CacheWarmupHealthIndicator(running);
+        ReflectionTestUtils.setField(indicator, "readyThreshold", 0.9);
+
+        when(running.progress()).thenReturn(0.5);
+        assertThat(indicator.health().getStatus()).isEqualTo(Status.OUT_OF_SERVICE);
+
+        when(running.progress()).thenReturn(0.9);
+        assertThat(indicator.health().getStatus()).isEqualTo(Status.UP);
+    }
+}
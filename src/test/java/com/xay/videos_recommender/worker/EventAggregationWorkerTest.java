@@ -0,0 +1,95 @@
+package com.xay.videos_recommender.worker;
+
+import com.xay.videos_recommender.model.domain.QueuedEvent;
+import com.xay.videos_recommender.model.dto.request.EventItem;
+import com.xay.videos_recommender.model.dto.request.EventType;
+import com.xay.videos_recommender.service.EventQueueService;
+import com.xay.videos_recommender.storage.ArchiveStorage;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.awaitility.Awaitility.await;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+class EventAggregationWorkerTest {
+
+    private static final QueuedEvent QUEUED = new QueuedEvent(
+            new EventItem(EventType.VIDEO_WATCH, "v1", Instant.now(), null, 1L, "user_abc123"), 100L, 200L);
+
+    private final EventQueueService eventQueueService = mock(EventQueueService.class);
+    private final ArchiveStorage archiveStorage = mock(ArchiveStorage.class);
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private EventAggregationWorker worker;
+
+    @BeforeEach
+    @SuppressWarnings("unchecked")
+    void setUp() {
+        when(eventQueueService.partitionCount()).thenReturn(1);
+        when(eventQueueService.partitionCapacity()).thenReturn(10);
+        when(eventQueueService.offeredPosition()).thenReturn(200L);
+        AtomicBoolean drained = new AtomicBoolean();
+        when(eventQueueService.drain(eq(0), any(), anyInt())).thenAnswer(invocation -> {
+            if (drained.compareAndSet(false, true)) {
+                invocation.getArgument(1, Collection.class).add(QUEUED);
+                return 1;
+            }
+            return 0;
+        });
+        doAnswer(invocation -> {
+            Thread.sleep(10);
+            return null;
+        }).when(eventQueueService).awaitEvents(eq(0), anyLong());
+
+        worker = new EventAggregationWorker(eventQueueService, archiveStorage, meterRegistry);
+        ReflectionTestUtils.setField(worker, "minBatchSize", 1);
+        ReflectionTestUtils.setField(worker, "maxBatchSize", 10);
+        ReflectionTestUtils.setField(worker, "targetBatchLatencyMs", 100L);
+        ReflectionTestUtils.setField(worker, "idleParkMs", 10L);
+        ReflectionTestUtils.setField(worker, "retryBackoffMs", 300L);
+        ReflectionTestUtils.setField(worker, "retryMaxBackoffMs", 1000L);
+        ReflectionTestUtils.setField(worker, "quantum", 64);
+        ReflectionTestUtils.setField(worker, "tenantWeightsSpec", "");
+    }
+
+    @AfterEach
+    void tearDown() throws InterruptedException {
+        worker.stop();
+    }
+
+    @Test
+    @DisplayName("A failed batch is retried and the checkpoint stays below it until it succeeds")
+    void failedBatch_retriedAndNotCheckpointed() {
+        AtomicBoolean failing = new AtomicBoolean(true);
+        doAnswer(invocation -> {
+            if (failing.get()) {
+                throw new IllegalStateException("archive unavailable");
+            }
+            return null;
+        }).when(archiveStorage).archive(anyList());
+
+        worker.start();
+        await().atMost(Duration.ofSeconds(5)).until(() ->
+                meterRegistry.counter("events.aggregation.batch.failed").count() >= 1);
+        worker.checkpoint();
+        verify(eventQueueService, never()).checkpoint(longThat(position -> position > 100L));
+
+        failing.set(false);
+        await().atMost(Duration.ofSeconds(5)).untilAsserted(() -> {
+            worker.checkpoint();
+            verify(eventQueueService, atLeastOnce()).checkpoint(200L);
+        });
+        verify(archiveStorage, atLeast(2)).archive(List.of(QUEUED.event()));
+    }
+}